@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.configuration.Config;
+import com.proofpoint.configuration.ConfigDescription;
+import com.proofpoint.units.Duration;
+import com.proofpoint.units.MinDuration;
+
+import javax.validation.constraints.AssertFalse;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class AdmissionControlConfig
+{
+    private boolean enabled = false;
+    private int initialLimit = 20;
+    private int minLimit = 1;
+    private int maxLimit = 200;
+    private Duration latencyThreshold = new Duration(1, SECONDS);
+    private double backoffRatio = 0.9;
+    private Duration retryAfter = new Duration(1, SECONDS);
+    private Map<String, String> routes = ImmutableMap.of();
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Config("http-server.admission-control.enabled")
+    @ConfigDescription("Reject requests beyond adaptive per-route concurrency limits")
+    public AdmissionControlConfig setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getInitialLimit()
+    {
+        return initialLimit;
+    }
+
+    @Config("http-server.admission-control.initial-limit")
+    public AdmissionControlConfig setInitialLimit(int initialLimit)
+    {
+        this.initialLimit = initialLimit;
+        return this;
+    }
+
+    @Min(1)
+    public int getMinLimit()
+    {
+        return minLimit;
+    }
+
+    @Config("http-server.admission-control.min-limit")
+    public AdmissionControlConfig setMinLimit(int minLimit)
+    {
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxLimit()
+    {
+        return maxLimit;
+    }
+
+    @Config("http-server.admission-control.max-limit")
+    public AdmissionControlConfig setMaxLimit(int maxLimit)
+    {
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1ms")
+    public Duration getLatencyThreshold()
+    {
+        return latencyThreshold;
+    }
+
+    @Config("http-server.admission-control.latency-threshold")
+    @ConfigDescription("Requests taking longer than this reduce the concurrency limit of their route")
+    public AdmissionControlConfig setLatencyThreshold(Duration latencyThreshold)
+    {
+        this.latencyThreshold = latencyThreshold;
+        return this;
+    }
+
+    @DecimalMin("0.1")
+    @DecimalMax("0.99")
+    public double getBackoffRatio()
+    {
+        return backoffRatio;
+    }
+
+    @Config("http-server.admission-control.backoff-ratio")
+    @ConfigDescription("Factor applied to the concurrency limit of a route when a request is slow")
+    public AdmissionControlConfig setBackoffRatio(double backoffRatio)
+    {
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getRetryAfter()
+    {
+        return retryAfter;
+    }
+
+    @Config("http-server.admission-control.retry-after")
+    @ConfigDescription("Retry-After sent with rejected requests")
+    public AdmissionControlConfig setRetryAfter(Duration retryAfter)
+    {
+        this.retryAfter = retryAfter;
+        return this;
+    }
+
+    public Map<String, String> getRoutes()
+    {
+        return routes;
+    }
+
+    @Config("http-server.admission-control.route")
+    @ConfigDescription("Path prefix of each route with its own concurrency limit, by route name")
+    public AdmissionControlConfig setRoutes(Map<String, String> routes)
+    {
+        this.routes = ImmutableMap.copyOf(routes);
+        return this;
+    }
+
+    @AssertTrue(message = "must be between minLimit and maxLimit")
+    public boolean isInitialLimitWithinBounds()
+    {
+        return minLimit <= initialLimit && initialLimit <= maxLimit;
+    }
+
+    @AssertFalse(message = "the default route is implicit")
+    public boolean isDefaultRouteConfigured()
+    {
+        return routes.containsKey(AdmissionControlFilter.DEFAULT_ROUTE);
+    }
+}
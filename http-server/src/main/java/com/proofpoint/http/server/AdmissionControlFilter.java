@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.reporting.ReportExporter;
+
+import javax.inject.Inject;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+
+/**
+ * Rejects requests beyond an adaptive concurrency limit with a 503 and a
+ * Retry-After header, so a slow route cannot tie up every worker thread.
+ * <p>
+ * Each route configured with {@code http-server.admission-control.route.<name>}
+ * has its own {@link ConcurrencyLimit} for requests under its path prefix;
+ * the longest matching prefix wins, and other requests share the limit of
+ * the "default" route. The limits are reported as
+ * "HttpServer.AdmissionControl" metrics tagged with the route.
+ */
+public class AdmissionControlFilter
+        implements Filter
+{
+    static final String DEFAULT_ROUTE = "default";
+    private static final String METRIC_PREFIX = "HttpServer.AdmissionControl";
+
+    private final boolean enabled;
+    private final String retryAfter;
+    private final List<Route> routes;
+    private final ConcurrencyLimit defaultLimit;
+
+    @Inject
+    public AdmissionControlFilter(AdmissionControlConfig config, ReportExporter reportExporter)
+    {
+        requireNonNull(config, "config is null");
+        requireNonNull(reportExporter, "reportExporter is null");
+        enabled = config.isEnabled();
+        retryAfter = String.valueOf(max(1, config.getRetryAfter().roundTo(SECONDS)));
+
+        ImmutableList.Builder<Route> routes = ImmutableList.builder();
+        config.getRoutes().entrySet().stream()
+                .sorted(Comparator.comparing((Entry<String, String> entry) -> entry.getValue().length()).reversed())
+                .forEach(entry -> routes.add(new Route(entry.getKey(), entry.getValue(), new ConcurrencyLimit(config))));
+        this.routes = routes.build();
+        defaultLimit = new ConcurrencyLimit(config);
+
+        if (enabled) {
+            reportExporter.export(defaultLimit, false, METRIC_PREFIX, ImmutableMap.of("route", DEFAULT_ROUTE));
+            for (Route route : this.routes) {
+                reportExporter.export(route.limit, false, METRIC_PREFIX, ImmutableMap.of("route", route.name));
+            }
+        }
+    }
+
+    boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig)
+    {
+    }
+
+    @Override
+    public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain chain)
+            throws IOException, ServletException
+    {
+        HttpServletRequest request = (HttpServletRequest) servletRequest;
+        ConcurrencyLimit limit = limitFor(request.getRequestURI());
+        if (!limit.tryAcquire()) {
+            HttpServletResponse response = (HttpServletResponse) servletResponse;
+            response.setHeader("Retry-After", retryAfter);
+            response.sendError(SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean async = false;
+        try {
+            chain.doFilter(servletRequest, servletResponse);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(limit, start));
+                async = true;
+            }
+        }
+        finally {
+            if (!async) {
+                limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+    }
+
+    private ConcurrencyLimit limitFor(String path)
+    {
+        if (path != null) {
+            for (Route route : routes) {
+                if (path.startsWith(route.pathPrefix)) {
+                    return route.limit;
+                }
+            }
+        }
+        return defaultLimit;
+    }
+
+    private static class Route
+    {
+        private final String name;
+        private final String pathPrefix;
+        private final ConcurrencyLimit limit;
+
+        Route(String name, String pathPrefix, ConcurrencyLimit limit)
+        {
+            this.name = name;
+            this.pathPrefix = pathPrefix;
+            this.limit = limit;
+        }
+    }
+
+    private static class ReleaseListener
+            implements AsyncListener
+    {
+        private final ConcurrencyLimit limit;
+        private final long start;
+
+        ReleaseListener(ConcurrencyLimit limit, long start)
+        {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event)
+        {
+            limit.release(System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event)
+        {
+        }
+
+        @Override
+        public void onError(AsyncEvent event)
+        {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event)
+        {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.proofpoint.http.server.BinaryRequestLogRecords.RecordEncoder;
+import com.proofpoint.log.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+import static java.lang.Math.min;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Writes the request log in the binary format of
+ * {@link BinaryRequestLogRecords} to memory-mapped segment files, without a
+ * queue or lock on the request path.
+ * <p>
+ * Each segment is created at {@code http-server.log.max-size} and mapped
+ * into memory. A request thread takes an encoder from a small pool, encodes
+ * its event, reserves space in the current segment by advancing the
+ * segment's write position with a compare-and-set, copies the record in, and
+ * returns the encoder to the pool. The pool is not tied to thread identity,
+ * so virtual threads, which serve a single request each, share encoders
+ * rather than allocating one per request. A
+ * background thread keeps a spare segment ready; the request that finds the
+ * current segment full swaps the spare in, and the background thread then
+ * waits for copies into the full segment to complete, compresses it, and
+ * deletes compressed segments older than {@code http-server.log.max-history}
+ * days or beyond {@code http-server.log.max-total-size}. Records logged
+ * while no spare segment is ready are dropped.
+ * <p>
+ * {@link BinaryRequestLogReader} converts segments to the delimited or JSON
+ * format.
+ */
+class BinaryRequestLog
+        implements RequestLog
+{
+    static final String SEGMENT_SUFFIX = ".bin";
+    static final String COMPRESSED_SUFFIX = ".bin.gz";
+
+    private static final Logger log = Logger.get(BinaryRequestLog.class);
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final int COPY_BUFFER_SIZE = 65536;
+    private static final int WRITER_POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final File directory;
+    private final String prefix;
+    private final int segmentSize;
+    private final long maxHistoryMillis;
+    private final long maxTotalBytes;
+    private final ScheduledExecutorService executor;
+    private final AtomicReferenceArray<SegmentWriter> writers = new AtomicReferenceArray<>(WRITER_POOL_SIZE);
+    private final AtomicReference<Segment> current = new AtomicReference<>();
+    private final AtomicReference<Segment> spare = new AtomicReference<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder dropped = new LongAdder();
+    private volatile boolean stopped = false;
+
+    BinaryRequestLog(HttpServerConfig config)
+            throws IOException
+    {
+        File logFile = new File(config.getLogPath()).getAbsoluteFile();
+        directory = logFile.getParentFile();
+        prefix = logFile.getName() + "-";
+        segmentSize = (int) min(config.getLogMaxSegmentSize().toBytes(), Integer.MAX_VALUE);
+        maxHistoryMillis = DAYS.toMillis(config.getLogMaxHistory());
+        maxTotalBytes = config.getLogMaxTotalSize().toBytes();
+        executor = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("http-request-log-%s")
+                .setDaemon(true)
+                .build());
+
+        File[] leftover = listFiles(SEGMENT_SUFFIX);
+        current.set(createSegment());
+        executor.execute(() -> {
+            // segments left by a process that did not stop cleanly
+            for (File file : leftover) {
+                compressLeftover(file);
+            }
+            prepareSpare();
+        });
+    }
+
+    @Override
+    public void log(HttpRequestEvent event)
+    {
+        SegmentWriter writer = acquireWriter();
+        try {
+            write(writer, event);
+        }
+        finally {
+            releaseWriter(writer);
+        }
+    }
+
+    private void write(SegmentWriter writer, HttpRequestEvent event)
+    {
+        writer.encoder.encode(event);
+        int length = writer.encoder.getSize();
+
+        while (true) {
+            Segment segment = current.get();
+            if (segment == null || length > segmentSize) {
+                dropped.increment();
+                return;
+            }
+            if (segment.write(writer, length)) {
+                return;
+            }
+
+            Segment next = spare.getAndSet(null);
+            if (next == null) {
+                if (current.get() == segment) {
+                    dropped.increment();
+                    return;
+                }
+                // another request swapped in the spare
+                continue;
+            }
+            if (!current.compareAndSet(segment, next)) {
+                spare.set(next);
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    finish(segment);
+                    prepareSpare();
+                });
+            }
+            catch (RejectedExecutionException ignored) {
+                // stopping; the segment is compressed at the next start
+            }
+        }
+    }
+
+    @Override
+    public synchronized void stop()
+    {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        Segment segment = current.getAndSet(null);
+        executor.execute(() -> {
+            if (segment != null) {
+                finish(segment);
+            }
+            Segment spareSegment = spare.getAndSet(null);
+            if (spareSegment != null && !spareSegment.file.delete()) {
+                log.warn("Unable to delete unused request log segment %s", spareSegment.file);
+            }
+        });
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, SECONDS)) {
+                log.warn("Timed out compressing the request log");
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    long getDropped()
+    {
+        return dropped.sum();
+    }
+
+    private SegmentWriter acquireWriter()
+    {
+        int start = ThreadLocalRandom.current().nextInt(WRITER_POOL_SIZE);
+        for (int i = 0; i < WRITER_POOL_SIZE; i++) {
+            int index = (start + i) % WRITER_POOL_SIZE;
+            if (writers.get(index) != null) {
+                SegmentWriter writer = writers.getAndSet(index, null);
+                if (writer != null) {
+                    return writer;
+                }
+            }
+        }
+        return new SegmentWriter();
+    }
+
+    private void releaseWriter(SegmentWriter writer)
+    {
+        writer.dropSealedView();
+        int start = ThreadLocalRandom.current().nextInt(WRITER_POOL_SIZE);
+        for (int i = 0; i < WRITER_POOL_SIZE; i++) {
+            if (writers.compareAndSet((start + i) % WRITER_POOL_SIZE, null, writer)) {
+                return;
+            }
+        }
+        // the pool is full; more requests are logging than there are pooled writers
+    }
+
+    /**
+     * Drops the views of sealed segments held by pooled writers, so they do
+     * not keep the mappings of compressed segments alive.
+     */
+    private void dropSealedViews()
+    {
+        for (int i = 0; i < WRITER_POOL_SIZE; i++) {
+            SegmentWriter writer = writers.getAndSet(i, null);
+            if (writer != null) {
+                releaseWriter(writer);
+            }
+        }
+    }
+
+    private void prepareSpare()
+    {
+        if (stopped || spare.get() != null) {
+            return;
+        }
+        try {
+            spare.set(createSegment());
+        }
+        catch (IOException e) {
+            log.warn(e, "Unable to create request log segment; retrying in one second");
+            executor.schedule(this::prepareSpare, 1, SECONDS);
+        }
+    }
+
+    private Segment createSegment()
+            throws IOException
+    {
+        File file = new File(directory, String.format("%s%d.%06d%s", prefix, System.currentTimeMillis(), sequence.getAndIncrement(), SEGMENT_SUFFIX));
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(segmentSize);
+            return new Segment(file, randomAccessFile.getChannel().map(READ_WRITE, 0, segmentSize));
+        }
+    }
+
+    private void finish(Segment segment)
+    {
+        int length = segment.seal();
+
+        // wait for request threads still copying records into the segment
+        long deadline = System.nanoTime() + SECONDS.toNanos(10);
+        while (segment.getWritten() < length && System.nanoTime() < deadline) {
+            try {
+                MILLISECONDS.sleep(1);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        dropSealedViews();
+        compress(segment.file, segment.buffer, length);
+        deleteExpired();
+    }
+
+    private void compressLeftover(File file)
+    {
+        ByteBuffer buffer;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+            buffer = randomAccessFile.getChannel().map(READ_ONLY, 0, randomAccessFile.length());
+        }
+        catch (IOException e) {
+            log.warn(e, "Unable to read request log segment %s", file);
+            return;
+        }
+        compress(file, buffer, BinaryRequestLogReader.recordsLength(buffer));
+    }
+
+    private void compress(File file, ByteBuffer buffer, int length)
+    {
+        File compressed = new File(directory, file.getName().substring(0, file.getName().length() - SEGMENT_SUFFIX.length()) + COMPRESSED_SUFFIX);
+        File temporary = new File(directory, compressed.getName() + TEMPORARY_SUFFIX);
+        ByteBuffer source = buffer.duplicate();
+        source.position(0).limit(length);
+        byte[] bytes = new byte[COPY_BUFFER_SIZE];
+        try (OutputStream output = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            while (source.hasRemaining()) {
+                int count = min(bytes.length, source.remaining());
+                source.get(bytes, 0, count);
+                output.write(bytes, 0, count);
+            }
+        }
+        catch (IOException e) {
+            log.warn(e, "Unable to compress request log segment %s", file);
+            if (!temporary.delete()) {
+                log.warn("Unable to delete %s", temporary);
+            }
+            return;
+        }
+
+        try {
+            Files.move(temporary.toPath(), compressed.toPath(), ATOMIC_MOVE);
+            Files.delete(file.toPath());
+        }
+        catch (IOException e) {
+            log.warn(e, "Unable to replace request log segment %s with %s", file, compressed);
+        }
+    }
+
+    private void deleteExpired()
+    {
+        File[] files = listFiles(COMPRESSED_SUFFIX);
+        long expiry = System.currentTimeMillis() - maxHistoryMillis;
+        long totalBytes = 0;
+        // newest first
+        for (int i = files.length - 1; i >= 0; i--) {
+            File file = files[i];
+            totalBytes += file.length();
+            if ((totalBytes > maxTotalBytes || file.lastModified() < expiry) && !file.delete()) {
+                log.warn("Unable to delete expired request log segment %s", file);
+            }
+        }
+    }
+
+    private File[] listFiles(String suffix)
+    {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(prefix) && name.endsWith(suffix));
+        if (files == null) {
+            return new File[0];
+        }
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static class Segment
+    {
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger reserved = new AtomicInteger();
+        private final AtomicInteger written = new AtomicInteger();
+
+        Segment(File file, MappedByteBuffer buffer)
+        {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        /**
+         * @return false if the segment does not have room for the record
+         */
+        boolean write(SegmentWriter writer, int length)
+        {
+            int offset;
+            do {
+                offset = reserved.get();
+                if ((long) offset + length > buffer.capacity()) {
+                    return false;
+                }
+            }
+            while (!reserved.compareAndSet(offset, offset + length));
+
+            ByteBuffer view = writer.viewOf(this);
+            view.position(offset);
+            view.put(writer.encoder.getBuffer(), 0, length);
+            written.addAndGet(length);
+            return true;
+        }
+
+        /**
+         * Stops further writes to the segment.
+         *
+         * @return the length of the records written or being written
+         */
+        int seal()
+        {
+            return reserved.getAndSet(Integer.MAX_VALUE);
+        }
+
+        boolean isSealed()
+        {
+            return reserved.get() == Integer.MAX_VALUE;
+        }
+
+        int getWritten()
+        {
+            return written.get();
+        }
+    }
+
+    private static class SegmentWriter
+    {
+        private final RecordEncoder encoder = new RecordEncoder();
+        private Segment segment;
+        private ByteBuffer view;
+
+        /**
+         * Returns this writer's view of the segment's buffer, which has its
+         * own position.
+         */
+        ByteBuffer viewOf(Segment segment)
+        {
+            dropSealedView();
+            if (this.segment != segment) {
+                this.segment = segment;
+                view = segment.buffer.duplicate();
+            }
+            return view;
+        }
+
+        void dropSealedView()
+        {
+            if (segment != null && segment.isSealed()) {
+                segment = null;
+                view = null;
+            }
+        }
+    }
+}
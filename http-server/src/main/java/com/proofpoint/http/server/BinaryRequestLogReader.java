@@ -0,0 +1,118 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import ch.qos.logback.core.encoder.Encoder;
+import com.google.common.io.ByteStreams;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+/**
+ * Converts segments of the binary request log to the delimited or JSON
+ * request log format on standard output:
+ * <pre>
+ * java -cp ... com.proofpoint.http.server.BinaryRequestLogReader [--tsv | --json] segment...
+ * </pre>
+ * Segments may be compressed or not; the segment being written by a running
+ * server may end with a partly written record.
+ */
+public final class BinaryRequestLogReader
+{
+    private BinaryRequestLogReader()
+    {
+    }
+
+    public static void main(String[] args)
+            throws IOException
+    {
+        Encoder<HttpRequestEvent> encoder = new JsonRequestLog.EventEncoder();
+        int first = 0;
+        if (args.length > 0 && args[0].equals("--tsv")) {
+            encoder = new DelimitedRequestLog.EventEncoder();
+            first = 1;
+        }
+        else if (args.length > 0 && args[0].equals("--json")) {
+            first = 1;
+        }
+        if (first == args.length) {
+            System.err.println("Usage: " + BinaryRequestLogReader.class.getName() + " [--tsv | --json] segment...");
+            System.exit(1);
+        }
+
+        try (OutputStream output = new BufferedOutputStream(System.out)) {
+            for (int i = first; i < args.length; i++) {
+                convert(new File(args[i]), encoder, output);
+            }
+        }
+    }
+
+    /**
+     * Writes the records in a segment to {@code output} in the format of
+     * {@code encoder}.
+     */
+    static void convert(File segment, Encoder<HttpRequestEvent> encoder, OutputStream output)
+            throws IOException
+    {
+        ByteBuffer buffer = read(segment);
+        int length = recordsLength(buffer);
+        while (buffer.position() < length) {
+            int recordLength = buffer.getInt();
+            ByteBuffer record = buffer.slice();
+            record.limit(recordLength);
+            output.write(encoder.encode(BinaryRequestLogRecords.decode(record)));
+            buffer.position(buffer.position() + recordLength);
+        }
+    }
+
+    /**
+     * @return the length of the complete records at the start of the buffer
+     */
+    static int recordsLength(ByteBuffer buffer)
+    {
+        int position = 0;
+        while (buffer.limit() - position >= 4) {
+            int recordLength = buffer.getInt(position);
+            if (recordLength <= 0 || recordLength > buffer.limit() - position - 4) {
+                break;
+            }
+            position += 4 + recordLength;
+        }
+        return position;
+    }
+
+    private static ByteBuffer read(File segment)
+            throws IOException
+    {
+        if (segment.getName().endsWith(".gz")) {
+            try (InputStream input = new GZIPInputStream(new FileInputStream(segment))) {
+                return ByteBuffer.wrap(ByteStreams.toByteArray(input));
+            }
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segment, "r")) {
+            return file.getChannel().map(READ_ONLY, 0, file.length());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static java.lang.Math.max;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The record format of the binary request log.
+ * <p>
+ * Each record starts with a big-endian int holding the number of bytes that
+ * follow it, then a format version byte, the time stamp in milliseconds
+ * since the epoch, the request size, response size, response code, time to
+ * last byte, time to dispatch, time to request end and time of response
+ * content, a flag byte followed by the count and maximum of the response
+ * content chunk interarrival times if it is set, and finally the trace
+ * token, client address, method, request URI, user, user agent, protocol
+ * version, TLS protocol version and TLS cipher suite. Strings are an int
+ * length in bytes, -1 for null, followed by their UTF-8 encoding. A record
+ * length of zero marks the end of the records in a segment.
+ */
+final class BinaryRequestLogRecords
+{
+    static final int VERSION = 1;
+
+    private BinaryRequestLogRecords()
+    {
+    }
+
+    /**
+     * Decodes the record in {@code record}, starting after its length.
+     */
+    static HttpRequestEvent decode(ByteBuffer record)
+    {
+        int version = record.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported request log record version " + version);
+        }
+        Instant timeStamp = Instant.ofEpochMilli(record.getLong());
+        long requestSize = record.getLong();
+        long responseSize = record.getLong();
+        int responseCode = record.getInt();
+        long timeToLastByte = record.getLong();
+        long beginToDispatchMillis = record.getLong();
+        long beginToEndMillis = record.getLong();
+        long firstToLastContentTimeInMillis = record.getLong();
+        DoubleSummaryStats responseContentInterarrivalStats = null;
+        if (record.get() != 0) {
+            responseContentInterarrivalStats = new DoubleSummaryStats(record.getLong(), record.getDouble());
+        }
+        String traceToken = readString(record);
+        String clientAddress = readString(record);
+        String method = readString(record);
+        String requestUri = readString(record);
+        String user = readString(record);
+        String agent = readString(record);
+        String protocolVersion = readString(record);
+        String tlsProtocolVersion = readString(record);
+        String tlsCipherSuite = readString(record);
+
+        return new HttpRequestEvent(
+                timeStamp,
+                traceToken,
+                clientAddress,
+                method,
+                requestUri,
+                user,
+                agent,
+                requestSize,
+                responseSize,
+                responseCode,
+                timeToLastByte,
+                beginToDispatchMillis,
+                beginToEndMillis,
+                firstToLastContentTimeInMillis,
+                responseContentInterarrivalStats,
+                protocolVersion,
+                tlsProtocolVersion,
+                tlsCipherSuite);
+    }
+
+    private static String readString(ByteBuffer record)
+    {
+        int length = record.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Encodes records into a buffer that is reused from one record to the
+     * next, so encoding does not allocate once the buffer has grown to fit
+     * the largest record. Not thread safe.
+     */
+    static class RecordEncoder
+    {
+        private byte[] buffer = new byte[1024];
+        private int size;
+
+        /**
+         * Replaces the contents of the buffer with the encoded event,
+         * including its leading length.
+         */
+        void encode(HttpRequestEvent event)
+        {
+            size = 4;
+            ensureCapacity(78);
+            buffer[size++] = VERSION;
+            writeLong(event.getTimeStamp().toEpochMilli());
+            writeLong(event.getRequestSize());
+            writeLong(event.getResponseSize());
+            writeInt(event.getResponseCode());
+            writeLong(event.getTimeToLastByte());
+            writeLong(event.getBeginToDispatchMillis());
+            writeLong(event.getBeginToEndMillis());
+            writeLong(event.getFirstToLastContentTimeInMillis());
+            DoubleSummaryStats responseContentInterarrivalStats = event.getResponseContentChunk();
+            if (responseContentInterarrivalStats == null) {
+                buffer[size++] = 0;
+            }
+            else {
+                buffer[size++] = 1;
+                writeLong(responseContentInterarrivalStats.getCount());
+                writeLong(Double.doubleToLongBits(responseContentInterarrivalStats.getMaxMillis()));
+            }
+            writeString(event.getTraceToken());
+            writeString(event.getClientAddress());
+            writeString(event.getMethod());
+            writeString(event.getRequestUri());
+            writeString(event.getUser());
+            writeString(event.getAgent());
+            writeString(event.getProtocolVersion());
+            writeString(event.getTlsProtocolVersion());
+            writeString(event.getTlsCipherSuite());
+            putInt(0, size - 4);
+        }
+
+        byte[] getBuffer()
+        {
+            return buffer;
+        }
+
+        int getSize()
+        {
+            return size;
+        }
+
+        private void writeString(String value)
+        {
+            if (value == null) {
+                ensureCapacity(4);
+                writeInt(-1);
+                return;
+            }
+
+            int length = value.length();
+            // at most three bytes per char, as a surrogate pair encodes to four bytes
+            ensureCapacity(4 + 3 * length);
+            int start = size;
+            size += 4;
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    buffer[size++] = (byte) c;
+                }
+                else if (c < 0x800) {
+                    buffer[size++] = (byte) (0xc0 | (c >> 6));
+                    buffer[size++] = (byte) (0x80 | (c & 0x3f));
+                }
+                else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[size++] = (byte) (0xf0 | (codePoint >> 18));
+                    buffer[size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    buffer[size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    buffer[size++] = (byte) (0x80 | (codePoint & 0x3f));
+                }
+                else if (Character.isSurrogate(c)) {
+                    // unpaired surrogate, replaced as String.getBytes() does
+                    buffer[size++] = '?';
+                }
+                else {
+                    buffer[size++] = (byte) (0xe0 | (c >> 12));
+                    buffer[size++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    buffer[size++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            putInt(start, size - start - 4);
+        }
+
+        private void writeLong(long value)
+        {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void writeInt(int value)
+        {
+            putInt(size, value);
+            size += 4;
+        }
+
+        private void putInt(int offset, int value)
+        {
+            buffer[offset] = (byte) (value >>> 24);
+            buffer[offset + 1] = (byte) (value >>> 16);
+            buffer[offset + 2] = (byte) (value >>> 8);
+            buffer[offset + 3] = (byte) value;
+        }
+
+        private void ensureCapacity(int bytes)
+        {
+            if (size + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, max(buffer.length * 2, size + bytes));
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.reporting.Gauge;
+import com.proofpoint.stats.CounterStat;
+import org.weakref.jmx.Nested;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A concurrency limit adjusted by additive increase, multiplicative
+ * decrease. Each request taking longer than the latency threshold
+ * multiplies the limit by the backoff ratio; each faster request completing
+ * while at least half the limit is in use raises it by one.
+ */
+class ConcurrencyLimit
+{
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final CounterStat rejected = new CounterStat();
+    private volatile int currentLimit;
+
+    // guarded by this
+    private double limit;
+
+    ConcurrencyLimit(AdmissionControlConfig config)
+    {
+        minLimit = config.getMinLimit();
+        maxLimit = config.getMaxLimit();
+        latencyThresholdNanos = config.getLatencyThreshold().roundTo(NANOSECONDS);
+        backoffRatio = config.getBackoffRatio();
+        limit = config.getInitialLimit();
+        currentLimit = config.getInitialLimit();
+    }
+
+    /**
+     * @return true if the request is admitted, in which case
+     * {@link #release(long)} must be called when it completes
+     */
+    boolean tryAcquire()
+    {
+        int limit = currentLimit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.add(1);
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos)
+    {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (latencyNanos > latencyThresholdNanos) {
+                limit = max(minLimit, limit * backoffRatio);
+            }
+            else if (current * 2 >= limit) {
+                limit = min(maxLimit, limit + 1);
+            }
+            currentLimit = (int) limit;
+        }
+    }
+
+    @Gauge
+    public int getLimit()
+    {
+        return currentLimit;
+    }
+
+    @Gauge
+    public int getInFlight()
+    {
+        return inFlight.get();
+    }
+
+    @Nested
+    public CounterStat getRejected()
+    {
+        return rejected;
+    }
+}
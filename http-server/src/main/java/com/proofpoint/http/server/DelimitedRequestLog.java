@@ -63,7 +63,7 @@ class DelimitedRequestLog
         appender.stop();
     }
 
-    private static class EventEncoder extends EncoderBase<HttpRequestEvent>
+    static class EventEncoder extends EncoderBase<HttpRequestEvent>
     {
         @Override
         public byte[] headerBytes()
@@ -25,22 +25,34 @@ import static java.util.concurrent.TimeUnit.MILLISECONDS;
 @JsonPropertyOrder({"count", "max"})
 class DoubleSummaryStats
 {
-    private final DoubleSummaryStatistics stats;
+    private final long count;
+    private final double maxMillis;
 
     DoubleSummaryStats(DoubleSummaryStatistics stats)
     {
-        this.stats = requireNonNull(stats, "stats is null");
+        this(requireNonNull(stats, "stats is null").getCount(), stats.getMax());
+    }
+
+    DoubleSummaryStats(long count, double maxMillis)
+    {
+        this.count = count;
+        this.maxMillis = maxMillis;
     }
 
     @JsonProperty
     public Duration getMax()
     {
-        return new Duration(stats.getMax(), MILLISECONDS);
+        return new Duration(maxMillis, MILLISECONDS);
+    }
+
+    double getMaxMillis()
+    {
+        return maxMillis;
     }
 
     @JsonProperty
     public long getCount()
     {
-        return stats.getCount();
+        return count;
     }
 }
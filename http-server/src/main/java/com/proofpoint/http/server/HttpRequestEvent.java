@@ -109,7 +109,7 @@ class HttpRequestEvent
     private final String tlsProtocolVersion;
     private final String tlsCipherSuite;
 
-    private HttpRequestEvent(
+    HttpRequestEvent(
             Instant timeStamp,
             String traceToken,
             String clientAddress,
@@ -232,6 +232,21 @@ class HttpRequestEvent
         return new Duration(beginToEndMillis, MILLISECONDS);
     }
 
+    long getBeginToDispatchMillis()
+    {
+        return beginToDispatchMillis;
+    }
+
+    long getBeginToEndMillis()
+    {
+        return beginToEndMillis;
+    }
+
+    long getFirstToLastContentTimeInMillis()
+    {
+        return firstToLastContentTimeInMillis;
+    }
+
     @Nullable
     @JsonProperty
     public Duration getTimeResponseContent()
@@ -23,6 +23,7 @@ import com.google.common.primitives.Ints;
 import com.proofpoint.bootstrap.AcceptRequests;
 import com.proofpoint.http.server.HttpServerBinder.HttpResourceBinding;
 import com.proofpoint.node.NodeInfo;
+import com.proofpoint.stats.CounterStat;
 import com.proofpoint.stats.MaxGauge;
 import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
 import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
@@ -108,7 +109,9 @@ public class HttpServer
     private final RequestStats stats;
     private final MaxGauge busyThreads = new MaxGauge();
     private final RequestLog requestLog;
+    private final RequestLogSampler requestLogSampler;
     private final ClientAddressExtractor clientAddressExtractor;
+    private final AdmissionControlFilter admissionControlFilter;
 
     private final Optional<ZonedDateTime> certificateExpiration;
 
@@ -130,6 +133,30 @@ public class HttpServer
             @Nullable RequestLog requestLog,
             ClientAddressExtractor clientAddressExtractor)
             throws IOException
+    {
+        this(httpServerInfo, nodeInfo, config, theServlet, parameters, filters, resources, theAdminServlet, adminParameters, adminFilters,
+                mbeanServer, loginService, queryStringFilter, stats, detailedRequestStats, requestLog, clientAddressExtractor, null);
+    }
+
+    public HttpServer(HttpServerInfo httpServerInfo,
+            NodeInfo nodeInfo,
+            HttpServerConfig config,
+            Servlet theServlet,
+            Map<String, String> parameters,
+            Set<Filter> filters,
+            Set<HttpResourceBinding> resources,
+            @Nullable Servlet theAdminServlet,
+            @Nullable Map<String, String> adminParameters,
+            @Nullable Set<Filter> adminFilters,
+            @Nullable MBeanServer mbeanServer,
+            @Nullable LoginService loginService,
+            QueryStringFilter queryStringFilter,
+            RequestStats stats,
+            DetailedRequestStats detailedRequestStats,
+            @Nullable RequestLog requestLog,
+            ClientAddressExtractor clientAddressExtractor,
+            @Nullable AdmissionControlFilter admissionControlFilter)
+            throws IOException
     {
         requireNonNull(httpServerInfo, "httpServerInfo is null");
         requireNonNull(nodeInfo, "nodeInfo is null");
@@ -142,7 +169,14 @@ public class HttpServer
         this.stats = requireNonNull(stats, "stats is null");
         requireNonNull(detailedRequestStats, "detailedRequestStats is null");
         this.requestLog = requestLog;
+        requestLogSampler = new RequestLogSampler(config);
         this.clientAddressExtractor = requireNonNull(clientAddressExtractor, "clientAddressExtractor is null");
+        if (admissionControlFilter != null && admissionControlFilter.isEnabled()) {
+            this.admissionControlFilter = admissionControlFilter;
+        }
+        else {
+            this.admissionControlFilter = null;
+        }
 
         QueuedThreadPool threadPool = new QueuedThreadPool(config.getMaxThreads())
         {
@@ -162,6 +196,12 @@ public class HttpServer
         threadPool.setIdleTimeout(Ints.checkedCast(config.getThreadMaxIdleTime().toMillis()));
         threadPool.setName("http-worker");
         server = new Server(threadPool);
+
+        // application requests run on virtual threads, selectors stay on the thread pool
+        VirtualThreadExecutor workerExecutor = null;
+        if (config.isVirtualThreads()) {
+            workerExecutor = new VirtualThreadExecutor("http-worker-virtual-", busyThreads);
+        }
         server.setStopTimeout(config.getStopTimeout().toMillis());
         registerErrorHandler = config.isShowStackTrace();
 
@@ -184,7 +224,7 @@ public class HttpServer
         // register a channel listener if logging is enabled
         HttpServerChannelListener channelListener = null;
         if (requestLog != null) {
-            channelListener = new HttpServerChannelListener(requestLog, clientAddressExtractor);
+            channelListener = new HttpServerChannelListener(requestLog, requestLogSampler, clientAddressExtractor);
         }
 
         // set up HTTP connector
@@ -209,7 +249,7 @@ public class HttpServer
             httpConnector = createServerConnector(
                     httpServerInfo.getHttpChannel(),
                     server,
-                    null,
+                    workerExecutor,
                     firstNonNull(acceptors, -1),
                     firstNonNull(selectors, -1),
                     http1,
@@ -238,7 +278,7 @@ public class HttpServer
                     config,
                     httpServerInfo.getHttpsChannel(),
                     httpsConfiguration,
-                    null,
+                    workerExecutor,
                     firstNonNull(acceptors, -1),
                     firstNonNull(selectors, -1));
             httpsConnector.setName("https");
@@ -306,6 +346,7 @@ public class HttpServer
          *           |       |--- timing filter
          *           |       |--- query string filter
          *           |       |--- trace token filter
+         *           |       |--- admission control filter (if enabled)
          *           |       |--- gzip response filter
          *           |       |--- gzip request filter
          *           |       |--- security handler
@@ -317,6 +358,7 @@ public class HttpServer
          *           |--- timing filter
          *           |--- query string filter
          *           |--- trace token filter
+         *           |--- admission control filter (if enabled)
          *           |--- gzip response filter
          *           |--- gzip request filter
          *           |--- security handler
@@ -416,6 +458,9 @@ public class HttpServer
         context.addFilter(new FilterHolder(new TimingFilter()), "/*", null);
         context.addFilter(new FilterHolder(queryStringFilter), "/*", null);
         context.addFilter(new FilterHolder(new TraceTokenFilter(nodeInfo.getInternalIp(), clientAddressExtractor)), "/*", null);
+        if (!isAdmin && admissionControlFilter != null) {
+            context.addFilter(new FilterHolder(admissionControlFilter), "/*", null);
+        }
 
         // -- gzip handler
         context.setGzipHandler(new GzipHandler());
@@ -506,6 +551,12 @@ public class HttpServer
         return busyThreads;
     }
 
+    @Nested
+    public CounterStat getRequestLogSuppressed()
+    {
+        return requestLogSampler.getSuppressed();
+    }
+
     private static Set<X509Certificate> loadAllX509Certificates(HttpServerConfig config)
     {
         ImmutableSet.Builder<X509Certificate> certificates = ImmutableSet.builder();
@@ -540,7 +591,13 @@ public class HttpServer
             ConnectionFactory... factories)
             throws IOException
     {
-        ServerConnector connector = new ServerConnector(server, executor, null, null, acceptors, selectors, factories);
+        ServerConnector connector;
+        if (executor instanceof VirtualThreadExecutor) {
+            connector = new VirtualThreadServerConnector(server, (VirtualThreadExecutor) executor, selectors, factories);
+        }
+        else {
+            connector = new ServerConnector(server, executor, null, null, acceptors, selectors, factories);
+        }
         connector.open(channel);
         return connector;
     }
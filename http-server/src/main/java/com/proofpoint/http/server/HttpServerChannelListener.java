@@ -19,9 +19,6 @@ import org.eclipse.jetty.server.Request;
 import javax.annotation.Nullable;
 import javax.net.ssl.SSLSession;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.DoubleSummaryStatistics;
-import java.util.List;
 
 import static com.proofpoint.http.server.HttpRequestEvent.createHttpRequestEvent;
 import static java.util.Objects.requireNonNull;
@@ -30,117 +27,135 @@ import static java.util.concurrent.TimeUnit.NANOSECONDS;
 final class HttpServerChannelListener
         implements Listener
 {
-    private static final String REQUEST_BEGIN_ATTRIBUTE = HttpServerChannelListener.class.getName() + ".begin";
-    private static final String REQUEST_BEGIN_TO_DISPATCH_ATTRIBUTE = HttpServerChannelListener.class.getName() + ".begin_to_dispatch";
-    private static final String REQUEST_BEGIN_TO_END_ATTRIBUTE = HttpServerChannelListener.class.getName() + ".begin_to_end";
-    private static final String RESPONSE_CONTENT_TIMESTAMPS_ATTRIBUTE = HttpServerChannelListener.class.getName() + ".response_content_timestamps";
+    private static final String REQUEST_TIMING_ATTRIBUTE = HttpServerChannelListener.class.getName() + ".timing";
     private static final String REQUEST_SSL_SESSION_ATTRIBUTE = "org.eclipse.jetty.servlet.request.ssl_session";
 
     private final RequestLog logger;
+    private final RequestLogSampler sampler;
     private final ClientAddressExtractor clientAddressExtractor;
 
-    HttpServerChannelListener(RequestLog logger, ClientAddressExtractor clientAddressExtractor)
+    HttpServerChannelListener(RequestLog logger, RequestLogSampler sampler, ClientAddressExtractor clientAddressExtractor)
     {
         this.logger = requireNonNull(logger, "logger is null");
+        this.sampler = requireNonNull(sampler, "sampler is null");
         this.clientAddressExtractor = requireNonNull(clientAddressExtractor, "clientAddressExtractor is null");
     }
 
     @Override
     public void onRequestBegin(Request request)
     {
-        request.setAttribute(REQUEST_BEGIN_ATTRIBUTE, System.nanoTime());
+        request.setAttribute(REQUEST_TIMING_ATTRIBUTE, new RequestTiming(System.nanoTime()));
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void onBeforeDispatch(Request request)
     {
-        long requestBeginTime = getRequestBeginTime(request);
-        request.setAttribute(REQUEST_BEGIN_TO_DISPATCH_ATTRIBUTE, System.nanoTime() - requestBeginTime);
+        RequestTiming timing = getRequestTiming(request);
+        timing.beginToDispatchNanos = System.nanoTime() - timing.beginNanos;
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void onRequestEnd(Request request)
     {
-        long requestBeginTime = getRequestBeginTime(request);
-        request.setAttribute(REQUEST_BEGIN_TO_END_ATTRIBUTE, System.nanoTime() - requestBeginTime);
+        RequestTiming timing = getRequestTiming(request);
+        timing.beginToEndNanos = System.nanoTime() - timing.beginNanos;
     }
 
-    private long getRequestBeginTime(Request request)
+    private static RequestTiming getRequestTiming(Request request)
     {
-        Object requestBeginAttribute = request.getAttribute(REQUEST_BEGIN_ATTRIBUTE);
-        if (requestBeginAttribute != null) {
-            return (long) (Long) requestBeginAttribute;
+        RequestTiming timing = (RequestTiming) request.getAttribute(REQUEST_TIMING_ATTRIBUTE);
+        if (timing == null) {
+            timing = new RequestTiming(System.nanoTime());
+            request.setAttribute(REQUEST_TIMING_ATTRIBUTE, timing);
         }
-        long currentTime = System.nanoTime();
-        request.setAttribute(REQUEST_BEGIN_ATTRIBUTE, currentTime);
-        return currentTime;
+        return timing;
     }
 
     @Override
     public void onResponseBegin(Request request)
     {
-        if (request.getAttribute(REQUEST_BEGIN_TO_END_ATTRIBUTE) == null) {
-            onRequestEnd(request);
+        RequestTiming timing = getRequestTiming(request);
+        if (timing.beginToEndNanos < 0) {
+            timing.beginToEndNanos = System.nanoTime() - timing.beginNanos;
         }
-        request.setAttribute(RESPONSE_CONTENT_TIMESTAMPS_ATTRIBUTE, new ArrayList<Long>());
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void onResponseContent(Request request, ByteBuffer content)
     {
-        List<Long> contentTimestamps = (List<Long>) request.getAttribute(RESPONSE_CONTENT_TIMESTAMPS_ATTRIBUTE);
-        contentTimestamps.add(System.nanoTime());
+        getRequestTiming(request).recordContent(System.nanoTime());
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public void onComplete(Request request)
     {
-        List<Long> contentTimestamps = (List<Long>) request.getAttribute(RESPONSE_CONTENT_TIMESTAMPS_ATTRIBUTE);
+        long currentTimeMillis = System.currentTimeMillis();
+        if (!sampler.isSampled(request, currentTimeMillis)) {
+            return;
+        }
+
+        RequestTiming timing = getRequestTiming(request);
         long firstToLastContentTimeInMillis = -1;
-        if (contentTimestamps.size() > 0) {
-            firstToLastContentTimeInMillis = NANOSECONDS.toMillis(contentTimestamps.get(contentTimestamps.size() - 1) - contentTimestamps.get(0));
+        if (timing.contentChunks > 0) {
+            firstToLastContentTimeInMillis = NANOSECONDS.toMillis(timing.lastContentNanos - timing.firstContentNanos);
         }
-        long beginToDispatchMillis = NANOSECONDS.toMillis((Long) request.getAttribute(REQUEST_BEGIN_TO_DISPATCH_ATTRIBUTE));
-        long beginToEndMillis = NANOSECONDS.toMillis((Long) request.getAttribute(REQUEST_BEGIN_TO_END_ATTRIBUTE));
         SSLSession sslSession = (SSLSession) request.getAttribute(REQUEST_SSL_SESSION_ATTRIBUTE);
         HttpRequestEvent event = createHttpRequestEvent(
                 request,
                 request.getResponse(),
                 sslSession,
-                System.currentTimeMillis(),
-                beginToDispatchMillis,
-                beginToEndMillis,
+                currentTimeMillis,
+                NANOSECONDS.toMillis(timing.beginToDispatchNanos),
+                NANOSECONDS.toMillis(timing.beginToEndNanos),
                 firstToLastContentTimeInMillis,
-                processContentTimestamps(contentTimestamps),
+                timing.getContentInterarrivalStats(),
                 clientAddressExtractor
         );
         logger.log(event);
     }
 
     /**
-     * Calculate the summary statistics for the interarrival time of the onResponseContent callbacks.
+     * The timing of a request, kept in primitive fields so that recording a
+     * response content chunk does not allocate.
      */
-    @Nullable
-    private static DoubleSummaryStats processContentTimestamps(List<Long> contentTimestamps)
+    private static final class RequestTiming
     {
-        requireNonNull(contentTimestamps, "contentTimestamps is null");
+        private final long beginNanos;
+        private long beginToDispatchNanos;
+        private long beginToEndNanos = -1;
+        private long contentChunks;
+        private long firstContentNanos;
+        private long lastContentNanos;
+        private long maxContentInterarrivalNanos;
+
+        RequestTiming(long beginNanos)
+        {
+            this.beginNanos = beginNanos;
+        }
 
-        // no content (HTTP 204) or there was a single response chunk (so no interarrival time)
-        if (contentTimestamps.size() == 0 || contentTimestamps.size() == 1) {
-            return null;
+        void recordContent(long nanos)
+        {
+            if (contentChunks == 0) {
+                firstContentNanos = nanos;
+            }
+            else {
+                maxContentInterarrivalNanos = Math.max(maxContentInterarrivalNanos, nanos - lastContentNanos);
+            }
+            lastContentNanos = nanos;
+            contentChunks++;
         }
 
-        DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
-        long previousTimestamp = contentTimestamps.get(0);
-        for (int i = 1; i < contentTimestamps.size(); i++) {
-            long timestamp = contentTimestamps.get(i);
-            statistics.accept(NANOSECONDS.toMillis(timestamp - previousTimestamp));
-            previousTimestamp = timestamp;
+        /**
+         * Summary statistics for the interarrival time of the onResponseContent callbacks.
+         */
+        @Nullable
+        DoubleSummaryStats getContentInterarrivalStats()
+        {
+            // no content (HTTP 204) or there was a single response chunk (so no interarrival time)
+            if (contentChunks < 2) {
+                return null;
+            }
+            return new DoubleSummaryStats(contentChunks - 1, NANOSECONDS.toMillis(maxContentInterarrivalNanos));
         }
-        return new DoubleSummaryStats(statistics);
     }
 }
@@ -15,6 +15,7 @@
  */
 package com.proofpoint.http.server;
 
+import com.google.common.collect.ImmutableMap;
 import com.proofpoint.configuration.Config;
 import com.proofpoint.configuration.ConfigDescription;
 import com.proofpoint.configuration.ConfigSecuritySensitive;
@@ -25,8 +26,13 @@ import com.proofpoint.units.MaxDataSize;
 import com.proofpoint.units.MinDataSize;
 import com.proofpoint.units.MinDuration;
 
+import javax.validation.constraints.AssertFalse;
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
+import java.util.Map;
 
 import static com.proofpoint.units.DataSize.Unit.GIGABYTE;
 import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
@@ -80,6 +86,9 @@ public class HttpServerConfig
     private int logMaxHistory = 30;
     private DataSize logMaxTotalSize = new DataSize(1, GIGABYTE);
     private int logQueueSize = 10_000;
+    private double logSampleRate = 1.0;
+    private Map<String, Double> logPathSampleRates = ImmutableMap.of();
+    private Duration logSlowThreshold = new Duration(1, SECONDS);
 
     private Integer httpAcceptorThreads;
     private Integer httpSelectorThreads;
@@ -89,6 +98,7 @@ public class HttpServerConfig
     private int minThreads = 2;
     private int maxThreads = 200;
     private Duration threadMaxIdleTime = new Duration(1, MINUTES);
+    private boolean virtualThreads = false;
     private Duration networkMaxIdleTime = new Duration(200, SECONDS);
     private Duration stopTimeout = new Duration(30, SECONDS);
     private DataSize maxRequestHeaderSize;
@@ -342,6 +352,25 @@ public class HttpServerConfig
         return this;
     }
 
+    public boolean isVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
+    @Config("http-server.threads.virtual")
+    @ConfigDescription("Handle application requests on virtual threads (requires Java 21)")
+    public HttpServerConfig setVirtualThreads(boolean virtualThreads)
+    {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    @AssertFalse(message = "acceptor threads cannot be set with virtual threads")
+    public boolean isAcceptorThreadsSetWithVirtualThreads()
+    {
+        return virtualThreads && (httpAcceptorThreads != null || httpsAcceptorThreads != null);
+    }
+
     public DataSize getLogMaxSegmentSize()
     {
         return logMaxSegmentSize;
@@ -393,6 +422,55 @@ public class HttpServerConfig
         return this;
     }
 
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getLogSampleRate()
+    {
+        return logSampleRate;
+    }
+
+    @Config("http-server.log.sample-rate")
+    @ConfigDescription("Fraction of successful requests written to the request log")
+    public HttpServerConfig setLogSampleRate(double logSampleRate)
+    {
+        this.logSampleRate = logSampleRate;
+        return this;
+    }
+
+    public Map<String, Double> getLogPathSampleRates()
+    {
+        return logPathSampleRates;
+    }
+
+    @Config("http-server.log.path-sample-rate")
+    @ConfigDescription("Fraction of successful requests written to the request log, by path prefix")
+    public HttpServerConfig setLogPathSampleRates(Map<String, Double> logPathSampleRates)
+    {
+        this.logPathSampleRates = ImmutableMap.copyOf(logPathSampleRates);
+        return this;
+    }
+
+    @AssertTrue(message = "must be between 0.0 and 1.0")
+    public boolean isLogPathSampleRatesValid()
+    {
+        return logPathSampleRates.values().stream()
+                .allMatch(rate -> rate >= 0.0 && rate <= 1.0);
+    }
+
+    @NotNull
+    public Duration getLogSlowThreshold()
+    {
+        return logSlowThreshold;
+    }
+
+    @Config("http-server.log.slow-threshold")
+    @ConfigDescription("Requests taking at least this long are always written to the request log")
+    public HttpServerConfig setLogSlowThreshold(Duration logSlowThreshold)
+    {
+        this.logSlowThreshold = logSlowThreshold;
+        return this;
+    }
+
     public String getUserAuthFile()
     {
         return userAuthFile;
@@ -582,5 +660,6 @@ public class HttpServerConfig
     {
         TSV,
         JSON,
+        BINARY,
     }
 }
@@ -66,6 +66,7 @@ public class HttpServerModule
         binder.bind(QueryStringFilter.class).in(Scopes.SINGLETON);
         binder.bind(RequestStats.class).in(Scopes.SINGLETON);
         binder.bind(ClientAddressExtractor.class).in(Scopes.SINGLETON);
+        binder.bind(AdmissionControlFilter.class).in(Scopes.SINGLETON);
         newSetBinder(binder, Filter.class, TheServlet.class);
         newSetBinder(binder, Filter.class, TheAdminServlet.class);
         newSetBinder(binder, HttpResourceBinding.class, TheServlet.class);
@@ -76,6 +77,7 @@ public class HttpServerModule
 
         bindConfig(binder).bind(HttpServerConfig.class);
         bindConfig(binder).bind(InternalNetworkConfig.class);
+        bindConfig(binder).bind(AdmissionControlConfig.class);
 
         binder.bind(AnnouncementHttpServerInfo.class).to(LocalAnnouncementHttpServerInfo.class).in(Scopes.SINGLETON);
     }
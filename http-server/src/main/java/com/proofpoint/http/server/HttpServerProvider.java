@@ -20,7 +20,6 @@ import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import com.proofpoint.bootstrap.LifeCycleManager;
 import com.proofpoint.http.server.HttpServerBinder.HttpResourceBinding;
-import com.proofpoint.http.server.HttpServerConfig.LogFormat;
 import com.proofpoint.node.NodeInfo;
 import org.eclipse.jetty.security.LoginService;
 
@@ -55,6 +54,7 @@ public class HttpServerProvider
     private Map<String, String> adminServletInitParameters = ImmutableMap.of();
     private MBeanServer mbeanServer;
     private LoginService loginService;
+    private AdmissionControlFilter admissionControlFilter;
     private final RequestStats stats;
     private final DetailedRequestStats detailedRequestStats;
     private final Set<Filter> filters;
@@ -130,6 +130,12 @@ public class HttpServerProvider
         this.loginService = loginService;
     }
 
+    @Inject(optional = true)
+    public void setAdmissionControlFilter(AdmissionControlFilter admissionControlFilter)
+    {
+        this.admissionControlFilter = admissionControlFilter;
+    }
+
     @Override
     public HttpServer get()
     {
@@ -155,7 +161,8 @@ public class HttpServerProvider
                     stats,
                     detailedRequestStats,
                     requestLog,
-                    clientAddressExtractor
+                    clientAddressExtractor,
+                    admissionControlFilter
             );
             lifeCycleManager.addInstance(httpServer);
             return httpServer;
@@ -179,11 +186,13 @@ public class HttpServerProvider
             throw new IOException(format("Cannot create %s and path does not already exist", logPath.getAbsolutePath()));
         }
 
-        if (config.getLogFormat() == LogFormat.TSV) {
-            return new DelimitedRequestLog(config);
-        }
-        else {
-            return new JsonRequestLog(config);
+        switch (config.getLogFormat()) {
+            case TSV:
+                return new DelimitedRequestLog(config);
+            case BINARY:
+                return new BinaryRequestLog(config);
+            default:
+                return new JsonRequestLog(config);
         }
     }
 }
@@ -54,7 +54,7 @@ class JsonRequestLog
         appender.stop();
     }
 
-    private static class EventEncoder extends EncoderBase<HttpRequestEvent>
+    static class EventEncoder extends EncoderBase<HttpRequestEvent>
     {
         private final JsonCodec<HttpRequestEvent> codec = JsonCodec.jsonCodec(HttpRequestEvent.class).withoutPretty();
 
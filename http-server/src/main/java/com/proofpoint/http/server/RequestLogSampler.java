@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.stats.CounterStat;
+import org.eclipse.jetty.server.Request;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+/**
+ * Decides whether a completed request is written to the request log. It is
+ * consulted before the {@link HttpRequestEvent} is built, so requests that
+ * are not logged do not pay for building one.
+ * <p>
+ * Requests with a response status of 400 or more, and requests taking at
+ * least {@code http-server.log.slow-threshold}, are always logged. Other
+ * requests are logged at the rate of the longest matching
+ * {@code http-server.log.path-sample-rate} path prefix, or
+ * {@code http-server.log.sample-rate} if none matches.
+ */
+class RequestLogSampler
+{
+    private final double sampleRate;
+    private final List<PathSampleRate> pathSampleRates;
+    private final long slowThresholdMillis;
+    private final CounterStat suppressed = new CounterStat();
+
+    RequestLogSampler(HttpServerConfig config)
+    {
+        sampleRate = config.getLogSampleRate();
+        pathSampleRates = config.getLogPathSampleRates().entrySet().stream()
+                .sorted(Comparator.comparing((Entry<String, Double> entry) -> entry.getKey().length()).reversed())
+                .map(entry -> new PathSampleRate(entry.getKey(), entry.getValue()))
+                .collect(toImmutableList());
+        slowThresholdMillis = config.getLogSlowThreshold().toMillis();
+    }
+
+    boolean isSampled(Request request, long currentTimeMillis)
+    {
+        if (request.getResponse().getStatus() >= 400 || currentTimeMillis - request.getTimeStamp() >= slowThresholdMillis) {
+            return true;
+        }
+
+        double rate = sampleRateFor(request.getRequestURI());
+        if (rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate) {
+            return true;
+        }
+        suppressed.add(1);
+        return false;
+    }
+
+    CounterStat getSuppressed()
+    {
+        return suppressed;
+    }
+
+    private double sampleRateFor(String path)
+    {
+        if (path != null) {
+            for (PathSampleRate pathSampleRate : pathSampleRates) {
+                if (path.startsWith(pathSampleRate.prefix)) {
+                    return pathSampleRate.rate;
+                }
+            }
+        }
+        return sampleRate;
+    }
+
+    private static class PathSampleRate
+    {
+        private final String prefix;
+        private final double rate;
+
+        PathSampleRate(String prefix, double rate)
+        {
+            this.prefix = prefix;
+            this.rate = rate;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.stats.MaxGauge;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Runs each task on a new virtual thread, counting the running tasks in a
+ * busy threads gauge.
+ * <p>
+ * The platform targets Java 8, so the virtual thread builder is looked up
+ * reflectively. {@link #isSupported()} is false on runtimes without
+ * virtual threads.
+ */
+class VirtualThreadExecutor
+        implements Executor
+{
+    private static final Method OF_VIRTUAL = lookupMethod("java.lang.Thread", "ofVirtual");
+    private static final Method NAME = lookupMethod("java.lang.Thread$Builder", "name", String.class, long.class);
+    private static final Method FACTORY = lookupMethod("java.lang.Thread$Builder", "factory");
+
+    private final ThreadFactory threadFactory;
+    private final MaxGauge busyThreads;
+
+    VirtualThreadExecutor(String namePrefix, MaxGauge busyThreads)
+    {
+        requireNonNull(namePrefix, "namePrefix is null");
+        this.busyThreads = requireNonNull(busyThreads, "busyThreads is null");
+        checkState(isSupported(), "virtual threads require Java 21 or later");
+        try {
+            Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+            threadFactory = (ThreadFactory) FACTORY.invoke(builder);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to create virtual thread factory", e);
+        }
+    }
+
+    static boolean isSupported()
+    {
+        return OF_VIRTUAL != null && NAME != null && FACTORY != null;
+    }
+
+    @Override
+    public void execute(Runnable task)
+    {
+        requireNonNull(task, "task is null");
+        threadFactory.newThread(() -> {
+            busyThreads.add(1);
+            try {
+                task.run();
+            }
+            finally {
+                busyThreads.add(-1);
+            }
+        }).start();
+    }
+
+    private static Method lookupMethod(String className, String methodName, Class<?>... parameterTypes)
+    {
+        try {
+            return Class.forName(className).getMethod(methodName, parameterTypes);
+        }
+        catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
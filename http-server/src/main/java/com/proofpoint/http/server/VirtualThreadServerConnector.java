@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import org.eclipse.jetty.io.SelectorManager;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.thread.Scheduler;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A connector that handles requests on virtual threads while its selectors
+ * run on the server's thread pool.
+ * <p>
+ * The selectors are started through {@link SelectorManager#execute}, which
+ * is redirected to the server's thread pool. Requests are dispatched through
+ * the connector's executor. As that executor cannot reserve threads, each
+ * selector keeps producing on its own thread and hands every blocking task
+ * to a virtual thread. Connections are accepted by the selectors, as
+ * acceptor threads would otherwise run on the connector's executor.
+ */
+class VirtualThreadServerConnector
+        extends ServerConnector
+{
+    VirtualThreadServerConnector(Server server, VirtualThreadExecutor executor, int selectors, ConnectionFactory... factories)
+    {
+        super(server, executor, null, null, 0, selectors, factories);
+    }
+
+    @Override
+    protected SelectorManager newSelectorManager(Executor executor, Scheduler scheduler, int selectors)
+    {
+        return new ServerConnectorManager(executor, scheduler, selectors)
+        {
+            @Override
+            protected void execute(Runnable task)
+            {
+                getServer().getThreadPool().execute(task);
+            }
+        };
+    }
+}
@@ -97,6 +97,12 @@ public abstract class AbstractTestRequestLog
             long timeToLastByte
     );
 
+    protected String readLog(File file)
+            throws IOException
+    {
+        return Files.asCharSource(file, UTF_8).read();
+    }
+
     @BeforeMethod
     public final void setupAbstract()
             throws IOException
@@ -184,7 +190,7 @@ public abstract class AbstractTestRequestLog
         logger.log(event);
         logger.stop();
 
-        String actual = Files.asCharSource(file, UTF_8).read();
+        String actual = readLog(file);
         String expected = getExpectedLogLine(
                 timestamp,
                 "9.9.9.9",
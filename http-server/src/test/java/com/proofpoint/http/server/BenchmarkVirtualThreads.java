@@ -0,0 +1,307 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.proofpoint.http.client.HttpClientConfig;
+import com.proofpoint.http.client.Request;
+import com.proofpoint.http.client.StatusResponseHandler.StatusResponse;
+import com.proofpoint.http.client.jetty.JettyHttpClient;
+import com.proofpoint.http.server.testing.TestingHttpServer;
+import com.proofpoint.node.NodeInfo;
+import com.proofpoint.units.Duration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import javax.management.ObjectName;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Compares the throughput and memory of serving requests that block on a
+ * slow downstream call from the pooled worker threads and from virtual
+ * threads.
+ * <p>
+ * The servlet sleeps for {@code downstreamMillis} in place of a blocking
+ * {@code HttpClient.execute}. {@link #main} runs the benchmark once per
+ * number of concurrent clients (100, 500 and 2000 unless given as
+ * arguments) with the GC profiler, and writes a JSON result file per client
+ * count to {@code target/jmh}. {@link ServerMemoryProfiler} adds the peak
+ * number of server threads, the heap in use after a full GC and the native
+ * memory committed for thread stacks to the results of each iteration.
+ * Virtual threads require running on Java 21 or later.
+ * <p>
+ * The load generator runs in the same JVM, so the heap figure includes the
+ * client's; compare it between the pooled and virtual runs at the same
+ * client count rather than reading it as the server's footprint.
+ */
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, jvmArgsAppend = "-XX:NativeMemoryTracking=summary")
+@Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+public class BenchmarkVirtualThreads
+{
+    private static final int[] DEFAULT_CLIENT_COUNTS = {100, 500, 2000};
+    private static final String SERVER_THREAD_PREFIX = "http-worker";
+
+    private static volatile Server runningServer;
+
+    @State(Scope.Benchmark)
+    public static class Server
+    {
+        @Param({"false", "true"})
+        private boolean virtualThreads;
+
+        @Param("500")
+        private int maxThreads;
+
+        @Param("20")
+        private int downstreamMillis;
+
+        private TestingHttpServer server;
+        private JettyHttpClient client;
+        private Request request;
+
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            NodeInfo nodeInfo = new NodeInfo("test");
+            HttpServerConfig config = new HttpServerConfig()
+                    .setHttpPort(0)
+                    .setAdminEnabled(false)
+                    .setMaxThreads(maxThreads)
+                    .setHttpAcceptQueueSize(4096)
+                    .setLogEnabled(false)
+                    .setVirtualThreads(virtualThreads);
+            HttpServerInfo httpServerInfo = new HttpServerInfo(config, nodeInfo);
+            server = new TestingHttpServer(httpServerInfo, nodeInfo, config, new SlowDownstreamServlet(downstreamMillis), ImmutableMap.of());
+            server.start();
+
+            client = new JettyHttpClient(new HttpClientConfig()
+                    .setMaxConnectionsPerServer(10_000)
+                    .setMaxRequestsQueuedPerDestination(10_000)
+                    .setRequestTimeout(new Duration(60, SECONDS)));
+            request = prepareGet().setUri(server.getBaseUrl()).build();
+            runningServer = this;
+        }
+
+        @TearDown
+        public void tearDown()
+                throws Exception
+        {
+            runningServer = null;
+            client.close();
+            server.stop();
+        }
+    }
+
+    @Benchmark
+    public StatusResponse request(Server server)
+    {
+        return server.client.execute(server.request, createStatusResponseHandler());
+    }
+
+    /**
+     * Reports the memory used to serve the benchmark's requests.
+     * <ul>
+     * <li>{@code server.threads.peak}: the peak number of live server
+     * threads during the iteration, sampled every 100 ms. These are the
+     * platform threads named {@code http-worker} plus, with virtual threads,
+     * the virtual threads serving requests. The benchmark's client threads
+     * are not counted.</li>
+     * <li>{@code server.heap.used}: the heap in use after a full GC at the
+     * end of the iteration.</li>
+     * <li>{@code server.native.threads}: the native memory committed for
+     * platform thread stacks, from native memory tracking.</li>
+     * </ul>
+     */
+    public static class ServerMemoryProfiler
+            implements InternalProfiler
+    {
+        private static final Pattern THREAD_COMMITTED = Pattern.compile("Thread \\(reserved=\\d+MB, committed=(\\d+)MB\\)");
+
+        private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        private ScheduledExecutorService sampler;
+        private LongAccumulator peakThreads;
+
+        @Override
+        public String getDescription()
+        {
+            return "Server thread count, heap after GC and thread stack memory";
+        }
+
+        @Override
+        public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams)
+        {
+            peakThreads = new LongAccumulator(Long::max, 0);
+            sampler = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("benchmark-thread-sampler")
+                    .setDaemon(true)
+                    .build());
+            sampler.scheduleAtFixedRate(() -> peakThreads.accumulate(countServerThreads()), 0, 100, MILLISECONDS);
+        }
+
+        @Override
+        public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result)
+        {
+            sampler.shutdownNow();
+
+            System.gc();
+            long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+
+            ImmutableList.Builder<Result> results = ImmutableList.builder();
+            results.add(new ScalarResult("server.threads.peak", peakThreads.get(), "threads", AggregationPolicy.MAX));
+            results.add(new ScalarResult("server.heap.used", heapUsed >> 20, "MB", AggregationPolicy.AVG));
+            Long threadStacks = threadStackMegabytes();
+            if (threadStacks != null) {
+                results.add(new ScalarResult("server.native.threads", threadStacks, "MB", AggregationPolicy.AVG));
+            }
+            return results.build();
+        }
+
+        private long countServerThreads()
+        {
+            long count = 0;
+            for (ThreadInfo info : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds(), 0)) {
+                if (info != null && info.getThreadName().startsWith(SERVER_THREAD_PREFIX)) {
+                    count++;
+                }
+            }
+            Server server = runningServer;
+            if (server != null && server.virtualThreads) {
+                // virtual threads are not listed by the thread MXBean
+                count += server.server.getBusyThreads().get();
+            }
+            return count;
+        }
+
+        private static Long threadStackMegabytes()
+        {
+            String summary;
+            try {
+                summary = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+                        new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                        "vmNativeMemory",
+                        new Object[] {new String[] {"summary", "scale=MB"}},
+                        new String[] {String[].class.getName()});
+            }
+            catch (Exception e) {
+                return null;
+            }
+            Matcher matcher = THREAD_COMMITTED.matcher(summary);
+            if (!matcher.find()) {
+                // native memory tracking is not enabled
+                return null;
+            }
+            return Long.parseLong(matcher.group(1));
+        }
+    }
+
+    private static class SlowDownstreamServlet
+            extends HttpServlet
+    {
+        private final int downstreamMillis;
+
+        SlowDownstreamServlet(int downstreamMillis)
+        {
+            this.downstreamMillis = downstreamMillis;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response)
+        {
+            try {
+                Thread.sleep(downstreamMillis);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            response.setStatus(HttpServletResponse.SC_OK);
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        int[] clientCounts = DEFAULT_CLIENT_COUNTS;
+        if (args.length > 0) {
+            clientCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                clientCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        new File("target/jmh").mkdirs();
+        for (int clients : clientCounts) {
+            Options options = new OptionsBuilder()
+                    .verbosity(VerboseMode.NORMAL)
+                    .include(".*" + BenchmarkVirtualThreads.class.getSimpleName() + ".*")
+                    .threads(clients)
+                    .addProfiler(GCProfiler.class)
+                    .addProfiler(ServerMemoryProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh/" + BenchmarkVirtualThreads.class.getSimpleName() + "-" + clients + "-clients.json")
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+}
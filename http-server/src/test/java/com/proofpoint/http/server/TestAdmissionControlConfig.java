@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.units.Duration;
+import org.testng.annotations.Test;
+
+import javax.validation.constraints.AssertFalse;
+import javax.validation.constraints.AssertTrue;
+import java.util.Map;
+
+import static com.proofpoint.configuration.testing.ConfigAssertions.assertFullMapping;
+import static com.proofpoint.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.proofpoint.configuration.testing.ConfigAssertions.recordDefaults;
+import static com.proofpoint.testing.ValidationAssertions.assertFailsValidation;
+import static com.proofpoint.testing.ValidationAssertions.assertValidates;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class TestAdmissionControlConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(AdmissionControlConfig.class)
+                .setEnabled(false)
+                .setInitialLimit(20)
+                .setMinLimit(1)
+                .setMaxLimit(200)
+                .setLatencyThreshold(new Duration(1, SECONDS))
+                .setBackoffRatio(0.9)
+                .setRetryAfter(new Duration(1, SECONDS))
+                .setRoutes(ImmutableMap.of()));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("http-server.admission-control.enabled", "true")
+                .put("http-server.admission-control.initial-limit", "50")
+                .put("http-server.admission-control.min-limit", "5")
+                .put("http-server.admission-control.max-limit", "100")
+                .put("http-server.admission-control.latency-threshold", "250ms")
+                .put("http-server.admission-control.backoff-ratio", "0.5")
+                .put("http-server.admission-control.retry-after", "5s")
+                .put("http-server.admission-control.route.search", "/v1/search")
+                .build();
+
+        AdmissionControlConfig expected = new AdmissionControlConfig()
+                .setEnabled(true)
+                .setInitialLimit(50)
+                .setMinLimit(5)
+                .setMaxLimit(100)
+                .setLatencyThreshold(new Duration(250, MILLISECONDS))
+                .setBackoffRatio(0.5)
+                .setRetryAfter(new Duration(5, SECONDS))
+                .setRoutes(ImmutableMap.of("search", "/v1/search"));
+
+        assertFullMapping(properties, expected);
+    }
+
+    @Test
+    public void testValidation()
+    {
+        assertValidates(new AdmissionControlConfig());
+        assertFailsValidation(new AdmissionControlConfig().setInitialLimit(300),
+                "initialLimitWithinBounds", "must be between minLimit and maxLimit", AssertTrue.class);
+        assertFailsValidation(new AdmissionControlConfig().setMinLimit(30),
+                "initialLimitWithinBounds", "must be between minLimit and maxLimit", AssertTrue.class);
+        assertFailsValidation(new AdmissionControlConfig().setRoutes(ImmutableMap.of("default", "/")),
+                "defaultRouteConfigured", "the default route is implicit", AssertFalse.class);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.reporting.ReportExporter;
+import com.proofpoint.units.Duration;
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.Test;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestAdmissionControlFilter
+{
+    @Test
+    public void testDisabled()
+    {
+        ReportExporter reportExporter = mock(ReportExporter.class);
+        AdmissionControlFilter filter = new AdmissionControlFilter(new AdmissionControlConfig(), reportExporter);
+        assertFalse(filter.isEnabled());
+        verifyZeroInteractions(reportExporter);
+    }
+
+    @Test
+    public void testExportsRoutes()
+    {
+        ReportExporter reportExporter = mock(ReportExporter.class);
+        new AdmissionControlFilter(createConfig(), reportExporter);
+        verify(reportExporter).export(any(ConcurrencyLimit.class), eq(false), eq("HttpServer.AdmissionControl"), eq(ImmutableMap.of("route", "default")));
+        verify(reportExporter).export(any(ConcurrencyLimit.class), eq(false), eq("HttpServer.AdmissionControl"), eq(ImmutableMap.of("route", "search")));
+    }
+
+    @Test
+    public void testRejectsBeyondRouteLimit()
+            throws Exception
+    {
+        AdmissionControlFilter filter = new AdmissionControlFilter(createConfig(), mock(ReportExporter.class));
+
+        // hold the only slot of the search route with an async request
+        HttpServletRequest asyncRequest = request("/v1/search/thing");
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(asyncRequest.isAsyncStarted()).thenReturn(true);
+        when(asyncRequest.getAsyncContext()).thenReturn(asyncContext);
+        filter.doFilter(asyncRequest, mock(HttpServletResponse.class), mock(FilterChain.class));
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listener.capture());
+
+        HttpServletRequest request = request("/v1/search");
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        filter.doFilter(request, response, chain);
+        verify(chain, never()).doFilter(any(), any());
+        verify(response).setHeader("Retry-After", "3");
+        verify(response).sendError(SC_SERVICE_UNAVAILABLE);
+
+        // other requests use the default route
+        assertAdmitted(filter, request("/v1/other"));
+        assertAdmitted(filter, request(null));
+
+        // completing the async request frees its slot
+        listener.getValue().onComplete(new AsyncEvent(asyncContext));
+        assertAdmitted(filter, request("/v1/search"));
+    }
+
+    private static void assertAdmitted(AdmissionControlFilter filter, HttpServletRequest request)
+            throws Exception
+    {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        filter.doFilter(request, response, chain);
+        verify(chain).doFilter(request, response);
+        verify(response, never()).sendError(SC_SERVICE_UNAVAILABLE);
+    }
+
+    private static HttpServletRequest request(String path)
+    {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getRequestURI()).thenReturn(path);
+        return request;
+    }
+
+    private static AdmissionControlConfig createConfig()
+    {
+        return new AdmissionControlConfig()
+                .setEnabled(true)
+                .setInitialLimit(1)
+                .setMaxLimit(1)
+                .setRetryAfter(new Duration(3, SECONDS))
+                .setRoutes(ImmutableMap.of("search", "/v1/search"));
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestBinaryRequestLog
+        extends TestJsonRequestLog
+{
+    private File logFile;
+
+    @Override
+    protected void setup(HttpServerConfig httpServerConfig)
+            throws IOException
+    {
+        logFile = new File(httpServerConfig.getLogPath());
+        logger = new BinaryRequestLog(httpServerConfig);
+    }
+
+    @AfterMethod
+    public void teardown()
+    {
+        for (File segment : segments(logFile)) {
+            assertTrue(segment.delete());
+        }
+    }
+
+    @Override
+    protected String readLog(File file)
+            throws IOException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (File segment : segments(file)) {
+            BinaryRequestLogReader.convert(segment, new JsonRequestLog.EventEncoder(), output);
+        }
+        return new String(output.toByteArray(), UTF_8);
+    }
+
+    @Test
+    public void testRotation()
+            throws Exception
+    {
+        Path directory = createTempDirectory("binary-request-log");
+        try {
+            File file = directory.resolve("http-request.log").toFile();
+            BinaryRequestLog log = new BinaryRequestLog(new HttpServerConfig()
+                    .setLogPath(file.getPath())
+                    .setLogMaxSegmentSize(new DataSize(4, KILOBYTE)));
+            for (int i = 0; i < 200; i++) {
+                // retry records dropped while the next segment is prepared
+                long dropped = log.getDropped();
+                log.log(event(i));
+                while (log.getDropped() != dropped) {
+                    MILLISECONDS.sleep(10);
+                    dropped = log.getDropped();
+                    log.log(event(i));
+                }
+            }
+            log.stop();
+
+            File[] segments = segments(file);
+            assertTrue(segments.length > 1, "segments: " + Arrays.toString(segments));
+            for (File segment : segments) {
+                assertTrue(segment.getName().endsWith(BinaryRequestLog.COMPRESSED_SUFFIX), segment.getName());
+            }
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            for (File segment : segments) {
+                BinaryRequestLogReader.convert(segment, new DelimitedRequestLog.EventEncoder(), output);
+            }
+            String[] lines = new String(output.toByteArray(), UTF_8).split("\n");
+            assertEquals(lines.length, 200);
+            for (int i = 0; i < lines.length; i++) {
+                assertTrue(lines[i].contains("\t/path/" + i + "\t"), lines[i]);
+            }
+        }
+        finally {
+            deleteRecursively(directory, ALLOW_INSECURE);
+        }
+    }
+
+    @Test
+    public void testNonAsciiStrings()
+            throws Exception
+    {
+        String agent = "agent é中😀 \ud800";
+        BinaryRequestLogRecords.RecordEncoder encoder = new BinaryRequestLogRecords.RecordEncoder();
+        HttpRequestEvent event = new HttpRequestEvent(Instant.ofEpochMilli(1), null, null, "GET", "/", null, agent,
+                0, 0, 200, 0, 0, 0, -1, null, "HTTP/1.1", null, null);
+        encoder.encode(event);
+
+        HttpRequestEvent decoded = BinaryRequestLogRecords.decode(ByteBuffer.wrap(encoder.getBuffer(), 4, encoder.getSize() - 4));
+        assertEquals(decoded.getAgent(), new String(agent.getBytes(UTF_8), UTF_8));
+        assertEquals(decoded.getTimeStamp(), Instant.ofEpochMilli(1));
+        assertEquals(decoded.getTraceToken(), null);
+        assertEquals(decoded.getTimeResponseContent(), null);
+        assertEquals(decoded.getResponseContentChunk(), null);
+    }
+
+    private static HttpRequestEvent event(int i)
+    {
+        return new HttpRequestEvent(Instant.now(), "token", "9.9.9.9", "GET", "/path/" + i, null, "agent",
+                0, 100, 200, 5, 1, 2, -1, null, "HTTP/1.1", null, null);
+    }
+
+    private static File[] segments(File logFile)
+    {
+        String prefix = logFile.getName() + "-";
+        File[] segments = logFile.getAbsoluteFile().getParentFile().listFiles((dir, name) -> name.startsWith(prefix));
+        if (segments == null) {
+            return new File[0];
+        }
+        Arrays.sort(segments);
+        return segments;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.proofpoint.units.Duration;
+import org.testng.annotations.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestConcurrencyLimit
+{
+    private static final long FAST = MILLISECONDS.toNanos(10);
+    private static final long SLOW = MILLISECONDS.toNanos(200);
+
+    @Test
+    public void testRejectsBeyondLimit()
+    {
+        ConcurrencyLimit limit = createLimit(2);
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+        assertEquals(limit.getInFlight(), 2);
+        assertEquals(limit.getRejected().getTotalCount(), 1);
+
+        limit.release(FAST);
+        assertTrue(limit.tryAcquire());
+    }
+
+    @Test
+    public void testIncreasesWhileInUse()
+    {
+        ConcurrencyLimit limit = createLimit(4);
+        for (int i = 0; i < 2; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        limit.release(FAST);
+        assertEquals(limit.getLimit(), 5);
+
+        // one request in flight is less than half the limit
+        limit.release(FAST);
+        assertEquals(limit.getLimit(), 5);
+    }
+
+    @Test
+    public void testDecreasesWhenSlow()
+    {
+        ConcurrencyLimit limit = createLimit(10);
+        assertTrue(limit.tryAcquire());
+        limit.release(SLOW);
+        assertEquals(limit.getLimit(), 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(SLOW);
+        }
+        assertEquals(limit.getLimit(), 2);
+    }
+
+    @Test
+    public void testMaxLimit()
+    {
+        ConcurrencyLimit limit = createLimit(10);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        for (int i = 0; i < 10; i++) {
+            limit.release(FAST);
+        }
+        assertEquals(limit.getLimit(), 12);
+    }
+
+    private static ConcurrencyLimit createLimit(int initialLimit)
+    {
+        return new ConcurrencyLimit(new AdmissionControlConfig()
+                .setInitialLimit(initialLimit)
+                .setMinLimit(2)
+                .setMaxLimit(12)
+                .setLatencyThreshold(new Duration(100, MILLISECONDS))
+                .setBackoffRatio(0.5));
+    }
+}
@@ -22,11 +22,15 @@ import com.proofpoint.units.DataSize;
 import com.proofpoint.units.Duration;
 import org.testng.annotations.Test;
 
+import javax.validation.constraints.AssertFalse;
+import javax.validation.constraints.AssertTrue;
 import java.util.Map;
 
 import static com.proofpoint.configuration.testing.ConfigAssertions.assertFullMapping;
 import static com.proofpoint.configuration.testing.ConfigAssertions.assertLegacyEquivalence;
 import static com.proofpoint.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.proofpoint.testing.ValidationAssertions.assertFailsValidation;
+import static com.proofpoint.testing.ValidationAssertions.assertValidates;
 import static com.proofpoint.units.DataSize.Unit.GIGABYTE;
 import static com.proofpoint.units.DataSize.Unit.KILOBYTE;
 import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
@@ -57,6 +61,9 @@ public class TestHttpServerConfig
                 .setLogMaxHistory(30)
                 .setLogMaxTotalSize(new DataSize(1, GIGABYTE))
                 .setLogQueueSize(10_000)
+                .setLogSampleRate(1.0)
+                .setLogPathSampleRates(ImmutableMap.of())
+                .setLogSlowThreshold(new Duration(1, SECONDS))
                 .setHttpAcceptorThreads(null)
                 .setHttpSelectorThreads(null)
                 .setHttpsAcceptorThreads(null)
@@ -64,6 +71,7 @@ public class TestHttpServerConfig
                 .setMinThreads(2)
                 .setMaxThreads(200)
                 .setThreadMaxIdleTime(new Duration(1, MINUTES))
+                .setVirtualThreads(false)
                 .setNetworkMaxIdleTime(new Duration(200, SECONDS))
                 .setUserAuthFile(null)
                 .setAdminEnabled(true)
@@ -101,6 +109,9 @@ public class TestHttpServerConfig
                 .put("http-server.log.max-history", "25")
                 .put("http-server.log.max-total-size", "5GB")
                 .put("http-server.log.queue-size", "1")
+                .put("http-server.log.sample-rate", "0.25")
+                .put("http-server.log.path-sample-rate./v1/status", "0.01")
+                .put("http-server.log.slow-threshold", "5s")
                 .put("http-server.http.acceptor-threads", "10")
                 .put("http-server.http.selector-threads", "11")
                 .put("http-server.https.acceptor-threads", "12")
@@ -108,6 +119,7 @@ public class TestHttpServerConfig
                 .put("http-server.threads.min", "100")
                 .put("http-server.threads.max", "500")
                 .put("http-server.threads.max-idle-time", "10m")
+                .put("http-server.threads.virtual", "true")
                 .put("http-server.net.max-idle-time", "20m")
                 .put("http-server.auth.users-file", "/auth")
                 .put("http-server.admin.enabled", "false")
@@ -141,6 +153,9 @@ public class TestHttpServerConfig
                 .setLogMaxHistory(25)
                 .setLogMaxTotalSize(new DataSize(5, GIGABYTE))
                 .setLogQueueSize(1)
+                .setLogSampleRate(0.25)
+                .setLogPathSampleRates(ImmutableMap.of("/v1/status", 0.01))
+                .setLogSlowThreshold(new Duration(5, SECONDS))
                 .setHttpAcceptorThreads(10)
                 .setHttpSelectorThreads(11)
                 .setHttpsAcceptorThreads(12)
@@ -148,6 +163,7 @@ public class TestHttpServerConfig
                 .setMinThreads(100)
                 .setMaxThreads(500)
                 .setThreadMaxIdleTime(new Duration(10, MINUTES))
+                .setVirtualThreads(true)
                 .setNetworkMaxIdleTime(new Duration(20, MINUTES))
                 .setMaxRequestHeaderSize(new DataSize(32, KILOBYTE))
                 .setUserAuthFile("/auth")
@@ -166,6 +182,25 @@ public class TestHttpServerConfig
         assertFullMapping(properties, expected);
     }
 
+    @Test
+    public void testValidatesPathSampleRates()
+    {
+        assertValidates(new HttpServerConfig().setLogPathSampleRates(ImmutableMap.of("/a", 0.0, "/b", 1.0)));
+        assertFailsValidation(new HttpServerConfig().setLogPathSampleRates(ImmutableMap.of("/a", 1.5)),
+                "logPathSampleRatesValid", "must be between 0.0 and 1.0", AssertTrue.class);
+    }
+
+    @Test
+    public void testValidatesAcceptorThreadsWithVirtualThreads()
+    {
+        assertValidates(new HttpServerConfig().setVirtualThreads(true));
+        assertValidates(new HttpServerConfig().setHttpAcceptorThreads(1).setHttpsAcceptorThreads(1));
+        assertFailsValidation(new HttpServerConfig().setVirtualThreads(true).setHttpAcceptorThreads(1),
+                "acceptorThreadsSetWithVirtualThreads", "acceptor threads cannot be set with virtual threads", AssertFalse.class);
+        assertFailsValidation(new HttpServerConfig().setVirtualThreads(true).setHttpsAcceptorThreads(1),
+                "acceptorThreadsSetWithVirtualThreads", "acceptor threads cannot be set with virtual threads", AssertFalse.class);
+    }
+
     @Test
     public void testLegacyProperties()
     {
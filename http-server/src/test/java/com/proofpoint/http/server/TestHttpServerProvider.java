@@ -31,12 +31,14 @@ import com.proofpoint.log.Level;
 import com.proofpoint.log.Logging;
 import com.proofpoint.node.NodeConfig;
 import com.proofpoint.node.NodeInfo;
+import org.testng.SkipException;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeSuite;
 import org.testng.annotations.Test;
 
 import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.util.ArrayList;
@@ -58,6 +60,7 @@ import static com.proofpoint.testing.Closeables.closeQuietly;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -300,6 +303,23 @@ public class TestHttpServerProvider
         assertNull(requestLog, "request log");
     }
 
+    @Test
+    public void testRequestLogNotSampled()
+            throws Exception
+    {
+        config.setLogSampleRate(0);
+        createServer();
+        lifeCycleManager.start();
+
+        try (JettyHttpClient httpClient = new JettyHttpClient()) {
+            StatusResponse response = httpClient.execute(prepareGet().setUri(httpServerInfo.getHttpUri()).build(), createStatusResponseHandler());
+
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+        }
+        server.stop();
+        verify(requestLog, never()).log(any());
+    }
+
     @Test
     public void testLogOnExceptionNotReadingBody()
             throws Exception
@@ -554,6 +574,40 @@ public class TestHttpServerProvider
         createAndStartServer();
     }
 
+    @Test
+    public void testVirtualThreads()
+            throws Exception
+    {
+        if (!VirtualThreadExecutor.isSupported()) {
+            throw new SkipException("virtual threads are not supported by this runtime");
+        }
+        config.setVirtualThreads(true);
+        createServer(new ThreadNameServlet());
+        lifeCycleManager.start();
+
+        try (JettyHttpClient client = new JettyHttpClient()) {
+            StatusResponse response = client.execute(prepareGet()
+                    .setUri(httpServerInfo.getHttpUri())
+                    .setHeader("X-Proofpoint-TraceToken", "some-token-value")
+                    .build(), createStatusResponseHandler());
+
+            assertEquals(response.getStatusCode(), HttpServletResponse.SC_OK);
+            String threadName = response.getHeader("X-Thread-Name");
+            assertTrue(threadName.startsWith("http-worker-virtual-"), threadName);
+            assertTrue(threadName.endsWith(" some-token-value"), threadName);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "virtual threads require Java 21 or later")
+    public void testVirtualThreadsNotSupported()
+    {
+        if (VirtualThreadExecutor.isSupported()) {
+            throw new SkipException("virtual threads are supported by this runtime");
+        }
+        config.setVirtualThreads(true);
+        createServer();
+    }
+
     @Test
     public void testStopRequestLog()
             throws Exception
@@ -606,6 +660,16 @@ public class TestHttpServerProvider
         server = serverProvider.get();
     }
 
+    private static class ThreadNameServlet
+            extends HttpServlet
+    {
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response)
+        {
+            response.setHeader("X-Thread-Name", Thread.currentThread().getName());
+        }
+    }
+
     static void closeChannels(HttpServerInfo info)
     {
         closeQuietly(info.getHttpChannel(), info.getHttpsChannel(), info.getAdminChannel());
@@ -15,12 +15,15 @@
  */
 package com.proofpoint.http.server;
 
+import java.io.IOException;
+
 import static com.proofpoint.tracetoken.TraceTokenManager.getCurrentRequestToken;
 
 public class TestJsonRequestLog extends AbstractTestRequestLog
 {
     @Override
     protected void setup(HttpServerConfig httpServerConfig)
+            throws IOException
     {
         logger = new JsonRequestLog(httpServerConfig);
     }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.http.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.units.Duration;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Response;
+import org.testng.annotations.Test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestRequestLogSampler
+{
+    private static final long NOW = 1_000_000;
+
+    @Test
+    public void testSampleRate()
+    {
+        RequestLogSampler sampler = new RequestLogSampler(new HttpServerConfig());
+        assertTrue(sampler.isSampled(request("/v1/thing", 200, 0), NOW));
+        assertEquals(sampler.getSuppressed().getTotalCount(), 0);
+
+        sampler = new RequestLogSampler(new HttpServerConfig().setLogSampleRate(0));
+        assertFalse(sampler.isSampled(request("/v1/thing", 200, 0), NOW));
+        assertFalse(sampler.isSampled(request("/v1/thing", 304, 0), NOW));
+        assertEquals(sampler.getSuppressed().getTotalCount(), 2);
+    }
+
+    @Test
+    public void testErrorsAlwaysLogged()
+    {
+        RequestLogSampler sampler = new RequestLogSampler(new HttpServerConfig().setLogSampleRate(0));
+        assertTrue(sampler.isSampled(request("/v1/thing", 400, 0), NOW));
+        assertTrue(sampler.isSampled(request("/v1/thing", 503, 0), NOW));
+        assertEquals(sampler.getSuppressed().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testSlowRequestsAlwaysLogged()
+    {
+        RequestLogSampler sampler = new RequestLogSampler(new HttpServerConfig()
+                .setLogSampleRate(0)
+                .setLogSlowThreshold(new Duration(2, SECONDS)));
+        assertTrue(sampler.isSampled(request("/v1/thing", 200, 2000), NOW));
+        assertFalse(sampler.isSampled(request("/v1/thing", 200, 1999), NOW));
+    }
+
+    @Test
+    public void testPathSampleRates()
+    {
+        RequestLogSampler sampler = new RequestLogSampler(new HttpServerConfig()
+                .setLogSampleRate(0)
+                .setLogPathSampleRates(ImmutableMap.of(
+                        "/v1/", 1.0,
+                        "/v1/status", 0.0)));
+        assertTrue(sampler.isSampled(request("/v1/thing", 200, 0), NOW));
+        assertFalse(sampler.isSampled(request("/v1/status", 200, 0), NOW));
+        assertFalse(sampler.isSampled(request("/v1/status/detail", 200, 0), NOW));
+        assertFalse(sampler.isSampled(request("/v2/thing", 200, 0), NOW));
+        assertFalse(sampler.isSampled(request(null, 200, 0), NOW));
+        assertEquals(sampler.getSuppressed().getTotalCount(), 4);
+    }
+
+    private static Request request(String path, int status, long durationMillis)
+    {
+        Request request = mock(Request.class);
+        Response response = mock(Response.class);
+        when(request.getResponse()).thenReturn(response);
+        when(request.getRequestURI()).thenReturn(path);
+        when(request.getTimeStamp()).thenReturn(NOW - durationMillis);
+        when(response.getStatus()).thenReturn(status);
+        return request;
+    }
+}
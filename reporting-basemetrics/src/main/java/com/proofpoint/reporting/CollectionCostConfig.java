@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.proofpoint.configuration.Config;
+import com.proofpoint.configuration.ConfigDescription;
+
+import javax.validation.constraints.Min;
+
+public class CollectionCostConfig
+{
+    private int slowestAttributes = 20;
+    private boolean namePrefixStats = false;
+
+    @Min(0)
+    public int getSlowestAttributes()
+    {
+        return slowestAttributes;
+    }
+
+    @Config("reporting.collection.slowest-attributes")
+    @ConfigDescription("Number of the slowest metric value reads of the last collection to list on /metrics/cost")
+    public CollectionCostConfig setSlowestAttributes(int slowestAttributes)
+    {
+        this.slowestAttributes = slowestAttributes;
+        return this;
+    }
+
+    public boolean isNamePrefixStats()
+    {
+        return namePrefixStats;
+    }
+
+    @Config("reporting.collection.name-prefix-stats")
+    @ConfigDescription("Whether to report the collection time and number of series of each metric name prefix")
+    public CollectionCostConfig setNamePrefixStats(boolean namePrefixStats)
+    {
+        this.namePrefixStats = namePrefixStats;
+        return this;
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.proofpoint.reporting.ReportedBeanRegistry.RegistrationInfo;
+
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures what metric collection costs: the time each attribute read
+ * takes, the number of series each metric name prefix produces, and the
+ * bytes each collector writes. The costs of each collector's last
+ * collection are served on {@code /metrics/cost}.
+ * <p>
+ * The slowest {@code reporting.collection.slowest-attributes} reads are
+ * kept; reporting the collection time and series of every name prefix is
+ * enabled by {@code reporting.collection.name-prefix-stats}.
+ */
+public class CollectionCostTracker
+{
+    private static final Comparator<AttributeCost> BY_NANOS = Comparator.comparingLong(AttributeCost::getNanos);
+
+    private final int slowestAttributes;
+    private final boolean namePrefixStats;
+    private final CollectionCostStats stats;
+    private final ConcurrentMap<String, CollectionSummary> lastCollections = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Long> lastWrittenBytes = new ConcurrentHashMap<>();
+
+    @Inject
+    CollectionCostTracker(CollectionCostConfig config, ReportCollectionFactory reportCollectionFactory)
+    {
+        this(config, reportCollectionFactory.createReportCollection(CollectionCostStats.class, false, "ReportCollector", ImmutableMap.of()));
+    }
+
+    CollectionCostTracker(CollectionCostConfig config, CollectionCostStats stats)
+    {
+        slowestAttributes = config.getSlowestAttributes();
+        namePrefixStats = config.isNamePrefixStats();
+        this.stats = requireNonNull(stats, "stats is null");
+    }
+
+    /**
+     * Starts measuring one collection by {@code collector}.
+     */
+    CollectionCost startCollection(String collector)
+    {
+        return new CollectionCost(collector);
+    }
+
+    void recordWrittenBytes(String collector, long bytes)
+    {
+        stats.writtenBytes(collector).add(bytes);
+        lastWrittenBytes.put(collector, bytes);
+    }
+
+    /**
+     * Returns the costs of each collector's last finished collection, by
+     * collector name.
+     */
+    Map<String, CollectionSummary> getLastCollections()
+    {
+        return ImmutableSortedMap.copyOf(lastCollections);
+    }
+
+    /**
+     * Returns the number of bytes {@code collector} last wrote, or null if
+     * it has not written any.
+     */
+    Long getLastWrittenBytes(String collector)
+    {
+        return lastWrittenBytes.get(collector);
+    }
+
+    /**
+     * The costs accumulated during one collection. Reads may be recorded
+     * concurrently from the collection threads.
+     */
+    class CollectionCost
+    {
+        private final String collector;
+        private final long startNanos = System.nanoTime();
+        private final ConcurrentMap<String, NamePrefixAccumulator> namePrefixes = new ConcurrentHashMap<>();
+
+        // guarded by slowest
+        private final PriorityQueue<AttributeCost> slowest = new PriorityQueue<>(BY_NANOS);
+
+        // reads no slower than this cannot be among the slowest
+        private volatile long slowestThresholdNanos = slowestAttributes == 0 ? Long.MAX_VALUE : -1;
+
+        private CollectionCost(String collector)
+        {
+            this.collector = requireNonNull(collector, "collector is null");
+        }
+
+        /**
+         * Records the read of an attribute of a registered bean.
+         *
+         * @param reported whether the read produced a series
+         */
+        void recordRead(RegistrationInfo registrationInfo, String attributeName, long nanos, boolean reported)
+        {
+            String namePrefix = registrationInfo.getNamePrefix();
+            NamePrefixAccumulator accumulator = namePrefixes.get(namePrefix);
+            if (accumulator == null) {
+                accumulator = namePrefixes.computeIfAbsent(namePrefix, key -> new NamePrefixAccumulator());
+            }
+            accumulator.nanos.add(nanos);
+            if (reported) {
+                accumulator.series.increment();
+            }
+
+            if (nanos > slowestThresholdNanos) {
+                synchronized (slowest) {
+                    slowest.add(new AttributeCost(namePrefix, registrationInfo.getTags(), attributeName, nanos));
+                    if (slowest.size() > slowestAttributes) {
+                        slowest.poll();
+                    }
+                    if (slowest.size() == slowestAttributes) {
+                        slowestThresholdNanos = slowest.peek().getNanos();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Ends the collection, making its costs the last ones of the collector.
+         */
+        void finish()
+        {
+            long elapsedNanos = System.nanoTime() - startNanos;
+
+            List<AttributeCost> slowestList;
+            synchronized (slowest) {
+                slowestList = new ArrayList<>(slowest);
+            }
+            slowestList.sort(BY_NANOS.reversed());
+
+            List<NamePrefixCost> namePrefixList = new ArrayList<>(namePrefixes.size());
+            for (Map.Entry<String, NamePrefixAccumulator> entry : namePrefixes.entrySet()) {
+                NamePrefixCost cost = new NamePrefixCost(entry.getKey(), entry.getValue().nanos.sum(), entry.getValue().series.sum());
+                namePrefixList.add(cost);
+                if (namePrefixStats) {
+                    stats.namePrefixCollectionTime(collector, cost.getNamePrefix()).add(cost.getNanos(), NANOSECONDS);
+                    stats.namePrefixSeries(collector, cost.getNamePrefix()).add(cost.getSeries());
+                }
+            }
+            namePrefixList.sort(Comparator.comparingLong(NamePrefixCost::getNanos).reversed());
+
+            lastCollections.put(collector, new CollectionSummary(elapsedNanos, slowestList, namePrefixList));
+        }
+    }
+
+    private static class NamePrefixAccumulator
+    {
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder series = new LongAdder();
+    }
+
+    static class CollectionSummary
+    {
+        private final long elapsedNanos;
+        private final List<AttributeCost> slowestAttributes;
+        private final List<NamePrefixCost> namePrefixes;
+
+        CollectionSummary(long elapsedNanos, List<AttributeCost> slowestAttributes, List<NamePrefixCost> namePrefixes)
+        {
+            this.elapsedNanos = elapsedNanos;
+            this.slowestAttributes = ImmutableList.copyOf(slowestAttributes);
+            this.namePrefixes = ImmutableList.copyOf(namePrefixes);
+        }
+
+        long getElapsedNanos()
+        {
+            return elapsedNanos;
+        }
+
+        /**
+         * The slowest attribute reads, slowest first.
+         */
+        List<AttributeCost> getSlowestAttributes()
+        {
+            return slowestAttributes;
+        }
+
+        /**
+         * The costs of each name prefix, slowest first.
+         */
+        List<NamePrefixCost> getNamePrefixes()
+        {
+            return namePrefixes;
+        }
+    }
+
+    static class AttributeCost
+    {
+        private final String namePrefix;
+        private final Map<String, String> tags;
+        private final String attributeName;
+        private final long nanos;
+
+        AttributeCost(String namePrefix, Map<String, String> tags, String attributeName, long nanos)
+        {
+            this.namePrefix = namePrefix;
+            this.tags = tags;
+            this.attributeName = attributeName;
+            this.nanos = nanos;
+        }
+
+        String getNamePrefix()
+        {
+            return namePrefix;
+        }
+
+        Map<String, String> getTags()
+        {
+            return tags;
+        }
+
+        String getAttributeName()
+        {
+            return attributeName;
+        }
+
+        long getNanos()
+        {
+            return nanos;
+        }
+    }
+
+    static class NamePrefixCost
+    {
+        private final String namePrefix;
+        private final long nanos;
+        private final long series;
+
+        NamePrefixCost(String namePrefix, long nanos, long series)
+        {
+            this.namePrefix = namePrefix;
+            this.nanos = nanos;
+            this.series = series;
+        }
+
+        String getNamePrefix()
+        {
+            return namePrefix;
+        }
+
+        long getNanos()
+        {
+            return nanos;
+        }
+
+        long getSeries()
+        {
+            return series;
+        }
+    }
+}
@@ -18,7 +18,9 @@ package com.proofpoint.reporting;
 import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Scopes;
+import com.proofpoint.stats.HistogramArena;
 
+import static com.proofpoint.configuration.ConfigBinder.bindConfig;
 import static com.proofpoint.reporting.ReportBinder.reportBinder;
 
 public class ReportingBaseMetricsModule
@@ -29,5 +31,14 @@ public class ReportingBaseMetricsModule
     {
         binder.bind(LogCounter.class).in(Scopes.SINGLETON);
         reportBinder(binder).export(LogCounter.class).withNamePrefix("ReportCollector");
+
+        binder.bind(HistogramArena.class).toInstance(HistogramArena.defaultArena());
+        reportBinder(binder).export(HistogramArena.class).withNamePrefix("ReportCollector.HistogramArena");
+
+        binder.bind(ShardedCollector.class).in(Scopes.SINGLETON);
+        bindConfig(binder).bind(ShardedCollectorConfig.class);
+
+        binder.bind(CollectionCostTracker.class).in(Scopes.SINGLETON);
+        bindConfig(binder).bind(CollectionCostConfig.class);
     }
 }
@@ -0,0 +1,313 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.proofpoint.log.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Reads metric values for the report and Prometheus collectors.
+ * <p>
+ * With {@code reporting.collection.threads} greater than one, each shard of
+ * attributes is read on a thread from a pool of twice that many threads. An
+ * attribute whose getter takes longer than
+ * {@code reporting.collection.attribute-timeout} is skipped and the rest of
+ * its shard is read on another pool thread; the getter that overran keeps
+ * its thread until it returns, and until then the attribute is skipped by
+ * later collections rather than read on yet another thread. A shard that no
+ * pool thread starts reading within the timeout is skipped. Skipped
+ * attributes are counted as shard timeouts. An attribute whose getter throws
+ * is logged and skipped.
+ */
+public class ShardedCollector
+{
+    private static final Logger log = Logger.get(ShardedCollector.class);
+
+    private final int threads;
+    private final long attributeTimeoutNanos;
+    private final ShardedCollectorStats stats;
+    private final ThreadPoolExecutor executor;
+    // attributes whose getter overran and has not returned, with the number of such reads
+    private final ConcurrentMap<Object, Integer> overrunning = new ConcurrentHashMap<>();
+
+    @Inject
+    ShardedCollector(ShardedCollectorConfig config, ReportCollectionFactory reportCollectionFactory)
+    {
+        this(config, reportCollectionFactory.createReportCollection(ShardedCollectorStats.class, false, "ReportCollector", ImmutableMap.of()));
+    }
+
+    ShardedCollector(ShardedCollectorConfig config, ShardedCollectorStats stats)
+    {
+        threads = config.getThreads();
+        attributeTimeoutNanos = config.getAttributeTimeout().roundTo(NANOSECONDS);
+        this.stats = requireNonNull(stats, "stats is null");
+        if (threads > 1) {
+            // one thread per shard, and as many to replace threads held by getters that overran
+            int poolSize = 2 * threads;
+            executor = new ThreadPoolExecutor(poolSize, poolSize, 0, MILLISECONDS, new LinkedBlockingQueue<>(), new ThreadFactoryBuilder()
+                    .setNameFormat("reporting-collection-%s")
+                    .setDaemon(true)
+                    .build());
+        }
+        else {
+            executor = null;
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The number of shards callers should divide their attributes into.
+     */
+    int getShardCount()
+    {
+        return threads;
+    }
+
+    /**
+     * Applies {@code getter} to each item of each shard.
+     *
+     * @param collector the name of the calling collector, for the shard statistics
+     * @param key identifies the attribute an item reads across collections,
+     * so an attribute whose getter has not returned is not read again
+     * @return for each shard, the results for each of its items, with null
+     * for items that were skipped because their getter overran its time
+     * budget or threw
+     */
+    <T, R> List<List<R>> collect(String collector, List<List<T>> shards, Function<T, ?> key, Function<T, R> getter)
+    {
+        ImmutableList.Builder<List<R>> builder = ImmutableList.builder();
+        if (executor == null) {
+            for (List<T> items : shards) {
+                List<R> results = new ArrayList<>(items.size());
+                for (T item : items) {
+                    results.add(apply(getter, item));
+                }
+                builder.add(results);
+            }
+            return builder.build();
+        }
+
+        List<Shard<T, R>> tasks = new ArrayList<>(shards.size());
+        for (List<T> items : shards) {
+            Shard<T, R> task = new Shard<>(items, key, getter, overrunning);
+            tasks.add(task);
+            task.start(executor);
+        }
+        for (int i = 0; i < tasks.size(); i++) {
+            Shard<T, R> task = tasks.get(i);
+            List<R> results = task.await(attributeTimeoutNanos, executor);
+            stats.shardCollectionTime(collector, i).add(task.getElapsedNanos(), NANOSECONDS);
+            int skipped = task.getSkipped();
+            if (skipped > 0) {
+                stats.shardTimeout(collector, i).add(skipped);
+                log.warn("%s collection shard %s timed out; skipped %s of %s attributes",
+                        collector, i, skipped, shards.get(i).size());
+            }
+            builder.add(results);
+        }
+        return builder.build();
+    }
+
+    private static <T, R> R apply(Function<T, R> getter, T item)
+    {
+        try {
+            return getter.apply(item);
+        }
+        catch (RuntimeException e) {
+            log.error(e, "Unexpected exception from metric collection");
+            return null;
+        }
+    }
+
+    /**
+     * The items of a shard, read in order by one worker at a time. When the
+     * collecting thread gives up on the item a worker is reading, it starts
+     * a new worker for the remaining items and the old one exits once its
+     * getter returns.
+     */
+    private static class Shard<T, R>
+    {
+        private final List<T> items;
+        private final Function<T, ?> key;
+        private final Function<T, R> getter;
+        private final ConcurrentMap<Object, Integer> overrunning;
+
+        // guarded by this
+        private final Object[] results;
+        private final boolean[] overran;
+        private int next = 0;
+        private int reading = -1;
+        private int worker = 0;
+        private Runnable queuedWorker;
+        private boolean started = false;
+        private boolean finished = false;
+        private long startNanos;
+        private long progressNanos;
+        private long endNanos;
+        private int skipped = 0;
+
+        Shard(List<T> items, Function<T, ?> key, Function<T, R> getter, ConcurrentMap<Object, Integer> overrunning)
+        {
+            this.items = items;
+            this.key = key;
+            this.getter = getter;
+            this.overrunning = overrunning;
+            results = new Object[items.size()];
+            overran = new boolean[items.size()];
+        }
+
+        synchronized void start(ThreadPoolExecutor executor)
+        {
+            // until a worker runs, the item timeout counts from submission
+            progressNanos = System.nanoTime();
+            startWorker(executor);
+        }
+
+        // called with this lock held
+        private void startWorker(ThreadPoolExecutor executor)
+        {
+            int worker = ++this.worker;
+            queuedWorker = () -> read(worker);
+            executor.execute(queuedWorker);
+        }
+
+        private void read(int worker)
+        {
+            while (true) {
+                int index;
+                synchronized (this) {
+                    if (worker != this.worker) {
+                        return;
+                    }
+                    queuedWorker = null;
+                    long now = System.nanoTime();
+                    if (!started) {
+                        started = true;
+                        startNanos = now;
+                    }
+                    progressNanos = now;
+                    // a getter still running from an earlier collection would hold another thread
+                    while (next < items.size() && overrunning.containsKey(key.apply(items.get(next)))) {
+                        ++next;
+                        ++skipped;
+                    }
+                    if (next == items.size()) {
+                        reading = -1;
+                        finished = true;
+                        endNanos = now;
+                        notifyAll();
+                        return;
+                    }
+                    index = next++;
+                    reading = index;
+                }
+
+                R result = apply(getter, items.get(index));
+
+                synchronized (this) {
+                    if (overran[index]) {
+                        overrunning.computeIfPresent(key.apply(items.get(index)), (attribute, count) -> count == 1 ? null : count - 1);
+                    }
+                    if (worker != this.worker) {
+                        return;
+                    }
+                    results[index] = result;
+                }
+            }
+        }
+
+        /**
+         * Waits until every item has been read or skipped, skipping each
+         * item that takes longer than {@code timeoutNanos} to read and the
+         * rest of the shard if no worker starts within {@code timeoutNanos}.
+         */
+        @SuppressWarnings("unchecked")
+        synchronized List<R> await(long timeoutNanos, ThreadPoolExecutor executor)
+        {
+            try {
+                while (!finished) {
+                    long remainingNanos = progressNanos + timeoutNanos - System.nanoTime();
+                    if (remainingNanos > 0) {
+                        NANOSECONDS.timedWait(this, remainingNanos);
+                        continue;
+                    }
+                    if (reading == -1) {
+                        // every pool thread is busy or held by an overrunning getter
+                        executor.remove(queuedWorker);
+                        skipRemaining();
+                        break;
+                    }
+                    ++skipped;
+                    overran[reading] = true;
+                    overrunning.merge(key.apply(items.get(reading)), 1, Integer::sum);
+                    reading = -1;
+                    progressNanos = System.nanoTime();
+                    startWorker(executor);
+                }
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                skipRemaining();
+            }
+            return Collections.unmodifiableList(Arrays.asList((R[]) results.clone()));
+        }
+
+        // called with this lock held
+        private void skipRemaining()
+        {
+            skipped += items.size() - next + (reading == -1 ? 0 : 1);
+            next = items.size();
+            ++worker;
+            finished = true;
+            endNanos = System.nanoTime();
+        }
+
+        synchronized long getElapsedNanos()
+        {
+            return started ? endNanos - startNanos : 0;
+        }
+
+        synchronized int getSkipped()
+        {
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.proofpoint.configuration.Config;
+import com.proofpoint.configuration.ConfigDescription;
+import com.proofpoint.units.Duration;
+import com.proofpoint.units.MinDuration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class ShardedCollectorConfig
+{
+    private int threads = 1;
+    private Duration attributeTimeout = new Duration(10, SECONDS);
+
+    @Min(1)
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    @Config("reporting.collection.threads")
+    @ConfigDescription("Number of threads reading metric values in parallel; 1 reads them on the collecting thread")
+    public ShardedCollectorConfig setThreads(int threads)
+    {
+        this.threads = threads;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1ms")
+    public Duration getAttributeTimeout()
+    {
+        return attributeTimeout;
+    }
+
+    @Config("reporting.collection.attribute-timeout")
+    @ConfigDescription("Time a thread may spend reading one metric value before collection proceeds without the rest of its shard")
+    public ShardedCollectorConfig setAttributeTimeout(Duration attributeTimeout)
+    {
+        this.attributeTimeout = attributeTimeout;
+        return this;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Table;
+import com.proofpoint.log.Logger;
+
+import javax.inject.Inject;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Passes each report to every {@link ReportSink} bound with
+ * {@link ForReportCollector}.
+ */
+class CompositeReportSink implements ReportSink
+{
+    private static final Logger log = Logger.get(CompositeReportSink.class);
+
+    private final Set<ReportSink> reportSinks;
+
+    @Inject
+    CompositeReportSink(@ForReportCollector Set<ReportSink> reportSinks)
+    {
+        this.reportSinks = ImmutableSet.copyOf(reportSinks);
+    }
+
+    @Override
+    public void report(long systemTimeMillis, Table<String, Map<String, String>, Object> collectedData)
+    {
+        for (ReportSink reportSink : reportSinks) {
+            try {
+                reportSink.report(systemTimeMillis, collectedData);
+            }
+            catch (RuntimeException e) {
+                log.error(e, "Unexpected exception from report sink %s", reportSink.getClass().getSimpleName());
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import com.google.common.collect.Table.Cell;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Removes the values of a report that have not changed since they were last
+ * reported, for {@code reporting.delta-only}. Every value is kept once per
+ * {@code reporting.full-report-interval}. {@code ReportCollector.NumMetrics}
+ * is always kept, so the server sees that the node is reporting.
+ */
+class DeltaReportFilter
+{
+    private static final String NUM_METRICS = "ReportCollector.NumMetrics";
+
+    private final long fullReportIntervalMillis;
+
+    // guarded by this
+    private final Table<String, Map<String, String>, Object> lastReported = HashBasedTable.create();
+    private long lastFullReportMillis = 0;
+
+    DeltaReportFilter(ReportClientConfig reportClientConfig)
+    {
+        fullReportIntervalMillis = reportClientConfig.getFullReportInterval().toMillis();
+    }
+
+    synchronized Table<String, Map<String, String>, Object> filter(long systemTimeMillis, Table<String, Map<String, String>, Object> collectedData)
+    {
+        if (lastReported.isEmpty() || systemTimeMillis - lastFullReportMillis >= fullReportIntervalMillis) {
+            // also forgets the values of series that are no longer reported
+            lastReported.clear();
+            lastReported.putAll(collectedData);
+            lastFullReportMillis = systemTimeMillis;
+            return collectedData;
+        }
+
+        ImmutableTable.Builder<String, Map<String, String>, Object> builder = ImmutableTable.builder();
+        for (Cell<String, Map<String, String>, Object> cell : collectedData.cellSet()) {
+            Object previous = lastReported.put(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+            if (NUM_METRICS.equals(cell.getRowKey()) || !Objects.equals(cell.getValue(), previous)) {
+                builder.put(cell);
+            }
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.proofpoint.configuration.Config;
+import com.proofpoint.configuration.ConfigDescription;
+import com.proofpoint.units.Duration;
+import com.proofpoint.units.MinDuration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import java.net.URI;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+public class RemoteWriteConfig
+{
+    private URI uri = null;
+    private int shards = 4;
+    private int queueMaxSamples = 100_000;
+    private int maxSamplesPerSend = 2000;
+    private Duration retryMaxDelay = new Duration(1, MINUTES);
+
+    @NotNull
+    public URI getUri()
+    {
+        return uri;
+    }
+
+    @Config("reporting.remote-write.uri")
+    @ConfigDescription("Prometheus remote write endpoint to send each minute's report to")
+    public RemoteWriteConfig setUri(URI uri)
+    {
+        this.uri = uri;
+        return this;
+    }
+
+    @Min(1)
+    public int getShards()
+    {
+        return shards;
+    }
+
+    @Config("reporting.remote-write.shards")
+    @ConfigDescription("Number of queues sending to the remote write endpoint concurrently")
+    public RemoteWriteConfig setShards(int shards)
+    {
+        this.shards = shards;
+        return this;
+    }
+
+    @Min(1)
+    public int getQueueMaxSamples()
+    {
+        return queueMaxSamples;
+    }
+
+    @Config("reporting.remote-write.queue-max-samples")
+    @ConfigDescription("Maximum number of samples each queue holds awaiting sending; the oldest are dropped beyond that")
+    public RemoteWriteConfig setQueueMaxSamples(int queueMaxSamples)
+    {
+        this.queueMaxSamples = queueMaxSamples;
+        return this;
+    }
+
+    @Min(1)
+    public int getMaxSamplesPerSend()
+    {
+        return maxSamplesPerSend;
+    }
+
+    @Config("reporting.remote-write.max-samples-per-send")
+    @ConfigDescription("Maximum number of samples in one remote write request")
+    public RemoteWriteConfig setMaxSamplesPerSend(int maxSamplesPerSend)
+    {
+        this.maxSamplesPerSend = maxSamplesPerSend;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getRetryMaxDelay()
+    {
+        return retryMaxDelay;
+    }
+
+    @Config("reporting.remote-write.retry-max-delay")
+    @ConfigDescription("Maximum delay between attempts to send after a failure")
+    public RemoteWriteConfig setRetryMaxDelay(Duration retryMaxDelay)
+    {
+        this.retryMaxDelay = retryMaxDelay;
+        return this;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import org.iq80.snappy.Snappy;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Encodes snappy-compressed {@code prometheus.WriteRequest} protocol buffer
+ * messages for remote write. The few messages involved are encoded directly
+ * rather than through generated classes.
+ * <p>
+ * Each time series is encoded once, as a field of a {@code WriteRequest}, so
+ * a request is the concatenation of the series it holds.
+ */
+final class RemoteWriteEncoder
+{
+    // prometheus.WriteRequest
+    private static final int REQUEST_TIMESERIES = 1;
+    // prometheus.TimeSeries
+    private static final int TIMESERIES_LABELS = 1;
+    private static final int TIMESERIES_SAMPLES = 2;
+    // prometheus.Label
+    private static final int LABEL_NAME = 1;
+    private static final int LABEL_VALUE = 2;
+    // prometheus.Sample
+    private static final int SAMPLE_VALUE = 1;
+    private static final int SAMPLE_TIMESTAMP = 2;
+
+    private static final int WIRE_TYPE_VARINT = 0;
+    private static final int WIRE_TYPE_FIXED64 = 1;
+    private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+
+    private RemoteWriteEncoder()
+    {}
+
+    /**
+     * Encodes a time series of one sample.
+     *
+     * @param labels the labels, including {@code __name__}, sorted by name
+     * as remote write requires
+     */
+    static byte[] encodeTimeSeries(SortedMap<String, String> labels, double value, long timestampMillis)
+    {
+        Buffer timeSeries = new Buffer();
+        Buffer message = new Buffer();
+        for (Entry<String, String> label : labels.entrySet()) {
+            message.writeString(LABEL_NAME, label.getKey());
+            message.writeString(LABEL_VALUE, label.getValue());
+            timeSeries.writeMessage(TIMESERIES_LABELS, message);
+        }
+        message.writeDouble(SAMPLE_VALUE, value);
+        message.writeVarintField(SAMPLE_TIMESTAMP, timestampMillis);
+        timeSeries.writeMessage(TIMESERIES_SAMPLES, message);
+
+        Buffer field = new Buffer();
+        field.writeMessage(REQUEST_TIMESERIES, timeSeries);
+        return field.toByteArray();
+    }
+
+    /**
+     * Returns the compressed request holding the time series.
+     *
+     * @param timeSeries time series from {@link #encodeTimeSeries}
+     */
+    static byte[] encodeWriteRequest(List<byte[]> timeSeries)
+    {
+        int length = 0;
+        for (byte[] series : timeSeries) {
+            length += series.length;
+        }
+        byte[] request = new byte[length];
+        int position = 0;
+        for (byte[] series : timeSeries) {
+            System.arraycopy(series, 0, request, position, series.length);
+            position += series.length;
+        }
+        return Snappy.compress(request);
+    }
+
+    private static class Buffer
+    {
+        private byte[] bytes = new byte[64];
+        private int size = 0;
+
+        void writeVarintField(int field, long value)
+        {
+            writeTag(field, WIRE_TYPE_VARINT);
+            writeVarint(value);
+        }
+
+        void writeDouble(int field, double value)
+        {
+            writeTag(field, WIRE_TYPE_FIXED64);
+            long bits = Double.doubleToRawLongBits(value);
+            ensureCapacity(8);
+            for (int i = 0; i < 8; i++) {
+                bytes[size++] = (byte) (bits >>> (i * 8));
+            }
+        }
+
+        void writeString(int field, String value)
+        {
+            byte[] encoded = value.getBytes(UTF_8);
+            writeTag(field, WIRE_TYPE_LENGTH_DELIMITED);
+            writeVarint(encoded.length);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        /**
+         * Writes {@code message} as a field and empties it.
+         */
+        void writeMessage(int field, Buffer message)
+        {
+            writeTag(field, WIRE_TYPE_LENGTH_DELIMITED);
+            writeVarint(message.size);
+            ensureCapacity(message.size);
+            System.arraycopy(message.bytes, 0, bytes, size, message.size);
+            size += message.size;
+            message.size = 0;
+        }
+
+        byte[] toByteArray()
+        {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void writeVarint(long value)
+        {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeTag(int field, int wireType)
+        {
+            writeVarint((field << 3) | wireType);
+        }
+
+        private void ensureCapacity(int length)
+        {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.inject.Binder;
+import com.google.inject.Module;
+
+import static com.google.inject.Scopes.SINGLETON;
+import static com.google.inject.multibindings.Multibinder.newSetBinder;
+import static com.proofpoint.configuration.ConfigBinder.bindConfig;
+import static com.proofpoint.http.client.HttpClientBinder.httpClientBinder;
+import static com.proofpoint.reporting.ReportBinder.reportBinder;
+
+/**
+ * Installed with {@link ReportingClientModule}, also sends each minute's
+ * report to the Prometheus remote write endpoint {@code reporting.remote-write.uri}.
+ */
+public class RemoteWriteModule
+    implements Module
+{
+    @Override
+    public void configure(Binder binder)
+    {
+        binder.bind(RemoteWriteSink.class).in(SINGLETON);
+        newSetBinder(binder, ReportSink.class, ForReportCollector.class).addBinding().to(RemoteWriteSink.class);
+        reportBinder(binder).export(RemoteWriteSink.class).withNamePrefix("ReportCollector.RemoteWrite");
+
+        httpClientBinder(binder).bindHttpClient("remote-write", ForRemoteWrite.class);
+        bindConfig(binder).bind(RemoteWriteConfig.class);
+    }
+}
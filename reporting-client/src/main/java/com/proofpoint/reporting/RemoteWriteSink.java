@@ -0,0 +1,288 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Table;
+import com.proofpoint.http.client.HttpClient;
+import com.proofpoint.http.client.Request;
+import com.proofpoint.http.client.StringResponseHandler.StringResponse;
+import com.proofpoint.log.Logger;
+import com.proofpoint.node.NodeInfo;
+import com.proofpoint.reporting.ReportClient.UploadResult;
+import com.proofpoint.stats.CounterStat;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static com.proofpoint.concurrent.Threads.daemonThreadsNamed;
+import static com.proofpoint.http.client.Request.Builder.preparePost;
+import static com.proofpoint.http.client.StaticBodyGenerator.createStaticBodyGenerator;
+import static com.proofpoint.http.client.StringResponseHandler.createStringResponseHandler;
+import static com.proofpoint.reporting.RemoteWriteEncoder.encodeTimeSeries;
+import static com.proofpoint.reporting.RemoteWriteEncoder.encodeWriteRequest;
+import static com.proofpoint.reporting.ReportClient.UploadResult.FAILED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.REJECTED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.SUCCEEDED;
+import static com.proofpoint.reporting.ReportUtils.sanitizeLabelName;
+import static com.proofpoint.reporting.ReportUtils.sanitizeMetricName;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Sends the numeric values of each report to the Prometheus remote write
+ * endpoint {@code reporting.remote-write.uri}.
+ * <p>
+ * Each report's samples are divided by series among
+ * {@code reporting.remote-write.shards} queues, so the samples of a series
+ * are sent in order, and each queue sends up to
+ * {@code reporting.remote-write.max-samples-per-send} of its oldest samples
+ * at a time. A queue holds up to {@code reporting.remote-write.queue-max-samples};
+ * beyond that, its oldest samples are dropped. Failed sends are retried with
+ * exponential backoff and samples the endpoint rejects are dropped.
+ */
+class RemoteWriteSink implements ReportSink
+{
+    private static final Logger log = Logger.get(RemoteWriteSink.class);
+    private static final long INITIAL_RETRY_DELAY_NANOS = SECONDS.toNanos(1);
+
+    private final URI uri;
+    private final Map<String, String> instanceLabels;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService executorService;
+    private final int queueMaxSamples;
+    private final int maxSamplesPerSend;
+    private final long retryMaxDelayNanos;
+    private final List<Shard> shards;
+    private final CounterStat dropped = new CounterStat();
+    private final CounterStat sendFailures = new CounterStat();
+
+    @Inject
+    RemoteWriteSink(RemoteWriteConfig config, NodeInfo nodeInfo, ReportTagConfig reportTagConfig, @ForRemoteWrite HttpClient httpClient)
+    {
+        this(config, nodeInfo, reportTagConfig, httpClient, newScheduledThreadPool(config.getShards(), daemonThreadsNamed("reporting-remote-write-%s")));
+    }
+
+    RemoteWriteSink(RemoteWriteConfig config, NodeInfo nodeInfo, ReportTagConfig reportTagConfig, HttpClient httpClient, ScheduledExecutorService executorService)
+    {
+        uri = requireNonNull(config.getUri(), "uri is null");
+        requireNonNull(nodeInfo, "nodeInfo is null");
+        requireNonNull(reportTagConfig, "reportTagConfig is null");
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+        this.executorService = requireNonNull(executorService, "executorService is null");
+        queueMaxSamples = config.getQueueMaxSamples();
+        maxSamplesPerSend = config.getMaxSamplesPerSend();
+        retryMaxDelayNanos = config.getRetryMaxDelay().roundTo(NANOSECONDS);
+
+        SortedMap<String, String> instanceLabels = new TreeMap<>();
+        instanceLabels.put("application", nodeInfo.getApplication());
+        instanceLabels.put("host", nodeInfo.getInternalHostname());
+        instanceLabels.put("environment", nodeInfo.getEnvironment());
+        instanceLabels.put("pool", nodeInfo.getPool());
+        for (Entry<String, String> tag : reportTagConfig.getTags().entrySet()) {
+            instanceLabels.put(sanitizeLabelName(tag.getKey()), tag.getValue());
+        }
+        this.instanceLabels = ImmutableSortedMap.copyOf(instanceLabels);
+
+        ImmutableList.Builder<Shard> shards = ImmutableList.builder();
+        for (int i = 0; i < config.getShards(); i++) {
+            shards.add(new Shard());
+        }
+        this.shards = shards.build();
+    }
+
+    @Override
+    public void report(long systemTimeMillis, Table<String, Map<String, String>, Object> collectedData)
+    {
+        List<List<byte[]>> shardSeries = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            shardSeries.add(new ArrayList<>());
+        }
+        for (Entry<String, Map<Map<String, String>, Object>> row : collectedData.rowMap().entrySet()) {
+            String name = row.getKey();
+            for (Entry<Map<String, String>, Object> column : row.getValue().entrySet()) {
+                Map<String, String> tags = column.getKey();
+                if (!(column.getValue() instanceof Number)) {
+                    continue;
+                }
+                SortedMap<String, String> labels = new TreeMap<>(instanceLabels);
+                for (Entry<String, String> tag : tags.entrySet()) {
+                    labels.put(sanitizeLabelName(tag.getKey()), tag.getValue());
+                }
+                labels.put("__name__", sanitizeMetricName(name));
+
+                int shard = Math.floorMod(31 * name.hashCode() + tags.hashCode(), shards.size());
+                shardSeries.get(shard).add(encodeTimeSeries(labels, ((Number) column.getValue()).doubleValue(), systemTimeMillis));
+            }
+        }
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).add(shardSeries.get(i));
+        }
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        executorService.shutdownNow();
+    }
+
+    @Gauge
+    public int getQueuedSamples()
+    {
+        int queuedSamples = 0;
+        for (Shard shard : shards) {
+            queuedSamples += shard.size();
+        }
+        return queuedSamples;
+    }
+
+    @Nested
+    public CounterStat getDropped()
+    {
+        return dropped;
+    }
+
+    @Nested
+    public CounterStat getSendFailures()
+    {
+        return sendFailures;
+    }
+
+    private UploadResult post(List<byte[]> timeSeries)
+    {
+        Request request = preparePost()
+                .setUri(uri)
+                .setHeader("Content-Type", "application/x-protobuf")
+                .setHeader("Content-Encoding", "snappy")
+                .setHeader("X-Prometheus-Remote-Write-Version", "0.1.0")
+                .setBodyGenerator(createStaticBodyGenerator(encodeWriteRequest(timeSeries)))
+                .build();
+        try {
+            StringResponse response = httpClient.execute(request, createStringResponseHandler());
+            if (response.getStatusCode() / 100 == 2) {
+                return SUCCEEDED;
+            }
+            log.warn("Failed to send remote write: %s %s %s", response.getStatusCode(), response.getStatusMessage(), response.getBody());
+            if (response.getStatusCode() >= 400 && response.getStatusCode() < 500
+                    && response.getStatusCode() != 408 && response.getStatusCode() != 429) {
+                return REJECTED;
+            }
+            return FAILED;
+        }
+        catch (RuntimeException e) {
+            log.warn(e, "Exception when trying to send remote write");
+            return FAILED;
+        }
+    }
+
+    /**
+     * A queue of encoded time series, sent by at most one task at a time.
+     */
+    private class Shard
+    {
+        // guarded by this
+        private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+        private boolean sending = false;
+        private long retryDelayNanos = 0;
+
+        void add(List<byte[]> timeSeries)
+        {
+            if (timeSeries.isEmpty()) {
+                return;
+            }
+            synchronized (this) {
+                for (byte[] series : timeSeries) {
+                    if (queue.size() == queueMaxSamples) {
+                        queue.removeFirst();
+                        dropped.add(1);
+                    }
+                    queue.addLast(series);
+                }
+                if (sending) {
+                    return;
+                }
+                sending = true;
+            }
+            executorService.execute(this::send);
+        }
+
+        synchronized int size()
+        {
+            return queue.size();
+        }
+
+        private void send()
+        {
+            List<byte[]> batch = new ArrayList<>();
+            synchronized (this) {
+                for (byte[] series : queue) {
+                    if (batch.size() == maxSamplesPerSend) {
+                        break;
+                    }
+                    batch.add(series);
+                }
+                if (batch.isEmpty()) {
+                    sending = false;
+                    return;
+                }
+            }
+
+            UploadResult result = post(batch);
+
+            long delayNanos;
+            synchronized (this) {
+                if (result == FAILED) {
+                    sendFailures.add(1);
+                    retryDelayNanos = Math.min(retryDelayNanos == 0 ? INITIAL_RETRY_DELAY_NANOS : retryDelayNanos * 2, retryMaxDelayNanos);
+                }
+                else {
+                    if (result == REJECTED) {
+                        dropped.add(batch.size());
+                    }
+                    retryDelayNanos = 0;
+                    // the batch was the head of the queue; any of it that
+                    // was dropped in the meantime is no longer there
+                    for (byte[] series : batch) {
+                        if (queue.peekFirst() == series) {
+                            queue.removeFirst();
+                        }
+                    }
+                }
+                delayNanos = retryDelayNanos;
+            }
+
+            if (delayNanos > 0) {
+                executorService.schedule(this::send, delayNanos, NANOSECONDS);
+            }
+            else {
+                executorService.execute(this::send);
+            }
+        }
+    }
+}
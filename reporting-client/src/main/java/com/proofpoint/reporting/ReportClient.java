@@ -19,7 +19,13 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.Table;
@@ -33,16 +39,31 @@ import com.proofpoint.node.NodeInfo;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import javax.inject.Inject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+import static com.google.common.collect.Tables.immutableCell;
 import static com.proofpoint.http.client.Request.Builder.preparePost;
 import static com.proofpoint.http.client.StringResponseHandler.createStringResponseHandler;
+import static com.proofpoint.reporting.ReportClient.UploadResult.FAILED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.REJECTED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.SUCCEEDED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.UNSUPPORTED_FORMAT;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
 class ReportClient
@@ -50,9 +71,22 @@ class ReportClient
     private static final Logger logger = Logger.get(ReportClient.class);
     private static final JsonFactory JSON_FACTORY = new JsonFactory();
     private static final URI UPLOAD_URI = URI.create("api/v1/datapoints");
+    private static final byte[] GZIPPED_ARRAY_START = gzip("[");
+    private static final byte[] GZIPPED_SEPARATOR = gzip(",");
+    private static final byte[] GZIPPED_ARRAY_END = gzip("]");
+    private static final String COLUMNAR_CONTENT_TYPE = "application/x-jackson-smile";
+    // reports are concatenated, so must not refer back to each other's strings
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory()
+            .disable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+            .disable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+    private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(SMILE_FACTORY);
+    private static final int SMILE_HEADER_START = ':';
+    private static final TypeReference<Map<String, String>> STRING_MAP = new TypeReference<Map<String, String>>() {};
+    private static final Pattern NOT_ACCEPTED_CHARACTER_PATTERN = Pattern.compile("[^-A-Za-z0-9./_]");
     private final Map<String, String> instanceTags;
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private volatile boolean columnar;
 
     @Inject
     ReportClient(NodeInfo nodeInfo, @ForReportClient HttpClient httpClient, ReportClientConfig reportClientConfig, ReportTagConfig reportTagConfig, ObjectMapper objectMapper)
@@ -71,31 +105,265 @@ class ReportClient
         builder.put("pool", nodeInfo.getPool());
         builder.putAll(reportTagConfig.getTags());
         this.instanceTags = builder.build();
+        columnar = reportClientConfig.isUploadColumnar();
 
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
     }
 
     public void report(long systemTimeMillis, Table<String, Map<String, String>, Object> collectedData)
     {
-        Request request = preparePost()
+        upload(ImmutableList.of(encode(systemTimeMillis, collectedData)));
+    }
+
+    /**
+     * Encodes the data points of one collection as a gzip member, so reports
+     * can be queued and later concatenated into one upload. The member holds
+     * either the comma-separated JSON objects of the data points or, while
+     * the columnar format is in use, a Smile document of the collection.
+     */
+    byte[] encode(long systemTimeMillis, Table<String, Map<String, String>, Object> collectedData)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(out)) {
+            if (columnar) {
+                writeColumnar(gzipOutputStream, systemTimeMillis, collectedData);
+            }
+            else {
+                writeJson(gzipOutputStream, systemTimeMillis, collectedData.cellSet(), instanceTags);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Uploads encoded reports. Consecutive reports in the same format are
+     * uploaded in one request.
+     *
+     * @param reports reports from {@link #encode} of non-empty tables
+     */
+    UploadResult upload(List<byte[]> reports)
+    {
+        UploadResult result = SUCCEEDED;
+        int start = 0;
+        while (start < reports.size()) {
+            boolean columnarRun = isColumnar(reports.get(start));
+            int end = start + 1;
+            while (end < reports.size() && isColumnar(reports.get(end)) == columnarRun) {
+                ++end;
+            }
+            List<byte[]> run = reports.subList(start, end);
+
+            UploadResult runResult;
+            if (!columnarRun) {
+                runResult = post(run, false);
+            }
+            else if (!columnar) {
+                runResult = post(transcodeToJson(run), false);
+            }
+            else {
+                runResult = post(run, true);
+                if (runResult == UNSUPPORTED_FORMAT) {
+                    logger.warn("Reporting server does not accept the columnar format, falling back to JSON");
+                    columnar = false;
+                    runResult = post(transcodeToJson(run), false);
+                }
+            }
+
+            if (runResult == FAILED) {
+                return FAILED;
+            }
+            if (runResult != SUCCEEDED) {
+                result = REJECTED;
+            }
+            start = end;
+        }
+        return result;
+    }
+
+    private UploadResult post(List<byte[]> reports, boolean columnar)
+    {
+        Request.Builder builder = preparePost()
                 .setUri(UPLOAD_URI)
-                .setHeader("Content-Type", "application/gzip")
-                .setBodySource(new CompressBodySource(systemTimeMillis, collectedData))
-                .build();
+                .setBodySource(new ConcatenatedBodySource(reports, !columnar));
+        if (columnar) {
+            builder.setHeader("Content-Type", COLUMNAR_CONTENT_TYPE)
+                    .setHeader("Content-Encoding", "gzip");
+        }
+        else {
+            builder.setHeader("Content-Type", "application/gzip");
+        }
         try {
-            StringResponse response = httpClient.execute(request, createStringResponseHandler());
-            if (response.getStatusCode() != 204) {
-                logger.warn("Failed to report stats: %s %s %s", response.getStatusCode(), response.getStatusMessage(), response.getBody());
+            StringResponse response = httpClient.execute(builder.build(), createStringResponseHandler());
+            if (response.getStatusCode() == 204) {
+                return SUCCEEDED;
             }
+            if (columnar && response.getStatusCode() == 415) {
+                return UNSUPPORTED_FORMAT;
+            }
+            logger.warn("Failed to report stats: %s %s %s", response.getStatusCode(), response.getStatusMessage(), response.getBody());
+            if (response.getStatusCode() >= 400 && response.getStatusCode() < 500
+                    && response.getStatusCode() != 408 && response.getStatusCode() != 429) {
+                return REJECTED;
+            }
+            return FAILED;
         }
         catch (RuntimeException e) {
             logger.warn(e, "Exception when trying to report stats");
+            return FAILED;
+        }
+    }
+
+    private void writeJson(OutputStream out, long systemTimeMillis, Iterable<Cell<String, Map<String, String>, Object>> cells, Map<String, String> instanceTags)
+            throws IOException
+    {
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(AUTO_CLOSE_TARGET);
+            generator.setCodec(objectMapper);
+            generator.setRootValueSeparator(new SerializedString(","));
+            for (Cell<String, Map<String, String>, Object> cell : cells) {
+                generator.writeObject(new DataPoint(systemTimeMillis, cell, instanceTags));
+            }
+        }
+    }
+
+    /**
+     * Writes a collection with its metric names and tag sets each written
+     * once, followed by the name index, tag set index and value of each data
+     * point as parallel arrays. The instance tags apply to every data point.
+     */
+    private void writeColumnar(OutputStream out, long systemTimeMillis, Table<String, Map<String, String>, Object> collectedData)
+            throws IOException
+    {
+        Map<String, Integer> nameIndexes = new LinkedHashMap<>();
+        Map<Map<String, String>, Integer> tagSetIndexes = new LinkedHashMap<>();
+        int[] nameColumn = new int[collectedData.size()];
+        int[] tagSetColumn = new int[collectedData.size()];
+        Object[] valueColumn = new Object[collectedData.size()];
+        int i = 0;
+        for (Cell<String, Map<String, String>, Object> cell : collectedData.cellSet()) {
+            nameColumn[i] = nameIndexes.computeIfAbsent(cell.getRowKey(), key -> nameIndexes.size());
+            tagSetColumn[i] = tagSetIndexes.computeIfAbsent(cell.getColumnKey(), key -> tagSetIndexes.size());
+            valueColumn[i] = cell.getValue();
+            ++i;
+        }
+
+        try (JsonGenerator generator = SMILE_FACTORY.createGenerator(out)) {
+            generator.disable(AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeNumberField("timestamp", systemTimeMillis);
+            writeTags(generator, "tags", instanceTags, false);
+            generator.writeArrayFieldStart("names");
+            for (String name : nameIndexes.keySet()) {
+                generator.writeString(sanitize(name));
+            }
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("tagSets");
+            for (Map<String, String> tags : tagSetIndexes.keySet()) {
+                writeTags(generator, null, tags, true);
+            }
+            generator.writeEndArray();
+            generator.writeFieldName("nameIndexes");
+            generator.writeArray(nameColumn, 0, nameColumn.length);
+            generator.writeFieldName("tagSetIndexes");
+            generator.writeArray(tagSetColumn, 0, tagSetColumn.length);
+            generator.writeArrayFieldStart("values");
+            for (Object value : valueColumn) {
+                if (value instanceof Double || value instanceof Float) {
+                    generator.writeNumber(((Number) value).doubleValue());
+                }
+                else if (value instanceof Number) {
+                    generator.writeNumber(((Number) value).longValue());
+                }
+                else {
+                    generator.writeString(String.valueOf(value));
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    private static void writeTags(JsonGenerator generator, String fieldName, Map<String, String> tags, boolean sanitizeValues)
+            throws IOException
+    {
+        if (fieldName == null) {
+            generator.writeStartObject();
+        }
+        else {
+            generator.writeObjectFieldStart(fieldName);
+        }
+        for (Entry<String, String> entry : tags.entrySet()) {
+            generator.writeStringField(entry.getKey(), sanitizeValues ? sanitize(entry.getValue()) : entry.getValue());
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Re-encodes columnar reports as JSON, for reports queued before the
+     * server was found not to accept the columnar format.
+     */
+    private List<byte[]> transcodeToJson(List<byte[]> reports)
+    {
+        ImmutableList.Builder<byte[]> builder = ImmutableList.builder();
+        for (byte[] report : reports) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(report));
+                    GZIPOutputStream gzipOutputStream = new GZIPOutputStream(out)) {
+                JsonNode document = SMILE_MAPPER.readTree(in);
+                long systemTimeMillis = document.get("timestamp").asLong();
+                Map<String, String> tags = SMILE_MAPPER.convertValue(document.get("tags"), STRING_MAP);
+                JsonNode names = document.get("names");
+                JsonNode tagSets = document.get("tagSets");
+                JsonNode nameColumn = document.get("nameIndexes");
+                JsonNode tagSetColumn = document.get("tagSetIndexes");
+                JsonNode values = document.get("values");
+
+                List<Cell<String, Map<String, String>, Object>> cells = new ArrayList<>();
+                for (int i = 0; i < values.size(); i++) {
+                    JsonNode value = values.get(i);
+                    cells.add(immutableCell(
+                            names.get(nameColumn.get(i).asInt()).asText(),
+                            SMILE_MAPPER.convertValue(tagSets.get(tagSetColumn.get(i).asInt()), STRING_MAP),
+                            value.isNumber() ? value.numberValue() : value.asText()));
+                }
+                writeJson(gzipOutputStream, systemTimeMillis, cells, tags);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            builder.add(out.toByteArray());
         }
+        return builder.build();
+    }
+
+    private static boolean isColumnar(byte[] report)
+    {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(report))) {
+            return in.read() == SMILE_HEADER_START;
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String sanitize(String value)
+    {
+        return NOT_ACCEPTED_CHARACTER_PATTERN.matcher(value).replaceAll("_");
+    }
+
+    enum UploadResult
+    {
+        SUCCEEDED,
+        REJECTED,
+        FAILED,
+        UNSUPPORTED_FORMAT,
     }
 
     private static class DataPoint
     {
-        private static final Pattern NOT_ACCEPTED_CHARACTER_PATTERN = Pattern.compile("[^-A-Za-z0-9./_]");
         @JsonProperty
         private final String name;
         @JsonProperty
@@ -111,7 +379,7 @@ class ReportClient
         @SuppressFBWarnings("NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE")
         DataPoint(long systemTimeMillis, Cell<String, Map<String, String>, Object> cell, Map<String, String> instanceTags)
         {
-            name = NOT_ACCEPTED_CHARACTER_PATTERN.matcher(cell.getRowKey()).replaceAll("_");
+            name = sanitize(cell.getRowKey());
 
             timestamp = systemTimeMillis;
             value = cell.getValue();
@@ -123,45 +391,74 @@ class ReportClient
             Builder<String, String> builder = ImmutableMap.<String, String>builder()
                     .putAll(instanceTags);
             for (Entry<String, String> entry : cell.getColumnKey().entrySet()) {
-                builder.put(entry.getKey(), NOT_ACCEPTED_CHARACTER_PATTERN.matcher(entry.getValue()).replaceAll("_"));
+                builder.put(entry.getKey(), sanitize(entry.getValue()));
             }
             tags = builder.build();
         }
     }
 
-    private class CompressBodySource implements DynamicBodySource
+    /**
+     * Writes the reports as the members of one gzip stream. JSON reports are
+     * written between members holding the brackets and commas of the
+     * enclosing JSON array; columnar reports are a sequence of Smile
+     * documents.
+     */
+    private static class ConcatenatedBodySource
+            implements DynamicBodySource
     {
-        private final long systemTimeMillis;
-        private final Table<String, Map<String, String>, Object> collectedData;
+        private final List<byte[]> reports;
+        private final boolean jsonArray;
 
-        CompressBodySource(long systemTimeMillis, Table<String, Map<String, String>, Object> collectedData)
+        ConcatenatedBodySource(List<byte[]> reports, boolean jsonArray)
         {
-            this.systemTimeMillis = systemTimeMillis;
-            this.collectedData = collectedData;
+            this.reports = reports;
+            this.jsonArray = jsonArray;
         }
 
         @Override
         public Writer start(final OutputStream out)
                 throws Exception
         {
-            final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(out);
-            final JsonGenerator generator = JSON_FACTORY.createGenerator(gzipOutputStream, JsonEncoding.UTF8)
-                .setCodec(objectMapper);
-            final Iterator<Cell<String, Map<String, String>, Object>> iterator = collectedData.cellSet().iterator();
+            final Iterator<byte[]> iterator = reports.iterator();
+            if (jsonArray) {
+                out.write(GZIPPED_ARRAY_START);
+            }
 
-            generator.writeStartArray();
+            return new Writer()
+            {
+                private boolean first = true;
 
-            return () -> {
-                if (iterator.hasNext()) {
-                    generator.writeObject(new DataPoint(systemTimeMillis, iterator.next(), instanceTags));
-                }
-                else {
-                    generator.writeEndArray();
-                    generator.flush();
-                    gzipOutputStream.finish();
-                    out.close();
+                @Override
+                public void write()
+                        throws Exception
+                {
+                    if (iterator.hasNext()) {
+                        if (jsonArray && !first) {
+                            out.write(GZIPPED_SEPARATOR);
+                        }
+                        first = false;
+                        out.write(iterator.next());
+                    }
+                    else {
+                        if (jsonArray) {
+                            out.write(GZIPPED_ARRAY_END);
+                        }
+                        out.close();
+                    }
                 }
             };
         }
     }
+
+    private static byte[] gzip(String value)
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(out)) {
+            gzipOutputStream.write(value.getBytes(UTF_8));
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
 }
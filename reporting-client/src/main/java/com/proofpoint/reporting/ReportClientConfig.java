@@ -16,13 +16,31 @@
 package com.proofpoint.reporting;
 
 import com.proofpoint.configuration.Config;
+import com.proofpoint.configuration.ConfigDescription;
 import com.proofpoint.configuration.DefunctConfig;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
+import com.proofpoint.units.MinDuration;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 @DefunctConfig("report.uri")
 public class ReportClientConfig
 {
     private boolean enabled = true;
     private boolean pulseIncludeHostTag = true;
+    private boolean deltaOnly = false;
+    private Duration fullReportInterval = new Duration(15, MINUTES);
+    private DataSize queueMaxSize = new DataSize(16, MEGABYTE);
+    private String spoolDirectory = null;
+    private DataSize spoolMaxSize = new DataSize(256, MEGABYTE);
+    private int uploadMaxBatchSize = 10;
+    private boolean uploadColumnar = false;
+    private Duration retryMaxDelay = new Duration(5, MINUTES);
 
     public boolean isEnabled()
     {
@@ -47,4 +65,115 @@ public class ReportClientConfig
         this.pulseIncludeHostTag = pulseIncludeHostTag;
         return this;
     }
+
+    public boolean isDeltaOnly()
+    {
+        return deltaOnly;
+    }
+
+    @Config("reporting.delta-only")
+    @ConfigDescription("Only upload the values that changed since the previous minute, between full reports")
+    public ReportClientConfig setDeltaOnly(boolean deltaOnly)
+    {
+        this.deltaOnly = deltaOnly;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1m")
+    public Duration getFullReportInterval()
+    {
+        return fullReportInterval;
+    }
+
+    @Config("reporting.full-report-interval")
+    @ConfigDescription("Interval between uploads of all values when uploading only changed values")
+    public ReportClientConfig setFullReportInterval(Duration fullReportInterval)
+    {
+        this.fullReportInterval = fullReportInterval;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getQueueMaxSize()
+    {
+        return queueMaxSize;
+    }
+
+    @Config("reporting.queue.max-size")
+    @ConfigDescription("Maximum size of the reports held in memory awaiting upload")
+    public ReportClientConfig setQueueMaxSize(DataSize queueMaxSize)
+    {
+        this.queueMaxSize = queueMaxSize;
+        return this;
+    }
+
+    public String getSpoolDirectory()
+    {
+        return spoolDirectory;
+    }
+
+    @Config("reporting.spool.directory")
+    @ConfigDescription("Directory to spool reports to when the memory queue is full; not spooled if unset")
+    public ReportClientConfig setSpoolDirectory(String spoolDirectory)
+    {
+        this.spoolDirectory = spoolDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getSpoolMaxSize()
+    {
+        return spoolMaxSize;
+    }
+
+    @Config("reporting.spool.max-size")
+    @ConfigDescription("Maximum size of the spooled reports")
+    public ReportClientConfig setSpoolMaxSize(DataSize spoolMaxSize)
+    {
+        this.spoolMaxSize = spoolMaxSize;
+        return this;
+    }
+
+    @Min(1)
+    public int getUploadMaxBatchSize()
+    {
+        return uploadMaxBatchSize;
+    }
+
+    @Config("reporting.upload.max-batch-size")
+    @ConfigDescription("Maximum number of queued reports to upload in one request")
+    public ReportClientConfig setUploadMaxBatchSize(int uploadMaxBatchSize)
+    {
+        this.uploadMaxBatchSize = uploadMaxBatchSize;
+        return this;
+    }
+
+    public boolean isUploadColumnar()
+    {
+        return uploadColumnar;
+    }
+
+    @Config("reporting.upload.columnar")
+    @ConfigDescription("Upload in the columnar format, falling back to JSON if the server does not accept it")
+    public ReportClientConfig setUploadColumnar(boolean uploadColumnar)
+    {
+        this.uploadColumnar = uploadColumnar;
+        return this;
+    }
+
+    @NotNull
+    @MinDuration("1s")
+    public Duration getRetryMaxDelay()
+    {
+        return retryMaxDelay;
+    }
+
+    @Config("reporting.retry.max-delay")
+    @ConfigDescription("Maximum delay between attempts to upload after a failure")
+    public ReportClientConfig setRetryMaxDelay(Duration retryMaxDelay)
+    {
+        this.retryMaxDelay = retryMaxDelay;
+        return this;
+    }
 }
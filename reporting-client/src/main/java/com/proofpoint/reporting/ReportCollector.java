@@ -15,16 +15,19 @@
  */
 package com.proofpoint.reporting;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableTable;
 import com.proofpoint.log.Logger;
 import com.proofpoint.node.NodeInfo;
+import com.proofpoint.reporting.CollectionCostTracker.CollectionCost;
 import com.proofpoint.reporting.ReportedBeanRegistry.RegistrationInfo;
 
 import javax.inject.Inject;
-import javax.management.AttributeNotFoundException;
 import javax.management.MBeanException;
 import javax.management.ReflectionException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static com.google.common.base.CaseFormat.LOWER_HYPHEN;
@@ -39,6 +42,8 @@ public class ReportCollector
     private final MinuteBucketIdProvider bucketIdProvider;
     private final ReportedBeanRegistry reportedBeanRegistry;
     private final ReportSink reportSink;
+    private final ShardedCollector shardedCollector;
+    private final CollectionCostTracker collectionCostTracker;
     private final Map<String, String> versionTags;
 
     @Inject
@@ -46,12 +51,16 @@ public class ReportCollector
             NodeInfo nodeInfo,
             MinuteBucketIdProvider bucketIdProvider,
             ReportedBeanRegistry reportedBeanRegistry,
-            ReportSink reportSink)
+            ReportSink reportSink,
+            ShardedCollector shardedCollector,
+            CollectionCostTracker collectionCostTracker)
     {
         applicationPrefix = LOWER_HYPHEN.to(UPPER_CAMEL, nodeInfo.getApplication()) + ".";
         this.bucketIdProvider = requireNonNull(bucketIdProvider, "bucketIdProvider is null");
         this.reportedBeanRegistry = requireNonNull(reportedBeanRegistry, "reportedBeanRegistry is null");
         this.reportSink = requireNonNull(reportSink, "reportSink is null");
+        this.shardedCollector = requireNonNull(shardedCollector, "shardedCollector is null");
+        this.collectionCostTracker = requireNonNull(collectionCostTracker, "collectionCostTracker is null");
 
         ImmutableMap.Builder<String, String> versionTagsBuilder = ImmutableMap.builder();
         if (!nodeInfo.getApplicationVersion().isEmpty()) {
@@ -68,23 +77,24 @@ public class ReportCollector
         try {
             long lastSystemTimeMillis = bucketIdProvider.getLastSystemTimeMillis();
             ImmutableTable.Builder<String, Map<String, String>, Object> builder = ImmutableTable.builder();
+            List<List<RegisteredAttribute>> shards = shardAttributes();
+            CollectionCost cost = collectionCostTracker.startCollection("report");
+            List<List<Object>> values = shardedCollector.collect("report", shards, attribute -> attribute.attribute, attribute -> getValue(attribute, cost));
+            cost.finish();
             int numAttributes = 0;
-            for (RegistrationInfo registrationInfo : reportedBeanRegistry.getReportedBeans()) {
-                for (ReportedBeanAttribute attribute : registrationInfo.getReportedBean().getAttributes()) {
-                    Object value = null;
-
-                    try {
-                        value = attribute.getValue(null);
-                    }
-                    catch (MBeanException | ReflectionException ignored) {
-                    }
-
+            for (int shard = 0; shard < shards.size(); shard++) {
+                List<RegisteredAttribute> shardAttributes = shards.get(shard);
+                List<Object> shardValues = values.get(shard);
+                for (int i = 0; i < shardValues.size(); i++) {
+                    Object value = shardValues.get(i);
                     if (value != null && isReportable(value)) {
                         if (!(value instanceof Number)) {
                             value = value.toString();
                         }
 
                         ++numAttributes;
+                        RegisteredAttribute registeredAttribute = shardAttributes.get(i);
+                        RegistrationInfo registrationInfo = registeredAttribute.registrationInfo;
                         StringBuilder stringBuilder = new StringBuilder();
                         if (registrationInfo.isApplicationPrefix()) {
                             stringBuilder.append(applicationPrefix);
@@ -92,7 +102,7 @@ public class ReportCollector
                         String name = stringBuilder
                                 .append(registrationInfo.getNamePrefix())
                                 .append('.')
-                                .append(attribute.getName())
+                                .append(registeredAttribute.attribute.getName())
                                 .toString();
                         builder.put(name, registrationInfo.getTags(), value);
                     }
@@ -106,8 +116,56 @@ public class ReportCollector
         }
     }
 
+    /**
+     * Divides the attributes of the registered beans among the shards, keeping
+     * each bean's attributes together.
+     */
+    private List<List<RegisteredAttribute>> shardAttributes()
+    {
+        int shardCount = shardedCollector.getShardCount();
+        List<List<RegisteredAttribute>> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ArrayList<>());
+        }
+        int shard = 0;
+        for (RegistrationInfo registrationInfo : reportedBeanRegistry.getReportedBeans()) {
+            for (ReportedBeanAttribute attribute : registrationInfo.getReportedBean().getAttributes()) {
+                shards.get(shard).add(new RegisteredAttribute(registrationInfo, attribute));
+            }
+            shard = (shard + 1) % shardCount;
+        }
+        return ImmutableList.copyOf(shards);
+    }
+
+    private static Object getValue(RegisteredAttribute registeredAttribute, CollectionCost cost)
+    {
+        long startNanos = System.nanoTime();
+        Object value;
+        try {
+            value = registeredAttribute.attribute.getValue(null);
+        }
+        catch (MBeanException | ReflectionException ignored) {
+            value = null;
+        }
+        cost.recordRead(registeredAttribute.registrationInfo, registeredAttribute.attribute.getName(),
+                System.nanoTime() - startNanos, value != null && isReportable(value));
+        return value;
+    }
+
     Map<String, String> getVersionTags()
     {
         return versionTags;
     }
+
+    private static class RegisteredAttribute
+    {
+        private final RegistrationInfo registrationInfo;
+        private final ReportedBeanAttribute attribute;
+
+        RegisteredAttribute(RegistrationInfo registrationInfo, ReportedBeanAttribute attribute)
+        {
+            this.registrationInfo = registrationInfo;
+            this.attribute = attribute;
+        }
+    }
 }
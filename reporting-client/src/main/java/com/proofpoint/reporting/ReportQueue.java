@@ -16,34 +16,332 @@
 package com.proofpoint.reporting;
 
 import com.google.common.collect.Table;
+import com.proofpoint.log.Logger;
+import com.proofpoint.reporting.ReportClient.UploadResult;
+import com.proofpoint.stats.CounterStat;
+import org.weakref.jmx.Nested;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
+import static com.proofpoint.reporting.ReportClient.UploadResult.FAILED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.REJECTED;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * Queues encoded reports for upload by {@link ReportClient}.
+ * <p>
+ * Reports are held in memory up to {@code reporting.queue.max-size}. Beyond
+ * that, the oldest reports are moved to the spool directory if one is
+ * configured, and otherwise discarded. Each upload sends up to
+ * {@code reporting.upload.max-batch-size} of the oldest reports; failed
+ * uploads are retried with exponential backoff and reports the server
+ * rejects are discarded. With {@code reporting.delta-only}, values that
+ * have not changed since they were last queued are left out of the report;
+ * other report sinks still receive every value.
+ * <p>
+ * Spool reads and writes are made under a separate spool lock, so reporting
+ * and the gauges do not wait for the spool's file I/O. Where both locks are
+ * taken, the spool lock is taken first.
+ */
 class ReportQueue implements ReportSink
 {
+    private static final Logger log = Logger.get(ReportQueue.class);
+    private static final long INITIAL_RETRY_DELAY_NANOS = SECONDS.toNanos(1);
+
     private final boolean enabled;
-    private final ExecutorService clientExecutorService;
+    private final ScheduledExecutorService clientExecutorService;
     private final ReportClient reportClient;
+    private final CollectionCostTracker collectionCostTracker;
+    private final long queueMaxBytes;
+    private final int uploadMaxBatchSize;
+    private final long retryMaxDelayNanos;
+    private final ReportSpool spool;
+    private final DeltaReportFilter deltaFilter;
+    private final CounterStat dropped = new CounterStat();
+    private final CounterStat uploadFailures = new CounterStat();
+    private final Object spoolLock = new Object();
+
+    // guarded by this
+    private final ArrayDeque<byte[]> queue = new ArrayDeque<>();
+    private boolean uploading = false;
+    private long retryDelayNanos = 0;
+
+    // written under the lock guarding the queue or spool and read by the gauges without it
+    private volatile int queuedReports = 0;
+    private volatile long queuedBytes = 0;
+    private volatile int spooledReports = 0;
+    private volatile long spooledBytes = 0;
 
     @Inject
-    ReportQueue(ReportClientConfig reportClientConfig, @ForReportClient ExecutorService clientExecutorService, ReportClient reportClient)
+    ReportQueue(
+            ReportClientConfig reportClientConfig,
+            @ForReportClient ScheduledExecutorService clientExecutorService,
+            ReportClient reportClient,
+            CollectionCostTracker collectionCostTracker)
     {
         enabled = reportClientConfig.isEnabled();
         this.clientExecutorService = requireNonNull(clientExecutorService, "clientExecutorService is null");
-        this.reportClient = reportClient;
+        this.reportClient = requireNonNull(reportClient, "reportClient is null");
+        this.collectionCostTracker = requireNonNull(collectionCostTracker, "collectionCostTracker is null");
+        queueMaxBytes = reportClientConfig.getQueueMaxSize().toBytes();
+        uploadMaxBatchSize = reportClientConfig.getUploadMaxBatchSize();
+        retryMaxDelayNanos = reportClientConfig.getRetryMaxDelay().roundTo(NANOSECONDS);
+        deltaFilter = reportClientConfig.isDeltaOnly() ? new DeltaReportFilter(reportClientConfig) : null;
+
+        ReportSpool spool = null;
+        if (enabled && reportClientConfig.getSpoolDirectory() != null) {
+            try {
+                spool = new ReportSpool(new File(reportClientConfig.getSpoolDirectory()), reportClientConfig.getSpoolMaxSize().toBytes());
+            }
+            catch (IOException e) {
+                log.warn(e, "Unable to open report spool directory %s; reports will not be spooled", reportClientConfig.getSpoolDirectory());
+            }
+        }
+        this.spool = spool;
+
+        if (spool != null && !spool.isEmpty()) {
+            updateSpoolGauges();
+            startUpload();
+        }
     }
 
     @Override
     public void report(long systemTimeMillis, Table<String, Map<String, String>, Object> collectedData)
     {
-        if (!enabled) {
+        if (!enabled || collectedData.isEmpty()) {
             return;
         }
+        if (deltaFilter != null) {
+            collectedData = deltaFilter.filter(systemTimeMillis, collectedData);
+            if (collectedData.isEmpty()) {
+                return;
+            }
+        }
+
+        byte[] report = reportClient.encode(systemTimeMillis, collectedData);
+        collectionCostTracker.recordWrittenBytes("report", report.length);
+        boolean overflowed;
+        synchronized (this) {
+            queue.addLast(report);
+            queuedBytes += report.length;
+            queuedReports = queue.size();
+            overflowed = queuedBytes > queueMaxBytes;
+        }
+        if (overflowed) {
+            // the spool lock is held from taking the oldest reports until
+            // they are written, so they are spooled in order
+            synchronized (spoolLock) {
+                List<byte[]> overflow;
+                synchronized (this) {
+                    overflow = removeOldest(queueMaxBytes);
+                }
+                spill(overflow);
+            }
+        }
+        startUpload();
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        if (spool != null) {
+            synchronized (spoolLock) {
+                List<byte[]> reports;
+                synchronized (this) {
+                    reports = removeOldest(0);
+                }
+                spill(reports);
+            }
+        }
+    }
 
-        clientExecutorService.submit(() -> reportClient.report(systemTimeMillis, collectedData));
+    @Gauge
+    public int getQueuedReports()
+    {
+        return queuedReports + spooledReports;
+    }
+
+    @Gauge
+    public long getQueuedBytes()
+    {
+        return queuedBytes;
+    }
+
+    @Gauge
+    public long getSpooledBytes()
+    {
+        return spooledBytes;
+    }
+
+    @Nested
+    public CounterStat getDropped()
+    {
+        return dropped;
+    }
+
+    @Nested
+    public CounterStat getUploadFailures()
+    {
+        return uploadFailures;
+    }
+
+    private void startUpload()
+    {
+        synchronized (this) {
+            if (uploading) {
+                return;
+            }
+            uploading = true;
+        }
+        clientExecutorService.execute(this::upload);
+    }
+
+    private void upload()
+    {
+        List<byte[]> reports = new ArrayList<>();
+        Collection<Long> spooledSequences;
+        synchronized (spoolLock) {
+            spooledSequences = nextBatch(reports);
+        }
+        if (reports.isEmpty()) {
+            return;
+        }
+
+        UploadResult result = reportClient.upload(reports);
+
+        if (result != FAILED && spooledSequences != null) {
+            synchronized (spoolLock) {
+                spool.remove(spooledSequences);
+                updateSpoolGauges();
+            }
+        }
+
+        long delayNanos;
+        synchronized (this) {
+            if (result == FAILED) {
+                uploadFailures.add(1);
+                retryDelayNanos = Math.min(retryDelayNanos == 0 ? INITIAL_RETRY_DELAY_NANOS : retryDelayNanos * 2, retryMaxDelayNanos);
+            }
+            else {
+                if (result == REJECTED) {
+                    dropped.add(reports.size());
+                }
+                retryDelayNanos = 0;
+                if (spooledSequences == null) {
+                    // the batch was the head of the queue; any of it that
+                    // was spilled in the meantime is uploaded again from
+                    // the spool
+                    for (byte[] report : reports) {
+                        if (queue.peekFirst() == report) {
+                            queue.removeFirst();
+                            queuedBytes -= report.length;
+                        }
+                    }
+                    queuedReports = queue.size();
+                }
+            }
+            delayNanos = retryDelayNanos;
+        }
+
+        if (delayNanos > 0) {
+            clientExecutorService.schedule(this::upload, delayNanos, NANOSECONDS);
+        }
+        else {
+            clientExecutorService.execute(this::upload);
+        }
+    }
+
+    /**
+     * Adds the oldest reports to {@code reports}, taking them from the spool
+     * while it has any as they are older than those in memory. Clears the
+     * uploading flag if there are none. Called with the spool lock held.
+     *
+     * @return the sequence numbers of the reports in the spool, or null if
+     * they are the head of the memory queue
+     */
+    private Collection<Long> nextBatch(List<byte[]> reports)
+    {
+        while (spool != null && !spool.isEmpty()) {
+            Collection<Long> sequences = spool.peek(uploadMaxBatchSize);
+            List<Long> unreadable = new ArrayList<>();
+            for (Long sequence : sequences) {
+                try {
+                    reports.add(spool.read(sequence));
+                }
+                catch (IOException e) {
+                    log.warn(e, "Unable to read spooled report");
+                    unreadable.add(sequence);
+                }
+            }
+            if (unreadable.isEmpty()) {
+                return sequences;
+            }
+            spool.remove(unreadable);
+            updateSpoolGauges();
+            dropped.add(unreadable.size());
+            reports.clear();
+        }
+
+        synchronized (this) {
+            for (byte[] report : queue) {
+                if (reports.size() == uploadMaxBatchSize) {
+                    break;
+                }
+                reports.add(report);
+            }
+            if (reports.isEmpty()) {
+                uploading = false;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the oldest reports from the memory queue until it holds no
+     * more than {@code maxBytes}. Called with this lock held.
+     */
+    private List<byte[]> removeOldest(long maxBytes)
+    {
+        List<byte[]> removed = new ArrayList<>();
+        while (queuedBytes > maxBytes) {
+            byte[] report = queue.removeFirst();
+            queuedBytes -= report.length;
+            removed.add(report);
+        }
+        queuedReports = queue.size();
+        return removed;
+    }
+
+    /**
+     * Moves reports removed from the memory queue to the spool, or discards
+     * them if there is none. Called with the spool lock held.
+     */
+    private void spill(List<byte[]> reports)
+    {
+        if (spool == null) {
+            dropped.add(reports.size());
+            return;
+        }
+        for (byte[] report : reports) {
+            dropped.add(spool.add(report));
+        }
+        updateSpoolGauges();
+    }
+
+    private void updateSpoolGauges()
+    {
+        spooledReports = spool.size();
+        spooledBytes = spool.getBytes();
     }
 }
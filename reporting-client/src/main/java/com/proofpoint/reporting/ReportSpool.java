@@ -0,0 +1,185 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableList;
+import com.proofpoint.log.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.TreeMap;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Encoded reports stored one file per report in a local directory, so they
+ * survive a restart. When adding a report would take the spool over its
+ * maximum size, the oldest reports are discarded.
+ * <p>
+ * Not thread safe; {@link ReportQueue} holds its spool lock while using the
+ * spool.
+ */
+class ReportSpool
+{
+    private static final Logger log = Logger.get(ReportSpool.class);
+    private static final String SUFFIX = ".report";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final TreeMap<Long, Long> reportSizes = new TreeMap<>();
+    private long bytes = 0;
+    private long nextSequence = 0;
+
+    ReportSpool(File directory, long maxBytes)
+            throws IOException
+    {
+        this.directory = requireNonNull(directory, "directory is null").toPath();
+        this.maxBytes = maxBytes;
+
+        Files.createDirectories(this.directory);
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(this.directory)) {
+            for (Path path : paths) {
+                String name = path.toFile().getName();
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    Files.deleteIfExists(path);
+                }
+                else if (name.endsWith(SUFFIX)) {
+                    long sequence;
+                    try {
+                        sequence = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                    }
+                    catch (NumberFormatException e) {
+                        continue;
+                    }
+                    long size = Files.size(path);
+                    reportSizes.put(sequence, size);
+                    bytes += size;
+                    nextSequence = Math.max(nextSequence, sequence + 1);
+                }
+            }
+        }
+    }
+
+    boolean isEmpty()
+    {
+        return reportSizes.isEmpty();
+    }
+
+    int size()
+    {
+        return reportSizes.size();
+    }
+
+    long getBytes()
+    {
+        return bytes;
+    }
+
+    /**
+     * @return the number of reports discarded, including this one if it
+     * could not be stored
+     */
+    int add(byte[] report)
+    {
+        if (report.length > maxBytes) {
+            return 1;
+        }
+
+        int discarded = 0;
+        while (bytes + report.length > maxBytes) {
+            remove(reportSizes.firstKey());
+            ++discarded;
+        }
+
+        long sequence = nextSequence++;
+        Path temporary = directory.resolve(sequence + TEMPORARY_SUFFIX);
+        try {
+            Files.write(temporary, report);
+            Files.move(temporary, path(sequence), ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            log.warn(e, "Unable to spool report to %s", directory);
+            try {
+                Files.deleteIfExists(temporary);
+            }
+            catch (IOException ignored) {
+            }
+            return discarded + 1;
+        }
+        reportSizes.put(sequence, (long) report.length);
+        bytes += report.length;
+        return discarded;
+    }
+
+    /**
+     * Returns the sequence numbers of up to {@code maxReports} of the oldest
+     * reports.
+     */
+    Collection<Long> peek(int maxReports)
+    {
+        ImmutableList.Builder<Long> builder = ImmutableList.builder();
+        int count = 0;
+        for (Long sequence : reportSizes.keySet()) {
+            if (count++ == maxReports) {
+                break;
+            }
+            builder.add(sequence);
+        }
+        return builder.build();
+    }
+
+    byte[] read(long sequence)
+            throws IOException
+    {
+        return Files.readAllBytes(path(sequence));
+    }
+
+    /**
+     * Removes the reports with the given sequence numbers, ignoring any
+     * that were already discarded.
+     */
+    void remove(Collection<Long> sequences)
+    {
+        for (Long sequence : sequences) {
+            if (reportSizes.containsKey(sequence)) {
+                remove(sequence);
+            }
+        }
+    }
+
+    private void remove(long sequence)
+    {
+        Long size = reportSizes.remove(sequence);
+        bytes -= size;
+        try {
+            Files.deleteIfExists(path(sequence));
+        }
+        catch (IOException e) {
+            log.warn(e, "Unable to delete spooled report %s", path(sequence));
+        }
+    }
+
+    private Path path(long sequence)
+    {
+        return directory.resolve(String.format("%019d%s", sequence, SUFFIX));
+    }
+}
@@ -19,12 +19,18 @@ import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.util.Modules;
 import com.proofpoint.reporting.BucketIdProvider;
+import com.proofpoint.reporting.CollectionCostConfig;
+import com.proofpoint.reporting.CollectionCostTracker;
+import com.proofpoint.reporting.ReportClientConfig;
 import com.proofpoint.reporting.ReportCollector;
 import com.proofpoint.reporting.ReportSink;
 import com.proofpoint.reporting.ReportingModule;
+import com.proofpoint.reporting.ShardedCollector;
+import com.proofpoint.reporting.ShardedCollectorConfig;
 import com.proofpoint.reporting.testing.ReportingTester.TestingSink;
 
 import static com.google.inject.Scopes.SINGLETON;
+import static com.proofpoint.configuration.ConfigBinder.bindConfig;
 
 /**
  * A replacement for {@link ReportingModule} and {@link com.proofpoint.reporting.ReportingClientModule}
@@ -47,5 +53,10 @@ public class TestingReportingModule
         binder.bind(ReportSink.class).to(TestingSink.class).in(SINGLETON);
         binder.bind(TestingSink.class).in(SINGLETON);
         binder.bind(ReportCollector.class).in(SINGLETON);
+        binder.bind(ReportClientConfig.class).toInstance(new ReportClientConfig());
+        binder.bind(ShardedCollector.class).in(SINGLETON);
+        bindConfig(binder).bind(ShardedCollectorConfig.class);
+        binder.bind(CollectionCostTracker.class).in(SINGLETON);
+        bindConfig(binder).bind(CollectionCostConfig.class);
     }
 }
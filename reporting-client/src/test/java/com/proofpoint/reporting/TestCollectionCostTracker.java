@@ -0,0 +1,177 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.reporting.CollectionCostTracker.AttributeCost;
+import com.proofpoint.reporting.CollectionCostTracker.CollectionCost;
+import com.proofpoint.reporting.CollectionCostTracker.CollectionSummary;
+import com.proofpoint.reporting.CollectionCostTracker.NamePrefixCost;
+import com.proofpoint.reporting.ReportedBeanRegistry.RegistrationInfo;
+import com.proofpoint.reporting.testing.TestingReportCollectionFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.proofpoint.reporting.ReportedBeanRegistry.RegistrationInfo.registrationInfo;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestCollectionCostTracker
+{
+    private static final RegistrationInfo FOO = registration("Foo", ImmutableMap.of());
+    private static final RegistrationInfo FOO_TAGGED = registration("Foo", ImmutableMap.of("key", "value"));
+    private static final RegistrationInfo BAR = registration("Bar", ImmutableMap.of());
+
+    private TestingReportCollectionFactory factory;
+    private CollectionCostStats stats;
+
+    @BeforeMethod
+    public void setup()
+    {
+        factory = new TestingReportCollectionFactory();
+        stats = factory.createReportCollection(CollectionCostStats.class);
+    }
+
+    @Test
+    public void testNoCollections()
+    {
+        CollectionCostTracker tracker = new CollectionCostTracker(new CollectionCostConfig(), stats);
+
+        assertTrue(tracker.getLastCollections().isEmpty());
+        assertNull(tracker.getLastWrittenBytes("report"));
+    }
+
+    @Test
+    public void testSlowestAttributes()
+    {
+        CollectionCostTracker tracker = new CollectionCostTracker(new CollectionCostConfig().setSlowestAttributes(2), stats);
+
+        CollectionCost cost = tracker.startCollection("test");
+        cost.recordRead(FOO, "A", 5, true);
+        cost.recordRead(FOO_TAGGED, "A", 1, true);
+        cost.recordRead(BAR, "B", 9, true);
+        cost.recordRead(FOO, "C", 3, true);
+        cost.finish();
+
+        List<AttributeCost> slowest = tracker.getLastCollections().get("test").getSlowestAttributes();
+        assertEquals(slowest.size(), 2);
+        assertEquals(slowest.get(0).getNamePrefix(), "Bar");
+        assertEquals(slowest.get(0).getAttributeName(), "B");
+        assertEquals(slowest.get(0).getNanos(), 9);
+        assertEquals(slowest.get(1).getNamePrefix(), "Foo");
+        assertEquals(slowest.get(1).getAttributeName(), "A");
+        assertEquals(slowest.get(1).getNanos(), 5);
+    }
+
+    @Test
+    public void testNoSlowestAttributes()
+    {
+        CollectionCostTracker tracker = new CollectionCostTracker(new CollectionCostConfig().setSlowestAttributes(0), stats);
+
+        CollectionCost cost = tracker.startCollection("test");
+        cost.recordRead(FOO, "A", 5, true);
+        cost.finish();
+
+        CollectionSummary summary = tracker.getLastCollections().get("test");
+        assertTrue(summary.getSlowestAttributes().isEmpty());
+        assertEquals(summary.getNamePrefixes().size(), 1);
+    }
+
+    @Test
+    public void testNamePrefixes()
+    {
+        CollectionCostTracker tracker = new CollectionCostTracker(new CollectionCostConfig(), stats);
+
+        CollectionCost cost = tracker.startCollection("test");
+        cost.recordRead(FOO, "A", 5, true);
+        cost.recordRead(FOO_TAGGED, "A", 1, false);
+        cost.recordRead(BAR, "B", 9, true);
+        cost.recordRead(FOO, "C", 7, true);
+        cost.finish();
+
+        List<NamePrefixCost> namePrefixes = tracker.getLastCollections().get("test").getNamePrefixes();
+        assertEquals(namePrefixes.size(), 2);
+        assertEquals(namePrefixes.get(0).getNamePrefix(), "Foo");
+        assertEquals(namePrefixes.get(0).getNanos(), 13);
+        assertEquals(namePrefixes.get(0).getSeries(), 2);
+        assertEquals(namePrefixes.get(1).getNamePrefix(), "Bar");
+        assertEquals(namePrefixes.get(1).getNanos(), 9);
+        assertEquals(namePrefixes.get(1).getSeries(), 1);
+
+        verify(factory.getArgumentVerifier(stats), never()).namePrefixCollectionTime(anyString(), anyString());
+        verify(factory.getArgumentVerifier(stats), never()).namePrefixSeries(anyString(), anyString());
+    }
+
+    @Test
+    public void testNamePrefixStats()
+    {
+        CollectionCostTracker tracker = new CollectionCostTracker(new CollectionCostConfig().setNamePrefixStats(true), stats);
+
+        CollectionCost cost = tracker.startCollection("test");
+        cost.recordRead(FOO, "A", 5, true);
+        cost.recordRead(FOO_TAGGED, "A", 1, true);
+        cost.finish();
+
+        verify(factory.getReportCollection(stats).namePrefixCollectionTime("test", "Foo")).add(6, NANOSECONDS);
+        verify(factory.getReportCollection(stats).namePrefixSeries("test", "Foo")).add(2);
+    }
+
+    @Test
+    public void testLastCollection()
+    {
+        CollectionCostTracker tracker = new CollectionCostTracker(new CollectionCostConfig(), stats);
+
+        CollectionCost cost = tracker.startCollection("test");
+        cost.recordRead(FOO, "A", 5, true);
+        cost.finish();
+        cost = tracker.startCollection("test");
+        cost.recordRead(BAR, "B", 3, true);
+        CollectionCost otherCost = tracker.startCollection("other");
+        otherCost.finish();
+        cost.finish();
+
+        assertEquals(tracker.getLastCollections().keySet().toString(), "[other, test]");
+        List<NamePrefixCost> namePrefixes = tracker.getLastCollections().get("test").getNamePrefixes();
+        assertEquals(namePrefixes.size(), 1);
+        assertEquals(namePrefixes.get(0).getNamePrefix(), "Bar");
+    }
+
+    @Test
+    public void testWrittenBytes()
+    {
+        CollectionCostTracker tracker = new CollectionCostTracker(new CollectionCostConfig(), stats);
+
+        tracker.recordWrittenBytes("test", 1234);
+        tracker.recordWrittenBytes("test", 567);
+
+        assertEquals(tracker.getLastWrittenBytes("test"), (Long) 567L);
+        verify(factory.getReportCollection(stats).writtenBytes("test")).add(1234);
+        verify(factory.getReportCollection(stats).writtenBytes("test")).add(567);
+    }
+
+    private static RegistrationInfo registration(String namePrefix, ImmutableMap<String, String> tags)
+    {
+        return registrationInfo(ReportedBean.forTarget(new Object(), mock(BucketIdProvider.class)), false, namePrefix, tags);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import com.proofpoint.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.testng.Assert.assertEquals;
+
+public class TestDeltaReportFilter
+{
+    private static final Map<String, String> VERSION_TAGS = ImmutableMap.of("applicationVersion", "1.2");
+
+    @Test
+    public void testFilter()
+    {
+        DeltaReportFilter filter = new DeltaReportFilter(new ReportClientConfig().setDeltaOnly(true).setFullReportInterval(new Duration(3, MINUTES)));
+
+        Table<String, Map<String, String>, Object> collected = report(1, 0);
+        assertEquals(filter.filter(0, collected).cellSet(), collected.cellSet());
+
+        assertEquals(filter.filter(60_000, report(2, 0)).cellSet(), ImmutableTable.<String, Map<String, String>, Object>builder()
+                .put("Changing.Value", ImmutableMap.of(), 2)
+                .put("ReportCollector.NumMetrics", VERSION_TAGS, 2)
+                .build()
+                .cellSet());
+
+        assertEquals(filter.filter(120_000, report(2, 0)).cellSet(), ImmutableTable.<String, Map<String, String>, Object>builder()
+                .put("ReportCollector.NumMetrics", VERSION_TAGS, 2)
+                .build()
+                .cellSet());
+
+        // full report
+        collected = report(2, 0);
+        assertEquals(filter.filter(180_000, collected).cellSet(), collected.cellSet());
+
+        assertEquals(filter.filter(240_000, report(2, 5)).cellSet(), ImmutableTable.<String, Map<String, String>, Object>builder()
+                .put("Constant.Value", ImmutableMap.of(), 5)
+                .put("ReportCollector.NumMetrics", VERSION_TAGS, 2)
+                .build()
+                .cellSet());
+    }
+
+    @Test
+    public void testValuesFromOtherReportsKept()
+    {
+        DeltaReportFilter filter = new DeltaReportFilter(new ReportClientConfig().setDeltaOnly(true));
+
+        filter.filter(0, ImmutableTable.of("ReportCollector.ServerStart", VERSION_TAGS, 1));
+
+        // the first collection is not compared with the server start report
+        Table<String, Map<String, String>, Object> collected = report(1, 0);
+        assertEquals(filter.filter(60_000, collected).cellSet(), collected.cellSet());
+    }
+
+    private static Table<String, Map<String, String>, Object> report(int changingValue, int constantValue)
+    {
+        return ImmutableTable.<String, Map<String, String>, Object>builder()
+                .put("Changing.Value", ImmutableMap.of(), changingValue)
+                .put("Constant.Value", ImmutableMap.of(), constantValue)
+                .put("ReportCollector.NumMetrics", VERSION_TAGS, 2)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableMap;
+import com.proofpoint.units.Duration;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.Map;
+
+import static com.proofpoint.configuration.testing.ConfigAssertions.assertFullMapping;
+import static com.proofpoint.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static com.proofpoint.configuration.testing.ConfigAssertions.recordDefaults;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+public class TestRemoteWriteConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(RemoteWriteConfig.class)
+                .setUri(null)
+                .setShards(4)
+                .setQueueMaxSamples(100_000)
+                .setMaxSamplesPerSend(2000)
+                .setRetryMaxDelay(new Duration(1, MINUTES))
+        );
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("reporting.remote-write.uri", "http://prometheus.example.com/api/v1/write")
+                .put("reporting.remote-write.shards", "2")
+                .put("reporting.remote-write.queue-max-samples", "5000")
+                .put("reporting.remote-write.max-samples-per-send", "500")
+                .put("reporting.remote-write.retry-max-delay", "30s")
+                .build();
+
+        RemoteWriteConfig expected = new RemoteWriteConfig()
+                .setUri(URI.create("http://prometheus.example.com/api/v1/write"))
+                .setShards(2)
+                .setQueueMaxSamples(5000)
+                .setMaxSamplesPerSend(500)
+                .setRetryMaxDelay(new Duration(30, SECONDS));
+
+        assertFullMapping(properties, expected);
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import com.proofpoint.http.client.HttpStatus;
+import com.proofpoint.http.client.Request;
+import com.proofpoint.http.client.testing.TestingHttpClient;
+import com.proofpoint.node.NodeConfig;
+import com.proofpoint.node.NodeInfo;
+import com.proofpoint.testing.SerialScheduledExecutorService;
+import org.iq80.snappy.Snappy;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.proofpoint.http.client.testing.BodySourceTester.writeBodySourceTo;
+import static com.proofpoint.http.client.testing.TestingResponse.mockResponse;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class TestRemoteWriteSink
+{
+    private static final URI WRITE_URI = URI.create("http://prometheus.example.com/api/v1/write");
+
+    private NodeInfo nodeInfo;
+    private SerialScheduledExecutorService executorService;
+    private List<List<TimeSeries>> requests;
+    private ConcurrentLinkedQueue<HttpStatus> responses;
+    private TestingHttpClient httpClient;
+
+    @BeforeMethod
+    public void setup()
+    {
+        nodeInfo = new NodeInfo("test-application", new NodeConfig()
+                .setEnvironment("testing")
+                .setPool("test_pool")
+                .setNodeInternalHostname("test.hostname"));
+        executorService = new SerialScheduledExecutorService();
+        requests = new ArrayList<>();
+        responses = new ConcurrentLinkedQueue<>();
+        httpClient = new TestingHttpClient(request -> {
+            requests.add(decode(request));
+            HttpStatus status = responses.poll();
+            return mockResponse(status == null ? HttpStatus.NO_CONTENT : status);
+        });
+    }
+
+    @Test
+    public void testSend()
+    {
+        RemoteWriteSink sink = createSink(new RemoteWriteConfig().setShards(1));
+
+        sink.report(1_600_000_000_000L, ImmutableTable.<String, Map<String, String>, Object>builder()
+                .put("TestObject.Metric", ImmutableMap.of(), 3)
+                .put("TestObject.Tagged", ImmutableMap.of("foo", "bar", "1st", "value"), 2.5)
+                .put("TestObject.String", ImmutableMap.of(), "not sent")
+                .build());
+
+        assertEquals(requests, ImmutableList.of(ImmutableList.of(
+                new TimeSeries(ImmutableMap.<String, String>builder()
+                        .put("__name__", "TestObject_Metric")
+                        .put("application", "test-application")
+                        .put("environment", "testing")
+                        .put("host", "test.hostname")
+                        .put("pool", "test_pool")
+                        .build(), 3, 1_600_000_000_000L),
+                new TimeSeries(ImmutableMap.<String, String>builder()
+                        .put("_1st", "value")
+                        .put("__name__", "TestObject_Tagged")
+                        .put("application", "test-application")
+                        .put("environment", "testing")
+                        .put("foo", "bar")
+                        .put("host", "test.hostname")
+                        .put("pool", "test_pool")
+                        .build(), 2.5, 1_600_000_000_000L))));
+        assertEquals(sink.getQueuedSamples(), 0);
+    }
+
+    @Test
+    public void testReportTags()
+    {
+        RemoteWriteSink sink = new RemoteWriteSink(new RemoteWriteConfig().setUri(WRITE_URI).setShards(1), nodeInfo,
+                new ReportTagConfig().setTags(ImmutableMap.of("cluster", "east")), httpClient, executorService);
+
+        sink.report(1000, ImmutableTable.of("Metric", ImmutableMap.of(), 1));
+
+        assertEquals(requests.get(0).get(0).labels.get("cluster"), "east");
+    }
+
+    @Test
+    public void testShardsBySeries()
+    {
+        RemoteWriteSink sink = createSink(new RemoteWriteConfig().setShards(3));
+        ImmutableTable.Builder<String, Map<String, String>, Object> builder = ImmutableTable.builder();
+        for (int i = 0; i < 30; i++) {
+            builder.put("Metric" + i, ImmutableMap.of("index", String.valueOf(i)), i);
+        }
+        Table<String, Map<String, String>, Object> collectedData = builder.build();
+
+        sink.report(1000, collectedData);
+        List<Set<String>> firstShards = shardNames();
+        requests.clear();
+        sink.report(2000, collectedData);
+
+        assertEquals(firstShards.size(), 3);
+        assertEquals(firstShards.stream().mapToInt(Set::size).sum(), 30);
+        assertEquals(shardNames(), firstShards);
+    }
+
+    @Test
+    public void testMaxSamplesPerSend()
+    {
+        RemoteWriteSink sink = createSink(new RemoteWriteConfig().setShards(1).setMaxSamplesPerSend(2));
+        ImmutableTable.Builder<String, Map<String, String>, Object> builder = ImmutableTable.builder();
+        for (int i = 0; i < 5; i++) {
+            builder.put("Metric" + i, ImmutableMap.of(), i);
+        }
+
+        sink.report(1000, builder.build());
+
+        assertEquals(requests.size(), 3);
+        assertEquals(requests.get(0).size(), 2);
+        assertEquals(requests.get(1).size(), 2);
+        assertEquals(requests.get(2).size(), 1);
+    }
+
+    @Test
+    public void testRetry()
+    {
+        responses.add(HttpStatus.SERVICE_UNAVAILABLE);
+        responses.add(HttpStatus.TOO_MANY_REQUESTS);
+        RemoteWriteSink sink = createSink(new RemoteWriteConfig().setShards(1));
+
+        sink.report(1000, ImmutableTable.of("Metric", ImmutableMap.of(), 1));
+        assertEquals(requests.size(), 1);
+        assertEquals(sink.getQueuedSamples(), 1);
+
+        executorService.elapseTimeNanosecondBefore(1, SECONDS);
+        assertEquals(requests.size(), 1);
+        executorService.elapseTime(1, SECONDS);
+        assertEquals(requests.size(), 2);
+        executorService.elapseTime(2, SECONDS);
+        assertEquals(requests.size(), 3);
+
+        assertEquals(requests.get(2), requests.get(0));
+        assertEquals(sink.getQueuedSamples(), 0);
+        assertEquals(sink.getSendFailures().getTotalCount(), 2);
+        assertEquals(sink.getDropped().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testRejected()
+    {
+        responses.add(HttpStatus.BAD_REQUEST);
+        RemoteWriteSink sink = createSink(new RemoteWriteConfig().setShards(1));
+
+        sink.report(1000, ImmutableTable.of("Metric", ImmutableMap.of(), 1));
+
+        assertEquals(requests.size(), 1);
+        assertEquals(sink.getQueuedSamples(), 0);
+        assertEquals(sink.getSendFailures().getTotalCount(), 0);
+        assertEquals(sink.getDropped().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testQueueMaxSamples()
+    {
+        responses.add(HttpStatus.SERVICE_UNAVAILABLE);
+        RemoteWriteSink sink = createSink(new RemoteWriteConfig().setShards(1).setQueueMaxSamples(2));
+
+        sink.report(1000, ImmutableTable.of("Metric", ImmutableMap.of(), 1));
+        sink.report(2000, ImmutableTable.of("Metric", ImmutableMap.of(), 2));
+        sink.report(3000, ImmutableTable.of("Metric", ImmutableMap.of(), 3));
+        assertEquals(sink.getQueuedSamples(), 2);
+        assertEquals(sink.getDropped().getTotalCount(), 1);
+
+        executorService.elapseTime(1, SECONDS);
+
+        assertEquals(requests.size(), 2);
+        assertEquals(requests.get(1), ImmutableList.of(
+                new TimeSeries(requests.get(0).get(0).labels, 2, 2000),
+                new TimeSeries(requests.get(0).get(0).labels, 3, 3000)));
+        assertEquals(sink.getQueuedSamples(), 0);
+    }
+
+    private RemoteWriteSink createSink(RemoteWriteConfig config)
+    {
+        return new RemoteWriteSink(config.setUri(WRITE_URI), nodeInfo, new ReportTagConfig(), httpClient, executorService);
+    }
+
+    private List<Set<String>> shardNames()
+    {
+        List<Set<String>> shardNames = new ArrayList<>();
+        for (List<TimeSeries> request : requests) {
+            Set<String> names = new HashSet<>();
+            for (TimeSeries timeSeries : request) {
+                names.add(timeSeries.labels.get("__name__"));
+            }
+            shardNames.add(names);
+        }
+        return shardNames;
+    }
+
+    private static List<TimeSeries> decode(Request request)
+    {
+        assertEquals(request.getUri(), WRITE_URI);
+        assertEquals(request.getMethod(), "POST");
+        assertEquals(request.getHeader("Content-Type"), "application/x-protobuf");
+        assertEquals(request.getHeader("Content-Encoding"), "snappy");
+        assertEquals(request.getHeader("X-Prometheus-Remote-Write-Version"), "0.1.0");
+        try {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            writeBodySourceTo(request.getBodySource(), outputStream);
+            byte[] compressed = outputStream.toByteArray();
+            ByteBuffer writeRequest = ByteBuffer.wrap(Snappy.uncompress(compressed, 0, compressed.length));
+
+            List<TimeSeries> timeSeries = new ArrayList<>();
+            while (writeRequest.hasRemaining()) {
+                assertEquals(readVarint(writeRequest), (1 << 3) | 2);
+                timeSeries.add(TimeSeries.decode(readMessage(writeRequest)));
+            }
+            return timeSeries;
+        }
+        catch (Exception e) {
+            throwIfUnchecked(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static long readVarint(ByteBuffer buffer)
+    {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static ByteBuffer readMessage(ByteBuffer buffer)
+    {
+        int length = (int) readVarint(buffer);
+        ByteBuffer message = buffer.slice();
+        message.limit(length);
+        buffer.position(buffer.position() + length);
+        return message;
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        ByteBuffer message = readMessage(buffer);
+        byte[] bytes = new byte[message.remaining()];
+        message.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static class TimeSeries
+    {
+        private final Map<String, String> labels;
+        private final double value;
+        private final long timestamp;
+
+        TimeSeries(Map<String, String> labels, double value, long timestamp)
+        {
+            this.labels = labels;
+            this.value = value;
+            this.timestamp = timestamp;
+        }
+
+        static TimeSeries decode(ByteBuffer buffer)
+        {
+            Map<String, String> labels = new LinkedHashMap<>();
+            double value = Double.NaN;
+            long timestamp = 0;
+            while (buffer.hasRemaining()) {
+                long tag = readVarint(buffer);
+                ByteBuffer message = readMessage(buffer);
+                if (tag == ((1 << 3) | 2)) {
+                    assertEquals(readVarint(message), (1 << 3) | 2);
+                    String name = readString(message);
+                    assertEquals(readVarint(message), (2 << 3) | 2);
+                    labels.put(name, readString(message));
+                }
+                else {
+                    assertEquals(tag, (2 << 3) | 2);
+                    assertEquals(readVarint(message), (1 << 3) | 1);
+                    value = message.order(ByteOrder.LITTLE_ENDIAN).getDouble();
+                    assertEquals(readVarint(message), 2 << 3);
+                    timestamp = readVarint(message);
+                }
+            }
+            return new TimeSeries(labels, value, timestamp);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TimeSeries that = (TimeSeries) o;
+            return Double.compare(that.value, value) == 0 &&
+                    timestamp == that.timestamp &&
+                    labels.equals(that.labels) &&
+                    ImmutableList.copyOf(labels.keySet()).equals(ImmutableList.copyOf(that.labels.keySet()));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(labels, value, timestamp);
+        }
+
+        @Override
+        public String toString()
+        {
+            return labels + " " + value + " " + timestamp;
+        }
+    }
+}
@@ -16,11 +16,15 @@
 package com.proofpoint.reporting;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Table;
 import com.proofpoint.http.client.HttpClient;
@@ -37,14 +41,19 @@ import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPInputStream;
 
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.proofpoint.http.client.testing.BodySourceTester.writeBodySourceTo;
 import static com.proofpoint.http.client.testing.TestingResponse.mockResponse;
+import static com.proofpoint.reporting.ReportClient.UploadResult.FAILED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.REJECTED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.SUCCEEDED;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
 
@@ -175,6 +184,122 @@ public class TestReportClient
         assertEquals(tags.keySet(), ImmutableSet.of("application", "environment", "pool", "foo", "baz"));
     }
 
+    @Test
+    public void testUploadBatch()
+    {
+        ReportClient client = new ReportClient(nodeInfo, httpClient, new ReportClientConfig(), new ReportTagConfig(), objectMapper);
+        Table<String, Map<String, String>, Object> otherData = HashBasedTable.create();
+        otherData.put("Foo.Other", ImmutableMap.of(), 2);
+
+        assertEquals(client.upload(ImmutableList.of(client.encode(TEST_TIME, collectedData), client.encode(TEST_TIME + 60_000, otherData))), SUCCEEDED);
+
+        assertEquals(sentJson.size(), 3);
+        assertEquals(sentJson.get(0).get("name"), "Foo.Ba_r.Size");
+        assertEquals(sentJson.get(1).get("name"), "Foo.Other");
+        assertEquals(sentJson.get(1).get("timestamp"), TEST_TIME + 60_000);
+        assertEquals(sentJson.get(1).get("value"), 2);
+        assertEquals(sentJson.get(2).get("name"), "Foo.Size");
+    }
+
+    @Test
+    public void testUploadResults()
+    {
+        ReportClient client = new ReportClient(nodeInfo, new TestingHttpClient(request -> mockResponse(HttpStatus.BAD_REQUEST)), new ReportClientConfig(), new ReportTagConfig(), objectMapper);
+        assertEquals(client.upload(ImmutableList.of(client.encode(TEST_TIME, collectedData))), REJECTED);
+
+        client = new ReportClient(nodeInfo, new TestingHttpClient(request -> mockResponse(HttpStatus.TOO_MANY_REQUESTS)), new ReportClientConfig(), new ReportTagConfig(), objectMapper);
+        assertEquals(client.upload(ImmutableList.of(client.encode(TEST_TIME, collectedData))), FAILED);
+
+        client = new ReportClient(nodeInfo, new TestingHttpClient(request -> mockResponse(HttpStatus.SERVICE_UNAVAILABLE)), new ReportClientConfig(), new ReportTagConfig(), objectMapper);
+        assertEquals(client.upload(ImmutableList.of(client.encode(TEST_TIME, collectedData))), FAILED);
+
+        client = new ReportClient(nodeInfo, new TestingHttpClient(request -> {
+            throw new RuntimeException("testing");
+        }), new ReportClientConfig(), new ReportTagConfig(), objectMapper);
+        assertEquals(client.upload(ImmutableList.of(client.encode(TEST_TIME, collectedData))), FAILED);
+    }
+
+    @Test
+    public void testColumnar()
+            throws Exception
+    {
+        List<JsonNode> documents = new ArrayList<>();
+        httpClient = new TestingHttpClient(request -> {
+            assertEquals(request.getHeader("Content-Type"), "application/x-jackson-smile");
+            assertEquals(request.getHeader("Content-Encoding"), "gzip");
+            try {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                writeBodySourceTo(request.getBodySource(), outputStream);
+                MappingIterator<JsonNode> iterator = new ObjectMapper(new SmileFactory()).readerFor(JsonNode.class)
+                        .readValues(new GZIPInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+                iterator.forEachRemaining(documents::add);
+            }
+            catch (Exception e) {
+                throwIfUnchecked(e);
+                throw new RuntimeException(e);
+            }
+            return mockResponse(HttpStatus.NO_CONTENT);
+        });
+        ReportClient client = new ReportClient(nodeInfo, httpClient, new ReportClientConfig().setUploadColumnar(true), new ReportTagConfig(), objectMapper);
+        collectedData = ImmutableTable.<String, Map<String, String>, Object>builder()
+                .put("Foo.Size", ImmutableMap.of(), 1.1)
+                .put("Foo.Ba:r.Size", ImmutableMap.of("tag1", "B\\a\"z"), 2)
+                .put("Foo.Size", ImmutableMap.of("tag1", "B\\a\"z"), "test value")
+                .build();
+
+        assertEquals(client.upload(ImmutableList.of(client.encode(TEST_TIME, collectedData), client.encode(TEST_TIME + 60_000, collectedData))), SUCCEEDED);
+
+        assertEquals(documents.size(), 2);
+        ObjectMapper mapper = new ObjectMapper();
+        assertEquals(documents.get(0), mapper.readTree("{" +
+                "\"timestamp\":" + TEST_TIME + "," +
+                "\"tags\":{\"application\":\"test-application\",\"host\":\"test.hostname\",\"environment\":\"test_environment\",\"pool\":\"test_pool\"}," +
+                "\"names\":[\"Foo.Size\",\"Foo.Ba_r.Size\"]," +
+                "\"tagSets\":[{},{\"tag1\":\"B_a_z\"}]," +
+                "\"nameIndexes\":[0,1,0]," +
+                "\"tagSetIndexes\":[0,1,1]," +
+                "\"values\":[1.1,2,\"test value\"]" +
+                "}"));
+        assertEquals(documents.get(1).get("timestamp").asLong(), TEST_TIME + 60_000);
+    }
+
+    @Test
+    public void testColumnarFallback()
+    {
+        AtomicInteger columnarRequests = new AtomicInteger();
+        TestingResponseFunction jsonFunction = new TestingResponseFunction();
+        httpClient = new TestingHttpClient(request -> {
+            if ("application/x-jackson-smile".equals(request.getHeader("Content-Type"))) {
+                columnarRequests.incrementAndGet();
+                return mockResponse(HttpStatus.UNSUPPORTED_MEDIA_TYPE);
+            }
+            return jsonFunction.handle(request);
+        });
+        ReportClient client = new ReportClient(nodeInfo, httpClient, new ReportClientConfig().setUploadColumnar(true), new ReportTagConfig(), objectMapper);
+        byte[] queuedReport = client.encode(TEST_TIME, collectedData);
+
+        assertEquals(client.upload(ImmutableList.of(queuedReport)), SUCCEEDED);
+
+        assertEquals(columnarRequests.get(), 1);
+        assertEquals(sentJson.size(), 2);
+        assertEquals(sentJson.get(0).get("name"), "Foo.Ba_r.Size");
+        assertEquals(sentJson.get(0).get("timestamp"), TEST_TIME);
+        assertEquals(sentJson.get(0).get("value"), 1.2);
+        assertEquals(sentJson.get(0).get("tags"), ImmutableMap.of(
+                "application", "test-application",
+                "host", "test.hostname",
+                "environment", "test_environment",
+                "pool", "test_pool",
+                "tag1", "B_a_z"));
+        assertEquals(sentJson.get(1).get("name"), "Foo.Size");
+
+        // later reports are encoded as JSON
+        sentJson = null;
+        client.report(TEST_TIME, collectedData);
+        assertEquals(columnarRequests.get(), 1);
+        assertEquals(sentJson.size(), 2);
+    }
+
     private class TestingResponseFunction
             implements Processor
     {
@@ -16,6 +16,8 @@
 package com.proofpoint.reporting;
 
 import com.google.common.collect.ImmutableMap;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
 import org.testng.annotations.Test;
 
 import java.util.Map;
@@ -24,6 +26,10 @@ import static com.proofpoint.configuration.testing.ConfigAssertions.assertFullMa
 import static com.proofpoint.configuration.testing.ConfigAssertions.assertLegacyEquivalence;
 import static com.proofpoint.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static com.proofpoint.configuration.testing.ConfigAssertions.recordDefaults;
+import static com.proofpoint.units.DataSize.Unit.GIGABYTE;
+import static com.proofpoint.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 public class TestReportClientConfig
 {
@@ -33,6 +39,14 @@ public class TestReportClientConfig
         assertRecordedDefaults(recordDefaults(ReportClientConfig.class)
                 .setEnabled(true)
                 .setPulseIncludeHostTag(true)
+                .setDeltaOnly(false)
+                .setFullReportInterval(new Duration(15, MINUTES))
+                .setQueueMaxSize(new DataSize(16, MEGABYTE))
+                .setSpoolDirectory(null)
+                .setSpoolMaxSize(new DataSize(256, MEGABYTE))
+                .setUploadMaxBatchSize(10)
+                .setUploadColumnar(false)
+                .setRetryMaxDelay(new Duration(5, MINUTES))
         );
     }
 
@@ -42,11 +56,27 @@ public class TestReportClientConfig
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("reporting.enabled", "false")
                 .put("reporting.pulse.include-host-tag", "false")
+                .put("reporting.delta-only", "true")
+                .put("reporting.full-report-interval", "1h")
+                .put("reporting.queue.max-size", "1MB")
+                .put("reporting.spool.directory", "var/reporting")
+                .put("reporting.spool.max-size", "1GB")
+                .put("reporting.upload.max-batch-size", "5")
+                .put("reporting.upload.columnar", "true")
+                .put("reporting.retry.max-delay", "1m")
                 .build();
 
         ReportClientConfig expected = new ReportClientConfig()
                 .setEnabled(false)
-                .setPulseIncludeHostTag(false);
+                .setPulseIncludeHostTag(false)
+                .setDeltaOnly(true)
+                .setFullReportInterval(new Duration(1, HOURS))
+                .setQueueMaxSize(new DataSize(1, MEGABYTE))
+                .setSpoolDirectory("var/reporting")
+                .setSpoolMaxSize(new DataSize(1, GIGABYTE))
+                .setUploadMaxBatchSize(5)
+                .setUploadColumnar(true)
+                .setRetryMaxDelay(new Duration(1, MINUTES));
 
         assertFullMapping(properties, expected);
     }
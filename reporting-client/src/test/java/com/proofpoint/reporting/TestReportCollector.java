@@ -30,7 +30,9 @@ import java.util.Map;
 
 import static com.proofpoint.testing.Assertions.assertEqualsIgnoreOrder;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -44,6 +46,7 @@ public class TestReportCollector
     private MinuteBucketIdProvider bucketIdProvider;
     private ReportedBeanRegistry reportedBeanRegistry;
     private ReportSink reportSink;
+    private CollectionCostTracker collectionCostTracker;
     private ReportCollector reportCollector;
 
     @Captor
@@ -56,8 +59,10 @@ public class TestReportCollector
         bucketIdProvider = mock(MinuteBucketIdProvider.class);
         reportedBeanRegistry = new ReportedBeanRegistry();
         reportSink = mock(ReportQueue.class);
+        collectionCostTracker = new CollectionCostTracker(new CollectionCostConfig(), mock(CollectionCostStats.class, RETURNS_DEEP_STUBS));
         NodeInfo nodeInfo = new NodeInfo("test-application", "1.2", "platform.1", new NodeConfig().setEnvironment("testing"));
-        reportCollector = new ReportCollector(nodeInfo, bucketIdProvider, reportedBeanRegistry, reportSink);
+        reportCollector = new ReportCollector(nodeInfo, bucketIdProvider, reportedBeanRegistry, reportSink,
+                new ShardedCollector(new ShardedCollectorConfig(), mock(ShardedCollectorStats.class)), collectionCostTracker);
     }
 
     @Test
@@ -291,6 +296,16 @@ public class TestReportCollector
         }
     }
 
+    private void assertCollected(long systemTimeMillis, Table<String, Map<String, String>, Object> expected)
+    {
+        reset(reportSink);
+        when(bucketIdProvider.getLastSystemTimeMillis()).thenReturn(systemTimeMillis);
+        reportCollector.collectData();
+
+        verify(reportSink).report(eq(systemTimeMillis), tableCaptor.capture());
+        assertEquals(tableCaptor.getValue().cellSet(), expected.cellSet());
+    }
+
     private static class ReportedObject
     {
         private int metric = 0;
@@ -301,4 +316,41 @@ public class TestReportCollector
             return ++metric;
         }
     }
+
+    @Test
+    public void testShardedCollection()
+            throws Exception
+    {
+        NodeInfo nodeInfo = new NodeInfo("test-application", "1.2", "platform.1", new NodeConfig().setEnvironment("testing"));
+        ShardedCollector shardedCollector = new ShardedCollector(new ShardedCollectorConfig().setThreads(3), mock(ShardedCollectorStats.class, RETURNS_DEEP_STUBS));
+        try {
+            reportCollector = new ReportCollector(nodeInfo, bucketIdProvider, reportedBeanRegistry, reportSink, shardedCollector, collectionCostTracker);
+            ImmutableTable.Builder<String, Map<String, String>, Object> expected = ImmutableTable.builder();
+            for (int i = 0; i < 5; i++) {
+                SettableObject reported = new SettableObject();
+                reported.value = i;
+                reportedBeanRegistry.register(reported, ReportedBean.forTarget(reported, bucketIdProvider), false, "TestObject", ImmutableMap.of("index", String.valueOf(i)));
+                expected.put("TestObject.Value", ImmutableMap.of("index", String.valueOf(i)), i);
+            }
+
+            assertCollected(0, expected
+                    .put("ReportCollector.NumMetrics", EXPECTED_VERSION_TAGS, 5)
+                    .build());
+            assertEquals(collectionCostTracker.getLastCollections().get("report").getNamePrefixes().get(0).getSeries(), 5);
+        }
+        finally {
+            shardedCollector.stop();
+        }
+    }
+
+    private static class SettableObject
+    {
+        private volatile int value = 0;
+
+        @Reported
+        public int getValue()
+        {
+            return value;
+        }
+    }
 }
@@ -18,52 +18,303 @@ package com.proofpoint.reporting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableTable;
 import com.proofpoint.testing.SerialScheduledExecutorService;
+import com.proofpoint.units.DataSize;
+import com.proofpoint.units.Duration;
+import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
 
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.proofpoint.reporting.ReportClient.UploadResult.FAILED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.REJECTED;
+import static com.proofpoint.reporting.ReportClient.UploadResult.SUCCEEDED;
+import static com.proofpoint.units.DataSize.Unit.BYTE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 public class TestReportQueue
 {
     private static final ImmutableTable<String, Map<String, String>, Object> TESTING_METRIC_DATA = ImmutableTable.of("row", ImmutableMap.of("tag", "tagValue"), 3.14);
+    private static final byte[] REPORT_1 = {1, 1, 1, 1};
+    private static final byte[] REPORT_2 = {2, 2, 2, 2};
+    private static final byte[] REPORT_3 = {3, 3, 3, 3};
 
-    private ExecutorService clientExecutorService;
+    private SerialScheduledExecutorService clientExecutorService;
     private ReportClient reportClient;
+    private CollectionCostTracker collectionCostTracker;
+    private File spoolDirectory;
 
     @BeforeMethod
     public void setup()
+            throws Exception
     {
-        clientExecutorService = spy(new SerialScheduledExecutorService());
+        clientExecutorService = new SerialScheduledExecutorService();
         reportClient = mock(ReportClient.class);
+        collectionCostTracker = mock(CollectionCostTracker.class);
+        when(reportClient.encode(anyLong(), any())).thenReturn(REPORT_1, REPORT_2, REPORT_3);
+        spoolDirectory = Files.createTempDirectory("report-spool").toFile();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+            throws Exception
+    {
+        deleteRecursively(spoolDirectory.toPath(), ALLOW_INSECURE);
     }
 
     @Test
     public void testSubmit()
     {
-        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig().setEnabled(true), clientExecutorService, reportClient);
+        when(reportClient.upload(any())).thenReturn(SUCCEEDED);
+        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig().setEnabled(true), clientExecutorService, reportClient, collectionCostTracker);
 
         reportQueue.report(100, TESTING_METRIC_DATA);
 
-        verify(clientExecutorService).submit(any(Runnable.class));
-        verify(reportClient).report(100, TESTING_METRIC_DATA);
+        verify(reportClient).encode(100, TESTING_METRIC_DATA);
+        verify(reportClient).upload(reports(REPORT_1));
         verifyNoMoreInteractions(reportClient);
+        verify(collectionCostTracker).recordWrittenBytes("report", REPORT_1.length);
+        assertEquals(reportQueue.getQueuedReports(), 0);
+        assertEquals(reportQueue.getQueuedBytes(), 0);
+    }
+
+    @Test
+    public void testDeltaOnly()
+    {
+        when(reportClient.upload(any())).thenReturn(SUCCEEDED);
+        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig().setDeltaOnly(true), clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, TESTING_METRIC_DATA);
+        reportQueue.report(200, TESTING_METRIC_DATA);
+
+        verify(reportClient).encode(100, TESTING_METRIC_DATA);
+        verify(reportClient, never()).encode(eq(200L), any());
     }
 
     @Test
     public void testDisabled()
     {
-        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig().setEnabled(false), clientExecutorService, reportClient);
+        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig().setEnabled(false), clientExecutorService, reportClient, collectionCostTracker);
 
         reportQueue.report(100, TESTING_METRIC_DATA);
 
-        verifyNoMoreInteractions(clientExecutorService);
         verifyNoMoreInteractions(reportClient);
     }
+
+    @Test
+    public void testEmpty()
+    {
+        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig(), clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, ImmutableTable.of());
+
+        verifyNoMoreInteractions(reportClient);
+    }
+
+    @Test
+    public void testRetryWithBackoff()
+    {
+        when(reportClient.upload(any())).thenReturn(FAILED, FAILED, FAILED, SUCCEEDED);
+        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig(), clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, TESTING_METRIC_DATA);
+        verify(reportClient, times(1)).upload(reports(REPORT_1));
+        assertEquals(reportQueue.getQueuedReports(), 1);
+        assertEquals(reportQueue.getQueuedBytes(), 4);
+
+        clientExecutorService.elapseTimeNanosecondBefore(1, SECONDS);
+        verify(reportClient, times(1)).upload(reports(REPORT_1));
+        clientExecutorService.elapseTime(1, NANOSECONDS);
+        verify(reportClient, times(2)).upload(reports(REPORT_1));
+
+        clientExecutorService.elapseTimeNanosecondBefore(2, SECONDS);
+        verify(reportClient, times(2)).upload(reports(REPORT_1));
+        clientExecutorService.elapseTime(1, NANOSECONDS);
+        verify(reportClient, times(3)).upload(reports(REPORT_1));
+
+        clientExecutorService.elapseTime(4, SECONDS);
+        verify(reportClient, times(4)).upload(reports(REPORT_1));
+        assertEquals(reportQueue.getQueuedReports(), 0);
+        assertEquals(reportQueue.getUploadFailures().getTotalCount(), 3);
+        assertEquals(reportQueue.getDropped().getTotalCount(), 0);
+
+        // the backoff is reset by a success
+        when(reportClient.upload(any())).thenReturn(FAILED, SUCCEEDED);
+        reportQueue.report(200, TESTING_METRIC_DATA);
+        clientExecutorService.elapseTime(1, SECONDS);
+        verify(reportClient, times(2)).upload(reports(REPORT_2));
+    }
+
+    @Test
+    public void testMaxRetryDelay()
+    {
+        when(reportClient.upload(any())).thenReturn(FAILED);
+        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig().setRetryMaxDelay(new Duration(3, SECONDS)), clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, TESTING_METRIC_DATA);
+        clientExecutorService.elapseTime(1, SECONDS);
+        clientExecutorService.elapseTime(2, SECONDS);
+        clientExecutorService.elapseTime(3, SECONDS);
+        clientExecutorService.elapseTime(3, SECONDS);
+        verify(reportClient, times(5)).upload(reports(REPORT_1));
+    }
+
+    @Test
+    public void testBatching()
+    {
+        when(reportClient.upload(any())).thenReturn(FAILED, SUCCEEDED);
+        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig().setUploadMaxBatchSize(2), clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, TESTING_METRIC_DATA);
+        reportQueue.report(200, TESTING_METRIC_DATA);
+        reportQueue.report(300, TESTING_METRIC_DATA);
+        assertEquals(reportQueue.getQueuedReports(), 3);
+
+        clientExecutorService.elapseTime(1, SECONDS);
+
+        verify(reportClient).upload(reports(REPORT_1, REPORT_2));
+        verify(reportClient).upload(reports(REPORT_3));
+        assertEquals(reportQueue.getQueuedReports(), 0);
+    }
+
+    @Test
+    public void testRejected()
+    {
+        when(reportClient.upload(any())).thenReturn(REJECTED, SUCCEEDED);
+        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig(), clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, TESTING_METRIC_DATA);
+        reportQueue.report(200, TESTING_METRIC_DATA);
+
+        verify(reportClient).upload(reports(REPORT_1));
+        verify(reportClient).upload(reports(REPORT_2));
+        assertEquals(reportQueue.getQueuedReports(), 0);
+        assertEquals(reportQueue.getDropped().getTotalCount(), 1);
+    }
+
+    @Test
+    public void testMemoryLimit()
+    {
+        when(reportClient.upload(any())).thenReturn(FAILED, SUCCEEDED);
+        ReportQueue reportQueue = new ReportQueue(new ReportClientConfig().setQueueMaxSize(new DataSize(8, BYTE)), clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, TESTING_METRIC_DATA);
+        reportQueue.report(200, TESTING_METRIC_DATA);
+        reportQueue.report(300, TESTING_METRIC_DATA);
+        assertEquals(reportQueue.getQueuedReports(), 2);
+        assertEquals(reportQueue.getQueuedBytes(), 8);
+        assertEquals(reportQueue.getDropped().getTotalCount(), 1);
+
+        clientExecutorService.elapseTime(1, SECONDS);
+
+        verify(reportClient).upload(reports(REPORT_2, REPORT_3));
+        assertEquals(reportQueue.getQueuedReports(), 0);
+    }
+
+    @Test
+    public void testSpool()
+    {
+        when(reportClient.upload(any())).thenReturn(FAILED);
+        ReportClientConfig config = new ReportClientConfig()
+                .setQueueMaxSize(new DataSize(4, BYTE))
+                .setSpoolDirectory(spoolDirectory.getPath());
+        ReportQueue reportQueue = new ReportQueue(config, clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, TESTING_METRIC_DATA);
+        reportQueue.report(200, TESTING_METRIC_DATA);
+        reportQueue.report(300, TESTING_METRIC_DATA);
+        assertEquals(reportQueue.getQueuedReports(), 3);
+        assertEquals(reportQueue.getQueuedBytes(), 4);
+        assertEquals(reportQueue.getSpooledBytes(), 8);
+        assertEquals(reportQueue.getDropped().getTotalCount(), 0);
+
+        // the spooled reports are older, so are uploaded first
+        when(reportClient.upload(any())).thenReturn(SUCCEEDED);
+        clientExecutorService.elapseTime(1, SECONDS);
+
+        verify(reportClient).upload(reports(REPORT_1, REPORT_2));
+        verify(reportClient).upload(reports(REPORT_3));
+        assertEquals(reportQueue.getQueuedReports(), 0);
+        assertEquals(reportQueue.getSpooledBytes(), 0);
+    }
+
+    @Test
+    public void testSpoolSurvivesRestart()
+    {
+        when(reportClient.upload(any())).thenReturn(FAILED);
+        ReportClientConfig config = new ReportClientConfig()
+                .setSpoolDirectory(spoolDirectory.getPath());
+        ReportQueue reportQueue = new ReportQueue(config, clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, TESTING_METRIC_DATA);
+        reportQueue.report(200, TESTING_METRIC_DATA);
+        reportQueue.stop();
+        assertEquals(reportQueue.getQueuedBytes(), 0);
+        assertEquals(reportQueue.getSpooledBytes(), 8);
+
+        ReportClient newReportClient = mock(ReportClient.class);
+        when(newReportClient.upload(any())).thenReturn(SUCCEEDED);
+        ReportQueue newReportQueue = new ReportQueue(config, new SerialScheduledExecutorService(), newReportClient, collectionCostTracker);
+
+        verify(newReportClient).upload(reports(REPORT_1, REPORT_2));
+        assertEquals(newReportQueue.getQueuedReports(), 0);
+        assertEquals(spoolDirectory.list(), new String[0]);
+    }
+
+    @Test
+    public void testSpoolLimit()
+    {
+        when(reportClient.upload(any())).thenReturn(FAILED);
+        ReportClientConfig config = new ReportClientConfig()
+                .setQueueMaxSize(new DataSize(0, BYTE))
+                .setSpoolDirectory(spoolDirectory.getPath())
+                .setSpoolMaxSize(new DataSize(8, BYTE));
+        ReportQueue reportQueue = new ReportQueue(config, clientExecutorService, reportClient, collectionCostTracker);
+
+        reportQueue.report(100, TESTING_METRIC_DATA);
+        reportQueue.report(200, TESTING_METRIC_DATA);
+        reportQueue.report(300, TESTING_METRIC_DATA);
+        assertEquals(reportQueue.getQueuedReports(), 2);
+        assertEquals(reportQueue.getSpooledBytes(), 8);
+        assertEquals(reportQueue.getDropped().getTotalCount(), 1);
+
+        when(reportClient.upload(any())).thenReturn(SUCCEEDED);
+        clientExecutorService.elapseTime(1, SECONDS);
+
+        inOrder(reportClient).verify(reportClient).upload(reports(REPORT_2, REPORT_3));
+    }
+
+    private static List<byte[]> reports(byte[]... expected)
+    {
+        return argThat(reports -> {
+            if (reports.size() != expected.length) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (!Arrays.equals(reports.get(i), expected[i])) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
 }
@@ -15,14 +15,20 @@
  */
 package com.proofpoint.reporting;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.TypeLiteral;
 import com.proofpoint.bootstrap.LifeCycleManager;
 import com.proofpoint.discovery.client.testing.TestingDiscoveryModule;
 import com.proofpoint.json.JsonModule;
 import com.proofpoint.node.testing.TestingNodeModule;
 import org.testng.annotations.Test;
 
+import java.util.Set;
+
 import static com.proofpoint.bootstrap.Bootstrap.bootstrapTest;
+import static org.testng.Assert.assertEquals;
 
 public class TestReportingClientModule
 {
@@ -42,4 +48,26 @@ public class TestReportingClientModule
 
         injector.getInstance(LifeCycleManager.class).stop();
     }
+
+    @Test
+    public void testRemoteWrite()
+            throws Exception
+    {
+        Injector injector = bootstrapTest()
+                .withModules(
+                        new ReportingModule(),
+                        new JsonModule(),
+                        new TestingNodeModule(),
+                        new TestingDiscoveryModule(),
+                        new ReportingClientModule(),
+                        new RemoteWriteModule()
+                )
+                .setRequiredConfigurationProperty("reporting.remote-write.uri", "http://127.0.0.1:1/api/v1/write")
+                .initialize();
+
+        assertEquals(injector.getInstance(Key.get(new TypeLiteral<Set<ReportSink>>() {}, ForReportCollector.class)),
+                ImmutableSet.of(injector.getInstance(ReportQueue.class), injector.getInstance(RemoteWriteSink.class)));
+
+        injector.getInstance(LifeCycleManager.class).stop();
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.proofpoint.reporting.testing.TestingReportCollectionFactory;
+import com.proofpoint.units.Duration;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestShardedCollector
+{
+    private static final List<List<Integer>> SHARDS = ImmutableList.of(
+            ImmutableList.of(1, 2, 3),
+            ImmutableList.of(4, 5),
+            ImmutableList.of(6));
+
+    private TestingReportCollectionFactory factory;
+    private ShardedCollectorStats stats;
+    private ShardedCollector shardedCollector;
+
+    @BeforeMethod
+    public void setup()
+    {
+        factory = new TestingReportCollectionFactory();
+        stats = factory.createReportCollection(ShardedCollectorStats.class);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void teardown()
+    {
+        if (shardedCollector != null) {
+            shardedCollector.stop();
+        }
+    }
+
+    @Test
+    public void testInline()
+    {
+        shardedCollector = new ShardedCollector(new ShardedCollectorConfig(), stats);
+        assertEquals(shardedCollector.getShardCount(), 1);
+
+        Thread collectingThread = Thread.currentThread();
+        List<List<Integer>> results = shardedCollector.collect("test", SHARDS, item -> item, item -> {
+            assertEquals(Thread.currentThread(), collectingThread);
+            return item * 10;
+        });
+
+        assertEquals(results, ImmutableList.of(
+                ImmutableList.of(10, 20, 30),
+                ImmutableList.of(40, 50),
+                ImmutableList.of(60)));
+        verify(factory.getArgumentVerifier(stats), never()).shardCollectionTime(eq("test"), anyInt());
+    }
+
+    @Test
+    public void testParallel()
+    {
+        shardedCollector = new ShardedCollector(new ShardedCollectorConfig().setThreads(3), stats);
+        assertEquals(shardedCollector.getShardCount(), 3);
+
+        List<List<Integer>> results = shardedCollector.collect("test", SHARDS, item -> item, item -> item == 5 ? null : item * 10);
+
+        assertEquals(results, ImmutableList.of(
+                ImmutableList.of(10, 20, 30),
+                asList(40, null),
+                ImmutableList.of(60)));
+        for (int shard = 0; shard < 3; shard++) {
+            verify(factory.getArgumentVerifier(stats)).shardCollectionTime("test", shard);
+        }
+        verify(factory.getArgumentVerifier(stats), never()).shardTimeout(eq("test"), anyInt());
+    }
+
+    @Test(timeOut = 10_000)
+    public void testSlowAttribute()
+    {
+        shardedCollector = new ShardedCollector(new ShardedCollectorConfig()
+                .setThreads(2)
+                .setAttributeTimeout(new Duration(100, MILLISECONDS)), stats);
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<List<Integer>> results = shardedCollector.collect("test", ImmutableList.of(ImmutableList.of(1, 2, 3), ImmutableList.of(4, 5)), item -> item, item -> {
+            if (item == 2) {
+                try {
+                    release.await();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return item * 10;
+        });
+        release.countDown();
+
+        assertEquals(results, ImmutableList.of(
+                asList(10, null, 30),
+                ImmutableList.of(40, 50)));
+        verify(factory.getArgumentVerifier(stats)).shardTimeout("test", 0);
+        verify(factory.getArgumentVerifier(stats), times(2)).shardCollectionTime(eq("test"), anyInt());
+    }
+
+    @Test
+    public void testThrowingAttribute()
+    {
+        shardedCollector = new ShardedCollector(new ShardedCollectorConfig().setThreads(3), stats);
+
+        List<List<Integer>> results = shardedCollector.collect("test", SHARDS, item -> item, item -> {
+            if (item == 2) {
+                throw new IllegalStateException("getter failure");
+            }
+            return item * 10;
+        });
+
+        assertEquals(results, ImmutableList.of(
+                asList(10, null, 30),
+                ImmutableList.of(40, 50),
+                ImmutableList.of(60)));
+        verify(factory.getArgumentVerifier(stats), never()).shardTimeout(eq("test"), anyInt());
+    }
+
+    @Test(timeOut = 10_000)
+    public void testStuckAttribute()
+    {
+        shardedCollector = new ShardedCollector(new ShardedCollectorConfig()
+                .setThreads(2)
+                .setAttributeTimeout(new Duration(100, MILLISECONDS)), stats);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger stuckReads = new AtomicInteger();
+        List<List<Integer>> shards = ImmutableList.of(ImmutableList.of(1, 2, 3), ImmutableList.of(4, 5));
+        Set<Thread> earlierThreads = collectionThreads();
+
+        try {
+            for (int collection = 0; collection < 5; collection++) {
+                List<List<Integer>> results = shardedCollector.collect("test", shards, item -> item, item -> {
+                    if (item == 2) {
+                        stuckReads.incrementAndGet();
+                        try {
+                            release.await();
+                        }
+                        catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    return item * 10;
+                });
+
+                assertEquals(results, ImmutableList.of(
+                        asList(10, null, 30),
+                        ImmutableList.of(40, 50)));
+            }
+
+            assertEquals(stuckReads.get(), 1);
+            assertTrue(Sets.difference(collectionThreads(), earlierThreads).size() <= 4, "collection threads are bounded by the pool size");
+            verify(factory.getArgumentVerifier(stats), times(5)).shardTimeout("test", 0);
+        }
+        finally {
+            release.countDown();
+        }
+    }
+
+    private static Set<Thread> collectionThreads()
+    {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("reporting-collection-"))
+                .collect(toImmutableSet());
+    }
+}
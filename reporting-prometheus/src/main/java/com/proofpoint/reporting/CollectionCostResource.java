@@ -0,0 +1,116 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.proofpoint.jaxrs.AccessDoesNotRequireAuthentication;
+import com.proofpoint.reporting.CollectionCostTracker.AttributeCost;
+import com.proofpoint.reporting.CollectionCostTracker.CollectionSummary;
+import com.proofpoint.reporting.CollectionCostTracker.NamePrefixCost;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import static java.util.Objects.requireNonNull;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+
+/**
+ * Lists what the last collection by each collector cost: its slowest
+ * attribute reads, and the read time and number of series of each metric
+ * name prefix.
+ */
+@Path("/metrics/cost")
+@AccessDoesNotRequireAuthentication
+public class CollectionCostResource
+{
+    private final CollectionCostTracker collectionCostTracker;
+
+    @Inject
+    public CollectionCostResource(CollectionCostTracker collectionCostTracker)
+    {
+        this.collectionCostTracker = requireNonNull(collectionCostTracker, "collectionCostTracker is null");
+    }
+
+    @GET
+    @Produces(TEXT_PLAIN)
+    public String get()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (Entry<String, CollectionSummary> entry : collectionCostTracker.getLastCollections().entrySet()) {
+            String collector = entry.getKey();
+            CollectionSummary summary = entry.getValue();
+            sb.append(collector)
+                    .append(": collected in ")
+                    .append(millis(summary.getElapsedNanos()).trim());
+            Long writtenBytes = collectionCostTracker.getLastWrittenBytes(collector);
+            if (writtenBytes != null) {
+                sb.append(", wrote ")
+                        .append(writtenBytes)
+                        .append(" bytes");
+            }
+
+            sb.append("\n\nSlowest attribute reads:\n");
+            for (AttributeCost attributeCost : summary.getSlowestAttributes()) {
+                sb.append("  ")
+                        .append(millis(attributeCost.getNanos()))
+                        .append("  ")
+                        .append(attributeCost.getNamePrefix());
+                appendTags(sb, attributeCost.getTags());
+                sb.append('.')
+                        .append(attributeCost.getAttributeName())
+                        .append('\n');
+            }
+
+            sb.append("\nName prefixes by read time:\n");
+            for (NamePrefixCost namePrefixCost : summary.getNamePrefixes()) {
+                sb.append("  ")
+                        .append(millis(namePrefixCost.getNanos()))
+                        .append(String.format("  %8d series  ", namePrefixCost.getSeries()))
+                        .append(namePrefixCost.getNamePrefix())
+                        .append('\n');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String millis(long nanos)
+    {
+        return String.format("%10.3fms", nanos / 1_000_000.0);
+    }
+
+    private static void appendTags(StringBuilder sb, Map<String, String> tags)
+    {
+        if (tags.isEmpty()) {
+            return;
+        }
+        sb.append('{');
+        boolean first = true;
+        for (Entry<String, String> tag : tags.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(tag.getKey())
+                    .append('=')
+                    .append(tag.getValue());
+        }
+        sb.append('}');
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.proofpoint.reporting.PrometheusValue.SampleWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes metric families in one of the formats served by {@link MetricsResource}.
+ * Families are started in name order and the series of each family follow
+ * its start.
+ */
+interface ExpositionWriter
+        extends SampleWriter
+{
+    void startFamily(String name, PrometheusType type)
+            throws IOException;
+
+    void startSeries(PrometheusSeries series);
+
+    /**
+     * Ends the last family and flushes the output.
+     */
+    void finish()
+            throws IOException;
+}
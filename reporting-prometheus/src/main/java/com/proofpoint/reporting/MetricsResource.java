@@ -15,75 +15,72 @@
  */
 package com.proofpoint.reporting;
 
-import com.google.common.collect.ImmutableMap.Builder;
-import com.google.common.collect.ImmutableSortedMap;
-import com.google.common.collect.Iterables;
+import com.google.common.io.CountingOutputStream;
 import com.proofpoint.jaxrs.AccessDoesNotRequireAuthentication;
-import com.proofpoint.node.NodeInfo;
 
 import javax.inject.Inject;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.StreamingOutput;
-import java.io.BufferedWriter;
-import java.io.OutputStreamWriter;
-import java.util.Collection;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.io.OutputStream;
+import java.util.function.Function;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Serves the reported metrics in the format negotiated from the Accept
+ * header: the Prometheus text format by default, the OpenMetrics text
+ * format, or delimited Prometheus protocol buffers. Responses are
+ * compressed by the HTTP server when the client accepts gzip.
+ * <p>
+ * The bytes written, before compression, are recorded with the other
+ * collection costs served by {@link CollectionCostResource}.
+ */
 @Path("/metrics")
 public class MetricsResource
 {
+    static final String TEXT_FORMAT = "text/plain; version=0.0.4; charset=utf-8";
+    static final String OPENMETRICS_FORMAT = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    static final String PROTOBUF_FORMAT = "application/vnd.google.protobuf; proto=io.prometheus.client.MetricFamily; encoding=delimited";
+
     private final PrometheusCollector prometheusCollector;
-    private final Map<String, String> instanceTags;
+    private final CollectionCostTracker collectionCostTracker;
 
     @Inject
-    public MetricsResource(PrometheusCollector prometheusCollector, NodeInfo nodeInfo, ReportTagConfig reportTagConfig)
+    public MetricsResource(PrometheusCollector prometheusCollector, CollectionCostTracker collectionCostTracker)
     {
         this.prometheusCollector = requireNonNull(prometheusCollector, "prometheusCollector is null");
-        requireNonNull(nodeInfo, "nodeInfo is null");
-        requireNonNull(reportTagConfig, "reportTagConfig is null");
-
-        Builder<String, String> builder = ImmutableSortedMap.naturalOrder();
-        builder.put("application", nodeInfo.getApplication());
-        builder.put("host", nodeInfo.getInternalHostname());
-        builder.put("environment", nodeInfo.getEnvironment());
-        builder.put("pool", nodeInfo.getPool());
-        builder.putAll(reportTagConfig.getTags());
-        this.instanceTags = builder.build();
+        this.collectionCostTracker = requireNonNull(collectionCostTracker, "collectionCostTracker is null");
     }
 
     @GET
     @AccessDoesNotRequireAuthentication
-    @Produces("text/plain; version=0.0.4; charset=utf-8")
+    @Produces(TEXT_FORMAT)
     public StreamingOutput getMetrics() {
-        return output -> {
-            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8))) {
-                for (Entry<String, Collection<TaggedValue>> entry : prometheusCollector.collectData().asMap().entrySet()) {
-                    boolean first = true;
+        return streamMetrics(output -> new TextExpositionWriter(output, false));
+    }
 
-                    for (TaggedValue taggedValue : entry.getValue()) {
-                        if (first) {
-                            first = false;
-                            writer.write("#TYPE ");
-                            writer.write(entry.getKey());
-                            writer.write(" gauge\n");
-                        }
+    @GET
+    @AccessDoesNotRequireAuthentication
+    @Produces(OPENMETRICS_FORMAT + "; qs=0.9")
+    public StreamingOutput getOpenMetrics() {
+        return streamMetrics(output -> new TextExpositionWriter(output, true));
+    }
 
-                        taggedValue.getValueAndTimestamp().getValue().writeMetric(
-                                writer,
-                                entry.getKey(),
-                                Iterables.concat(taggedValue.getTags().entrySet(), instanceTags.entrySet()),
-                                taggedValue.getValueAndTimestamp().getTimestamp()
-                        );
-                    }
-                }
-            }
+    @GET
+    @AccessDoesNotRequireAuthentication
+    @Produces(PROTOBUF_FORMAT + "; qs=0.8")
+    public StreamingOutput getProtobufMetrics() {
+        return streamMetrics(ProtobufExpositionWriter::new);
+    }
+
+    private StreamingOutput streamMetrics(Function<OutputStream, ExpositionWriter> writerFactory)
+    {
+        return output -> {
+            CountingOutputStream countingOutput = new CountingOutputStream(output);
+            prometheusCollector.writeMetrics(writerFactory.apply(countingOutput));
+            collectionCostTracker.recordWrittenBytes("prometheus", countingOutput.getCount());
         };
     }
 }
-
@@ -15,16 +15,21 @@
  */
 package com.proofpoint.reporting;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.ImmutableSortedMap;
 import com.proofpoint.node.NodeInfo;
+import com.proofpoint.reporting.CollectionCostTracker.CollectionCost;
 import com.proofpoint.reporting.PrometheusBeanAttribute.ValueAndTimestamp;
 import com.proofpoint.reporting.ReportedBeanRegistry.RegistrationInfo;
 
 import javax.inject.Inject;
 import javax.management.MBeanException;
 import javax.management.ReflectionException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
@@ -32,9 +37,8 @@ import java.util.regex.Pattern;
 import static com.google.common.base.CaseFormat.LOWER_HYPHEN;
 import static com.google.common.base.CaseFormat.UPPER_CAMEL;
 import static com.proofpoint.reporting.PrometheusBeanAttribute.ValueAndTimestamp.valueAndTimestamp;
+import static com.proofpoint.reporting.PrometheusSeries.prometheusSeries;
 import static com.proofpoint.reporting.SimplePrometheusValue.simplePrometheusValue;
-import static com.proofpoint.reporting.TaggedValue.taggedValue;
-import static java.lang.System.currentTimeMillis;
 import static java.util.Objects.requireNonNull;
 
 class PrometheusCollector
@@ -43,19 +47,35 @@ class PrometheusCollector
     private static final Pattern INITIAL_DIGIT_PATTERN = Pattern.compile("[0-9]");
     private final String applicationPrefix;
     private final ReportedBeanRegistry reportedBeanRegistry;
-    private final Map<String, String> versionTags;
+    private final Map<String, String> instanceTags;
+    private final PrometheusSeries numMetricsSeries;
+    private final PrometheusSeries serverStartSeries;
     private final BucketIdProvider bucketIdProvider;
+    private final ShardedCollector shardedCollector;
+    private final CollectionCostTracker collectionCostTracker;
     private final long startupTimestamp;
+    private volatile Exposition exposition = null;
 
     @Inject
     PrometheusCollector(
             NodeInfo nodeInfo,
+            ReportTagConfig reportTagConfig,
             ReportedBeanRegistry reportedBeanRegistry,
-            BucketIdProvider bucketIdProvider)
+            BucketIdProvider bucketIdProvider,
+            ShardedCollector shardedCollector,
+            CollectionCostTracker collectionCostTracker)
     {
         applicationPrefix = sanitizeMetricName(LOWER_HYPHEN.to(UPPER_CAMEL, nodeInfo.getApplication())) + "_";
         this.reportedBeanRegistry = requireNonNull(reportedBeanRegistry, "reportedBeanRegistry is null");
 
+        ImmutableMap.Builder<String, String> instanceTagsBuilder = ImmutableSortedMap.naturalOrder();
+        instanceTagsBuilder.put("application", nodeInfo.getApplication());
+        instanceTagsBuilder.put("host", nodeInfo.getInternalHostname());
+        instanceTagsBuilder.put("environment", nodeInfo.getEnvironment());
+        instanceTagsBuilder.put("pool", nodeInfo.getPool());
+        instanceTagsBuilder.putAll(reportTagConfig.getTags());
+        instanceTags = instanceTagsBuilder.build();
+
         ImmutableMap.Builder<String, String> versionTagsBuilder = ImmutableMap.builder();
         if (!nodeInfo.getApplicationVersion().isEmpty()) {
             versionTagsBuilder.put("applicationVersion", nodeInfo.getApplicationVersion());
@@ -63,8 +83,13 @@ class PrometheusCollector
         if (!nodeInfo.getPlatformVersion().isEmpty()) {
             versionTagsBuilder.put("platformVersion", nodeInfo.getPlatformVersion());
         }
-        this.versionTags = versionTagsBuilder.build();
+        Map<String, String> versionTags = versionTagsBuilder.build();
+        numMetricsSeries = prometheusSeries("ReportCollector_NumMetrics", versionTags, instanceTags);
+        serverStartSeries = prometheusSeries("ReportCollector_ServerStart", versionTags, instanceTags);
+
         this.bucketIdProvider = bucketIdProvider;
+        this.shardedCollector = requireNonNull(shardedCollector, "shardedCollector is null");
+        this.collectionCostTracker = requireNonNull(collectionCostTracker, "collectionCostTracker is null");
         startupTimestamp = bucketIdProvider.get().getTimestamp();
     }
 
@@ -73,10 +98,70 @@ class PrometheusCollector
         return NAME_NOT_ACCEPTED_CHARACTER_PATTERN.matcher(name).replaceAll("_");
     }
 
-    Multimap<String, TaggedValue> collectData()
+    /**
+     * Writes the current values, sorted by metric name and tags.
+     */
+    void writeMetrics(ExpositionWriter writer)
+            throws IOException
+    {
+        Exposition exposition = getExposition();
+        PrometheusSeries[] series = exposition.series;
+
+        ValueAndTimestamp[] values = new ValueAndTimestamp[series.length];
+        List<List<Integer>> shards = exposition.shards;
+        CollectionCost cost = collectionCostTracker.startCollection("prometheus");
+        List<List<ValueAndTimestamp>> shardValues = shardedCollector.collect("prometheus", shards, index -> series[index], index -> exposition.getSeriesValue(index, cost));
+        cost.finish();
+        int numMetrics = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            for (int i = 0; i < shardValues.get(shard).size(); i++) {
+                ValueAndTimestamp value = shardValues.get(shard).get(i);
+                if (value != null) {
+                    values[shards.get(shard).get(i)] = value;
+                    ++numMetrics;
+                }
+            }
+        }
+        // a bean reporting the same series as a synthetic one takes precedence
+        if (!exposition.duplicate[exposition.numMetricsIndex]) {
+            values[exposition.numMetricsIndex] = valueAndTimestamp(simplePrometheusValue(numMetrics), null);
+        }
+        if (!exposition.duplicate[exposition.serverStartIndex]
+                && bucketIdProvider.get().getTimestamp() < startupTimestamp + TimeUnit.MINUTES.toMillis(10)) {
+            values[exposition.serverStartIndex] = valueAndTimestamp(simplePrometheusValue(1), startupTimestamp);
+        }
+
+        String familyName = null;
+        for (int i = 0; i < series.length; i++) {
+            ValueAndTimestamp value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String name = series[i].getName();
+            if (!name.equals(familyName)) {
+                familyName = name;
+                writer.startFamily(name, value.getValue().getType());
+            }
+            writer.startSeries(series[i]);
+            value.getValue().writeSamples(writer, value.getTimestamp());
+        }
+        writer.finish();
+    }
+
+    private Exposition getExposition()
     {
-        Multimap<String, TaggedValue> valuesByMetric = MultimapBuilder.treeKeys().treeSetValues().build();
+        long generation = reportedBeanRegistry.getGeneration();
+        Exposition exposition = this.exposition;
+        if (exposition == null || exposition.generation != generation) {
+            exposition = new Exposition(generation, buildSeries());
+            this.exposition = exposition;
+        }
+        return exposition;
+    }
 
+    private List<SeriesAttribute> buildSeries()
+    {
+        List<SeriesAttribute> seriesAttributes = new ArrayList<>();
         for (RegistrationInfo registrationInfo : reportedBeanRegistry.getReportedBeans()) {
             StringBuilder nameBuilder = new StringBuilder();
             if (registrationInfo.isApplicationPrefix()) {
@@ -96,23 +181,115 @@ class PrometheusCollector
                 if (INITIAL_DIGIT_PATTERN.matcher(name).lookingAt()) {
                     name = "_" + name;
                 }
-                ValueAndTimestamp valueAndTimestamp = null;
+                seriesAttributes.add(new SeriesAttribute(prometheusSeries(name, registrationInfo.getTags(), instanceTags), registrationInfo, attribute));
+            }
+        }
+        seriesAttributes.add(new SeriesAttribute(numMetricsSeries, null, null));
+        seriesAttributes.add(new SeriesAttribute(serverStartSeries, null, null));
+        return seriesAttributes;
+    }
+
+    private static ValueAndTimestamp getValue(PrometheusBeanAttribute attribute)
+    {
+        try {
+            return attribute.getValue(null);
+        }
+        catch (MBeanException | ReflectionException ignored) {
+            return null;
+        }
+    }
+
+    private static class SeriesAttribute
+    {
+        private final PrometheusSeries series;
+        private final RegistrationInfo registrationInfo;
+        private final PrometheusBeanAttribute attribute;
 
-                try {
-                    valueAndTimestamp = attribute.getValue(null);
+        SeriesAttribute(PrometheusSeries series, RegistrationInfo registrationInfo, PrometheusBeanAttribute attribute)
+        {
+            this.series = series;
+            this.registrationInfo = registrationInfo;
+            this.attribute = attribute;
+        }
+    }
+
+    /**
+     * The sorted series of one generation of the registry. Synthetic series
+     * have no attribute; their values are computed by {@link #writeMetrics}.
+     */
+    private class Exposition
+    {
+        private final long generation;
+        private final PrometheusSeries[] series;
+        private final RegistrationInfo[] registrationInfos;
+        private final PrometheusBeanAttribute[] attributes;
+        private final boolean[] duplicate;
+        private final int numMetricsIndex;
+        private final int serverStartIndex;
+        private final List<List<Integer>> shards;
+
+        Exposition(long generation, List<SeriesAttribute> seriesAttributes)
+        {
+            this.generation = generation;
+
+            // stable, so the synthetic series follow any beans' series they duplicate
+            seriesAttributes.sort(Comparator.comparing(seriesAttribute -> seriesAttribute.series));
+            int size = seriesAttributes.size();
+            series = new PrometheusSeries[size];
+            registrationInfos = new RegistrationInfo[size];
+            attributes = new PrometheusBeanAttribute[size];
+            duplicate = new boolean[size];
+            int numMetricsIndex = -1;
+            int serverStartIndex = -1;
+            for (int i = 0; i < size; i++) {
+                SeriesAttribute seriesAttribute = seriesAttributes.get(i);
+                series[i] = seriesAttribute.series;
+                registrationInfos[i] = seriesAttribute.registrationInfo;
+                attributes[i] = seriesAttribute.attribute;
+                duplicate[i] = i > 0 && series[i].equals(series[i - 1]);
+                if (series[i] == numMetricsSeries) {
+                    numMetricsIndex = i;
                 }
-                catch (MBeanException | ReflectionException ignored) {
+                else if (series[i] == serverStartSeries) {
+                    serverStartIndex = i;
                 }
+            }
+            this.numMetricsIndex = numMetricsIndex;
+            this.serverStartIndex = serverStartIndex;
 
-                if (valueAndTimestamp != null) {
-                    valuesByMetric.put(name, taggedValue(registrationInfo.getTags(), valueAndTimestamp));
+            // each shard holds the first index of some of the runs of equal series
+            int shardCount = shardedCollector.getShardCount();
+            List<List<Integer>> shards = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(new ArrayList<>());
+            }
+            int shard = 0;
+            for (int i = 0; i < size; i++) {
+                if (!duplicate[i]) {
+                    shards.get(shard).add(i);
+                    shard = (shard + 1) % shardCount;
                 }
             }
+            this.shards = ImmutableList.copyOf(shards);
         }
-        valuesByMetric.put("ReportCollector_NumMetrics", taggedValue(versionTags, valueAndTimestamp(simplePrometheusValue(valuesByMetric.size()), null)));
-        if (bucketIdProvider.get().getTimestamp() < startupTimestamp + TimeUnit.MINUTES.toMillis(10)) {
-            valuesByMetric.put("ReportCollector_ServerStart", taggedValue(versionTags, valueAndTimestamp(simplePrometheusValue(1), startupTimestamp)));
+
+        /**
+         * Returns the value of the run of equal series starting at
+         * {@code index}: that of the first bean in the run with a value.
+         */
+        ValueAndTimestamp getSeriesValue(int index, CollectionCost cost)
+        {
+            for (int i = index; i == index || (i < series.length && duplicate[i]); i++) {
+                if (attributes[i] != null) {
+                    long startNanos = System.nanoTime();
+                    ValueAndTimestamp value = getValue(attributes[i]);
+                    cost.recordRead(registrationInfos[i], attributes[i].getName(), System.nanoTime() - startNanos, value != null);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+            }
+            return null;
         }
-        return valuesByMetric;
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Iterables;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+
+import static com.google.common.collect.Maps.immutableEntry;
+import static com.proofpoint.reporting.ReportUtils.formatTags;
+import static com.proofpoint.reporting.ReportUtils.sanitizeLabelName;
+
+/**
+ * A metric name and tag set, ordered the way the exposition format lists
+ * them. The labels, which include the instance tags, are sanitized and
+ * formatted once when the series is created.
+ */
+@AutoValue
+abstract class PrometheusSeries
+        implements Comparable<PrometheusSeries>
+{
+    static PrometheusSeries prometheusSeries(String name, Map<String, String> tags, Map<String, String> instanceTags)
+    {
+        SortedMap<String, String> sortedTags = ImmutableSortedMap.copyOf(tags);
+        ImmutableList.Builder<Entry<String, String>> labelPairs = ImmutableList.builder();
+        for (Entry<String, String> tag : Iterables.concat(sortedTags.entrySet(), instanceTags.entrySet())) {
+            labelPairs.add(immutableEntry(sanitizeLabelName(tag.getKey()), tag.getValue()));
+        }
+        return new AutoValue_PrometheusSeries(name, sortedTags, formatTags(Iterables.concat(sortedTags.entrySet(), instanceTags.entrySet())), labelPairs.build());
+    }
+
+    abstract String getName();
+
+    abstract SortedMap<String, String> getTags();
+
+    abstract String getLabels();
+
+    abstract List<Entry<String, String>> getLabelPairs();
+
+    @Override
+    public int compareTo(PrometheusSeries o)
+    {
+        int compare = getName().compareTo(o.getName());
+        if (compare != 0) {
+            return compare;
+        }
+        Iterator<Entry<String, String>> otherIterator = o.getTags().entrySet().iterator();
+        for (Entry<String, String> entry : getTags().entrySet()) {
+            if (!otherIterator.hasNext()) {
+                return 1;
+            }
+            Entry<String, String> nextEntry = otherIterator.next();
+            compare = entry.getKey().compareTo(nextEntry.getKey());
+            if (compare != 0) {
+                return compare;
+            }
+            compare = entry.getValue().compareTo(nextEntry.getValue());
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        if (otherIterator.hasNext()) {
+            return -1;
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (!(o instanceof PrometheusSeries)) {
+            return false;
+        }
+        return compareTo((PrometheusSeries) o) == 0;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * getName().hashCode() + getTags().entrySet().hashCode();
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static com.proofpoint.reporting.PrometheusType.COUNTER;
+import static com.proofpoint.reporting.PrometheusType.HISTOGRAM;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Writes length-delimited {@code io.prometheus.client.MetricFamily} protocol
+ * buffer messages. The few messages involved are encoded directly rather
+ * than through generated classes.
+ */
+class ProtobufExpositionWriter
+        implements ExpositionWriter
+{
+    // io.prometheus.client.MetricFamily
+    private static final int FAMILY_NAME = 1;
+    private static final int FAMILY_TYPE = 3;
+    private static final int FAMILY_METRIC = 4;
+    // io.prometheus.client.MetricType
+    private static final int TYPE_COUNTER = 0;
+    private static final int TYPE_GAUGE = 1;
+    private static final int TYPE_GAUGE_HISTOGRAM = 5;
+    // io.prometheus.client.Metric
+    private static final int METRIC_LABEL = 1;
+    private static final int METRIC_GAUGE = 2;
+    private static final int METRIC_COUNTER = 3;
+    private static final int METRIC_HISTOGRAM = 7;
+    private static final int METRIC_TIMESTAMP_MS = 6;
+    // io.prometheus.client.LabelPair
+    private static final int LABEL_NAME = 1;
+    private static final int LABEL_VALUE = 2;
+    // io.prometheus.client.Gauge and io.prometheus.client.Counter
+    private static final int VALUE = 1;
+    // io.prometheus.client.Histogram
+    private static final int HISTOGRAM_SAMPLE_COUNT = 1;
+    private static final int HISTOGRAM_SAMPLE_SUM = 2;
+    private static final int HISTOGRAM_BUCKET = 3;
+    // io.prometheus.client.Bucket
+    private static final int BUCKET_CUMULATIVE_COUNT = 1;
+    private static final int BUCKET_UPPER_BOUND = 2;
+
+    private final OutputStream output;
+    private final Buffer family = new Buffer();
+    private final Buffer metric = new Buffer();
+    private final Buffer field = new Buffer();
+    private final Buffer bucket = new Buffer();
+    private boolean inFamily = false;
+    private PrometheusType type;
+    private Iterable<Entry<String, String>> labelPairs;
+
+    ProtobufExpositionWriter(OutputStream output)
+    {
+        this.output = output;
+    }
+
+    @Override
+    public void startFamily(String name, PrometheusType type)
+            throws IOException
+    {
+        endFamily();
+        inFamily = true;
+        this.type = type;
+        family.writeString(FAMILY_NAME, name);
+        family.writeVarintField(FAMILY_TYPE, type == COUNTER ? TYPE_COUNTER : type == HISTOGRAM ? TYPE_GAUGE_HISTOGRAM : TYPE_GAUGE);
+    }
+
+    @Override
+    public void startSeries(PrometheusSeries series)
+    {
+        labelPairs = series.getLabelPairs();
+    }
+
+    @Override
+    public void writeSample(Number value, Long timestamp)
+    {
+        writeLabels();
+        field.writeDouble(VALUE, value.doubleValue());
+        metric.writeMessage(type == COUNTER ? METRIC_COUNTER : METRIC_GAUGE, field);
+        endMetric(timestamp);
+    }
+
+    @Override
+    public void writeHistogram(HistogramValue histogram, Long timestamp)
+    {
+        writeLabels();
+        field.writeVarintField(HISTOGRAM_SAMPLE_COUNT, histogram.getCount());
+        field.writeDouble(HISTOGRAM_SAMPLE_SUM, histogram.getSum());
+        // the +Inf bucket is implied by the sample count
+        List<Double> upperBounds = histogram.getUpperBounds();
+        List<Long> cumulativeCounts = histogram.getCumulativeCounts();
+        for (int i = 0; i < upperBounds.size(); i++) {
+            bucket.writeVarintField(BUCKET_CUMULATIVE_COUNT, cumulativeCounts.get(i));
+            bucket.writeDouble(BUCKET_UPPER_BOUND, upperBounds.get(i));
+            field.writeMessage(HISTOGRAM_BUCKET, bucket);
+        }
+        metric.writeMessage(METRIC_HISTOGRAM, field);
+        endMetric(timestamp);
+    }
+
+    private void writeLabels()
+    {
+        for (Entry<String, String> labelPair : labelPairs) {
+            field.writeString(LABEL_NAME, labelPair.getKey());
+            field.writeString(LABEL_VALUE, labelPair.getValue());
+            metric.writeMessage(METRIC_LABEL, field);
+        }
+    }
+
+    private void endMetric(Long timestamp)
+    {
+        if (timestamp != null) {
+            metric.writeVarintField(METRIC_TIMESTAMP_MS, NANOSECONDS.toMillis(timestamp));
+        }
+        family.writeMessage(FAMILY_METRIC, metric);
+    }
+
+    @Override
+    public void finish()
+            throws IOException
+    {
+        endFamily();
+        output.flush();
+    }
+
+    private void endFamily()
+            throws IOException
+    {
+        if (inFamily) {
+            field.writeVarint(family.size);
+            field.writeTo(output);
+            family.writeTo(output);
+            inFamily = false;
+        }
+    }
+
+    /**
+     * A reusable message buffer. Writing a buffer out, or into another
+     * buffer, empties it.
+     */
+    private static class Buffer
+    {
+        private static final int WIRE_TYPE_VARINT = 0;
+        private static final int WIRE_TYPE_FIXED64 = 1;
+        private static final int WIRE_TYPE_LENGTH_DELIMITED = 2;
+
+        private byte[] bytes = new byte[256];
+        private int size = 0;
+
+        void writeVarintField(int field, long value)
+        {
+            writeTag(field, WIRE_TYPE_VARINT);
+            writeVarint(value);
+        }
+
+        void writeDouble(int field, double value)
+        {
+            writeTag(field, WIRE_TYPE_FIXED64);
+            long bits = Double.doubleToRawLongBits(value);
+            ensureCapacity(8);
+            for (int i = 0; i < 8; i++) {
+                bytes[size++] = (byte) (bits >>> (i * 8));
+            }
+        }
+
+        void writeString(int field, String value)
+        {
+            byte[] encoded = value.getBytes(UTF_8);
+            writeTag(field, WIRE_TYPE_LENGTH_DELIMITED);
+            writeVarint(encoded.length);
+            ensureCapacity(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+        }
+
+        void writeMessage(int field, Buffer message)
+        {
+            writeTag(field, WIRE_TYPE_LENGTH_DELIMITED);
+            writeVarint(message.size);
+            ensureCapacity(message.size);
+            System.arraycopy(message.bytes, 0, bytes, size, message.size);
+            size += message.size;
+            message.size = 0;
+        }
+
+        void writeVarint(long value)
+        {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void writeTo(OutputStream output)
+                throws IOException
+        {
+            output.write(bytes, 0, size);
+            size = 0;
+        }
+
+        private void writeTag(int field, int wireType)
+        {
+            writeVarint((field << 3) | wireType);
+        }
+
+        private void ensureCapacity(int length)
+        {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
+}
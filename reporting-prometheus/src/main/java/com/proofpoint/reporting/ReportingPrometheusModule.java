@@ -29,6 +29,7 @@ public class ReportingPrometheusModule
     {
         binder.bind(PrometheusCollector.class).in(Scopes.SINGLETON);
         jaxrsBinder(binder).bindAdmin(MetricsResource.class);
+        jaxrsBinder(binder).bindAdmin(CollectionCostResource.class);
 
         binder.install(new ReportingBaseMetricsModule());
     }
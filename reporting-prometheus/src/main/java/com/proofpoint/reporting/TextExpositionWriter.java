@@ -0,0 +1,148 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.List;
+
+import static com.proofpoint.reporting.PrometheusType.COUNTER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Writes the Prometheus text format, version 0.0.4, or the OpenMetrics text
+ * format, version 1.0.0.
+ * <p>
+ * Histograms hold the values of one minute rather than accumulating, so are
+ * written as gauge histograms in OpenMetrics. The 0.0.4 format has no gauge
+ * histogram type, so they are written untyped there.
+ */
+class TextExpositionWriter
+        implements ExpositionWriter
+{
+    private static final String TOTAL_SUFFIX = "_total";
+
+    private final BufferedWriter writer;
+    private final boolean openMetrics;
+    private String sampleName;
+    private String labels;
+
+    TextExpositionWriter(OutputStream output, boolean openMetrics)
+    {
+        writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+        this.openMetrics = openMetrics;
+    }
+
+    @Override
+    public void startFamily(String name, PrometheusType type)
+            throws IOException
+    {
+        String familyName = name;
+        sampleName = name;
+        if (openMetrics && type == COUNTER) {
+            // OpenMetrics counter samples carry the suffix; the family does not
+            if (name.endsWith(TOTAL_SUFFIX)) {
+                familyName = name.substring(0, name.length() - TOTAL_SUFFIX.length());
+            }
+            else {
+                sampleName = name + TOTAL_SUFFIX;
+            }
+        }
+        writer.write("# TYPE ");
+        writer.write(familyName);
+        writer.append(' ');
+        writer.write(typeName(type));
+        writer.append('\n');
+    }
+
+    private String typeName(PrometheusType type)
+    {
+        switch (type) {
+            case COUNTER:
+                return "counter";
+            case HISTOGRAM:
+                return openMetrics ? "gaugehistogram" : "untyped";
+            default:
+                return "gauge";
+        }
+    }
+
+    @Override
+    public void startSeries(PrometheusSeries series)
+    {
+        labels = series.getLabels();
+    }
+
+    @Override
+    public void writeSample(Number value, Long timestamp)
+            throws IOException
+    {
+        writeSample(sampleName, labels, value.toString(), timestamp);
+    }
+
+    @Override
+    public void writeHistogram(HistogramValue histogram, Long timestamp)
+            throws IOException
+    {
+        String bucketLabelsPrefix = labels.isEmpty() ? "{le=\"" : labels.substring(0, labels.length() - 1) + ",le=\"";
+        List<Double> upperBounds = histogram.getUpperBounds();
+        List<Long> cumulativeCounts = histogram.getCumulativeCounts();
+        for (int i = 0; i < upperBounds.size(); i++) {
+            writeSample(sampleName + "_bucket", bucketLabelsPrefix + upperBounds.get(i) + "\"}", cumulativeCounts.get(i).toString(), timestamp);
+        }
+        writeSample(sampleName + "_bucket", bucketLabelsPrefix + "+Inf\"}", Long.toString(histogram.getCount()), timestamp);
+        // OpenMetrics gauge histograms name their totals differently from histograms
+        writeSample(sampleName + (openMetrics ? "_gsum" : "_sum"), labels, Double.toString(histogram.getSum()), timestamp);
+        writeSample(sampleName + (openMetrics ? "_gcount" : "_count"), labels, Long.toString(histogram.getCount()), timestamp);
+    }
+
+    private void writeSample(String name, String labels, String value, Long timestamp)
+            throws IOException
+    {
+        writer.write(name);
+        writer.write(labels);
+        writer.append(' ');
+        writer.write(value);
+        if (timestamp != null) {
+            writer.append(' ');
+            long millis = NANOSECONDS.toMillis(timestamp);
+            if (openMetrics) {
+                // OpenMetrics timestamps are in seconds
+                writer.write(Long.toString(millis / 1000));
+                writer.append('.');
+                String fraction = Long.toString(1000 + millis % 1000);
+                writer.write(fraction, 1, 3);
+            }
+            else {
+                writer.write(Long.toString(millis));
+            }
+        }
+        writer.append('\n');
+    }
+
+    @Override
+    public void finish()
+            throws IOException
+    {
+        if (openMetrics) {
+            writer.write("# EOF\n");
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2018 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableMap;
+import org.testng.annotations.Test;
+
+import static com.proofpoint.reporting.PrometheusSeries.prometheusSeries;
+import static com.proofpoint.testing.EquivalenceTester.comparisonTester;
+import static org.testng.Assert.assertEquals;
+
+public class TestPrometheusSeries
+{
+    @Test
+    public void testComparison() {
+        comparisonTester()
+                .addLesserGroup(prometheusSeries("a", ImmutableMap.of(), ImmutableMap.of()),
+                        prometheusSeries("a", ImmutableMap.of(), ImmutableMap.of("instance", "x")))
+                .addGreaterGroup(prometheusSeries("a", ImmutableMap.of("a", "x"), ImmutableMap.of()))
+                .addGreaterGroup(prometheusSeries("a", ImmutableMap.of("a", "x", "b", "y"), ImmutableMap.of()))
+                .addGreaterGroup(prometheusSeries("a", ImmutableMap.of("a", "x", "b", "z"), ImmutableMap.of()))
+                .addGreaterGroup(prometheusSeries("a", ImmutableMap.of("a", "y", "b", "y"), ImmutableMap.of()))
+                .addGreaterGroup(prometheusSeries("a", ImmutableMap.of("b", "y"), ImmutableMap.of()))
+                .addGreaterGroup(prometheusSeries("b", ImmutableMap.of(), ImmutableMap.of()))
+                .check();
+    }
+
+    @Test
+    public void testLabels()
+    {
+        assertEquals(prometheusSeries("a", ImmutableMap.of(), ImmutableMap.of()).getLabels(), "");
+        assertEquals(prometheusSeries("a", ImmutableMap.of("b", "y", "a", "x\""), ImmutableMap.of("1host", "h")).getLabels(),
+                "{a=\"x\\\"\",b=\"y\",_1host=\"h\"}");
+    }
+}
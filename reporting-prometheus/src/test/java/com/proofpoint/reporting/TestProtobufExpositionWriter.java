@@ -0,0 +1,180 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.proofpoint.reporting.HistogramValue.histogramValue;
+import static com.proofpoint.reporting.PrometheusSeries.prometheusSeries;
+import static com.proofpoint.reporting.PrometheusType.COUNTER;
+import static com.proofpoint.reporting.PrometheusType.GAUGE;
+import static com.proofpoint.reporting.PrometheusType.HISTOGRAM;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+
+public class TestProtobufExpositionWriter
+{
+    @Test
+    public void testEncoding()
+            throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProtobufExpositionWriter writer = new ProtobufExpositionWriter(out);
+        writer.startFamily("Foo_Count", GAUGE);
+        writer.startSeries(prometheusSeries("Foo_Count", ImmutableSortedMap.of("a-b", "c"), ImmutableMap.of("instance", "i")));
+        writer.writeSample(1.5, MILLISECONDS.toNanos(1100));
+        writer.startFamily("Foo_TotalCount", COUNTER);
+        writer.startSeries(prometheusSeries("Foo_TotalCount", ImmutableSortedMap.of(), ImmutableMap.of()));
+        writer.writeSample(300L, null);
+        writer.finish();
+
+        ByteBuffer input = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+
+        ByteBuffer family = readDelimited(input);
+        assertEquals(readString(family, 1), "Foo_Count");
+        assertEquals(readVarintField(family, 3), 1);
+        ByteBuffer metric = readMessage(family, 4);
+        assertFalse(family.hasRemaining());
+        ByteBuffer label = readMessage(metric, 1);
+        assertEquals(readString(label, 1), "a_b");
+        assertEquals(readString(label, 2), "c");
+        label = readMessage(metric, 1);
+        assertEquals(readString(label, 1), "instance");
+        assertEquals(readString(label, 2), "i");
+        assertEquals(readDouble(readMessage(metric, 2), 1), 1.5);
+        assertEquals(readVarintField(metric, 6), 1100);
+        assertFalse(metric.hasRemaining());
+
+        family = readDelimited(input);
+        assertEquals(readString(family, 1), "Foo_TotalCount");
+        assertEquals(readVarintField(family, 3), 0);
+        metric = readMessage(family, 4);
+        assertEquals(readDouble(readMessage(metric, 3), 1), 300.0);
+        assertFalse(metric.hasRemaining());
+        assertFalse(family.hasRemaining());
+        assertFalse(input.hasRemaining());
+    }
+
+    @Test
+    public void testHistogram()
+            throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ProtobufExpositionWriter writer = new ProtobufExpositionWriter(out);
+        writer.startFamily("Foo_Histogram", HISTOGRAM);
+        writer.startSeries(prometheusSeries("Foo_Histogram", ImmutableSortedMap.of(), ImmutableMap.of()));
+        writer.writeHistogram(histogramValue(ImmutableList.of(0.1, 1.0), new long[] {2, 3, 1}, 2.5), MILLISECONDS.toNanos(1100));
+        writer.finish();
+
+        ByteBuffer input = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer family = readDelimited(input);
+        assertEquals(readString(family, 1), "Foo_Histogram");
+        assertEquals(readVarintField(family, 3), 5);
+        ByteBuffer metric = readMessage(family, 4);
+        ByteBuffer histogram = readMessage(metric, 7);
+        assertEquals(readVarintField(histogram, 1), 6);
+        assertEquals(readDouble(histogram, 2), 2.5);
+        ByteBuffer bucket = readMessage(histogram, 3);
+        assertEquals(readVarintField(bucket, 1), 2);
+        assertEquals(readDouble(bucket, 2), 0.1);
+        assertFalse(bucket.hasRemaining());
+        bucket = readMessage(histogram, 3);
+        assertEquals(readVarintField(bucket, 1), 5);
+        assertEquals(readDouble(bucket, 2), 1.0);
+        assertFalse(histogram.hasRemaining());
+        assertEquals(readVarintField(metric, 6), 1100);
+        assertFalse(metric.hasRemaining());
+        assertFalse(family.hasRemaining());
+        assertFalse(input.hasRemaining());
+    }
+
+    @Test
+    public void testEmpty()
+            throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ProtobufExpositionWriter(out).finish();
+        assertEquals(out.size(), 0);
+    }
+
+    static List<String> familyNames(byte[] bytes)
+    {
+        ByteBuffer input = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        List<String> names = new ArrayList<>();
+        while (input.hasRemaining()) {
+            names.add(readString(readDelimited(input), 1));
+        }
+        return ImmutableList.copyOf(names);
+    }
+
+    private static ByteBuffer readDelimited(ByteBuffer input)
+    {
+        int length = (int) readVarint(input);
+        ByteBuffer message = input.slice().order(ByteOrder.LITTLE_ENDIAN);
+        message.limit(length);
+        input.position(input.position() + length);
+        return message;
+    }
+
+    private static ByteBuffer readMessage(ByteBuffer input, int field)
+    {
+        assertEquals(readVarint(input), (field << 3) | 2);
+        return readDelimited(input);
+    }
+
+    private static String readString(ByteBuffer input, int field)
+    {
+        ByteBuffer value = readMessage(input, field);
+        byte[] bytes = new byte[value.remaining()];
+        value.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static long readVarintField(ByteBuffer input, int field)
+    {
+        assertEquals(readVarint(input), field << 3);
+        return readVarint(input);
+    }
+
+    private static double readDouble(ByteBuffer input, int field)
+    {
+        assertEquals(readVarint(input), (field << 3) | 1);
+        return input.getDouble();
+    }
+
+    private static long readVarint(ByteBuffer input)
+    {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = input.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+}
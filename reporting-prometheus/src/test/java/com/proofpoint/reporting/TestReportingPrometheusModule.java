@@ -1,6 +1,9 @@
 package com.proofpoint.reporting;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.io.ByteStreams;
 import com.google.inject.Injector;
 import com.google.inject.Module;
 import com.google.inject.Scopes;
@@ -8,6 +11,9 @@ import com.google.inject.name.Names;
 import com.google.inject.util.Modules;
 import com.proofpoint.bootstrap.LifeCycleManager;
 import com.proofpoint.http.client.HttpClient;
+import com.proofpoint.http.client.Request;
+import com.proofpoint.http.client.Response;
+import com.proofpoint.http.client.ResponseHandler;
 import com.proofpoint.http.client.StringResponseHandler.StringResponse;
 import com.proofpoint.http.client.jetty.JettyHttpClient;
 import com.proofpoint.http.server.testing.TestingAdminHttpServer;
@@ -33,22 +39,44 @@ import org.weakref.jmx.Flatten;
 import org.weakref.jmx.Nested;
 
 import javax.management.InstanceAlreadyExistsException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.net.URI;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.inject.Scopes.SINGLETON;
 import static com.proofpoint.bootstrap.Bootstrap.bootstrapTest;
 import static com.proofpoint.http.client.Request.Builder.prepareGet;
+import static com.proofpoint.http.client.ResponseHandlerUtils.propagate;
 import static com.proofpoint.http.client.StringResponseHandler.createStringResponseHandler;
 import static com.proofpoint.jaxrs.JaxrsModule.explicitJaxrsModule;
 import static com.proofpoint.reporting.BucketIdProvider.BucketId.bucketId;
 import static com.proofpoint.reporting.ReportBinder.reportBinder;
+import static com.proofpoint.stats.HistogramBuckets.exponentialBuckets;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestReportingPrometheusModule
 {
     private static final String EXPECTED_INSTANCE_TAGS = "application=\"test-application\",environment=\"test_environment\",host=\"test.hostname\",pool=\"test_pool\"";
+    private static final String EXPECTED_ARENA_METRICS =
+            "# TYPE ReportCollector_HistogramArena_AllocatedBytes gauge\n" +
+                    "ReportCollector_HistogramArena_AllocatedBytes{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                    "# TYPE ReportCollector_HistogramArena_SlotCapacity gauge\n" +
+                    "ReportCollector_HistogramArena_SlotCapacity{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                    "# TYPE ReportCollector_HistogramArena_SlotsInUse gauge\n" +
+                    "ReportCollector_HistogramArena_SlotsInUse{" + EXPECTED_INSTANCE_TAGS + "} 0\n";
+    private static final List<Double> DISTRIBUTION_UPPER_BOUNDS = exponentialBuckets(1, 4, 16).getUpperBounds().stream()
+            .map(Long::doubleValue)
+            .collect(toImmutableList());
+    private static final List<Double> TIME_UPPER_BOUNDS = exponentialBuckets(1_000_000, 2, 15).getUpperBounds().stream()
+            .map(upperBound -> upperBound / 1_000_000_000.0)
+            .collect(toImmutableList());
     private final HttpClient client = new JettyHttpClient();
 
     private LifeCycleManager lifeCycleManager;
@@ -92,14 +120,40 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1100\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 2\n" +
-                        "#TYPE TestObject_Metric gauge\n" +
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 6\n" +
+                        "# TYPE TestObject_Metric gauge\n" +
                         "TestObject_Metric{" + EXPECTED_INSTANCE_TAGS + "} 2\n");
     }
 
+    @Test
+    public void testCollectionCost()
+    {
+        createServer(binder -> {
+            binder.bind(ReportedObject.class);
+            reportBinder(binder).export(ReportedObject.class).withNamePrefix("TestObject");
+        });
+
+        StringResponse metricsResponse = client.execute(
+                prepareGet().setUri(uriFor("/metrics")).build(),
+                createStringResponseHandler());
+        StringResponse response = client.execute(
+                prepareGet().setUri(uriFor("/metrics/cost")).build(),
+                createStringResponseHandler());
+
+        assertEquals(response.getStatusCode(), 200);
+        String body = response.getBody();
+        assertTrue(body.startsWith("prometheus: collected in "), body);
+        assertTrue(body.contains(", wrote " + metricsResponse.getBody().getBytes(UTF_8).length + " bytes\n"), body);
+        assertTrue(body.contains("ms  TestObject.Metric\n"), body);
+        assertTrue(body.contains("ms         1 series  TestObject\n"), body);
+    }
+
     @Test
     public void testVersionNumbers()
             throws Exception
@@ -134,11 +188,14 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1000\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{applicationVersion=\"1.2\",platformVersion=\"platform.1\"," + EXPECTED_INSTANCE_TAGS + "} 1\n" +
-                        "#TYPE ReportCollector_ServerStart gauge\n" +
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{applicationVersion=\"1.2\",platformVersion=\"platform.1\"," + EXPECTED_INSTANCE_TAGS + "} 5\n" +
+                        "# TYPE ReportCollector_ServerStart gauge\n" +
                         "ReportCollector_ServerStart{applicationVersion=\"1.2\",platformVersion=\"platform.1\"," + EXPECTED_INSTANCE_TAGS + "} 1 1000\n");
     }
 
@@ -161,11 +218,14 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1100\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 2\n" +
-                        "#TYPE TestApplication_TestObject_Metric gauge\n" +
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 6\n" +
+                        "# TYPE TestApplication_TestObject_Metric gauge\n" +
                         "TestApplication_TestObject_Metric{_2=\"bar\"," + EXPECTED_INSTANCE_TAGS + "} 2\n");
     }
 
@@ -192,11 +252,14 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1100\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 3\n" +
-                        "#TYPE TestObject_Metric gauge\n" +
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 7\n" +
+                        "# TYPE TestObject_Metric gauge\n" +
                         "TestObject_Metric{a=\"b\",baz=\"quux\",c=\"d\\\"\\\\\\n\"," + EXPECTED_INSTANCE_TAGS + "} 2\n" +
                         "TestObject_Metric{foo=\"bar\"," + EXPECTED_INSTANCE_TAGS + "} 2\n");
     }
@@ -219,14 +282,56 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1100\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 2\n" +
-                        "#TYPE TestObject_Metric gauge\n" +
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 6\n" +
+                        "# TYPE TestObject_Metric gauge\n" +
                         "TestObject_Metric{foo=\"bar\"," + EXPECTED_INSTANCE_TAGS + "} 2\n");
     }
 
+    @Test
+    public void testRegistrationChanges()
+            throws Exception
+    {
+        Injector injector = createServer(binder -> {
+        });
+        ReportedBeanRegistry reportedBeanRegistry = injector.getInstance(ReportedBeanRegistry.class);
+        TestingBucketIdProvider bucketIdProvider = injector.getInstance(TestingBucketIdProvider.class);
+        bucketIdProvider.incrementBucket();
+        String expectedBaseMetrics = EXPECTED_ARENA_METRICS +
+                "# TYPE ReportCollector_LogErrors_Count gauge\n" +
+                "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1100\n" +
+                "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                "# TYPE ReportCollector_NumMetrics gauge\n";
+
+        assertEquals(client.execute(prepareGet().setUri(uriFor("/metrics")).build(), createStringResponseHandler()).getBody(),
+                expectedBaseMetrics +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 5\n");
+
+        ReportedObject first = new ReportedObject();
+        ReportedObject second = new ReportedObject();
+        reportedBeanRegistry.register(first, ReportedBean.forTarget(first, bucketIdProvider), false, "TestObject", ImmutableMap.of());
+        reportedBeanRegistry.register(second, ReportedBean.forTarget(second, bucketIdProvider), false, "TestObject", ImmutableMap.of());
+
+        assertEquals(client.execute(prepareGet().setUri(uriFor("/metrics")).build(), createStringResponseHandler()).getBody(),
+                expectedBaseMetrics +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 6\n" +
+                        "# TYPE TestObject_Metric gauge\n" +
+                        "TestObject_Metric{" + EXPECTED_INSTANCE_TAGS + "} 2\n");
+
+        reportedBeanRegistry.unregister(first);
+        reportedBeanRegistry.unregister(second);
+
+        assertEquals(client.execute(prepareGet().setUri(uriFor("/metrics")).build(), createStringResponseHandler()).getBody(),
+                expectedBaseMetrics +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 5\n");
+    }
+
     @Test
     public void testUnreportedValues()
             throws InstanceAlreadyExistsException
@@ -246,29 +351,32 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1100\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 11\n" +
-                        "#TYPE TestObject_ByteMetric gauge\n" +
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 15\n" +
+                        "# TYPE TestObject_ByteMetric gauge\n" +
                         "TestObject_ByteMetric{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
-                        "#TYPE TestObject_DoubleMetric gauge\n" +
+                        "# TYPE TestObject_DoubleMetric gauge\n" +
                         "TestObject_DoubleMetric{" + EXPECTED_INSTANCE_TAGS + "} 0.0\n" +
-                        "#TYPE TestObject_FalseBooleanMetric gauge\n" +
+                        "# TYPE TestObject_FalseBooleanMetric gauge\n" +
                         "TestObject_FalseBooleanMetric{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
-                        "#TYPE TestObject_FloatMetric gauge\n" +
+                        "# TYPE TestObject_FloatMetric gauge\n" +
                         "TestObject_FloatMetric{" + EXPECTED_INSTANCE_TAGS + "} 0.0\n" +
-                        "#TYPE TestObject_IntegerMetric gauge\n" +
+                        "# TYPE TestObject_IntegerMetric gauge\n" +
                         "TestObject_IntegerMetric{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
-                        "#TYPE TestObject_LongMetric gauge\n" +
+                        "# TYPE TestObject_LongMetric gauge\n" +
                         "TestObject_LongMetric{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
-                        "#TYPE TestObject_MaxByteMetric gauge\n" +
+                        "# TYPE TestObject_MaxByteMetric gauge\n" +
                         "TestObject_MaxByteMetric{" + EXPECTED_INSTANCE_TAGS + "} 127\n" +
-                        "#TYPE TestObject_MinByteMetric gauge\n" +
+                        "# TYPE TestObject_MinByteMetric gauge\n" +
                         "TestObject_MinByteMetric{" + EXPECTED_INSTANCE_TAGS + "} -128\n" +
-                        "#TYPE TestObject_ShortMetric gauge\n" +
+                        "# TYPE TestObject_ShortMetric gauge\n" +
                         "TestObject_ShortMetric{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
-                        "#TYPE TestObject_TrueBooleanMetric gauge\n" +
+                        "# TYPE TestObject_TrueBooleanMetric gauge\n" +
                         "TestObject_TrueBooleanMetric{" + EXPECTED_INSTANCE_TAGS + "} 1\n");
     }
 
@@ -294,14 +402,114 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE CounterObject_Normal_Count gauge\n" +
+                "# TYPE CounterObject_Normal_Count gauge\n" +
                         "CounterObject_Normal_Count{" + EXPECTED_INSTANCE_TAGS + "} 1.0 1100\n" +
-                        "#TYPE CounterObject_Sparse_Count gauge\n" +
+                        "# TYPE CounterObject_Normal_TotalCount counter\n" +
+                        "CounterObject_Normal_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 2\n" +
+                        "# TYPE CounterObject_Sparse_Count gauge\n" +
                         "CounterObject_Sparse_Count{" + EXPECTED_INSTANCE_TAGS + "} 2.0 1100\n" +
-                        "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                        EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1100\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 3\n");
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 8\n");
+    }
+
+    @Test
+    public void testOpenMetrics()
+    {
+        Injector injector = createServer(binder -> {
+            binder.bind(CounterObject.class).in(SINGLETON);
+            reportBinder(binder).export(CounterObject.class);
+        });
+        CounterObject counterObject = injector.getInstance(CounterObject.class);
+        TestingBucketIdProvider bucketIdProvider = injector.getInstance(TestingBucketIdProvider.class);
+
+        counterObject.getNormal().add(1);
+        counterObject.getSparse().add(2);
+        bucketIdProvider.incrementBucket();
+        counterObject.getNormal().add(1);
+        counterObject.getSparse().add(2);
+
+        StringResponse response = client.execute(
+                prepareGet().setUri(uriFor("/metrics"))
+                        .setHeader("Accept", "application/openmetrics-text; version=1.0.0,text/plain;version=0.0.4;q=0.5,*/*;q=0.1")
+                        .build(),
+                createStringResponseHandler());
+
+        assertEquals(response.getStatusCode(), 200);
+        assertEquals(response.getHeader("Content-Type"), "application/openmetrics-text;charset=utf-8;version=1.0.0");
+        assertEquals(response.getBody(),
+                "# TYPE CounterObject_Normal_Count gauge\n" +
+                        "CounterObject_Normal_Count{" + EXPECTED_INSTANCE_TAGS + "} 1.0 1.100\n" +
+                        "# TYPE CounterObject_Normal_TotalCount counter\n" +
+                        "CounterObject_Normal_TotalCount_total{" + EXPECTED_INSTANCE_TAGS + "} 2\n" +
+                        "# TYPE CounterObject_Sparse_Count gauge\n" +
+                        "CounterObject_Sparse_Count{" + EXPECTED_INSTANCE_TAGS + "} 2.0 1.100\n" +
+                        EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
+                        "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1.100\n" +
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount_total{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 8\n" +
+                        "# EOF\n");
+    }
+
+    @Test
+    public void testProtobuf()
+            throws Exception
+    {
+        createServer(binder -> {
+        });
+
+        BytesResponse response = client.execute(
+                prepareGet().setUri(uriFor("/metrics"))
+                        .setHeader("Accept", "application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited;q=0.7,text/plain;version=0.0.4;q=0.3")
+                        .build(),
+                new BytesResponseHandler());
+
+        assertEquals(response.statusCode, 200);
+        assertEquals(response.contentType, "application/vnd.google.protobuf;encoding=delimited;proto=io.prometheus.client.MetricFamily");
+        List<String> familyNames = TestProtobufExpositionWriter.familyNames(response.body);
+        assertEquals(familyNames, ImmutableSortedSet.copyOf(familyNames).asList());
+        assertTrue(familyNames.containsAll(ImmutableList.of(
+                "ReportCollector_HistogramArena_AllocatedBytes",
+                "ReportCollector_LogErrors_TotalCount",
+                "ReportCollector_NumMetrics")), familyNames.toString());
+    }
+
+    @Test
+    public void testDefaultsToText()
+    {
+        createServer(binder -> {
+        });
+
+        StringResponse response = client.execute(
+                prepareGet().setUri(uriFor("/metrics")).setHeader("Accept", "*/*").build(),
+                createStringResponseHandler());
+
+        assertEquals(response.getStatusCode(), 200);
+        assertEquals(response.getHeader("Content-Type"), "text/plain;charset=UTF-8;version=0.0.4");
+    }
+
+    @Test
+    public void testGzip()
+            throws Exception
+    {
+        createServer(binder -> {
+        });
+
+        BytesResponse response = client.execute(
+                prepareGet().setUri(uriFor("/metrics")).setHeader("Accept-Encoding", "gzip").build(),
+                new BytesResponseHandler());
+
+        assertEquals(response.statusCode, 200);
+        assertEquals(response.contentEncoding, "gzip");
+        String body = new String(ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(response.body))), UTF_8);
+        assertTrue(body.startsWith(EXPECTED_ARENA_METRICS), body);
     }
 
     @Test
@@ -325,16 +533,19 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE MaxGaugeObject_Max gauge\n" +
+                "# TYPE MaxGaugeObject_Max gauge\n" +
                         "MaxGaugeObject_Max{" + EXPECTED_INSTANCE_TAGS + "} 10 1100\n" +
-                        "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                        EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1100\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 2\n");
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 6\n");
     }
 
     @Test(dataProvider = "getStatsObjects")
-    public void testSummary(StatsObject statsObject, String expectedSuffix)
+    public void testSummary(StatsObject statsObject, String expectedSuffix, List<Double> expectedUpperBounds)
     {
         Injector injector = createServer(binder -> {
             binder.bind(StatsObject.class).toInstance(statsObject);
@@ -358,27 +569,31 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1200\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 10\n" +
-                        "#TYPE StatsObject_Count gauge\n" +
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 15\n" +
+                        "# TYPE StatsObject_Count gauge\n" +
                         "StatsObject_Count{" + EXPECTED_INSTANCE_TAGS + "} 100.0 1200\n" +
-                        "#TYPE StatsObject_Max gauge\n" +
+                        expectedHistogram("StatsObject_Histogram", expectedUpperBounds) +
+                        "# TYPE StatsObject_Max gauge\n" +
                         "StatsObject_Max{" + EXPECTED_INSTANCE_TAGS + "} 99" + expectedSuffix + " 1200\n" +
-                        "#TYPE StatsObject_Min gauge\n" +
+                        "# TYPE StatsObject_Min gauge\n" +
                         "StatsObject_Min{" + EXPECTED_INSTANCE_TAGS + "} 0" + expectedSuffix + " 1200\n" +
-                        "#TYPE StatsObject_P50 gauge\n" +
+                        "# TYPE StatsObject_P50 gauge\n" +
                         "StatsObject_P50{" + EXPECTED_INSTANCE_TAGS + "} 50" + expectedSuffix + " 1200\n" +
-                        "#TYPE StatsObject_P75 gauge\n" +
+                        "# TYPE StatsObject_P75 gauge\n" +
                         "StatsObject_P75{" + EXPECTED_INSTANCE_TAGS + "} 75" + expectedSuffix + " 1200\n" +
-                        "#TYPE StatsObject_P90 gauge\n" +
+                        "# TYPE StatsObject_P90 gauge\n" +
                         "StatsObject_P90{" + EXPECTED_INSTANCE_TAGS + "} 90" + expectedSuffix + " 1200\n" +
-                        "#TYPE StatsObject_P95 gauge\n" +
+                        "# TYPE StatsObject_P95 gauge\n" +
                         "StatsObject_P95{" + EXPECTED_INSTANCE_TAGS + "} 95" + expectedSuffix + " 1200\n" +
-                        "#TYPE StatsObject_P99 gauge\n" +
+                        "# TYPE StatsObject_P99 gauge\n" +
                         "StatsObject_P99{" + EXPECTED_INSTANCE_TAGS + "} 99" + expectedSuffix + " 1200\n" +
-                        "#TYPE StatsObject_Total gauge\n" +
+                        "# TYPE StatsObject_Total gauge\n" +
                         "StatsObject_Total{" + EXPECTED_INSTANCE_TAGS + "} 4950" + expectedSuffix + " 1200\n"
         );
     }
@@ -402,7 +617,7 @@ public class TestReportingPrometheusModule
                     {
                         delegate.add(value);
                     }
-                }, ""},
+                }, "", DISTRIBUTION_UPPER_BOUNDS},
                 new Object[] {new StatsObject()
                 {
                     private final SparseDistributionStat delegate = new SparseDistributionStat();
@@ -418,7 +633,7 @@ public class TestReportingPrometheusModule
                     {
                         delegate.add(value);
                     }
-                }, ""},
+                }, "", DISTRIBUTION_UPPER_BOUNDS},
                 new Object[] {new StatsObject()
                 {
                     private final TimeStat delegate = new TimeStat();
@@ -434,7 +649,7 @@ public class TestReportingPrometheusModule
                     {
                         delegate.add(new Duration(value, TimeUnit.SECONDS));
                     }
-                }, ".0"},
+                }, ".0", TIME_UPPER_BOUNDS},
                 new Object[] {new StatsObject()
                 {
                     private final SparseTimeStat delegate = new SparseTimeStat();
@@ -450,7 +665,7 @@ public class TestReportingPrometheusModule
                     {
                         delegate.add(new Duration(value, TimeUnit.SECONDS));
                     }
-                }, ".0"},
+                }, ".0", TIME_UPPER_BOUNDS},
         };
     }
 
@@ -480,31 +695,72 @@ public class TestReportingPrometheusModule
 
         assertEquals(response.getStatusCode(), 200);
         assertEquals(response.getBody(),
-                "#TYPE ReportCollector_LogErrors_Count gauge\n" +
+                EXPECTED_ARENA_METRICS +
+                        "# TYPE ReportCollector_LogErrors_Count gauge\n" +
                         "ReportCollector_LogErrors_Count{" + EXPECTED_INSTANCE_TAGS + "} 0.0 1200\n" +
-                        "#TYPE ReportCollector_NumMetrics gauge\n" +
-                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 10\n" +
-                        "#TYPE StatsObject_DistributionStat_Count gauge\n" +
+                        "# TYPE ReportCollector_LogErrors_TotalCount counter\n" +
+                        "ReportCollector_LogErrors_TotalCount{" + EXPECTED_INSTANCE_TAGS + "} 0\n" +
+                        "# TYPE ReportCollector_NumMetrics gauge\n" +
+                        "ReportCollector_NumMetrics{" + EXPECTED_INSTANCE_TAGS + "} 15\n" +
+                        "# TYPE StatsObject_DistributionStat_Count gauge\n" +
                         "StatsObject_DistributionStat_Count{" + EXPECTED_INSTANCE_TAGS + "} 100.0 1200\n" +
-                        "#TYPE StatsObject_DistributionStat_Max gauge\n" +
+                        expectedHistogram("StatsObject_DistributionStat_Histogram", DISTRIBUTION_UPPER_BOUNDS) +
+                        "# TYPE StatsObject_DistributionStat_Max gauge\n" +
                         "StatsObject_DistributionStat_Max{" + EXPECTED_INSTANCE_TAGS + "} 99 1200\n" +
-                        "#TYPE StatsObject_DistributionStat_Min gauge\n" +
+                        "# TYPE StatsObject_DistributionStat_Min gauge\n" +
                         "StatsObject_DistributionStat_Min{" + EXPECTED_INSTANCE_TAGS + "} 0 1200\n" +
-                        "#TYPE StatsObject_DistributionStat_P50 gauge\n" +
+                        "# TYPE StatsObject_DistributionStat_P50 gauge\n" +
                         "StatsObject_DistributionStat_P50{" + EXPECTED_INSTANCE_TAGS + "} 50 1200\n" +
-                        "#TYPE StatsObject_DistributionStat_P75 gauge\n" +
+                        "# TYPE StatsObject_DistributionStat_P75 gauge\n" +
                         "StatsObject_DistributionStat_P75{" + EXPECTED_INSTANCE_TAGS + "} 75 1200\n" +
-                        "#TYPE StatsObject_DistributionStat_P90 gauge\n" +
+                        "# TYPE StatsObject_DistributionStat_P90 gauge\n" +
                         "StatsObject_DistributionStat_P90{" + EXPECTED_INSTANCE_TAGS + "} 90 1200\n" +
-                        "#TYPE StatsObject_DistributionStat_P95 gauge\n" +
+                        "# TYPE StatsObject_DistributionStat_P95 gauge\n" +
                         "StatsObject_DistributionStat_P95{" + EXPECTED_INSTANCE_TAGS + "} 95 1200\n" +
-                        "#TYPE StatsObject_DistributionStat_P99 gauge\n" +
+                        "# TYPE StatsObject_DistributionStat_P99 gauge\n" +
                         "StatsObject_DistributionStat_P99{" + EXPECTED_INSTANCE_TAGS + "} 99 1200\n" +
-                        "#TYPE StatsObject_DistributionStat_Total gauge\n" +
+                        "# TYPE StatsObject_DistributionStat_Total gauge\n" +
                         "StatsObject_DistributionStat_Total{" + EXPECTED_INSTANCE_TAGS + "} 4950 1200\n"
         );
     }
 
+    private static class BytesResponse
+    {
+        private final int statusCode;
+        private final String contentType;
+        private final String contentEncoding;
+        private final byte[] body;
+
+        BytesResponse(int statusCode, String contentType, String contentEncoding, byte[] body)
+        {
+            this.statusCode = statusCode;
+            this.contentType = contentType;
+            this.contentEncoding = contentEncoding;
+            this.body = body;
+        }
+    }
+
+    private static class BytesResponseHandler
+            implements ResponseHandler<BytesResponse, RuntimeException>
+    {
+        @Override
+        public BytesResponse handleException(Request request, Exception exception)
+        {
+            throw propagate(request, exception);
+        }
+
+        @Override
+        public BytesResponse handle(Request request, Response response)
+        {
+            try {
+                return new BytesResponse(response.getStatusCode(), response.getHeader("Content-Type"), response.getHeader("Content-Encoding"), ByteStreams.toByteArray(response.getInputStream()));
+            }
+            catch (IOException e) {
+                throw propagate(request, e);
+            }
+        }
+    }
+
     private static class TestingValue
     {
         @Override
@@ -730,6 +986,22 @@ public class TestReportingPrometheusModule
         return injector;
     }
 
+    /**
+     * The histogram of the values 0 to 99 recorded by the summary tests.
+     */
+    private static String expectedHistogram(String name, List<Double> upperBounds)
+    {
+        StringBuilder builder = new StringBuilder("# TYPE " + name + " untyped\n");
+        for (double upperBound : upperBounds) {
+            long count = Math.min((long) Math.floor(upperBound) + 1, 100);
+            builder.append(name + "_bucket{" + EXPECTED_INSTANCE_TAGS + ",le=\"" + upperBound + "\"} " + count + " 1200\n");
+        }
+        builder.append(name + "_bucket{" + EXPECTED_INSTANCE_TAGS + ",le=\"+Inf\"} 100 1200\n");
+        builder.append(name + "_sum{" + EXPECTED_INSTANCE_TAGS + "} 4950.0 1200\n");
+        builder.append(name + "_count{" + EXPECTED_INSTANCE_TAGS + "} 100 1200\n");
+        return builder.toString();
+    }
+
     private URI uriFor(String path)
     {
         return server.getBaseUrl().resolve(path);
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static com.proofpoint.reporting.HistogramValue.histogramValue;
+import static com.proofpoint.reporting.PrometheusSeries.prometheusSeries;
+import static com.proofpoint.reporting.PrometheusType.HISTOGRAM;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class TestTextExpositionWriter
+{
+    @Test
+    public void testHistogram()
+            throws Exception
+    {
+        assertEquals(writeHistogram(false),
+                "# TYPE Foo_Histogram untyped\n" +
+                        "Foo_Histogram_bucket{instance=\"i\",le=\"0.1\"} 2 1100\n" +
+                        "Foo_Histogram_bucket{instance=\"i\",le=\"1.0\"} 5 1100\n" +
+                        "Foo_Histogram_bucket{instance=\"i\",le=\"+Inf\"} 6 1100\n" +
+                        "Foo_Histogram_sum{instance=\"i\"} 2.5 1100\n" +
+                        "Foo_Histogram_count{instance=\"i\"} 6 1100\n");
+    }
+
+    @Test
+    public void testOpenMetricsGaugeHistogram()
+            throws Exception
+    {
+        assertEquals(writeHistogram(true),
+                "# TYPE Foo_Histogram gaugehistogram\n" +
+                        "Foo_Histogram_bucket{instance=\"i\",le=\"0.1\"} 2 1.100\n" +
+                        "Foo_Histogram_bucket{instance=\"i\",le=\"1.0\"} 5 1.100\n" +
+                        "Foo_Histogram_bucket{instance=\"i\",le=\"+Inf\"} 6 1.100\n" +
+                        "Foo_Histogram_gsum{instance=\"i\"} 2.5 1.100\n" +
+                        "Foo_Histogram_gcount{instance=\"i\"} 6 1.100\n" +
+                        "# EOF\n");
+    }
+
+    private static String writeHistogram(boolean openMetrics)
+            throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TextExpositionWriter writer = new TextExpositionWriter(out, openMetrics);
+        writer.startFamily("Foo_Histogram", HISTOGRAM);
+        writer.startSeries(prometheusSeries("Foo_Histogram", ImmutableSortedMap.of(), ImmutableMap.of("instance", "i")));
+        writer.writeHistogram(histogramValue(ImmutableList.of(0.1, 1.0), new long[] {2, 3, 1}, 2.5), MILLISECONDS.toNanos(1100));
+        writer.finish();
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
@@ -35,6 +35,8 @@ final class AnnotationUtils
     private static final ImmutableSet<Class<? extends Annotation>> FLATTEN_ANNOTATION_SET = ImmutableSet.of(Flatten.class);
     private static final ImmutableSet<Class<? extends Annotation>> NESTED_ANNOTATION_SET = ImmutableSet.of(Nested.class);
     private static final ImmutableSet<Class<? extends Annotation>> REPORTED_ANNOTATION_SET = ImmutableSet.of(ReportedAnnotation.class);
+    private static final ImmutableSet<Class<? extends Annotation>> COUNTER_ANNOTATION_SET = ImmutableSet.of(Counter.class);
+    private static final ImmutableSet<Class<? extends Annotation>> HISTOGRAM_ANNOTATION_SET = ImmutableSet.of(Histogram.class);
 
     private AnnotationUtils()
     {
@@ -183,6 +185,16 @@ final class AnnotationUtils
         return method != null && isAnnotationPresent(REPORTED_ANNOTATION_SET, new HashSet<>(), method.getAnnotations());
     }
 
+    static boolean isCounter(Method method)
+    {
+        return method != null && isAnnotationPresent(COUNTER_ANNOTATION_SET, new HashSet<>(), method.getAnnotations());
+    }
+
+    static boolean isHistogram(Method method)
+    {
+        return method != null && isAnnotationPresent(HISTOGRAM_ANNOTATION_SET, new HashSet<>(), method.getAnnotations());
+    }
+
     private static boolean isAnnotationPresent(Set<Class<? extends Annotation>> annotationClasses, Set<Class<? extends Annotation>> processedTypes, Annotation... annotations)
     {
         // are any of the annotations the specified annotation
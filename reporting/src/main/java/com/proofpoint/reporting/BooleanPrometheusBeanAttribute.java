@@ -22,7 +22,7 @@ import java.lang.reflect.Method;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.proofpoint.reporting.PrometheusBeanAttribute.ValueAndTimestamp.valueAndTimestamp;
-import static com.proofpoint.reporting.ReflectionUtils.invoke;
+import static com.proofpoint.reporting.Getter.getter;
 import static com.proofpoint.reporting.SimplePrometheusValue.simplePrometheusValue;
 import static java.util.Objects.requireNonNull;
 
@@ -30,13 +30,13 @@ class BooleanPrometheusBeanAttribute implements PrometheusBeanAttribute
 {
     private final Object target;
     private final String name;
-    private final Method getter;
+    private final Getter getter;
 
     BooleanPrometheusBeanAttribute(String name, Object target, Method getter)
     {
         this.name = requireNonNull(name, "name is null");
         this.target = requireNonNull(target, "target is null");
-        this.getter = requireNonNull(getter, "getter is null");
+        this.getter = getter(requireNonNull(getter, "getter is null"));
     }
 
     @Override
@@ -49,7 +49,7 @@ class BooleanPrometheusBeanAttribute implements PrometheusBeanAttribute
     public ValueAndTimestamp getValue(@Nullable Object target)
             throws MBeanException, ReflectionException
     {
-        Boolean value = (Boolean) invoke(firstNonNull(target, this.target), getter);
+        Boolean value = (Boolean) getter.invoke(firstNonNull(target, this.target));
         if (value == null) {
             return null;
         }
@@ -21,6 +21,16 @@ public interface BucketIdProvider
 {
     BucketId get();
 
+    /**
+     * Returns the id of the current bucket. Bucketed stats call this on every
+     * update and only call {@link #get()} when the id changes, so providers
+     * should override it with a cheaper check.
+     */
+    default int getId()
+    {
+        return get().getId();
+    }
+
     @AutoValue
     abstract class BucketId
     {
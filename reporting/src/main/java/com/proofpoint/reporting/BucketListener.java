@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.proofpoint.reporting.Bucketed.BucketInfo;
+
+/**
+ * Receives the buckets of a {@link Bucketed} stat as they close.
+ *
+ * @see Bucketed#addBucketListener(BucketListener)
+ */
+@FunctionalInterface
+public interface BucketListener
+{
+    /**
+     * Called once for each bucket of {@code bucketed} that closes. The stat
+     * is rotated by the first thread to update or read it in a later
+     * bucket, or within about a second by a {@link BucketRotator} it is
+     * registered with. The bucket is passed on
+     * by that thread, or by the last writer that raced with the rotation
+     * once it finishes, so this must be quick and thread safe. Writers
+     * are only waited for in buckets that opened after the first listener
+     * was added. Exceptions are logged.
+     * <p>
+     * Buckets skipped because the stat was not used during them are not
+     * passed to listeners.
+     */
+    void bucketClosed(Bucketed<?> bucketed, BucketInfo closedBucket);
+}
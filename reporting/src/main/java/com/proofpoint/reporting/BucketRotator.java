@@ -0,0 +1,100 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.proofpoint.log.Logger;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Rotates the registered {@link Bucketed} stats every second, so their
+ * closed buckets are passed to their {@link BucketListener}s even when the
+ * stats are neither updated nor read. Stats are held weakly. The timer
+ * thread is started when the first stat is registered and stopped with the
+ * rotator.
+ */
+public class BucketRotator
+{
+    private static final Logger log = Logger.get(BucketRotator.class);
+    private final Set<Bucketed<?>> stats = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+
+    @GuardedBy("this")
+    private ScheduledExecutorService executor = null;
+    @GuardedBy("this")
+    private boolean stopped = false;
+
+    @Inject
+    public BucketRotator()
+    {
+    }
+
+    public void register(Bucketed<?> bucketed)
+    {
+        stats.add(bucketed);
+        startIfNeeded();
+    }
+
+    public void unregister(Bucketed<?> bucketed)
+    {
+        stats.remove(bucketed);
+    }
+
+    @PreDestroy
+    public synchronized void stop()
+    {
+        stopped = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @VisibleForTesting
+    void rotateAll()
+    {
+        for (Bucketed<?> bucketed : ImmutableList.copyOf(stats)) {
+            try {
+                bucketed.rotate();
+            }
+            catch (RuntimeException e) {
+                log.error(e, "Unable to rotate %s", bucketed);
+            }
+        }
+    }
+
+    private synchronized void startIfNeeded()
+    {
+        if (executor == null && !stopped) {
+            executor = newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                    .setNameFormat("bucket-rotator")
+                    .setDaemon(true)
+                    .build());
+            executor.scheduleWithFixedDelay(this::rotateAll, 1, 1, SECONDS);
+        }
+    }
+}
@@ -18,57 +18,254 @@ package com.proofpoint.reporting;
 import com.google.auto.value.AutoValue;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
+import com.proofpoint.log.Logger;
 import com.proofpoint.reporting.BucketIdProvider.BucketId;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.proofpoint.reporting.BucketIdProvider.BucketId.bucketId;
 import static com.proofpoint.reporting.Bucketed.BucketInfo.bucketInfo;
+import static java.util.Objects.requireNonNull;
 
+/**
+ * Base class for stats that report values per bucket of time.
+ * <p>
+ * The current and previous buckets are published together through an atomic
+ * reference. Writers only check the current bucket id against the provider
+ * and rotate by compare-and-set when it changes, so buckets are updated
+ * concurrently and must be thread-safe themselves. A writer that raced with
+ * a rotation may update the bucket that has just become the previous bucket.
+ * <p>
+ * {@link BucketListener}s may be added to have closed buckets pushed to them
+ * as the stat rotates, instead of reading the previous bucket. Writers of
+ * buckets opened while the stat has listeners are counted, so that a closed
+ * bucket is only passed to the listeners once the writers that raced with
+ * its rotation have finished. Registering the stat with a
+ * {@link BucketRotator} closes its buckets on time when it is idle.
+ */
 public abstract class Bucketed<T>
 {
-    private static final BucketIdProvider INITIAL_BUCKET_ID_PROVIDER = () -> bucketId(-5, 0);
-    private BucketIdProvider bucketIdProvider = INITIAL_BUCKET_ID_PROVIDER;
-    private BucketId currentBucketId = bucketId(-10, 0);
-    private T previousBucket = null;
-    private T currentBucket = null;
+    private static final Logger log = Logger.get(Bucketed.class);
+    private static final BucketId INITIAL_BUCKET_ID = bucketId(-5, 0);
+    private static final BucketIdProvider INITIAL_BUCKET_ID_PROVIDER = () -> INITIAL_BUCKET_ID;
+    private volatile BucketIdProvider bucketIdProvider = INITIAL_BUCKET_ID_PROVIDER;
+    private static final BucketListener[] NO_LISTENERS = new BucketListener[0];
+    private final AtomicReference<Buckets<T>> buckets = new AtomicReference<>(new Buckets<>(bucketId(-10, 0), null, null, false));
+    private volatile BucketListener[] listeners = NO_LISTENERS;
 
     protected abstract T createBucket(@Nullable T previousBucket);
 
-    protected final synchronized <R> R applyToCurrentBucket(Function<T, R> function)
+    /**
+     * Called once for each bucket that leaves the stat, either by being
+     * replaced as the previous bucket or by being skipped when the stat was
+     * not used for a whole bucket. Unlike the bucket passed to
+     * {@link #createBucket}, which a writer that raced with the rotation may
+     * still be updating, a bucket is only released a full bucket after it
+     * stopped being current, or once its writers have finished if it was
+     * skipped.
+     */
+    protected void releaseBucket(T bucket)
     {
-        rotateBucketIfNeeded();
-        return function.apply(currentBucket);
     }
 
-    @SuppressWarnings("UnusedDeclaration") // Called via reflection
-    private synchronized BucketInfo getPreviousBucket()
+    /**
+     * Applies the function to the current bucket. The function may run
+     * concurrently with other functions applied to the same bucket.
+     */
+    protected final <R> R applyToCurrentBucket(Function<T, R> function)
+    {
+        while (true) {
+            Buckets<T> buckets = rotateBucketIfNeeded();
+            if (buckets.writers == null) {
+                return function.apply(buckets.currentBucket);
+            }
+            if (buckets.addWriter()) {
+                try {
+                    return function.apply(buckets.currentBucket);
+                }
+                finally {
+                    removeWriter(buckets);
+                }
+            }
+            // the bucket closed and drained since it was read; use its successor
+        }
+    }
+
+    // Package-private so attributes can read the previous bucket without reflection
+    // while keeping it out of the API of subclasses in other packages
+    BucketInfo getPreviousBucket()
+    {
+        return rotateBucketIfNeeded().getPreviousBucketInfo();
+    }
+
+    // Package-private for BucketRotator
+    void rotate()
     {
         rotateBucketIfNeeded();
-        return bucketInfo(previousBucket, currentBucketId);
+    }
+
+    /**
+     * Adds a listener to be passed each bucket of this stat as it closes.
+     * Unless the stat is registered with a {@link BucketRotator}, a bucket
+     * closes on the first update or read of the stat after it ends.
+     */
+    public synchronized void addBucketListener(BucketListener listener)
+    {
+        requireNonNull(listener, "listener is null");
+        BucketListener[] listeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        this.listeners = listeners;
+    }
+
+    public synchronized void removeBucketListener(BucketListener listener)
+    {
+        listeners = Arrays.stream(listeners)
+                .filter(existing -> existing != listener)
+                .toArray(BucketListener[]::new);
     }
 
     @VisibleForTesting
     public synchronized void setBucketIdProvider(BucketIdProvider bucketIdProvider)
     {
         this.bucketIdProvider = bucketIdProvider;
-        currentBucketId = bucketIdProvider.get();
-        previousBucket = createBucket(null);
-        currentBucket = createBucket(previousBucket);
+        T previousBucket = createBucket(null);
+        Buckets<T> replaced = buckets.getAndSet(newBuckets(bucketIdProvider.get(), previousBucket, createBucket(previousBucket)));
+        releaseIfPresent(replaced.previousBucket);
+        releaseIfPresent(replaced.currentBucket);
     }
 
-    private void rotateBucketIfNeeded()
+    private Buckets<T> newBuckets(BucketId bucketId, @Nullable T previousBucket, @Nullable T currentBucket)
     {
-        BucketId bucketId = bucketIdProvider.get();
-        if (bucketId.getId() != currentBucketId.getId()) {
-            if (currentBucketId.getId() + 1 == bucketId.getId()) {
-                previousBucket = currentBucket;
+        return new Buckets<>(bucketId, previousBucket, currentBucket, listeners.length > 0);
+    }
+
+    private Buckets<T> rotateBucketIfNeeded()
+    {
+        while (true) {
+            Buckets<T> current = buckets.get();
+            BucketIdProvider bucketIdProvider = this.bucketIdProvider;
+            if (bucketIdProvider.getId() == current.bucketId.getId()) {
+                return current;
+            }
+
+            BucketId bucketId = bucketIdProvider.get();
+            if (bucketId.getId() == current.bucketId.getId()) {
+                return current;
+            }
+            T previousBucket;
+            if (current.bucketId.getId() + 1 == bucketId.getId()) {
+                previousBucket = current.currentBucket;
             }
             else {
-                previousBucket = createBucket(currentBucket);
+                previousBucket = createBucket(current.currentBucket);
+            }
+            Buckets<T> rotated = newBuckets(bucketId, previousBucket, createBucket(previousBucket));
+            if (buckets.compareAndSet(current, rotated)) {
+                releaseIfPresent(current.previousBucket);
+                current.skipped = previousBucket != current.currentBucket;
+                if (current.writers == null) {
+                    currentBucketClosed(current);
+                }
+                else {
+                    removeWriter(current);
+                }
+                return rotated;
+            }
+        }
+    }
+
+    private void removeWriter(Buckets<T> buckets)
+    {
+        if (buckets.writers.decrementAndGet() == 0) {
+            currentBucketClosed(buckets);
+        }
+    }
+
+    /**
+     * Called once the current bucket of {@code closed} has been rotated out
+     * and no writer is still applying a function to it.
+     */
+    private void currentBucketClosed(Buckets<T> closed)
+    {
+        if (closed.currentBucket == null) {
+            return;
+        }
+        notifyListeners(bucketInfo(closed.currentBucket, closed.bucketId));
+        if (closed.skipped) {
+            releaseBucket(closed.currentBucket);
+        }
+    }
+
+    private void releaseIfPresent(@Nullable T bucket)
+    {
+        if (bucket != null) {
+            releaseBucket(bucket);
+        }
+    }
+
+    private void notifyListeners(BucketInfo closedBucket)
+    {
+        for (BucketListener listener : listeners) {
+            try {
+                listener.bucketClosed(this, closedBucket);
+            }
+            catch (RuntimeException e) {
+                // a failing listener must not fail the update that rotated the bucket
+                log.error(e, "Bucket listener %s failed", listener);
+            }
+        }
+    }
+
+    private static class Buckets<T>
+    {
+        private final BucketId bucketId;
+        private final T previousBucket;
+        private final T currentBucket;
+        // when the stat had listeners as the bucket opened, one for the rotation
+        // that will close the current bucket plus one per writer applying a
+        // function to it; the last to finish passes the bucket to the listeners
+        @Nullable
+        private final AtomicInteger writers;
+        // written by the rotation before it releases its count in writers
+        private volatile boolean skipped = false;
+        private volatile BucketInfo previousBucketInfo = null;
+
+        Buckets(BucketId bucketId, @Nullable T previousBucket, @Nullable T currentBucket, boolean countWriters)
+        {
+            this.bucketId = bucketId;
+            this.previousBucket = previousBucket;
+            this.currentBucket = currentBucket;
+            writers = countWriters ? new AtomicInteger(1) : null;
+        }
+
+        /**
+         * @return false if the current bucket has closed and drained, so can
+         * no longer be written
+         */
+        boolean addWriter()
+        {
+            while (true) {
+                int count = writers.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (writers.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        BucketInfo getPreviousBucketInfo()
+        {
+            BucketInfo bucketInfo = previousBucketInfo;
+            if (bucketInfo == null) {
+                bucketInfo = bucketInfo(previousBucket, bucketId);
+                previousBucketInfo = bucketInfo;
             }
-            currentBucketId = bucketId;
-            currentBucket = createBucket(previousBucket);
+            return bucketInfo;
         }
     }
 
@@ -21,8 +21,6 @@ import javax.management.MBeanException;
 import javax.management.ReflectionException;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
-import static com.proofpoint.reporting.ReflectionUtils.invoke;
-import static com.proofpoint.reporting.ReportedBean.GET_PREVIOUS_BUCKET;
 import static java.util.Objects.requireNonNull;
 
 class BucketedReportedBeanAttribute implements ReportedBeanAttribute
@@ -48,7 +46,7 @@ class BucketedReportedBeanAttribute implements ReportedBeanAttribute
     public Object getValue(Object target)
             throws MBeanException, ReflectionException
     {
-        BucketInfo bucketInfo = (BucketInfo) invoke(firstNonNull(target, holder), GET_PREVIOUS_BUCKET);
+        BucketInfo bucketInfo = ((Bucketed<?>) firstNonNull(target, holder)).getPreviousBucket();
         return delegate.getValue(bucketInfo.getBucket());
     }
 }
\ No newline at end of file
@@ -19,17 +19,17 @@ import javax.management.MBeanException;
 import javax.management.ReflectionException;
 import java.lang.reflect.Method;
 
-import static com.proofpoint.reporting.ReflectionUtils.invoke;
+import static com.proofpoint.reporting.Getter.getter;
 
 class FlattenPrometheusBeanAttribute implements PrometheusBeanAttribute
 {
-    private final Method flattenGetter;
+    private final Getter flattenGetter;
     private final PrometheusBeanAttribute delegate;
     private final String name;
 
     FlattenPrometheusBeanAttribute(Method flattenGetter, PrometheusBeanAttribute delegate)
     {
-        this.flattenGetter = flattenGetter;
+        this.flattenGetter = getter(flattenGetter);
         this.delegate = delegate;
         name = delegate.getName();
     }
@@ -45,7 +45,7 @@ class FlattenPrometheusBeanAttribute implements PrometheusBeanAttribute
             throws MBeanException, ReflectionException
     {
         if (target != null) {
-            target = invoke(target, flattenGetter);
+            target = flattenGetter.invoke(target);
         }
         return delegate.getValue(target);
     }
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import javax.management.MBeanException;
+import javax.management.ReflectionException;
+import javax.management.RuntimeErrorException;
+import javax.management.RuntimeOperationsException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A getter bound to a method handle when its attribute is exported, so
+ * collection does not go through {@link Method#invoke}. Primitive values
+ * are still boxed, as attributes return their values as objects.
+ */
+final class Getter
+{
+    private final Method method;
+    private final MethodHandle handle;
+
+    private Getter(Method method, MethodHandle handle)
+    {
+        this.method = method;
+        this.handle = handle;
+    }
+
+    static Getter getter(Method method)
+    {
+        requireNonNull(method, "method is null");
+
+        method.setAccessible(true);
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflect(method);
+        }
+        catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to access " + method, e);
+        }
+        if (Modifier.isStatic(method.getModifiers())) {
+            handle = MethodHandles.dropArguments(handle, 0, Object.class);
+        }
+        return new Getter(method, handle.asType(methodType(Object.class, Object.class)));
+    }
+
+    Object invoke(Object target)
+            throws MBeanException, ReflectionException
+    {
+        requireNonNull(target, "target is null");
+
+        try {
+            return (Object) handle.invokeExact(target);
+        }
+        catch (ReflectionException | MBeanException e) {
+            // allow ReflectionException and MBeanException to passthrough
+            throw e;
+        }
+        catch (RuntimeException e) {
+            if (!Modifier.isStatic(method.getModifiers()) && !method.getDeclaringClass().isInstance(target)) {
+                // the handle rejected the target rather than the getter throwing
+                throw new RuntimeOperationsException(e, "RuntimeException occurred while invoking " + toSimpleName(method));
+            }
+            throw new MBeanException(e, "RuntimeException occurred while invoking " + toSimpleName(method));
+        }
+        catch (Exception e) {
+            throw new MBeanException(e, "Exception occurred while invoking " + toSimpleName(method));
+        }
+        catch (Error e) {
+            throw new RuntimeErrorException(e, "Error occurred while invoking " + toSimpleName(method));
+        }
+        catch (Throwable e) {
+            throw new RuntimeErrorException(new AssertionError(e), "Unexpected throwable occurred while invoking " + toSimpleName(method));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return method.equals(((Getter) o).method);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return method.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+        return method.toString();
+    }
+
+    private static String toSimpleName(Method method)
+    {
+        return method.getName() + "()";
+    }
+}
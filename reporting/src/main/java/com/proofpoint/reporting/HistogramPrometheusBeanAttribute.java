@@ -0,0 +1,57 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import javax.annotation.Nullable;
+import javax.management.MBeanException;
+import javax.management.ReflectionException;
+import java.lang.reflect.Method;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.proofpoint.reporting.Getter.getter;
+import static com.proofpoint.reporting.PrometheusBeanAttribute.ValueAndTimestamp.valueAndTimestamp;
+import static java.util.Objects.requireNonNull;
+
+class HistogramPrometheusBeanAttribute implements PrometheusBeanAttribute
+{
+    private final Object target;
+    private final String name;
+    private final Getter getter;
+
+    HistogramPrometheusBeanAttribute(String name, Object target, Method getter)
+    {
+        this.name = requireNonNull(name, "name is null");
+        this.target = requireNonNull(target, "target is null");
+        this.getter = getter(requireNonNull(getter, "getter is null"));
+    }
+
+    @Override
+    public String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public ValueAndTimestamp getValue(@Nullable Object target)
+            throws MBeanException, ReflectionException
+    {
+        Object value = getter.invoke(firstNonNull(target, this.target));
+        if (value instanceof HistogramValue) {
+            return valueAndTimestamp((HistogramValue) value, null);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.proofpoint.reporting.PrometheusType.HISTOGRAM;
+
+/**
+ * The bucket counts of a distribution, exposed to Prometheus as a histogram
+ * family with {@code _bucket}, {@code _sum} and {@code _count} samples.
+ * Unlike percentiles, the bucket counts of many instances can be summed and
+ * the percentiles of the sum computed from them.
+ */
+@AutoValue
+public abstract class HistogramValue
+        implements PrometheusValue
+{
+    /**
+     * @param upperBounds the inclusive upper bounds of the buckets, in
+     * increasing order, not including the implicit {@code +Inf} bucket
+     * @param bucketCounts the number of values in each bucket, followed by
+     * the number of values greater than the last upper bound
+     * @param sum the sum of the values
+     */
+    public static HistogramValue histogramValue(List<Double> upperBounds, long[] bucketCounts, double sum)
+    {
+        checkArgument(bucketCounts.length == upperBounds.size() + 1, "bucketCounts must have one more element than upperBounds");
+        ImmutableList.Builder<Long> cumulativeCounts = ImmutableList.builder();
+        long count = 0;
+        for (int i = 0; i < upperBounds.size(); i++) {
+            count += bucketCounts[i];
+            cumulativeCounts.add(count);
+        }
+        count += bucketCounts[upperBounds.size()];
+        return new AutoValue_HistogramValue(ImmutableList.copyOf(upperBounds), cumulativeCounts.build(), sum, count);
+    }
+
+    public abstract List<Double> getUpperBounds();
+
+    /**
+     * The number of values less than or equal to each of the
+     * {@linkplain #getUpperBounds() upper bounds}.
+     */
+    public abstract List<Long> getCumulativeCounts();
+
+    public abstract double getSum();
+
+    public abstract long getCount();
+
+    @Override
+    public PrometheusType getType()
+    {
+        return HISTOGRAM;
+    }
+
+    @Override
+    public void writeSamples(SampleWriter writer, @Nullable Long timestamp)
+            throws IOException
+    {
+        writer.writeHistogram(this, timestamp);
+    }
+}
@@ -21,7 +21,7 @@ import javax.management.MBeanException;
 import javax.management.ReflectionException;
 import java.lang.reflect.Method;
 
-import static com.proofpoint.reporting.ReflectionUtils.invoke;
+import static com.proofpoint.reporting.Getter.getter;
 
 @AutoValue
 abstract class MethodHealthBeanAttribute
@@ -29,18 +29,18 @@ abstract class MethodHealthBeanAttribute
 {
     static MethodHealthBeanAttribute methodHealthBeanAttribute(String description, Type type, Object target, Method getter)
     {
-        return new AutoValue_MethodHealthBeanAttribute(description, type, target, getter);
+        return new AutoValue_MethodHealthBeanAttribute(description, type, target, getter(getter));
     }
 
     abstract Object getTarget();
 
-    abstract Method getGetter();
+    abstract Getter getGetter();
 
     @Override
     public String getValue()
             throws MBeanException, ReflectionException
     {
-        Object value = invoke(getTarget(), getGetter());
+        Object value = getGetter().invoke(getTarget());
         if (value == null) {
             return null;
         }
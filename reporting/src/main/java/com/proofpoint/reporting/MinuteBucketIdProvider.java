@@ -29,6 +29,7 @@ public class MinuteBucketIdProvider
     private static final long ONE_MINUTE_IN_NANOS = 60_000_000_000L;
     private final Ticker ticker;
     private final long initialValue;
+    private volatile Boundary boundary = new Boundary(0);
 
     @Inject
     public MinuteBucketIdProvider()
@@ -52,9 +53,36 @@ public class MinuteBucketIdProvider
         return bucketId(id, timeAtBoundary);
     }
 
+    @Override
+    public int getId()
+    {
+        long nanosSinceInitial = ticker.read() - initialValue;
+        Boundary boundary = this.boundary;
+        if (nanosSinceInitial >= boundary.startNanos && nanosSinceInitial < boundary.endNanos) {
+            return boundary.id;
+        }
+        boundary = new Boundary((int) (nanosSinceInitial / ONE_MINUTE_IN_NANOS));
+        this.boundary = boundary;
+        return boundary.id;
+    }
+
     public long getLastSystemTimeMillis()
     {
         long nanosSinceBoundary = (ticker.read() - initialValue) % ONE_MINUTE_IN_NANOS;
         return currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(nanosSinceBoundary);
     }
+
+    private static class Boundary
+    {
+        private final int id;
+        private final long startNanos;
+        private final long endNanos;
+
+        Boundary(int id)
+        {
+            this.id = id;
+            startNanos = id * ONE_MINUTE_IN_NANOS;
+            endNanos = startNanos + ONE_MINUTE_IN_NANOS;
+        }
+    }
 }
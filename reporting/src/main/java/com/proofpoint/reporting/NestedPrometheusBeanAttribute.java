@@ -19,17 +19,17 @@ import javax.management.MBeanException;
 import javax.management.ReflectionException;
 import java.lang.reflect.Method;
 
-import static com.proofpoint.reporting.ReflectionUtils.invoke;
+import static com.proofpoint.reporting.Getter.getter;
 
 class NestedPrometheusBeanAttribute implements PrometheusBeanAttribute
 {
-    private final Method nestedGetter;
+    private final Getter nestedGetter;
     private final PrometheusBeanAttribute delegate;
     private final String name;
 
     NestedPrometheusBeanAttribute(String prefix, Method nestedGetter, PrometheusBeanAttribute delegate)
     {
-        this.nestedGetter = nestedGetter;
+        this.nestedGetter = getter(nestedGetter);
         this.delegate = delegate;
         String delegateName = delegate.getName();
         if ("".equals(delegateName)) {
@@ -51,7 +51,7 @@ class NestedPrometheusBeanAttribute implements PrometheusBeanAttribute
             throws MBeanException, ReflectionException
     {
         if (target != null) {
-            target = invoke(target, nestedGetter);
+            target = nestedGetter.invoke(target);
         }
         return delegate.getValue(target);
     }
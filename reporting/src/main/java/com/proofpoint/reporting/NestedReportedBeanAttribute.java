@@ -19,17 +19,17 @@ import javax.management.MBeanException;
 import javax.management.ReflectionException;
 import java.lang.reflect.Method;
 
-import static com.proofpoint.reporting.ReflectionUtils.invoke;
+import static com.proofpoint.reporting.Getter.getter;
 
 class NestedReportedBeanAttribute implements ReportedBeanAttribute
 {
-    private final Method nestedGetter;
+    private final Getter nestedGetter;
     private final ReportedBeanAttribute delegate;
     private final String name;
 
     NestedReportedBeanAttribute(String prefix, Method nestedGetter, ReportedBeanAttribute delegate)
     {
-        this.nestedGetter = nestedGetter;
+        this.nestedGetter = getter(nestedGetter);
         this.delegate = delegate;
         name = prefix + "." + delegate.getName();
     }
@@ -45,7 +45,7 @@ class NestedReportedBeanAttribute implements ReportedBeanAttribute
             throws MBeanException, ReflectionException
     {
         if (target != null) {
-            target = invoke(target, nestedGetter);
+            target = nestedGetter.invoke(target);
         }
         return delegate.getValue(target);
     }
@@ -22,7 +22,7 @@ import java.lang.reflect.Method;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.proofpoint.reporting.PrometheusBeanAttribute.ValueAndTimestamp.valueAndTimestamp;
-import static com.proofpoint.reporting.ReflectionUtils.invoke;
+import static com.proofpoint.reporting.Getter.getter;
 import static com.proofpoint.reporting.SimplePrometheusValue.simplePrometheusValue;
 import static java.util.Objects.requireNonNull;
 
@@ -30,13 +30,15 @@ class ObjectPrometheusBeanAttribute implements PrometheusBeanAttribute
 {
     private final Object target;
     private final String name;
-    private final Method getter;
+    private final Getter getter;
+    private final PrometheusType type;
 
-    ObjectPrometheusBeanAttribute(String name, Object target, Method getter)
+    ObjectPrometheusBeanAttribute(String name, Object target, Method getter, PrometheusType type)
     {
         this.name = requireNonNull(name, "name is null");
         this.target = requireNonNull(target, "target is null");
-        this.getter = requireNonNull(getter, "getter is null");
+        this.getter = getter(requireNonNull(getter, "getter is null"));
+        this.type = requireNonNull(type, "type is null");
     }
 
     @Override
@@ -49,6 +51,6 @@ class ObjectPrometheusBeanAttribute implements PrometheusBeanAttribute
     public ValueAndTimestamp getValue(@Nullable Object target)
             throws MBeanException, ReflectionException
     {
-        return valueAndTimestamp(simplePrometheusValue(invoke(firstNonNull(target, this.target), getter)), null);
+        return valueAndTimestamp(simplePrometheusValue(getter.invoke(firstNonNull(target, this.target)), type), null);
     }
 }
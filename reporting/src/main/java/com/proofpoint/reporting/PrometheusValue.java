@@ -16,12 +16,25 @@
 package com.proofpoint.reporting;
 
 import javax.annotation.Nullable;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.Map.Entry;
 
 interface PrometheusValue
 {
-    void writeMetric(BufferedWriter writer, String name, Iterable<Entry<String, String>> tags, @Nullable Long timestamp)
+    PrometheusType getType();
+
+    void writeSamples(SampleWriter writer, @Nullable Long timestamp)
             throws IOException;
+
+    /**
+     * Receives the samples of a value, in the format being written, for the
+     * series the writer is positioned at.
+     */
+    interface SampleWriter
+    {
+        void writeSample(Number value, @Nullable Long timestamp)
+                throws IOException;
+
+        void writeHistogram(HistogramValue histogram, @Nullable Long timestamp)
+                throws IOException;
+    }
 }
@@ -15,19 +15,13 @@
  */
 package com.proofpoint.reporting;
 
-import javax.management.MBeanException;
-import javax.management.ReflectionException;
-import javax.management.RuntimeErrorException;
-import javax.management.RuntimeOperationsException;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static com.google.common.base.CaseFormat.LOWER_CAMEL;
 import static com.google.common.base.CaseFormat.UPPER_CAMEL;
-import static java.util.Objects.requireNonNull;
 
 final class ReflectionUtils
 {
@@ -37,66 +31,6 @@ final class ReflectionUtils
 
     private static final Pattern getterOrSetterPattern = Pattern.compile("(get|set|is)(.+)");
 
-    static Object invoke(Object target, Method method)
-            throws MBeanException, ReflectionException
-    {
-        requireNonNull(target, "target is null");
-        requireNonNull(method, "method is null");
-
-        try {
-            return method.invoke(target);
-        }
-        catch (InvocationTargetException e) {
-            // unwrap exception
-            Throwable targetException = e.getTargetException();
-            if (targetException instanceof RuntimeException) {
-                throw new MBeanException(
-                        (RuntimeException) targetException,
-                        "RuntimeException occurred while invoking " + toSimpleName(method));
-            }
-            else if (targetException instanceof ReflectionException) {
-                // allow ReflectionException to passthrough
-                throw (ReflectionException) targetException;
-            }
-            else if (targetException instanceof MBeanException) {
-                // allow MBeanException to passthrough
-                throw (MBeanException) targetException;
-            }
-            else if (targetException instanceof Exception) {
-                throw new MBeanException(
-                        (Exception) targetException,
-                        "Exception occurred while invoking " + toSimpleName(method));
-            }
-            else if (targetException instanceof Error) {
-                throw new RuntimeErrorException(
-                        (Error) targetException,
-                        "Error occurred while invoking " + toSimpleName(method));
-            }
-            else {
-                throw new RuntimeErrorException(
-                        new AssertionError(targetException),
-                        "Unexpected throwable occurred while invoking " + toSimpleName(method));
-            }
-        }
-        catch (RuntimeException e) {
-            throw new RuntimeOperationsException(e, "RuntimeException occurred while invoking " + toSimpleName(method));
-        }
-        catch (IllegalAccessException e) {
-            throw new ReflectionException(e, "IllegalAccessException occurred while invoking " + toSimpleName(method));
-        }
-        catch (Error err) {
-            throw new RuntimeErrorException(err, "Error occurred while invoking " + toSimpleName(method));
-        }
-        catch (Exception e) {
-            throw new ReflectionException(e, "Exception occurred while invoking " + toSimpleName(method));
-        }
-    }
-
-    private static String toSimpleName(Method method)
-    {
-        return method.getName() + "()";
-    }
-
     static boolean isGetter(Method method)
     {
         String methodName = method.getName();
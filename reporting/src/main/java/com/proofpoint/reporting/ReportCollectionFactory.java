@@ -16,14 +16,10 @@
 package com.proofpoint.reporting;
 
 import com.google.common.base.Ticker;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
-import com.google.common.cache.RemovalListener;
-import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.primitives.Primitives;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import javax.annotation.Nullable;
@@ -35,14 +31,19 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 import static com.google.common.base.CaseFormat.LOWER_CAMEL;
@@ -56,7 +57,12 @@ import static java.util.Objects.requireNonNull;
 
 public class ReportCollectionFactory
 {
-    private static final Object[] EMPTY_OBJECT_ARRAY = new Object[0];
+    private static final long EXPIRE_AFTER_ACCESS_NANOS = TimeUnit.MINUTES.toNanos(15);
+    private static final long EXPIRE_WHEN_FULL_NANOS = TimeUnit.MINUTES.toNanos(2);
+    private static final long EXPIRATION_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int DEFAULT_KEY_LIMIT = 1000;
+    private static final String OVERFLOW_TAG_VALUE = "other";
+    private static final Object NULL_KEY = new Object();
     private static final Method OBJECT_EQUALS_METHOD;
     private static final Method OBJECT_HASH_CODE_METHOD;
     private static final Method OBJECT_TO_STRING_METHOD;
@@ -214,20 +220,7 @@ public class ReportCollectionFactory
         @Override
         @SuppressFBWarnings(value = "NP_NULL_ON_SOME_PATH", justification = "All possible methods covered")
         public Object invoke(Object proxy, Method method, Object[] args)
-                throws Throwable
         {
-            ImmutableList.Builder<Optional<String>> argBuilder = ImmutableList.builder();
-            for (Object arg : firstNonNull(args, EMPTY_OBJECT_ARRAY)) {
-                if (arg == null) {
-                    argBuilder.add(Optional.empty());
-                }
-                else if (arg instanceof Optional) {
-                    argBuilder.add(((Optional<?>)arg).map(Object::toString));
-                }
-                else {
-                    argBuilder.add(Optional.of(arg.toString()));
-                }
-            }
             MethodImplementation implementation = implementationMap.get(method);
             if (implementation == null) {
                 if (OBJECT_EQUALS_METHOD.equals(method)) {
@@ -240,15 +233,14 @@ public class ReportCollectionFactory
                     return proxy.getClass().getName() + "@" + Integer.toHexString(hashCode());
                 }
             }
-            return implementation.get(argBuilder.build());
+            return implementation.get(args);
         }
 
     }
 
     private interface MethodImplementation
     {
-        Object get(List<Optional<String>> key)
-                throws ExecutionException;
+        Object get(Object[] args);
     }
 
     private class SingletonImplementation implements MethodImplementation
@@ -264,25 +256,56 @@ public class ReportCollectionFactory
         }
 
         @Override
-        public Object get(List<Optional<String>> key)
+        public Object get(Object[] args)
         {
             return returnValue;
         }
     }
 
+    /**
+     * Returns a stat per distinct set of tag values, unexporting those not
+     * used in {@link #EXPIRE_AFTER_ACCESS_NANOS}.
+     * <p>
+     * If every parameter is a primitive, a string, an enum, or an optional of
+     * one of those, stats are looked up by the arguments themselves and tag
+     * values are only computed the first time a set of arguments is seen.
+     * Other arguments are looked up by their tag values, as their
+     * {@code equals()} may not agree with their {@code toString()}.
+     * <p>
+     * Once there are stats for the method's {@link KeyLimit}, new sets of
+     * tag values share an overflow stat tagged {@code "other"} and each
+     * call with them is counted in {@code RejectedCalls}. While at the limit, stats unused for
+     * {@link #EXPIRE_WHEN_FULL_NANOS} are also unexported, making room for
+     * keys in current use.
+     */
     private class CacheImplementation implements MethodImplementation
     {
-        private final LoadingCache<List<Optional<String>>, Object> loadingCache;
-        @GuardedBy("registeredMap")
-        private final Map<List<Optional<String>>, Object> registeredMap = new HashMap<>();
-        @GuardedBy("registeredMap")
-        private final Set<Object> reinsertedSet = new HashSet<>();
+        private final Supplier<Object> returnValueSupplier;
+        private final boolean applicationPrefix;
+        private final String namePrefix;
+        private final Map<String, String> tags;
+        private final List<String> keyNames;
+        private final boolean keyedByArguments;
+        private final int keyLimit;
+        private final List<Optional<String>> overflowTagValues;
+        private final ConcurrentMap<Object, Registration> registrationsByKey = new ConcurrentHashMap<>();
+        @GuardedBy("registrations")
+        private final Map<List<Optional<String>>, Registration> registrations = new HashMap<>();
+        private final RejectedCalls rejectedCalls = new RejectedCalls();
+        @GuardedBy("registrations")
+        private boolean rejectedCallsExported = false;
+        private volatile boolean full = false;
+        private volatile Registration overflow = null;
+        private volatile long nextExpirationNanos;
 
         CacheImplementation(Method method, boolean applicationPrefix, String namePrefix, Map<String, String> tags)
         {
             checkState(method.getParameterTypes().length != 0);
 
-            final Supplier<Object> returnValueSupplier = getReturnValueSupplier(method);
+            returnValueSupplier = getReturnValueSupplier(method);
+            this.applicationPrefix = applicationPrefix;
+            this.namePrefix = namePrefix;
+            this.tags = tags;
 
             ImmutableList.Builder<String> keyNameBuilder = ImmutableList.builder();
             int argPosition = 0;
@@ -303,60 +326,183 @@ public class ReportCollectionFactory
                             + " has no @com.proofpoint.reporting.Key annotation");
                 }
             }
-            List<String> keyNames = keyNameBuilder.build();
-            loadingCache = CacheBuilder.newBuilder()
-                    .ticker(ticker)
-                    .expireAfterAccess(15, TimeUnit.MINUTES)
-                    .removalListener(new UnexportRemovalListener())
-                    .build(new CacheLoader<List<Optional<String>>, Object>()
-                    {
-                        @Override
-                        public Object load(List<Optional<String>> key)
-                        {
-                            Object returnValue = returnValueSupplier.get();
-
-                            synchronized (registeredMap) {
-                                Object existingStat = registeredMap.get(key);
-                                if (existingStat != null) {
-                                    reinsertedSet.add(existingStat);
-                                    return existingStat;
-                                }
-                                registeredMap.put(key, returnValue);
-                                Builder<String, String> tagBuilder = ImmutableMap.builder();
-                                tagBuilder.putAll(tags);
-                                for (int i = 0; i < keyNames.size(); ++i) {
-                                    Optional<String> keyValue = key.get(i);
-                                    if (keyValue.isPresent()) {
-                                        tagBuilder.put(keyNames.get(i), keyValue.get());
-                                    }
-                                }
-                                reportExporter.export(returnValue, applicationPrefix, namePrefix, tagBuilder.build());
-                            }
-                            return returnValue;
-                        }
-                    });
+            keyNames = keyNameBuilder.build();
+            keyedByArguments = Arrays.stream(method.getGenericParameterTypes()).allMatch(ReportCollectionFactory::isValueType);
+
+            KeyLimit keyLimitAnnotation = method.getAnnotation(KeyLimit.class);
+            if (keyLimitAnnotation == null) {
+                keyLimitAnnotation = method.getDeclaringClass().getAnnotation(KeyLimit.class);
+            }
+            keyLimit = keyLimitAnnotation == null ? DEFAULT_KEY_LIMIT : keyLimitAnnotation.value();
+            checkArgument(keyLimit > 0, methodName(method) + " @KeyLimit must be positive");
+            overflowTagValues = ImmutableList.copyOf(Collections.nCopies(keyNames.size(), Optional.of(OVERFLOW_TAG_VALUE)));
+
+            nextExpirationNanos = ticker.read() + EXPIRATION_INTERVAL_NANOS;
         }
 
         @Override
-        public Object get(List<Optional<String>> key)
-                throws ExecutionException
+        public Object get(Object[] args)
+        {
+            long nowNanos = ticker.read();
+            Object key;
+            if (!keyedByArguments) {
+                key = tagValues(args);
+            }
+            else if (args.length == 1) {
+                key = firstNonNull(args[0], NULL_KEY);
+            }
+            else {
+                // the proxy passes a new array on every call
+                key = Arrays.asList(args);
+            }
+
+            Registration registration = registrationsByKey.get(key);
+            if (registration == null) {
+                Registration overflow = this.overflow;
+                if (full && overflow != null) {
+                    rejectedCalls.add();
+                    registration = overflow;
+                }
+                else {
+                    registration = register(key, args);
+                }
+            }
+            registration.lastAccessNanos = nowNanos;
+
+            if (nowNanos - nextExpirationNanos >= 0) {
+                expire(nowNanos);
+            }
+            return registration.returnValue;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Registration register(Object key, Object[] args)
+        {
+            List<Optional<String>> tagValues = keyedByArguments ? tagValues(args) : (List<Optional<String>>) key;
+            synchronized (registrations) {
+                Registration registration = registrations.get(tagValues);
+                if (registration == null) {
+                    if (registrations.size() >= keyLimit) {
+                        return rejectCall();
+                    }
+                    registration = export(tagValues);
+                    full = registrations.size() >= keyLimit;
+                }
+                registrationsByKey.put(key, registration);
+                return registration;
+            }
+        }
+
+        @GuardedBy("registrations")
+        private Registration rejectCall()
+        {
+            if (!rejectedCallsExported) {
+                reportExporter.export(rejectedCalls, applicationPrefix, namePrefix, tags);
+                rejectedCallsExported = true;
+            }
+            rejectedCalls.add();
+
+            Registration registration = registrations.get(overflowTagValues);
+            if (registration == null) {
+                // exceeds the limit by one, so the overflow stat is not rejected
+                registration = export(overflowTagValues);
+            }
+            overflow = registration;
+            return registration;
+        }
+
+        @GuardedBy("registrations")
+        private Registration export(List<Optional<String>> tagValues)
         {
-            return loadingCache.get(key);
+            Object returnValue = returnValueSupplier.get();
+            Builder<String, String> tagBuilder = ImmutableMap.builder();
+            tagBuilder.putAll(tags);
+            for (int i = 0; i < keyNames.size(); ++i) {
+                Optional<String> keyValue = tagValues.get(i);
+                if (keyValue.isPresent()) {
+                    tagBuilder.put(keyNames.get(i), keyValue.get());
+                }
+            }
+            reportExporter.export(returnValue, applicationPrefix, namePrefix, tagBuilder.build());
+            Registration registration = new Registration(returnValue);
+            registrations.put(tagValues, registration);
+            return registration;
         }
 
-        private class UnexportRemovalListener implements RemovalListener<List<Optional<String>>, Object>
+        private void expire(long nowNanos)
         {
-            @Override
-            public void onRemoval(RemovalNotification<List<Optional<String>>, Object> notification)
-            {
-                synchronized (registeredMap) {
-                    if (reinsertedSet.remove(notification.getValue())) {
-                        return;
+            synchronized (registrations) {
+                if (nowNanos - nextExpirationNanos < 0) {
+                    return;
+                }
+                nextExpirationNanos = nowNanos + EXPIRATION_INTERVAL_NANOS;
+
+                long expireAfterAccessNanos = full ? EXPIRE_WHEN_FULL_NANOS : EXPIRE_AFTER_ACCESS_NANOS;
+                boolean expired = false;
+                Iterator<Registration> iterator = registrations.values().iterator();
+                while (iterator.hasNext()) {
+                    Registration registration = iterator.next();
+                    if (nowNanos - registration.lastAccessNanos >= expireAfterAccessNanos) {
+                        iterator.remove();
+                        registration.expired = true;
+                        reportExporter.unexportObject(registration.returnValue);
+                        expired = true;
+                    }
+                }
+                if (expired) {
+                    registrationsByKey.values().removeIf(registration -> registration.expired);
+                    if (overflow != null && overflow.expired) {
+                        overflow = null;
                     }
-                    reportExporter.unexportObject(notification.getValue());
-                    registeredMap.remove(notification.getKey());
+                }
+                full = registrations.size() >= keyLimit;
+            }
+        }
+
+        private List<Optional<String>> tagValues(Object[] args)
+        {
+            ImmutableList.Builder<Optional<String>> argBuilder = ImmutableList.builder();
+            for (Object arg : args) {
+                if (arg == null) {
+                    argBuilder.add(Optional.empty());
+                }
+                else if (arg instanceof Optional) {
+                    argBuilder.add(((Optional<?>) arg).map(Object::toString));
+                }
+                else {
+                    argBuilder.add(Optional.of(arg.toString()));
                 }
             }
+            return argBuilder.build();
+        }
+    }
+
+    private static class Registration
+    {
+        private final Object returnValue;
+        private volatile long lastAccessNanos;
+        // written with the registrations of the owning CacheImplementation locked
+        private volatile boolean expired = false;
+
+        Registration(Object returnValue)
+        {
+            this.returnValue = returnValue;
+        }
+    }
+
+    static class RejectedCalls
+    {
+        private final LongAdder count = new LongAdder();
+
+        void add()
+        {
+            count.increment();
+        }
+
+        @Counter
+        public long getRejectedCalls()
+        {
+            return count.sum();
         }
     }
 
@@ -381,6 +527,19 @@ public class ReportCollectionFactory
         };
     }
 
+    private static boolean isValueType(Type type)
+    {
+        if (type instanceof ParameterizedType) {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            return parameterizedType.getRawType() == Optional.class && isValueType(parameterizedType.getActualTypeArguments()[0]);
+        }
+        if (!(type instanceof Class)) {
+            return false;
+        }
+        Class<?> aClass = (Class<?>) type;
+        return aClass.isPrimitive() || Primitives.isWrapperType(aClass) || aClass == String.class || aClass.isEnum();
+    }
+
     private static String methodName(Method method)
     {
         StringBuilder builder = new StringBuilder(method.getDeclaringClass().getName());
@@ -15,13 +15,12 @@
  */
 package com.proofpoint.reporting;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
 import java.util.Map.Entry;
 import java.util.regex.Pattern;
 
 public final class ReportUtils
 {
+    private static final Pattern METRIC_NAME_NOT_ACCEPTED_CHARACTER_PATTERN = Pattern.compile("[^A-Za-z0-9_:]");
     private static final Pattern LABEL_NOT_ACCEPTED_CHARACTER_PATTERN = Pattern.compile("[^A-Za-z0-9_]");
     private static final Pattern INITIAL_DIGIT_PATTERN = Pattern.compile("[0-9]");
 
@@ -48,40 +47,55 @@ public final class ReportUtils
         return true;
     }
 
-    static void writeTags(BufferedWriter writer, Iterable<Entry<String, String>> tags)
-            throws IOException
+    static String sanitizeMetricName(String name)
     {
+        String metricName = METRIC_NAME_NOT_ACCEPTED_CHARACTER_PATTERN.matcher(name).replaceAll("_");
+        if (INITIAL_DIGIT_PATTERN.matcher(metricName).lookingAt()) {
+            return "_" + metricName;
+        }
+        return metricName;
+    }
+
+    static String sanitizeLabelName(String name)
+    {
+        String label = LABEL_NOT_ACCEPTED_CHARACTER_PATTERN.matcher(name).replaceAll("_");
+        if (INITIAL_DIGIT_PATTERN.matcher(label).lookingAt()) {
+            return "_" + label;
+        }
+        return label;
+    }
+
+    static String formatTags(Iterable<Entry<String, String>> tags)
+    {
+        StringBuilder builder = new StringBuilder();
         char prefix = '{';
         for (Entry<String, String> tag : tags) {
-            writer.append(prefix);
+            builder.append(prefix);
             prefix = ',';
-            String label = LABEL_NOT_ACCEPTED_CHARACTER_PATTERN.matcher(tag.getKey()).replaceAll("_");
             String value = tag.getValue();
-            if (INITIAL_DIGIT_PATTERN.matcher(label).lookingAt()) {
-                writer.append('_');
-            }
-            writer.write(label);
-            writer.append("=\"");
+            builder.append(sanitizeLabelName(tag.getKey()));
+            builder.append("=\"");
             for (int i = 0; i < value.length(); i++) {
                 char c = value.charAt(i);
                 switch (c) {
                     case '\\':
-                        writer.append("\\\\");
+                        builder.append("\\\\");
                         break;
                     case '\"':
-                        writer.append("\\\"");
+                        builder.append("\\\"");
                         break;
                     case '\n':
-                        writer.append("\\n");
+                        builder.append("\\n");
                         break;
                     default:
-                        writer.append(c);
+                        builder.append(c);
                 }
             }
-            writer.append("\"");
+            builder.append("\"");
         }
         if (prefix == ',') {
-            writer.append('}');
+            builder.append('}');
         }
+        return builder.toString();
     }
 }
@@ -36,24 +36,11 @@ import static java.util.Objects.requireNonNull;
 class ReportedBean
 {
     private static final LoadingCache<Class<?>, Iterable<Entry<Method, Method>>> METHODS_CACHE = CacheBuilder.newBuilder()
-            .build(CacheLoader.from(clazz -> AnnotationUtils.findAnnotatedMethods(clazz, ReportedAnnotation.class).entrySet()));
-
-    static Method GET_PREVIOUS_BUCKET;
+            .build(CacheLoader.from(clazz -> AnnotationUtils.findAnnotatedMethods(clazz, ReportedAnnotation.class, Counter.class, Histogram.class).entrySet()));
 
     private final Map<String, ReportedBeanAttribute> attributes;
     private final Map<String, PrometheusBeanAttribute> prometheusAttributes;
 
-    static {
-        try {
-            Method getPreviousBucket = Bucketed.class.getDeclaredMethod("getPreviousBucket");
-            getPreviousBucket.setAccessible(true);
-            GET_PREVIOUS_BUCKET = getPreviousBucket;
-        }
-        catch (NoSuchMethodException ignored) {
-            GET_PREVIOUS_BUCKET = null;
-        }
-    }
-
     private ReportedBean(Collection<ReportedBeanAttribute> attributes, Collection<PrometheusBeanAttribute> prometheusAttributes)
     {
         Map<String, ReportedBeanAttribute> attributesBuilder = new TreeMap<>();
@@ -90,9 +77,9 @@ class ReportedBean
             ((Bucketed<?>) target).setBucketIdProvider(bucketIdProvider);
             BucketInfo bucketInfo = null;
             try {
-                bucketInfo = (BucketInfo) GET_PREVIOUS_BUCKET.invoke(target);
+                bucketInfo = ((Bucketed<?>) target).getPreviousBucket();
             }
-            catch (Exception ignored) {
+            catch (RuntimeException ignored) {
                 // todo log me
             }
             if (bucketInfo != null) {
@@ -21,6 +21,8 @@ import java.lang.reflect.Method;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.proofpoint.reporting.PrometheusType.COUNTER;
+import static com.proofpoint.reporting.PrometheusType.GAUGE;
 import static com.proofpoint.reporting.ReflectionUtils.isValidGetter;
 import static com.proofpoint.reporting.ReportedMethodInfo.reportedMethodInfo;
 import static java.util.Objects.requireNonNull;
@@ -122,6 +124,13 @@ class ReportedMethodInfoBuilder
         else {
             checkArgument (concreteGetter != null, "JmxAttribute must have a concrete getter");
 
+            if (AnnotationUtils.isHistogram(annotatedGetter)) {
+                return reportedMethodInfo(
+                        ImmutableList.of(),
+                        ImmutableList.of(new HistogramPrometheusBeanAttribute(name, target, concreteGetter))
+                );
+            }
+
             Class<?> attributeType = concreteGetter.getReturnType();
 
             if (Boolean.class.isAssignableFrom(attributeType) || attributeType == boolean.class) {
@@ -137,7 +146,7 @@ class ReportedMethodInfoBuilder
                     AnnotationUtils.isReported(annotatedGetter) ?
                             ImmutableList.of(new ObjectReportedBeanAttribute(name, target, concreteGetter)) :
                             ImmutableList.of(),
-                    ImmutableList.of(new ObjectPrometheusBeanAttribute(name, target, concreteGetter))
+                    ImmutableList.of(new ObjectPrometheusBeanAttribute(name, target, concreteGetter, AnnotationUtils.isCounter(annotatedGetter) ? COUNTER : GAUGE))
             );
         }
     }
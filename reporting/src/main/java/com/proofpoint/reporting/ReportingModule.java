@@ -34,6 +34,7 @@ public class ReportingModule
         binder.bind(ReportedBeanRegistry.class).in(Scopes.SINGLETON);
         binder.bind(MinuteBucketIdProvider.class).in(Scopes.SINGLETON);
         binder.bind(BucketIdProvider.class).to(MinuteBucketIdProvider.class).in(Scopes.SINGLETON);
+        binder.bind(BucketRotator.class).in(Scopes.SINGLETON);
         binder.bind(ReportCollectionFactory.class).in(Scopes.SINGLETON);
 
         newSetBinder(binder, HealthMapping.class);
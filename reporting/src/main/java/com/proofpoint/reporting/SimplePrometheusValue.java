@@ -18,38 +18,36 @@ package com.proofpoint.reporting;
 import com.google.auto.value.AutoValue;
 
 import javax.annotation.Nullable;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.Map.Entry;
 
+import static com.proofpoint.reporting.PrometheusType.GAUGE;
 import static com.proofpoint.reporting.ReportUtils.isReportable;
-import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @AutoValue
 abstract class SimplePrometheusValue implements PrometheusValue
 {
     @Nullable
     static PrometheusValue simplePrometheusValue(@Nullable Object value) {
+        return simplePrometheusValue(value, GAUGE);
+    }
+
+    @Nullable
+    static PrometheusValue simplePrometheusValue(@Nullable Object value, PrometheusType type) {
         if (value != null && isReportable(value) && value instanceof Number) {
-            return new AutoValue_SimplePrometheusValue(value);
+            return new AutoValue_SimplePrometheusValue(type, (Number) value);
         }
         return null;
     }
 
-    abstract Object getValue();
+    @Override
+    public abstract PrometheusType getType();
+
+    abstract Number getValue();
 
     @Override
-    public void writeMetric(BufferedWriter writer, String name, Iterable<Entry<String, String>> tags, @Nullable Long timestamp)
+    public void writeSamples(SampleWriter writer, @Nullable Long timestamp)
             throws IOException
     {
-        writer.write(name);
-        ReportUtils.writeTags(writer, tags);
-        writer.append(' ');
-        writer.write(getValue().toString());
-        if (timestamp != null) {
-            writer.append(' ');
-            writer.write(Long.toString(NANOSECONDS.toMillis(timestamp)));
-        }
-        writer.append('\n');
+        writer.writeSample(getValue(), timestamp);
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import com.google.common.base.Function;
+import com.proofpoint.reporting.Bucketed.BucketInfo;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static com.proofpoint.reporting.BucketIdProvider.BucketId.bucketId;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TestBucketed
+{
+    // a bucket rotator may read it
+    private volatile int bucketId;
+    private SimpleBucketed bucketed;
+    private List<BucketInfo> closedBuckets;
+
+    @BeforeMethod
+    public void setup()
+    {
+        bucketId = 0;
+        bucketed = new SimpleBucketed();
+        closedBuckets = new CopyOnWriteArrayList<>();
+        bucketed.addBucketListener((source, closedBucket) -> {
+            assertSame(source, bucketed);
+            closedBuckets.add(closedBucket);
+        });
+        bucketed.setBucketIdProvider(() -> bucketId(bucketId, bucketId * 60_000L));
+    }
+
+    @Test
+    public void testListenerCalledOncePerBucket()
+    {
+        bucketed.setBucketedIntegerValue(1);
+        assertEquals(closedBuckets.size(), 0);
+
+        bucketId = 1;
+        bucketed.setBucketedIntegerValue(2);
+        bucketed.setBucketedIntegerValue(3);
+        bucketed.getPreviousBucket();
+
+        assertEquals(closedBuckets.size(), 1);
+        assertEquals(closedBuckets.get(0).getBucketId(), bucketId(0, 0));
+        assertEquals(((SimpleBucket) closedBuckets.get(0).getBucket()).getBucketedIntegerValue(), 1);
+    }
+
+    @Test
+    public void testReadRotates()
+    {
+        bucketed.setBucketedIntegerValue(1);
+
+        bucketId = 1;
+        BucketInfo previousBucket = bucketed.getPreviousBucket();
+
+        assertEquals(closedBuckets.size(), 1);
+        assertSame(closedBuckets.get(0).getBucket(), previousBucket.getBucket());
+    }
+
+    @Test
+    public void testListenerWaitsForRacingWriter()
+    {
+        bucketed.applyToCurrentBucket((Function<SimpleBucket, Void>) bucket -> {
+            bucketId = 1;
+            bucketed.getPreviousBucket();
+            assertEquals(closedBuckets.size(), 0);
+            bucket.bucketedIntegerValue = 1;
+            return null;
+        });
+
+        assertEquals(closedBuckets.size(), 1);
+        assertEquals(closedBuckets.get(0).getBucketId(), bucketId(0, 0));
+        assertEquals(((SimpleBucket) closedBuckets.get(0).getBucket()).getBucketedIntegerValue(), 1);
+    }
+
+    @Test
+    public void testRotatorClosesIdleBucket()
+    {
+        bucketed.setBucketedIntegerValue(1);
+
+        BucketRotator rotator = new BucketRotator();
+        try {
+            rotator.register(bucketed);
+            bucketId = 1;
+            rotator.rotateAll();
+        }
+        finally {
+            rotator.stop();
+        }
+
+        assertEquals(closedBuckets.size(), 1);
+        assertEquals(closedBuckets.get(0).getBucketId(), bucketId(0, 0));
+    }
+
+    @Test
+    public void testUnregisteredNotRotated()
+    {
+        bucketed.setBucketedIntegerValue(1);
+
+        BucketRotator rotator = new BucketRotator();
+        try {
+            rotator.register(bucketed);
+            rotator.unregister(bucketed);
+            bucketId = 1;
+            rotator.rotateAll();
+        }
+        finally {
+            rotator.stop();
+        }
+
+        assertEquals(closedBuckets.size(), 0);
+    }
+
+    @Test
+    public void testSkippedBucketsNotPassed()
+    {
+        bucketed.setBucketedIntegerValue(1);
+
+        bucketId = 3;
+        bucketed.setBucketedIntegerValue(2);
+
+        assertEquals(closedBuckets.size(), 1);
+        assertEquals(closedBuckets.get(0).getBucketId(), bucketId(0, 0));
+    }
+
+    @Test
+    public void testRemoveListener()
+    {
+        List<BucketInfo> otherClosedBuckets = new CopyOnWriteArrayList<>();
+        BucketListener listener = (source, closedBucket) -> otherClosedBuckets.add(closedBucket);
+        bucketed.addBucketListener(listener);
+
+        bucketId = 1;
+        bucketed.setBucketedIntegerValue(1);
+        bucketed.removeBucketListener(listener);
+        bucketId = 2;
+        bucketed.setBucketedIntegerValue(2);
+
+        assertEquals(closedBuckets.size(), 2);
+        assertEquals(otherClosedBuckets.size(), 1);
+    }
+
+    @Test
+    public void testFailingListener()
+    {
+        bucketed.addBucketListener((source, closedBucket) -> {
+            throw new IllegalStateException("listener failure");
+        });
+        List<BucketInfo> laterClosedBuckets = new CopyOnWriteArrayList<>();
+        bucketed.addBucketListener((source, closedBucket) -> laterClosedBuckets.add(closedBucket));
+
+        bucketId = 1;
+        bucketed.setBucketedIntegerValue(1);
+
+        assertEquals(closedBuckets.size(), 1);
+        assertEquals(laterClosedBuckets.size(), 1);
+        bucketId = 2;
+        assertEquals(((SimpleBucket) bucketed.getPreviousBucket().getBucket()).getBucketedIntegerValue(), 1);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.reporting;
+
+import org.testng.annotations.Test;
+
+import javax.management.MBeanException;
+import javax.management.RuntimeErrorException;
+import javax.management.RuntimeOperationsException;
+import java.io.IOException;
+
+import static com.proofpoint.reporting.Getter.getter;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestGetter
+{
+    @Test
+    public void testValues()
+            throws Exception
+    {
+        Bean bean = new Bean();
+        assertEquals(getter(Bean.class.getDeclaredMethod("getInt")).invoke(bean), 3);
+        assertEquals(getter(Bean.class.getDeclaredMethod("isBoolean")).invoke(bean), true);
+        assertEquals(getter(Bean.class.getDeclaredMethod("getString")).invoke(bean), "value");
+        assertNull(getter(Bean.class.getDeclaredMethod("getNull")).invoke(bean));
+        assertEquals(getter(Bean.class.getDeclaredMethod("getStatic")).invoke(bean), 5L);
+    }
+
+    @Test
+    public void testOverriddenGetter()
+            throws Exception
+    {
+        assertEquals(getter(Bean.class.getDeclaredMethod("getInt")).invoke(new SubBean()), 4);
+    }
+
+    @Test
+    public void testRuntimeException()
+            throws Exception
+    {
+        try {
+            getter(Bean.class.getDeclaredMethod("getRuntimeException")).invoke(new Bean());
+            fail("expected MBeanException");
+        }
+        catch (MBeanException e) {
+            assertTrue(e.getTargetException() instanceof IllegalStateException);
+            assertEquals(e.getMessage(), "RuntimeException occurred while invoking getRuntimeException()");
+        }
+    }
+
+    @Test
+    public void testCheckedException()
+            throws Exception
+    {
+        try {
+            getter(Bean.class.getDeclaredMethod("getCheckedException")).invoke(new Bean());
+            fail("expected MBeanException");
+        }
+        catch (MBeanException e) {
+            assertTrue(e.getTargetException() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void testMBeanExceptionPassesThrough()
+            throws Exception
+    {
+        try {
+            getter(Bean.class.getDeclaredMethod("getMBeanException")).invoke(new Bean());
+            fail("expected MBeanException");
+        }
+        catch (MBeanException e) {
+            assertSame(e, Bean.M_BEAN_EXCEPTION);
+        }
+    }
+
+    @Test
+    public void testError()
+            throws Exception
+    {
+        try {
+            getter(Bean.class.getDeclaredMethod("getError")).invoke(new Bean());
+            fail("expected RuntimeErrorException");
+        }
+        catch (RuntimeErrorException e) {
+            assertTrue(e.getTargetError() instanceof AssertionError);
+        }
+    }
+
+    @Test(expectedExceptions = RuntimeOperationsException.class)
+    public void testWrongTarget()
+            throws Exception
+    {
+        getter(Bean.class.getDeclaredMethod("getInt")).invoke("not a bean");
+    }
+
+    @Test
+    public void testEquals()
+            throws Exception
+    {
+        assertEquals(getter(Bean.class.getDeclaredMethod("getInt")), getter(Bean.class.getDeclaredMethod("getInt")));
+        assertEquals(getter(Bean.class.getDeclaredMethod("getInt")).hashCode(), getter(Bean.class.getDeclaredMethod("getInt")).hashCode());
+    }
+
+    private static class Bean
+    {
+        static final MBeanException M_BEAN_EXCEPTION = new MBeanException(null);
+
+        int getInt()
+        {
+            return 3;
+        }
+
+        private boolean isBoolean()
+        {
+            return true;
+        }
+
+        private String getString()
+        {
+            return "value";
+        }
+
+        private Object getNull()
+        {
+            return null;
+        }
+
+        private static long getStatic()
+        {
+            return 5;
+        }
+
+        private Object getRuntimeException()
+        {
+            throw new IllegalStateException();
+        }
+
+        private Object getCheckedException()
+                throws IOException
+        {
+            throw new IOException();
+        }
+
+        private Object getMBeanException()
+                throws MBeanException
+        {
+            throw M_BEAN_EXCEPTION;
+        }
+
+        private Object getError()
+        {
+            throw new AssertionError();
+        }
+    }
+
+    private static class SubBean
+            extends Bean
+    {
+        @Override
+        int getInt()
+        {
+            return 4;
+        }
+    }
+}
@@ -81,6 +81,26 @@ public class TestMinuteBucketIdProvider
         assertLessThanOrEqual(bucketId.getTimestamp(), getCurrentTimeNanos());
     }
 
+    @Test
+    public void testGetId()
+    {
+        ticker.elapseTime(27, TimeUnit.HOURS);
+        BucketIdProvider idProvider = new MinuteBucketIdProvider(ticker);
+        assertEquals(idProvider.getId(), 0, "initial state");
+
+        ticker.elapseTime(59_999_999_999L, TimeUnit.NANOSECONDS);
+        assertEquals(idProvider.getId(), 0, "before minute boundary");
+        assertEquals(idProvider.get().getId(), 0, "before minute boundary");
+
+        ticker.elapseTime(1, TimeUnit.NANOSECONDS);
+        assertEquals(idProvider.getId(), 1, "on minute boundary");
+        assertEquals(idProvider.get().getId(), 1, "on minute boundary");
+
+        ticker.elapseTime(5, TimeUnit.MINUTES);
+        assertEquals(idProvider.getId(), 6, "after skipped minutes");
+        assertEquals(idProvider.get().getId(), 6, "after skipped minutes");
+    }
+
     private static long getCurrentTimeNanos()
     {
         return TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
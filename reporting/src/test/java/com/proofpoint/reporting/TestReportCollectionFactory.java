@@ -31,11 +31,19 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.proofpoint.testing.EquivalenceTester.equivalenceTester;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
@@ -43,6 +51,7 @@ public class TestReportCollectionFactory
 {
     @Mock
     private ReportExporter reportExporter;
+    private TestingTicker ticker;
     private ReportCollectionFactory reportCollectionFactory;
 
     @Captor
@@ -52,7 +61,8 @@ public class TestReportCollectionFactory
     public void setup()
     {
         initMocks(this);
-        reportCollectionFactory = new ReportCollectionFactory(reportExporter, new TestingTicker());
+        ticker = new TestingTicker();
+        reportCollectionFactory = new ReportCollectionFactory(reportExporter, ticker);
     }
 
     @Test
@@ -100,11 +110,179 @@ public class TestReportCollectionFactory
         assertSame(reportCaptor.getValue(), someObject);
     }
 
+    @Test
+    public void testSameKeySameObject()
+    {
+        KeyedDistribution keyedDistribution = reportCollectionFactory.createReportCollection(KeyedDistribution.class);
+        SomeObject someObject = keyedDistribution.add("value", false);
+
+        assertSame(keyedDistribution.add("value", false), someObject);
+        assertNotSame(keyedDistribution.add("value", true), someObject);
+        assertNotSame(keyedDistribution.add(null, false), someObject);
+        assertSame(keyedDistribution.add(null, false), keyedDistribution.add(null, false));
+        verify(reportExporter, times(3)).export(any(), eq(false), eq("KeyedDistribution.Add"), any());
+    }
+
+    @Test
+    public void testEnumAndPrimitiveKeys()
+    {
+        EnumKeyedDistribution enumKeyedDistribution = reportCollectionFactory.createReportCollection(EnumKeyedDistribution.class);
+        SomeObject someObject = enumKeyedDistribution.add(Color.RED, 404);
+
+        verify(reportExporter).export(same(someObject), eq(false), eq("EnumKeyedDistribution.Add"), tagCaptor.capture());
+        assertEquals(tagCaptor.getValue(), ImmutableMap.of("color", "red", "code", "404"));
+        assertSame(enumKeyedDistribution.add(Color.RED, 404), someObject);
+        assertNotSame(enumKeyedDistribution.add(Color.BLUE, 404), someObject);
+        assertNotSame(enumKeyedDistribution.add(Color.RED, 500), someObject);
+    }
+
+    @Test
+    public void testToStringKeys()
+    {
+        ObjectKeyedDistribution objectKeyedDistribution = reportCollectionFactory.createReportCollection(ObjectKeyedDistribution.class);
+        SomeObject someObject = objectKeyedDistribution.add(new StringWrapper("value"));
+
+        assertSame(objectKeyedDistribution.add(new StringWrapper("value")), someObject);
+        verify(reportExporter).export(same(someObject), eq(false), eq("ObjectKeyedDistribution.Add"), tagCaptor.capture());
+        assertEquals(tagCaptor.getValue(), ImmutableMap.of("foo", "value"));
+        verifyNoMoreInteractions(reportExporter);
+    }
+
+    @Test
+    public void testExpiration()
+    {
+        KeyedDistribution keyedDistribution = reportCollectionFactory.createReportCollection(KeyedDistribution.class);
+        SomeObject unused = keyedDistribution.add("unused", false);
+        SomeObject used = keyedDistribution.add("used", false);
+
+        ticker.elapseTime(10, MINUTES);
+        assertSame(keyedDistribution.add("used", false), used);
+        ticker.elapseTime(10, MINUTES);
+        assertSame(keyedDistribution.add("used", false), used);
+
+        verify(reportExporter).unexportObject(unused);
+        verify(reportExporter, never()).unexportObject(used);
+
+        SomeObject reexported = keyedDistribution.add("unused", false);
+        assertNotSame(reexported, unused);
+        verify(reportExporter).export(same(reexported), eq(false), eq("KeyedDistribution.Add"), any());
+    }
+
+    @Test
+    public void testKeyLimit()
+    {
+        LimitedDistribution limitedDistribution = reportCollectionFactory.createReportCollection(LimitedDistribution.class);
+        SomeObject first = limitedDistribution.add("first");
+        SomeObject second = limitedDistribution.add("second");
+        SomeObject overflow = limitedDistribution.add("third");
+
+        assertNotSame(second, first);
+        assertNotSame(overflow, first);
+        assertNotSame(overflow, second);
+        assertSame(limitedDistribution.add("fourth"), overflow);
+        assertSame(limitedDistribution.add("first"), first);
+
+        verify(reportExporter).export(same(overflow), eq(false), eq("LimitedDistribution.Add"), tagCaptor.capture());
+        assertEquals(tagCaptor.getValue(), ImmutableMap.of("foo", "other"));
+
+        ArgumentCaptor<Object> rejectedCallsCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(reportExporter).export(rejectedCallsCaptor.capture(), eq(false), eq("LimitedDistribution.Add"), eq(ImmutableMap.of()));
+        assertEquals(((ReportCollectionFactory.RejectedCalls) rejectedCallsCaptor.getValue()).getRejectedCalls(), 2);
+
+        assertSame(limitedDistribution.add("other"), overflow);
+    }
+
+    @Test
+    public void testKeyLimitOnMethod()
+    {
+        MethodLimitedDistribution methodLimitedDistribution = reportCollectionFactory.createReportCollection(MethodLimitedDistribution.class);
+        SomeObject first = methodLimitedDistribution.add("first");
+
+        SomeObject second = methodLimitedDistribution.add("second");
+
+        assertNotSame(second, first);
+        assertNotSame(methodLimitedDistribution.add("third"), second);
+        assertSame(methodLimitedDistribution.add("fourth"), methodLimitedDistribution.add("third"));
+    }
+
+    @Test
+    public void testKeyLimitEvictsIdleKeys()
+    {
+        LimitedDistribution limitedDistribution = reportCollectionFactory.createReportCollection(LimitedDistribution.class);
+        SomeObject first = limitedDistribution.add("first");
+        SomeObject second = limitedDistribution.add("second");
+        SomeObject overflow = limitedDistribution.add("third");
+
+        ticker.elapseTime(1, MINUTES);
+        assertSame(limitedDistribution.add("first"), first);
+        ticker.elapseTime(90, SECONDS);
+        assertSame(limitedDistribution.add("first"), first);
+
+        verify(reportExporter).unexportObject(second);
+        verify(reportExporter).unexportObject(overflow);
+        verify(reportExporter, never()).unexportObject(first);
+
+        SomeObject third = limitedDistribution.add("third");
+        assertNotSame(third, overflow);
+        verify(reportExporter).export(same(third), eq(false), eq("LimitedDistribution.Add"), tagCaptor.capture());
+        assertEquals(tagCaptor.getValue(), ImmutableMap.of("foo", "third"));
+    }
+
     private interface KeyedDistribution
     {
         SomeObject add(@Key("foo") String key, @NotNull @Key("bar") boolean bool);
     }
 
+    private interface EnumKeyedDistribution
+    {
+        SomeObject add(@Key("color") Color color, @Key("code") int code);
+    }
+
+    private interface ObjectKeyedDistribution
+    {
+        SomeObject add(@Key("foo") StringWrapper key);
+    }
+
+    private enum Color
+    {
+        RED, BLUE;
+
+        @Override
+        public String toString()
+        {
+            return name().toLowerCase();
+        }
+    }
+
+    private static class StringWrapper
+    {
+        private final String value;
+
+        StringWrapper(String value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public String toString()
+        {
+            return value;
+        }
+    }
+
+    @KeyLimit(2)
+    private interface LimitedDistribution
+    {
+        SomeObject add(@Key("foo") String key);
+    }
+
+    @KeyLimit(1)
+    private interface MethodLimitedDistribution
+    {
+        @KeyLimit(2)
+        SomeObject add(@Key("foo") String key);
+    }
+
     private interface OptionalKeyedDistribution
     {
         SomeObject add(@Key("foo") Optional<String> key, @Key("bar") Optional<Boolean> bool);
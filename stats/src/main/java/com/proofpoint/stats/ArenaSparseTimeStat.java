@@ -0,0 +1,36 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+/**
+ * A {@link SparseTimeStat} stored in the {@linkplain HistogramArena#defaultArena()
+ * default histogram arena}. Intended as the return type of report collection
+ * methods with many keys, which are constructed without arguments.
+ * <p>
+ * The default arena trades precision for small fixed-size slots: reported
+ * percentiles have a relative error of up to 6.25%, compared to 1% for a
+ * {@link SparseTimeStat} that is not stored in an arena. For a tighter
+ * bound, construct a {@code SparseTimeStat} with a {@link HistogramArena}
+ * of smaller {@code maxError}, whose slots are correspondingly larger.
+ */
+public class ArenaSparseTimeStat
+    extends SparseTimeStat
+{
+    public ArenaSparseTimeStat()
+    {
+        super(HistogramArena.defaultArena());
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.google.common.collect.ImmutableList;
+import com.proofpoint.reporting.HistogramValue;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.List;
+
+/**
+ * The reported values of a closed distribution bucket. Bucket getters are
+ * only read once the bucket has become the previous bucket, so the
+ * quantiles and histogram bucket counts are computed the first time the
+ * bucket is read and every reported attribute shares the result.
+ */
+@Immutable
+final class BucketSnapshot
+{
+    static final List<Double> QUANTILES = ImmutableList.of(0.5, 0.75, 0.90, 0.95, 0.99);
+    static final double NANOSECONDS_PER_SECOND = 1_000_000_000.0;
+
+    private final double count;
+    private final long total;
+    private final long p50;
+    private final long p75;
+    private final long p90;
+    private final long p95;
+    private final long p99;
+    private final long min;
+    private final long max;
+    private final HistogramValue histogram;
+
+    /**
+     * @param scale the divisor converting values to the unit the histogram
+     * is exported in
+     */
+    BucketSnapshot(Digest digest, long total, HistogramBuckets histogramBuckets, double scale)
+    {
+        List<Long> quantiles = digest.getQuantiles(QUANTILES);
+        this.count = digest.getCount();
+        this.total = total;
+        this.p50 = quantiles.get(0);
+        this.p75 = quantiles.get(1);
+        this.p90 = quantiles.get(2);
+        this.p95 = quantiles.get(3);
+        this.p99 = quantiles.get(4);
+        this.min = digest.getMin();
+        this.max = digest.getMax();
+        this.histogram = histogramBuckets.histogram(digest, total, scale);
+    }
+
+    /**
+     * @param quantiles the values at {@link #QUANTILES}
+     */
+    BucketSnapshot(double count, long total, long[] quantiles, long min, long max, HistogramValue histogram)
+    {
+        this.count = count;
+        this.total = total;
+        this.p50 = quantiles[0];
+        this.p75 = quantiles[1];
+        this.p90 = quantiles[2];
+        this.p95 = quantiles[3];
+        this.p99 = quantiles[4];
+        this.min = min;
+        this.max = max;
+        this.histogram = histogram;
+    }
+
+    double getCount()
+    {
+        return count;
+    }
+
+    long getTotal()
+    {
+        return total;
+    }
+
+    long getP50()
+    {
+        return p50;
+    }
+
+    long getP75()
+    {
+        return p75;
+    }
+
+    long getP90()
+    {
+        return p90;
+    }
+
+    long getP95()
+    {
+        return p95;
+    }
+
+    long getP99()
+    {
+        return p99;
+    }
+
+    long getMin()
+    {
+        return min;
+    }
+
+    long getMax()
+    {
+        return max;
+    }
+
+    HistogramValue getHistogram()
+    {
+        return histogram;
+    }
+}
@@ -20,6 +20,8 @@ import com.proofpoint.reporting.Bucketed;
 import com.proofpoint.reporting.Reported;
 import com.proofpoint.stats.BucketedCounter.Counter;
 
+import java.util.concurrent.atomic.DoubleAdder;
+
 public final class BucketedCounter
     extends Bucketed<Counter>
 {
@@ -31,7 +33,7 @@ public final class BucketedCounter
     public void add(final double count)
     {
         applyToCurrentBucket((Function<Counter, Void>) input -> {
-            input.count += count;
+            input.count.add(count);
             return null;
         });
     }
@@ -44,12 +46,12 @@ public final class BucketedCounter
 
     protected static class Counter
     {
-        private double count = 0;
+        private final DoubleAdder count = new DoubleAdder();
 
         @Reported
         public double getCount()
         {
-            return count;
+            return count.sum();
         }
     }
 }
@@ -17,13 +17,36 @@ package com.proofpoint.stats;
 
 import com.google.common.base.Function;
 import com.proofpoint.reporting.Bucketed;
+import com.proofpoint.reporting.Histogram;
+import com.proofpoint.reporting.HistogramValue;
 import com.proofpoint.reporting.Reported;
 
 import javax.annotation.concurrent.GuardedBy;
 
+import static java.util.Objects.requireNonNull;
+
 public final class BucketedDistribution
     extends Bucketed<BucketedDistribution.Distribution>
 {
+    private final DigestType digestType;
+    private final HistogramBuckets histogramBuckets;
+
+    public BucketedDistribution()
+    {
+        this(DigestType.QUANTILE_DIGEST);
+    }
+
+    public BucketedDistribution(DigestType digestType)
+    {
+        this(digestType, HistogramBuckets.DEFAULT_BUCKETS);
+    }
+
+    public BucketedDistribution(DigestType digestType, HistogramBuckets histogramBuckets)
+    {
+        this.digestType = requireNonNull(digestType, "digestType is null");
+        this.histogramBuckets = requireNonNull(histogramBuckets, "histogramBuckets is null");
+    }
+
     public void add(final long value)
     {
         applyToCurrentBucket((Function<Distribution, Void>) input -> {
@@ -38,7 +61,7 @@ public final class BucketedDistribution
     @Override
     protected Distribution createBucket(Distribution previousBucket)
     {
-        return new Distribution();
+        return new Distribution(digestType, histogramBuckets);
     }
 
     protected static class Distribution
@@ -46,63 +69,88 @@ public final class BucketedDistribution
         private static final double MAX_ERROR = 0.01;
     
         @GuardedBy("this")
-        private final QuantileDigest digest = new QuantileDigest(MAX_ERROR);
+        private final Digest digest;
 
         @GuardedBy("this")
         private long total = 0;
 
+        private final HistogramBuckets histogramBuckets;
+
+        @GuardedBy("this")
+        private BucketSnapshot snapshot = null;
+
+        Distribution(DigestType digestType, HistogramBuckets histogramBuckets)
+        {
+            digest = digestType.create(MAX_ERROR, 0.0);
+            this.histogramBuckets = histogramBuckets;
+        }
+
+        private synchronized BucketSnapshot snapshot()
+        {
+            if (snapshot == null) {
+                snapshot = new BucketSnapshot(digest, total, histogramBuckets, 1);
+            }
+            return snapshot;
+        }
+
         @Reported
-        public synchronized double getCount()
+        public double getCount()
         {
-            return digest.getCount();
+            return snapshot().getCount();
         }
 
         @Reported
-        public synchronized long getTotal()
+        public long getTotal()
         {
-            return total;
+            return snapshot().getTotal();
         }
     
         @Reported
-        public synchronized long getP50()
+        public long getP50()
         {
-            return digest.getQuantile(0.5);
+            return snapshot().getP50();
         }
     
         @Reported
-        public synchronized long getP75()
+        public long getP75()
         {
-            return digest.getQuantile(0.75);
+            return snapshot().getP75();
         }
     
         @Reported
-        public synchronized long getP90()
+        public long getP90()
         {
-            return digest.getQuantile(0.90);
+            return snapshot().getP90();
         }
     
         @Reported
-        public synchronized long getP95()
+        public long getP95()
         {
-            return digest.getQuantile(0.95);
+            return snapshot().getP95();
         }
     
         @Reported
-        public synchronized long getP99()
+        public long getP99()
         {
-            return digest.getQuantile(0.99);
+            return snapshot().getP99();
         }
     
         @Reported
-        public synchronized long getMin()
+        public long getMin()
         {
-            return digest.getMin();
+            return snapshot().getMin();
         }
     
         @Reported
-        public synchronized long getMax()
+        public long getMax()
+        {
+            return snapshot().getMax();
+        }
+
+        @Histogram
+        public HistogramValue getHistogram()
         {
-            return digest.getMax();
+            return snapshot().getHistogram();
         }
     }
 }
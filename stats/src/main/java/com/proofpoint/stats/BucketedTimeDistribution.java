@@ -17,13 +17,36 @@ package com.proofpoint.stats;
 
 import com.google.common.base.Function;
 import com.proofpoint.reporting.Bucketed;
+import com.proofpoint.reporting.Histogram;
+import com.proofpoint.reporting.HistogramValue;
 import com.proofpoint.reporting.Reported;
 
 import javax.annotation.concurrent.GuardedBy;
 
+import static java.util.Objects.requireNonNull;
+
 public final class BucketedTimeDistribution
     extends Bucketed<BucketedTimeDistribution.Distribution>
 {
+    private final DigestType digestType;
+    private final HistogramBuckets histogramBuckets;
+
+    public BucketedTimeDistribution()
+    {
+        this(DigestType.QUANTILE_DIGEST);
+    }
+
+    public BucketedTimeDistribution(DigestType digestType)
+    {
+        this(digestType, HistogramBuckets.DEFAULT_TIME_BUCKETS);
+    }
+
+    public BucketedTimeDistribution(DigestType digestType, HistogramBuckets histogramBuckets)
+    {
+        this.digestType = requireNonNull(digestType, "digestType is null");
+        this.histogramBuckets = requireNonNull(histogramBuckets, "histogramBuckets is null");
+    }
+
     public void add(final long value)
     {
         applyToCurrentBucket((Function<Distribution, Void>) input -> {
@@ -38,7 +61,7 @@ public final class BucketedTimeDistribution
     @Override
     protected Distribution createBucket(Distribution previousBucket)
     {
-        return new Distribution();
+        return new Distribution(digestType, histogramBuckets);
     }
 
     protected static class Distribution
@@ -46,62 +69,87 @@ public final class BucketedTimeDistribution
         private static final double MAX_ERROR = 0.01;
 
         @GuardedBy("this")
-        private final QuantileDigest digest = new QuantileDigest(MAX_ERROR);
+        private final Digest digest;
 
         @GuardedBy("this")
         private long total = 0;
 
+        private final HistogramBuckets histogramBuckets;
+
+        @GuardedBy("this")
+        private BucketSnapshot snapshot = null;
+
+        Distribution(DigestType digestType, HistogramBuckets histogramBuckets)
+        {
+            digest = digestType.create(MAX_ERROR, 0.0);
+            this.histogramBuckets = histogramBuckets;
+        }
+
+        private synchronized BucketSnapshot snapshot()
+        {
+            if (snapshot == null) {
+                snapshot = new BucketSnapshot(digest, total, histogramBuckets, BucketSnapshot.NANOSECONDS_PER_SECOND);
+            }
+            return snapshot;
+        }
+
         @Reported
-        public synchronized double getCount()
+        public double getCount()
         {
-            return digest.getCount();
+            return snapshot().getCount();
         }
 
         @Reported
-        public synchronized double getTotal() {
-            return convertToSeconds(total);
+        public double getTotal() {
+            return convertToSeconds(snapshot().getTotal());
         }
 
         @Reported
-        public synchronized double getP50()
+        public double getP50()
         {
-            return convertToSeconds(digest.getQuantile(0.5));
+            return convertToSeconds(snapshot().getP50());
         }
 
         @Reported
-        public synchronized double getP75()
+        public double getP75()
         {
-            return convertToSeconds(digest.getQuantile(0.75));
+            return convertToSeconds(snapshot().getP75());
         }
 
         @Reported
-        public synchronized double getP90()
+        public double getP90()
         {
-            return convertToSeconds(digest.getQuantile(0.90));
+            return convertToSeconds(snapshot().getP90());
         }
 
         @Reported
-        public synchronized double getP95()
+        public double getP95()
         {
-            return convertToSeconds(digest.getQuantile(0.95));
+            return convertToSeconds(snapshot().getP95());
         }
 
         @Reported
-        public synchronized double getP99()
+        public double getP99()
         {
-            return convertToSeconds(digest.getQuantile(0.99));
+            return convertToSeconds(snapshot().getP99());
         }
 
         @Reported
-        public synchronized double getMin()
+        public double getMin()
         {
-            return convertToSeconds(digest.getMin());
+            return convertToSeconds(snapshot().getMin());
         }
 
         @Reported
-        public synchronized double getMax()
+        public double getMax()
+        {
+            return convertToSeconds(snapshot().getMax());
+        }
+
+        @Histogram
+        public HistogramValue getHistogram()
         {
-            return convertToSeconds(digest.getMax());
+            return snapshot().getHistogram();
         }
 
         private static double convertToSeconds(long nanos)
@@ -17,18 +17,19 @@ package com.proofpoint.stats;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.proofpoint.reporting.Counter;
 import com.proofpoint.stats.DecayCounter.DecayCounterSnapshot;
 import org.weakref.jmx.Flatten;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import static java.util.Objects.requireNonNull;
 
 public class CounterStat
 {
-    private final AtomicLong count = new AtomicLong(0);
+    private final LongAdder count = new LongAdder();
     private final DecayCounter oneMinute = new DecayCounter(ExponentialDecay.oneMinute());
     private final DecayCounter fiveMinute = new DecayCounter(ExponentialDecay.fiveMinutes());
     private final DecayCounter fifteenMinute = new DecayCounter(ExponentialDecay.fifteenMinutes());
@@ -40,7 +41,7 @@ public class CounterStat
         fiveMinute.add(count);
         fifteenMinute.add(count);
         bucket.add(count);
-        this.count.addAndGet(count);
+        this.count.add(count);
     }
 
     /**
@@ -53,7 +54,7 @@ public class CounterStat
         fiveMinute.add(count);
         fifteenMinute.add(count);
         bucket.add(count);
-        this.count.addAndGet(count);
+        this.count.add(count);
     }
 
     public void merge(CounterStat counterStat)
@@ -62,7 +63,7 @@ public class CounterStat
         oneMinute.merge(counterStat.getOneMinute());
         fiveMinute.merge(counterStat.getFiveMinute());
         fifteenMinute.merge(counterStat.getFifteenMinute());
-        count.addAndGet(counterStat.getTotalCount());
+        count.add(counterStat.getTotalCount());
     }
 
     @Managed
@@ -71,7 +72,7 @@ public class CounterStat
         oneMinute.reset();
         fiveMinute.reset();
         fifteenMinute.reset();
-        count.set(0);
+        count.reset();
     }
 
     /**
@@ -83,13 +84,14 @@ public class CounterStat
         oneMinute.resetTo(counterStat.getOneMinute());
         fiveMinute.resetTo(counterStat.getFiveMinute());
         fifteenMinute.resetTo(counterStat.getFifteenMinute());
-        count.set(counterStat.getTotalCount());
+        count.reset();
+        count.add(counterStat.getTotalCount());
     }
 
-    @Managed
+    @Counter
     public long getTotalCount()
     {
-        return count.get();
+        return count.sum();
     }
 
     @Nested
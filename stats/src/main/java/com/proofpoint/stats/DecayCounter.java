@@ -5,7 +5,9 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Ticker;
 import org.weakref.jmx.Managed;
 
+import javax.annotation.concurrent.GuardedBy;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -17,7 +19,17 @@ import static java.util.Objects.requireNonNull;
  *
  * The implementation is based on the ideas from
  * http://www.research.att.com/people/Cormode_Graham/library/publications/CormodeShkapenyukSrivastavaXu09.pdf
- * to not have to rely on a timer that decays the value periodically
+ * to not have to rely on a timer that decays the value periodically.
+ *
+ * Values added in the same second of the ticker have the same weight, so
+ * {@link #add(double)} accumulates them into a striped adder for that second
+ * without locking and without computing the weight. The adder is weighted
+ * and folded into the decayed count when a later second is first seen and on
+ * read, and is then replaced by a new adder for the later second. Each value
+ * is weighted at a second read from the ticker during its add call, so the
+ * result is the same as weighting every value individually, however long the
+ * adding thread is descheduled. A thread that adds to an adder after
+ * it was replaced folds the late value itself, so no value is lost.
  */
 public final class DecayCounter
 {
@@ -27,7 +39,12 @@ public final class DecayCounter
     private final double alpha;
     private final Ticker ticker;
 
+    // the values added through the lock-free path in the latest second
+    private volatile Pending pending;
+
+    @GuardedBy("this")
     private long landmarkInSeconds;
+    @GuardedBy("this")
     private double count = 0.0;
 
     public DecayCounter(double alpha)
@@ -41,6 +58,7 @@ public final class DecayCounter
         this.alpha = alpha;
         this.ticker = ticker;
         landmarkInSeconds = getTickInSeconds();
+        pending = new Pending(landmarkInSeconds);
     }
 
     public void add(long value)
@@ -48,14 +66,76 @@ public final class DecayCounter
         add((double) value);
     }
 
-    public synchronized void add(double value)
+    public void add(double value)
     {
+        Pending current = pending;
+        // read after the adder, so the adder's second is not later than now
         long nowInSeconds = getTickInSeconds();
+        while (nowInSeconds > current.second) {
+            foldPending(nowInSeconds);
+            current = pending;
+        }
+        current.sum.add(value);
+        if (current.replaced) {
+            // the fold that replaced the adder may not have seen the value
+            foldReplaced(current);
+        }
+    }
+
+    /**
+     * Adds a value weighted as if it had been added at the given tick of the
+     * counter's ticker, in seconds.
+     */
+    synchronized void add(double value, long timestampInSeconds)
+    {
+        foldPending(pending.second);
+        addWeighted(value, timestampInSeconds);
+    }
 
-        if (nowInSeconds - landmarkInSeconds >= RESCALE_THRESHOLD_SECONDS) {
-            rescaleToNewLandmark(nowInSeconds);
+    @GuardedBy("this")
+    private void addWeighted(double value, long timestampInSeconds)
+    {
+        if (timestampInSeconds - landmarkInSeconds >= RESCALE_THRESHOLD_SECONDS) {
+            rescaleToNewLandmark(timestampInSeconds);
+        }
+        count += value * weight(timestampInSeconds, landmarkInSeconds);
+    }
+
+    /**
+     * Weights the values accumulated since the last fold as added in the
+     * pending second, and replaces the adder if the given second is later.
+     */
+    private synchronized void foldPending(long nowInSeconds)
+    {
+        Pending current = pending;
+        if (nowInSeconds > current.second) {
+            // set before reading the sum: an add either is seen by the
+            // fold below or sees the flag and folds its value itself
+            current.replaced = true;
+            pending = new Pending(nowInSeconds);
+        }
+        foldDelta(current);
+    }
+
+    private synchronized void foldReplaced(Pending replaced)
+    {
+        foldDelta(replaced);
+    }
+
+    @GuardedBy("this")
+    private void foldDelta(Pending folding)
+    {
+        if (folding.discarded) {
+            return;
+        }
+        // each adder only holds one second of values, so small values are
+        // not lost to the precision of an ever-growing running total
+        double sum = folding.sum.sum();
+        double delta = sum - folding.folded;
+        if (delta != 0.0) {
+            folding.folded = sum;
+            addWeighted(delta, folding.second);
         }
-        count += value * weight(nowInSeconds, landmarkInSeconds);
     }
 
     public synchronized void merge(DecayCounter decayCounter)
@@ -63,7 +143,9 @@ public final class DecayCounter
         requireNonNull(decayCounter, "decayCounter is null");
         checkArgument(decayCounter.alpha == alpha, "Expected decayCounter to have alpha %s, but was %s", alpha, decayCounter.alpha);
 
+        foldPending(pending.second);
         synchronized (decayCounter) {
+            decayCounter.foldPending(decayCounter.pending.second);
             // if the landmark this counter is behind the other counter
             if (landmarkInSeconds < decayCounter.landmarkInSeconds) {
                 // rescale this counter to the other counter, and add
@@ -77,6 +159,7 @@ public final class DecayCounter
         }
     }
 
+    @GuardedBy("this")
     private void rescaleToNewLandmark(long newLandMarkInSeconds)
     {
         // rescale the count based on a new landmark to avoid numerical overflow issues
@@ -88,6 +171,11 @@ public final class DecayCounter
     public synchronized void reset()
     {
         landmarkInSeconds = getTickInSeconds();
+        // values added to the old adder after this are discarded with it
+        Pending discarded = pending;
+        discarded.replaced = true;
+        discarded.discarded = true;
+        pending = new Pending(landmarkInSeconds);
         count = 0;
     }
 
@@ -97,7 +185,9 @@ public final class DecayCounter
     @Deprecated
     public synchronized void resetTo(DecayCounter counter)
     {
+        foldPending(pending.second);
         synchronized (counter) {
+            counter.foldPending(counter.pending.second);
             landmarkInSeconds = counter.landmarkInSeconds;
             count = counter.count;
         }
@@ -107,6 +197,7 @@ public final class DecayCounter
     public synchronized double getCount()
     {
         long nowInSeconds = getTickInSeconds();
+        foldPending(nowInSeconds);
         return count / weight(nowInSeconds, landmarkInSeconds);
     }
 
@@ -148,6 +239,21 @@ public final class DecayCounter
                 .toString();
     }
 
+    private static class Pending
+    {
+        private final long second;
+        private final DoubleAdder sum = new DoubleAdder();
+        private volatile boolean replaced;
+        // guarded by the counter
+        private double folded;
+        private boolean discarded;
+
+        Pending(long second)
+        {
+            this.second = second;
+        }
+    }
+
     public static class DecayCounterSnapshot
     {
         private final double count;
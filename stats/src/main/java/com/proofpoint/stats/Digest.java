@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.proofpoint.stats.QuantileDigest.Bucket;
+
+import java.util.List;
+
+/**
+ * The operations the distribution stats need from their backing store.
+ * Implemented by {@link QuantileDigest} and {@link LogLinearHistogram}.
+ */
+interface Digest
+{
+    void add(long value);
+
+    void add(long value, long count);
+
+    /**
+     * Adds a value, weighted as if it had been added at the given tick of the
+     * digest's ticker, in seconds.
+     */
+    void add(long value, long count, long timestampInSeconds);
+
+    double getCount();
+
+    long getQuantile(double quantile);
+
+    List<Long> getQuantiles(List<Double> quantiles);
+
+    long getMin();
+
+    long getMax();
+
+    double getConfidenceFactor();
+
+    List<Bucket> getHistogram(List<Long> bucketUpperBounds);
+
+    Digest copy();
+}
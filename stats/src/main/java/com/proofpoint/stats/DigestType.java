@@ -0,0 +1,66 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.google.common.base.Ticker;
+
+/**
+ * Selects the data structure a distribution stat uses to approximate
+ * quantiles.
+ */
+public enum DigestType
+{
+    /**
+     * {@link QuantileDigest}: the error is bounded in rank. Compact when the
+     * values are few or tightly clustered.
+     */
+    QUANTILE_DIGEST {
+        @Override
+        Digest create(double maxError, double alpha)
+        {
+            return new QuantileDigest(maxError, alpha);
+        }
+
+        @Override
+        Digest create(double maxError, double alpha, Ticker ticker)
+        {
+            return new QuantileDigest(maxError, alpha, ticker);
+        }
+    },
+
+    /**
+     * {@link LogLinearHistogram}: the error is bounded relative to the value.
+     * Adding a value does not allocate and merging is a bucket-wise sum,
+     * which suits high-volume latency stats.
+     */
+    LOG_LINEAR_HISTOGRAM {
+        @Override
+        Digest create(double maxError, double alpha)
+        {
+            return new LogLinearHistogram(maxError, alpha);
+        }
+
+        @Override
+        Digest create(double maxError, double alpha, Ticker ticker)
+        {
+            return new LogLinearHistogram(maxError, alpha, ticker);
+        }
+    };
+
+    abstract Digest create(double maxError, double alpha);
+
+    abstract Digest create(double maxError, double alpha, Ticker ticker);
+}
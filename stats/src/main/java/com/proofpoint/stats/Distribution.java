@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 import org.weakref.jmx.Managed;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 import java.util.ArrayList;
@@ -20,30 +21,50 @@ public class Distribution
     private static final double MAX_ERROR = 0.01;
 
     @GuardedBy("this")
-    private final QuantileDigest digest;
+    private final Digest digest;
 
     @GuardedBy("this")
     private final DecayCounter total;
 
+    @Nullable
+    private final StripedRecorder recorder;
+
     public Distribution()
     {
-        digest = new QuantileDigest(MAX_ERROR);
-        total = new DecayCounter(0);
+        this(0.0, DigestType.QUANTILE_DIGEST, null);
     }
 
     public Distribution(double alpha)
     {
-        digest = new QuantileDigest(MAX_ERROR, alpha);
+        this(alpha, DigestType.QUANTILE_DIGEST, null);
+    }
+
+    public Distribution(DigestType digestType)
+    {
+        this(0.0, digestType, null);
+    }
+
+    public Distribution(double alpha, DigestType digestType)
+    {
+        this(alpha, digestType, null);
+    }
+
+    Distribution(double alpha, DigestType digestType, @Nullable StripedRecorder recorder)
+    {
+        digest = digestType.create(MAX_ERROR, alpha);
         total = new DecayCounter(alpha);
+        this.recorder = recorder;
     }
 
     public Distribution(Distribution distribution)
     {
+        distribution.flush();
         synchronized (distribution) {
-            digest = new QuantileDigest(distribution.digest);
+            digest = distribution.digest.copy();
         }
         total = new DecayCounter(distribution.total.getAlpha());
         total.merge(distribution.total);
+        recorder = null;
     }
 
     public synchronized void add(long value)
@@ -52,6 +73,14 @@ public class Distribution
         total.add(value);
     }
 
+    synchronized void add(long[] values, int size, long timestampInSeconds)
+    {
+        for (int i = 0; i < size; i++) {
+            digest.add(values[i], 1, timestampInSeconds);
+            total.add(values[i], timestampInSeconds);
+        }
+    }
+
     public synchronized void add(long value, long count)
     {
         digest.add(value, count);
@@ -59,87 +88,129 @@ public class Distribution
     }
 
     @Managed
-    public synchronized double getMaxError()
+    public double getMaxError()
     {
-        return digest.getConfidenceFactor();
+        flush();
+        synchronized (this) {
+            return digest.getConfidenceFactor();
+        }
     }
 
     @Managed
-    public synchronized double getCount()
+    public double getCount()
     {
-        return digest.getCount();
+        flush();
+        synchronized (this) {
+            return digest.getCount();
+        }
     }
 
     @Managed
-    public synchronized double getTotal()
+    public double getTotal()
     {
-        return total.getCount();
+        flush();
+        synchronized (this) {
+            return total.getCount();
+        }
     }
 
     @Managed
-    public synchronized long getP01()
+    public long getP01()
     {
-        return digest.getQuantile(0.01);
+        flush();
+        synchronized (this) {
+            return digest.getQuantile(0.01);
+        }
     }
 
     @Managed
-    public synchronized long getP05()
+    public long getP05()
     {
-        return digest.getQuantile(0.05);
+        flush();
+        synchronized (this) {
+            return digest.getQuantile(0.05);
+        }
     }
 
     @Managed
-    public synchronized long getP10()
+    public long getP10()
     {
-        return digest.getQuantile(0.10);
+        flush();
+        synchronized (this) {
+            return digest.getQuantile(0.10);
+        }
     }
 
     @Managed
-    public synchronized long getP25()
+    public long getP25()
     {
-        return digest.getQuantile(0.25);
+        flush();
+        synchronized (this) {
+            return digest.getQuantile(0.25);
+        }
     }
 
     @Managed
-    public synchronized long getP50()
+    public long getP50()
     {
-        return digest.getQuantile(0.5);
+        flush();
+        synchronized (this) {
+            return digest.getQuantile(0.5);
+        }
     }
 
     @Managed
-    public synchronized long getP75()
+    public long getP75()
     {
-        return digest.getQuantile(0.75);
+        flush();
+        synchronized (this) {
+            return digest.getQuantile(0.75);
+        }
     }
 
     @Managed
-    public synchronized long getP90()
+    public long getP90()
     {
-        return digest.getQuantile(0.90);
+        flush();
+        synchronized (this) {
+            return digest.getQuantile(0.90);
+        }
     }
 
     @Managed
-    public synchronized long getP95()
+    public long getP95()
     {
-        return digest.getQuantile(0.95);
+        flush();
+        synchronized (this) {
+            return digest.getQuantile(0.95);
+        }
     }
 
     @Managed
-    public synchronized long getP99()
+    public long getP99()
     {
-        return digest.getQuantile(0.99);
+        flush();
+        synchronized (this) {
+            return digest.getQuantile(0.99);
+        }
     }
 
     @Managed
-    public synchronized long getMin()
+    public long getMin()
     {
-        return digest.getMin();
+        flush();
+        synchronized (this) {
+            return digest.getMin();
+        }
     }
 
     @Managed
-    public synchronized long getMax()
+    public long getMax()
     {
-        return digest.getMax();
+        flush();
+        synchronized (this) {
+            return digest.getMax();
+        }
     }
 
     @Managed
@@ -151,6 +222,7 @@ public class Distribution
         }
 
         List<Long> values;
+        flush();
         synchronized (this) {
             values = digest.getQuantiles(percentiles);
         }
@@ -163,29 +235,42 @@ public class Distribution
         return result;
     }
 
-    public synchronized List<Long> getPercentiles(List<Double> percentiles)
+    public List<Long> getPercentiles(List<Double> percentiles)
+    {
+        flush();
+        synchronized (this) {
+            return digest.getQuantiles(percentiles);
+        }
+    }
+
+    public DistributionSnapshot snapshot()
     {
-        return digest.getQuantiles(percentiles);
+        flush();
+        synchronized (this) {
+            List<Long> quantiles = digest.getQuantiles(ImmutableList.of(0.01, 0.05, 0.10, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99));
+            return new DistributionSnapshot(
+                    digest.getConfidenceFactor(),
+                    digest.getCount(),
+                    total.getCount(),
+                    quantiles.get(0),
+                    quantiles.get(1),
+                    quantiles.get(2),
+                    quantiles.get(3),
+                    quantiles.get(4),
+                    quantiles.get(5),
+                    quantiles.get(6),
+                    quantiles.get(7),
+                    quantiles.get(8),
+                    digest.getMin(),
+                    digest.getMax());
+        }
     }
 
-    public synchronized DistributionSnapshot snapshot()
+    private void flush()
     {
-        List<Long> quantiles = digest.getQuantiles(ImmutableList.of(0.01, 0.05, 0.10, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99));
-        return new DistributionSnapshot(
-                getMaxError(),
-                getCount(),
-                getTotal(),
-                quantiles.get(0),
-                quantiles.get(1),
-                quantiles.get(2),
-                quantiles.get(3),
-                quantiles.get(4),
-                quantiles.get(5),
-                quantiles.get(6),
-                quantiles.get(7),
-                quantiles.get(8),
-                getMin(),
-                getMax());
+        if (recorder != null) {
+            recorder.flush();
+        }
     }
 
     public static class DistributionSnapshot
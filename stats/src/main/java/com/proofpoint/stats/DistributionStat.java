@@ -14,25 +14,42 @@ public class DistributionStat
     private final Distribution fiveMinutes;
     private final Distribution fifteenMinutes;
     private final Distribution allTime;
-    private final BucketedDistribution bucket = new BucketedDistribution();
+    private final BucketedDistribution bucket;
+    private final StripedRecorder recorder = new StripedRecorder(this::addToDistributions);
 
     public DistributionStat()
     {
-        oneMinute = new Distribution(ExponentialDecay.oneMinute());
-        fiveMinutes = new Distribution(ExponentialDecay.fiveMinutes());
-        fifteenMinutes = new Distribution(ExponentialDecay.fifteenMinutes());
-        allTime = new Distribution();
+        this(DigestType.QUANTILE_DIGEST);
+    }
+
+    public DistributionStat(DigestType digestType)
+    {
+        this(digestType, HistogramBuckets.DEFAULT_BUCKETS);
+    }
+
+    public DistributionStat(DigestType digestType, HistogramBuckets histogramBuckets)
+    {
+        bucket = new BucketedDistribution(digestType, histogramBuckets);
+        oneMinute = new Distribution(ExponentialDecay.oneMinute(), digestType, recorder);
+        fiveMinutes = new Distribution(ExponentialDecay.fiveMinutes(), digestType, recorder);
+        fifteenMinutes = new Distribution(ExponentialDecay.fifteenMinutes(), digestType, recorder);
+        allTime = new Distribution(0.0, digestType, recorder);
     }
 
     public void add(long value)
     {
-        oneMinute.add(value);
-        fiveMinutes.add(value);
-        fifteenMinutes.add(value);
-        allTime.add(value);
+        recorder.add(value);
         bucket.add(value);
     }
 
+    private void addToDistributions(long[] values, int size, long timestampInSeconds)
+    {
+        oneMinute.add(values, size, timestampInSeconds);
+        fiveMinutes.add(values, size, timestampInSeconds);
+        fifteenMinutes.add(values, size, timestampInSeconds);
+        allTime.add(values, size, timestampInSeconds);
+    }
+
     @Nested
     public Distribution getOneMinute()
     {
@@ -0,0 +1,307 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.proofpoint.reporting.Gauge;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Fixed-size log-linear histograms for the buckets of many
+ * {@link SparseTimeStat}s, stored in shared slabs instead of one
+ * {@link QuantileDigest} per bucket.
+ * <p>
+ * Every slot has the same footprint regardless of how many values it holds.
+ * Values below 2<sup>40</sup> nanoseconds (about 18 minutes) are kept to the
+ * relative error given at construction; larger values are counted in the
+ * last bucket but still reported exactly as the maximum. A bucket only
+ * takes a slot once a value is added to it and returns the slot when it is
+ * no longer the previous bucket, so the arena grows with the number of
+ * stats updated in the current and previous minutes rather than the number
+ * of stats. Slots of buckets that are
+ * garbage collected without being closed are reclaimed on later
+ * allocations.
+ * <p>
+ * Callers must not access a slot concurrently; {@link SparseTimeStat} holds
+ * the bucket's lock.
+ */
+@ThreadSafe
+public final class HistogramArena
+{
+    private static final int MAX_VALUE_BITS = 40;
+    // 4 bits of precision: 592 buckets, about 2.4kB per slot; 1% would take 7 bits and 17kB
+    private static final double DEFAULT_MAX_ERROR = 0.0625;
+    private static final int DEFAULT_SLOTS_PER_SLAB = 256;
+    private static final HistogramArena DEFAULT_ARENA = new HistogramArena(DEFAULT_MAX_ERROR, DEFAULT_SLOTS_PER_SLAB);
+
+    private final int precisionBits;
+    private final int bucketCount;
+    private final int slotsPerSlab;
+    private final ReferenceQueue<Object> referenceQueue = new ReferenceQueue<>();
+
+    // replaced, never modified, when a slab is added
+    private volatile int[][] countSlabs = new int[0][];
+    private volatile long[][] rangeSlabs = new long[0][];
+
+    @GuardedBy("this")
+    private SlotReference[] references = new SlotReference[0];
+    @GuardedBy("this")
+    private int[] freeSlots = new int[0];
+    @GuardedBy("this")
+    private int freeSlotCount = 0;
+    @GuardedBy("this")
+    private int slotsInUse = 0;
+
+    /**
+     * Returns the arena shared by stats that do not specify one, which keeps
+     * percentiles to a relative error of 6.25%.
+     */
+    public static HistogramArena defaultArena()
+    {
+        return DEFAULT_ARENA;
+    }
+
+    /**
+     * @param maxError the maximum relative error of the reported percentiles
+     * @param slotsPerSlab the number of slots allocated at a time
+     */
+    public HistogramArena(double maxError, int slotsPerSlab)
+    {
+        checkArgument(maxError > 0 && maxError < 1, "maxError must be in range (0, 1)");
+        checkArgument(slotsPerSlab > 0, "slotsPerSlab must be > 0");
+
+        precisionBits = (int) Math.ceil(Math.log(1 / maxError) / Math.log(2));
+        checkArgument(precisionBits <= 16, "maxError must be >= 2^-16");
+        bucketCount = (MAX_VALUE_BITS - precisionBits + 1) << precisionBits;
+        this.slotsPerSlab = slotsPerSlab;
+    }
+
+    /**
+     * Takes a free slot for the owner. The slot is reclaimed if the owner is
+     * garbage collected before the slot is freed.
+     */
+    synchronized int allocate(Object owner)
+    {
+        reclaimUnreachableSlots();
+        if (freeSlotCount == 0) {
+            addSlab();
+        }
+        int slot = freeSlots[--freeSlotCount];
+        references[slot] = new SlotReference(owner, slot, referenceQueue);
+        ++slotsInUse;
+        return slot;
+    }
+
+    synchronized void free(int slot)
+    {
+        SlotReference reference = references[slot];
+        reference.clear();
+        references[slot] = null;
+        release(slot);
+    }
+
+    void add(int slot, long value)
+    {
+        int[] counts = countSlabs[slot / slotsPerSlab];
+        long[] ranges = rangeSlabs[slot / slotsPerSlab];
+        int slotInSlab = slot % slotsPerSlab;
+
+        counts[slotInSlab * bucketCount + bucketIndex(value)]++;
+        int rangeOffset = slotInSlab * 2;
+        if (value < ranges[rangeOffset]) {
+            ranges[rangeOffset] = value;
+        }
+        if (value > ranges[rangeOffset + 1]) {
+            ranges[rangeOffset + 1] = value;
+        }
+    }
+
+    /**
+     * Each value is counted in the first histogram bucket whose upper bound
+     * is at least the lower bound of the value's bucket in the slot, so the
+     * histogram has the arena's precision.
+     *
+     * @param slot the slot, or -1 for a bucket that never took one
+     * @param scale the divisor converting values to the unit the histogram
+     * is exported in
+     */
+    BucketSnapshot snapshot(int slot, long total, HistogramBuckets histogramBuckets, double scale)
+    {
+        long[] histogramCounts = new long[histogramBuckets.size() + 1];
+        if (slot == -1) {
+            long[] values = new long[BucketSnapshot.QUANTILES.size()];
+            Arrays.fill(values, Long.MIN_VALUE);
+            return new BucketSnapshot(0, total, values, Long.MAX_VALUE, Long.MIN_VALUE, histogramBuckets.histogram(histogramCounts, total, scale));
+        }
+
+        int[] counts = countSlabs[slot / slotsPerSlab];
+        long[] ranges = rangeSlabs[slot / slotsPerSlab];
+        int base = (slot % slotsPerSlab) * bucketCount;
+        long min = ranges[(slot % slotsPerSlab) * 2];
+        long max = ranges[(slot % slotsPerSlab) * 2 + 1];
+
+        long count = 0;
+        int histogramBucket = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            int valueCount = counts[base + i];
+            if (valueCount == 0) {
+                continue;
+            }
+            count += valueCount;
+            long lowerBound = i == 0 ? Long.MIN_VALUE : upperBound(i - 1) + 1;
+            while (histogramBucket < histogramBuckets.size() && histogramBuckets.getUpperBound(histogramBucket) < lowerBound) {
+                ++histogramBucket;
+            }
+            histogramCounts[histogramBucket] += valueCount;
+        }
+
+        List<Double> quantiles = BucketSnapshot.QUANTILES;
+        long[] values = new long[quantiles.size()];
+        Arrays.fill(values, max);
+        int quantileIndex = 0;
+        long sum = 0;
+        for (int i = 0; i < bucketCount && quantileIndex < values.length; i++) {
+            sum += counts[base + i];
+            while (quantileIndex < values.length && sum > quantiles.get(quantileIndex) * count) {
+                values[quantileIndex++] = Math.min(upperBound(i), max);
+            }
+        }
+
+        return new BucketSnapshot(count, total, values, min, max, histogramBuckets.histogram(histogramCounts, total, scale));
+    }
+
+    @Gauge
+    public synchronized long getAllocatedBytes()
+    {
+        return (long) countSlabs.length * slotsPerSlab * ((long) bucketCount * Integer.BYTES + 2 * Long.BYTES);
+    }
+
+    @Gauge
+    public synchronized int getSlotsInUse()
+    {
+        reclaimUnreachableSlots();
+        return slotsInUse;
+    }
+
+    @Gauge
+    public synchronized int getSlotCapacity()
+    {
+        return countSlabs.length * slotsPerSlab;
+    }
+
+    @VisibleForTesting
+    int bucketIndex(long value)
+    {
+        if (value < 0) {
+            return 0;
+        }
+        if (value < (1L << precisionBits)) {
+            return (int) value;
+        }
+        if (value >= (1L << MAX_VALUE_BITS)) {
+            return bucketCount - 1;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - precisionBits;
+        return ((shift + 1) << precisionBits) + (int) ((value >>> shift) - (1L << precisionBits));
+    }
+
+    @VisibleForTesting
+    long upperBound(int index)
+    {
+        if (index == bucketCount - 1) {
+            return Long.MAX_VALUE;
+        }
+        if (index < (1 << precisionBits)) {
+            return index;
+        }
+        int shift = (index >>> precisionBits) - 1;
+        long subBucket = (1L << precisionBits) + (index & ((1 << precisionBits) - 1));
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    @GuardedBy("this")
+    private void addSlab()
+    {
+        int firstSlot = countSlabs.length * slotsPerSlab;
+
+        long[] ranges = new long[slotsPerSlab * 2];
+        for (int i = 0; i < slotsPerSlab; i++) {
+            ranges[i * 2] = Long.MAX_VALUE;
+            ranges[i * 2 + 1] = Long.MIN_VALUE;
+        }
+        int[][] newCountSlabs = Arrays.copyOf(countSlabs, countSlabs.length + 1);
+        newCountSlabs[countSlabs.length] = new int[slotsPerSlab * bucketCount];
+        long[][] newRangeSlabs = Arrays.copyOf(rangeSlabs, rangeSlabs.length + 1);
+        newRangeSlabs[rangeSlabs.length] = ranges;
+        rangeSlabs = newRangeSlabs;
+        countSlabs = newCountSlabs;
+
+        references = Arrays.copyOf(references, firstSlot + slotsPerSlab);
+        freeSlots = Arrays.copyOf(freeSlots, firstSlot + slotsPerSlab);
+        // hand out the lowest slots first
+        for (int slot = firstSlot + slotsPerSlab - 1; slot >= firstSlot; slot--) {
+            freeSlots[freeSlotCount++] = slot;
+        }
+    }
+
+    @GuardedBy("this")
+    private void reclaimUnreachableSlots()
+    {
+        Reference<?> reference;
+        while ((reference = referenceQueue.poll()) != null) {
+            int slot = ((SlotReference) reference).slot;
+            if (references[slot] == reference) {
+                references[slot] = null;
+                release(slot);
+            }
+        }
+    }
+
+    @GuardedBy("this")
+    private void release(int slot)
+    {
+        int[] counts = countSlabs[slot / slotsPerSlab];
+        long[] ranges = rangeSlabs[slot / slotsPerSlab];
+        int slotInSlab = slot % slotsPerSlab;
+        Arrays.fill(counts, slotInSlab * bucketCount, (slotInSlab + 1) * bucketCount, 0);
+        ranges[slotInSlab * 2] = Long.MAX_VALUE;
+        ranges[slotInSlab * 2 + 1] = Long.MIN_VALUE;
+
+        freeSlots[freeSlotCount++] = slot;
+        --slotsInUse;
+    }
+
+    private static class SlotReference
+            extends PhantomReference<Object>
+    {
+        private final int slot;
+
+        SlotReference(Object owner, int slot, ReferenceQueue<Object> queue)
+        {
+            super(owner, queue);
+            this.slot = slot;
+        }
+    }
+}
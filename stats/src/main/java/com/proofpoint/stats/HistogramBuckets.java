@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.google.common.collect.ImmutableList;
+import com.proofpoint.reporting.HistogramValue;
+import com.proofpoint.stats.QuantileDigest.Bucket;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.proofpoint.reporting.HistogramValue.histogramValue;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * The bucket upper bounds of the histogram a distribution stat exposes to
+ * Prometheus, in the units of the values added to the stat. The bucket
+ * counts are computed once per stat bucket, when it is first read after
+ * rotation, and every instance of a stat should use the same bounds so
+ * that their histograms can be aggregated.
+ */
+@Immutable
+public final class HistogramBuckets
+{
+    /**
+     * 1 millisecond to about 16 seconds, for time stats.
+     */
+    static final HistogramBuckets DEFAULT_TIME_BUCKETS = exponentialBuckets(MILLISECONDS.toNanos(1), 2, 15);
+
+    /**
+     * 1 to about 10<sup>9</sup>, for other distribution stats.
+     */
+    static final HistogramBuckets DEFAULT_BUCKETS = exponentialBuckets(1, 4, 16);
+
+    private final List<Long> upperBounds;
+    // Digest histograms count the values less than each bound
+    private final List<Long> digestUpperBounds;
+
+    private HistogramBuckets(List<Long> upperBounds)
+    {
+        checkArgument(!upperBounds.isEmpty(), "upperBounds is empty");
+        ImmutableList.Builder<Long> digestUpperBounds = ImmutableList.builder();
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < upperBounds.size(); i++) {
+            long upperBound = upperBounds.get(i);
+            checkArgument(i == 0 || upperBound > previous, "upperBounds must be strictly increasing");
+            checkArgument(upperBound < Long.MAX_VALUE, "upperBounds must be less than Long.MAX_VALUE");
+            digestUpperBounds.add(upperBound + 1);
+            previous = upperBound;
+        }
+        this.upperBounds = ImmutableList.copyOf(upperBounds);
+        this.digestUpperBounds = digestUpperBounds.build();
+    }
+
+    /**
+     * @param start the upper bound of the first bucket
+     * @param factor the ratio between the upper bounds of adjacent buckets
+     * @param count the number of buckets, not including the implicit
+     * {@code +Inf} bucket
+     */
+    public static HistogramBuckets exponentialBuckets(long start, double factor, int count)
+    {
+        checkArgument(start > 0, "start must be > 0");
+        checkArgument(factor > 1, "factor must be > 1");
+        checkArgument(count > 0, "count must be > 0");
+        ImmutableList.Builder<Long> upperBounds = ImmutableList.builder();
+        for (int i = 0; i < count; i++) {
+            upperBounds.add(Math.round(start * Math.pow(factor, i)));
+        }
+        return new HistogramBuckets(upperBounds.build());
+    }
+
+    /**
+     * @param upperBounds the inclusive upper bounds of the buckets, in
+     * increasing order, not including the implicit {@code +Inf} bucket
+     */
+    public static HistogramBuckets explicitBuckets(long... upperBounds)
+    {
+        ImmutableList.Builder<Long> builder = ImmutableList.builder();
+        for (long upperBound : upperBounds) {
+            builder.add(upperBound);
+        }
+        return new HistogramBuckets(builder.build());
+    }
+
+    public List<Long> getUpperBounds()
+    {
+        return upperBounds;
+    }
+
+    int size()
+    {
+        return upperBounds.size();
+    }
+
+    long getUpperBound(int index)
+    {
+        return upperBounds.get(index);
+    }
+
+    /**
+     * @param scale the divisor converting values to the exported unit
+     */
+    HistogramValue histogram(Digest digest, long total, double scale)
+    {
+        List<Bucket> buckets = digest.getHistogram(digestUpperBounds);
+        long[] bucketCounts = new long[upperBounds.size() + 1];
+        long count = 0;
+        for (int i = 0; i < buckets.size(); i++) {
+            bucketCounts[i] = Math.round(buckets.get(i).getCount());
+            count += bucketCounts[i];
+        }
+        bucketCounts[upperBounds.size()] = Math.max(Math.round(digest.getCount()) - count, 0);
+        return histogram(bucketCounts, total, scale);
+    }
+
+    /**
+     * @param bucketCounts the number of values in each bucket, followed by
+     * the number of values greater than the last upper bound
+     * @param scale the divisor converting values to the exported unit
+     */
+    HistogramValue histogram(long[] bucketCounts, long total, double scale)
+    {
+        ImmutableList.Builder<Double> scaledUpperBounds = ImmutableList.builder();
+        for (long upperBound : upperBounds) {
+            scaledUpperBounds.add(upperBound / scale);
+        }
+        return histogramValue(scaledUpperBounds.build(), bucketCounts, total / scale);
+    }
+}
@@ -0,0 +1,513 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+import com.proofpoint.stats.QuantileDigest.Bucket;
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.SizeOf;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import org.openjdk.jol.info.ClassLayout;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * <p>A histogram with log-linear buckets, in the style of HdrHistogram. Every
+ * power-of-two range of values is divided into 2<sup>p</sup> equal-width
+ * buckets, so any value returned for a quantile is within a relative error of
+ * 2<sup>-p</sup> of a value at that rank. Values below 2<sup>p</sup> are
+ * counted exactly.</p>
+ *
+ * <p>Unlike {@link QuantileDigest}, adding a value does not allocate once the
+ * range of values seen has been established, merging two histograms is a
+ * bucket-wise sum and the serialized form is the list of non-empty buckets.
+ * The trade-off is that the error bound is on the value rather than on the
+ * rank.</p>
+ *
+ * <p>Exponential decay is supported in the same way as {@link QuantileDigest}:
+ * counts are weighted relative to a landmark that is periodically moved
+ * forward.</p>
+ */
+@NotThreadSafe
+public class LogLinearHistogram
+        implements Digest
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(LogLinearHistogram.class).instanceSize();
+    private static final byte FORMAT = 0;
+    private static final int MAX_PRECISION_BITS = 16;
+    private static final double[] EMPTY = new double[0];
+
+    private final int precisionBits;
+    private final double alpha;
+    private final Ticker ticker;
+    private long landmarkInSeconds;
+
+    // counts[i] holds the weighted count of bucket (offset + i)
+    private double[] counts = EMPTY;
+    private int offset;
+    private double weightedCount;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Create a histogram with a maximum relative error of "maxError" and no decay.
+     *
+     * @param maxError the max relative error tolerance
+     */
+    public LogLinearHistogram(double maxError)
+    {
+        this(maxError, 0.0);
+    }
+
+    /**
+     * Create a histogram with a maximum relative error of "maxError" and
+     * exponential decay with factor "alpha".
+     *
+     * @param maxError the max relative error tolerance
+     * @param alpha the exponential decay factor
+     */
+    public LogLinearHistogram(double maxError, double alpha)
+    {
+        this(maxError, alpha, alpha == 0.0 ? noOpTicker() : Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    LogLinearHistogram(double maxError, double alpha, Ticker ticker)
+    {
+        this(precisionBits(maxError), alpha, ticker, TimeUnit.NANOSECONDS.toSeconds(ticker.read()));
+    }
+
+    public LogLinearHistogram(LogLinearHistogram other)
+    {
+        this(other.precisionBits, other.alpha, other.ticker, other.landmarkInSeconds);
+        counts = other.counts.clone();
+        offset = other.offset;
+        weightedCount = other.weightedCount;
+        min = other.min;
+        max = other.max;
+    }
+
+    public LogLinearHistogram(Slice serialized)
+    {
+        SliceInput input = new BasicSliceInput(serialized);
+
+        byte format = input.readByte();
+        checkArgument(format == FORMAT, "Invalid format");
+        precisionBits = input.readByte();
+        checkArgument(precisionBits > 0 && precisionBits <= MAX_PRECISION_BITS, "Invalid precision");
+        alpha = input.readDouble();
+        ticker = alpha == 0.0 ? noOpTicker() : Ticker.systemTicker();
+        landmarkInSeconds = input.readLong();
+        min = input.readLong();
+        max = input.readLong();
+
+        int bucketCount = input.readInt();
+        checkArgument(bucketCount >= 0 && bucketCount <= maxIndex() * 2 + 2, "Too many buckets. Possible corruption");
+        for (int i = 0; i < bucketCount; i++) {
+            int index = input.readInt();
+            double count = input.readDouble();
+            checkArgument(index >= -maxIndex() - 1 && index <= maxIndex(), "Bucket index out of range. Possible corruption");
+            ensureCapacity(index);
+            counts[index - offset] += count;
+            weightedCount += count;
+        }
+    }
+
+    private LogLinearHistogram(int precisionBits, double alpha, Ticker ticker, long landmarkInSeconds)
+    {
+        checkArgument(alpha >= 0 && alpha < 1, "alpha must be in range [0, 1)");
+        this.precisionBits = precisionBits;
+        this.alpha = alpha;
+        this.ticker = ticker;
+        this.landmarkInSeconds = landmarkInSeconds;
+    }
+
+    @Override
+    public void add(long value)
+    {
+        add(value, 1);
+    }
+
+    @Override
+    public void add(long value, long count)
+    {
+        if (alpha > 0.0) {
+            add(value, count, TimeUnit.NANOSECONDS.toSeconds(ticker.read()));
+        }
+        else {
+            add(value, count, landmarkInSeconds);
+        }
+    }
+
+    @Override
+    public void add(long value, long count, long timestampInSeconds)
+    {
+        checkArgument(count > 0, "count must be > 0");
+
+        double weight = count;
+        if (alpha > 0.0) {
+            if (timestampInSeconds - landmarkInSeconds >= QuantileDigest.RESCALE_THRESHOLD_SECONDS) {
+                rescale(timestampInSeconds);
+            }
+            weight = weight(timestampInSeconds) * count;
+        }
+
+        max = Math.max(max, value);
+        min = Math.min(min, value);
+
+        int index = indexOf(value);
+        ensureCapacity(index);
+        counts[index - offset] += weight;
+        weightedCount += weight;
+    }
+
+    public void merge(LogLinearHistogram other)
+    {
+        checkArgument(precisionBits == other.precisionBits, "Cannot merge histograms with different precision");
+        checkArgument(alpha == other.alpha, "Cannot merge histograms with different alpha");
+
+        double otherScale = 1.0;
+        if (alpha > 0.0) {
+            long nowInSeconds = TimeUnit.NANOSECONDS.toSeconds(ticker.read());
+            long targetLandmark = Math.max(landmarkInSeconds, other.landmarkInSeconds);
+            if (nowInSeconds - targetLandmark >= QuantileDigest.RESCALE_THRESHOLD_SECONDS) {
+                targetLandmark = nowInSeconds;
+            }
+            if (targetLandmark != landmarkInSeconds) {
+                rescale(targetLandmark);
+            }
+            otherScale = Math.exp(-alpha * (targetLandmark - other.landmarkInSeconds));
+        }
+
+        for (int i = 0; i < other.counts.length; i++) {
+            double count = other.counts[i];
+            if (count > 0) {
+                int index = other.offset + i;
+                ensureCapacity(index);
+                counts[index - offset] += count * otherScale;
+                weightedCount += count * otherScale;
+            }
+        }
+
+        max = Math.max(max, other.max);
+        min = Math.min(min, other.min);
+    }
+
+    /**
+     * Gets an upper bound on the values at the given quantiles. The input list
+     * of quantile proportions must be sorted in increasing order, and each
+     * value must be in the range [0, 1]
+     */
+    @Override
+    public List<Long> getQuantiles(List<Double> quantiles)
+    {
+        checkArgument(Ordering.natural().isOrdered(quantiles), "quantiles must be sorted in increasing order");
+        for (double quantile : quantiles) {
+            checkArgument(quantile >= 0 && quantile <= 1, "quantile must be between [0,1]");
+        }
+
+        ImmutableList.Builder<Long> builder = ImmutableList.builder();
+        int next = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length && next < quantiles.size(); i++) {
+            sum += counts[i];
+            while (next < quantiles.size() && sum > quantiles.get(next) * weightedCount) {
+                // we know the max value ever seen, so cap the percentile to provide better error
+                // bounds in this case
+                builder.add(Math.min(upperBound(offset + i), max));
+                next++;
+            }
+        }
+
+        // the remaining quantiles correspond to the max known value
+        for (; next < quantiles.size(); next++) {
+            builder.add(max);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Gets the value at the specified quantile, within the maximum relative
+     * error. The quantile must be in the range [0, 1]
+     */
+    @Override
+    public long getQuantile(double quantile)
+    {
+        return getQuantiles(ImmutableList.of(quantile)).get(0);
+    }
+
+    /**
+     * Number (decayed) of elements added to this histogram
+     */
+    @Override
+    public double getCount()
+    {
+        return weightedCount / weight(TimeUnit.NANOSECONDS.toSeconds(ticker.read()));
+    }
+
+    @Override
+    public long getMin()
+    {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] >= QuantileDigest.ZERO_WEIGHT_THRESHOLD) {
+                return Math.max(min, lowerBound(offset + i));
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public long getMax()
+    {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] >= QuantileDigest.ZERO_WEIGHT_THRESHOLD) {
+                return Math.min(max, upperBound(offset + i));
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    /**
+     * The maximum relative error of any value returned for a quantile
+     */
+    @Override
+    public double getConfidenceFactor()
+    {
+        return 1.0 / (1 << precisionBits);
+    }
+
+    /*
+     * Get the exponentially-decayed counts of values in multiple buckets. The
+     * elements in the provided list denote the upper bound each of the buckets
+     * and must be sorted in ascending order.
+     */
+    @Override
+    public List<Bucket> getHistogram(List<Long> bucketUpperBounds)
+    {
+        checkArgument(Ordering.natural().isOrdered(bucketUpperBounds), "buckets must be sorted in increasing order");
+
+        ImmutableList.Builder<Bucket> builder = ImmutableList.builder();
+        double normalizationFactor = weight(TimeUnit.NANOSECONDS.toSeconds(ticker.read()));
+
+        int i = 0;
+        for (long bucketUpperBound : bucketUpperBounds) {
+            double bucketCount = 0;
+            double bucketWeightedSum = 0;
+            while (i < counts.length && upperBound(offset + i) < bucketUpperBound) {
+                long lower = lowerBound(offset + i);
+                long upper = upperBound(offset + i);
+                bucketWeightedSum += (lower + (upper - lower) / 2.0) * counts[i];
+                bucketCount += counts[i];
+                i++;
+            }
+            builder.add(new Bucket(bucketCount / normalizationFactor, bucketWeightedSum / bucketCount));
+        }
+
+        return builder.build();
+    }
+
+    @Override
+    public LogLinearHistogram copy()
+    {
+        return new LogLinearHistogram(this);
+    }
+
+    public int estimatedInMemorySizeInBytes()
+    {
+        return (int) (INSTANCE_SIZE + SizeOf.sizeOf(counts));
+    }
+
+    public int estimatedSerializedSizeInBytes()
+    {
+        return SizeOf.SIZE_OF_BYTE + // format
+                SizeOf.SIZE_OF_BYTE + // precision
+                SizeOf.SIZE_OF_DOUBLE + // alpha
+                SizeOf.SIZE_OF_LONG + // landmarkInSeconds
+                SizeOf.SIZE_OF_LONG + // min
+                SizeOf.SIZE_OF_LONG + // max
+                SizeOf.SIZE_OF_INT + // bucket count
+                getNonEmptyBucketCount() * (SizeOf.SIZE_OF_INT + SizeOf.SIZE_OF_DOUBLE);
+    }
+
+    public Slice serialize()
+    {
+        SliceOutput output = new DynamicSliceOutput(estimatedSerializedSizeInBytes());
+
+        output.writeByte(FORMAT);
+        output.writeByte(precisionBits);
+        output.writeDouble(alpha);
+        output.writeLong(landmarkInSeconds);
+        output.writeLong(min);
+        output.writeLong(max);
+        output.writeInt(getNonEmptyBucketCount());
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                output.writeInt(offset + i);
+                output.writeDouble(counts[i]);
+            }
+        }
+
+        return output.slice();
+    }
+
+    @VisibleForTesting
+    int getNonEmptyBucketCount()
+    {
+        int count = 0;
+        for (double bucketCount : counts) {
+            if (bucketCount > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @VisibleForTesting
+    int indexOf(long value)
+    {
+        if (value < 0) {
+            // mirror negative values so that bucket order follows value order
+            return -1 - indexOfNonNegative(-(value + 1));
+        }
+        return indexOfNonNegative(value);
+    }
+
+    @VisibleForTesting
+    long lowerBound(int index)
+    {
+        if (index < 0) {
+            return -1 - upperBoundNonNegative(-1 - index);
+        }
+        return lowerBoundNonNegative(index);
+    }
+
+    @VisibleForTesting
+    long upperBound(int index)
+    {
+        if (index < 0) {
+            return -1 - lowerBoundNonNegative(-1 - index);
+        }
+        return upperBoundNonNegative(index);
+    }
+
+    private int indexOfNonNegative(long value)
+    {
+        long subBucketCount = 1L << precisionBits;
+        if (value < subBucketCount) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - precisionBits;
+        return ((shift + 1) << precisionBits) + (int) ((value >>> shift) - subBucketCount);
+    }
+
+    private long lowerBoundNonNegative(int index)
+    {
+        long subBucketCount = 1L << precisionBits;
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = (index >>> precisionBits) - 1;
+        long subBucket = index & (subBucketCount - 1);
+        return (subBucketCount + subBucket) << shift;
+    }
+
+    private long upperBoundNonNegative(int index)
+    {
+        long subBucketCount = 1L << precisionBits;
+        if (index < subBucketCount) {
+            return index;
+        }
+        int shift = (index >>> precisionBits) - 1;
+        return lowerBoundNonNegative(index) + (1L << shift) - 1;
+    }
+
+    private int maxIndex()
+    {
+        return indexOfNonNegative(Long.MAX_VALUE);
+    }
+
+    private void ensureCapacity(int index)
+    {
+        if (counts.length == 0) {
+            counts = new double[1 << 4];
+            offset = index;
+            return;
+        }
+        if (index >= offset && index < offset + counts.length) {
+            return;
+        }
+
+        int newLow = Math.min(offset, index);
+        int newHigh = Math.max(offset + counts.length, index + 1);
+        // leave room to grow in the direction of the new index
+        int newLength = Math.max(newHigh - newLow, counts.length * 2);
+        if (index < offset) {
+            newLow = Math.max(newHigh - newLength, -maxIndex() - 1);
+        }
+        newLength = Math.min(newLength, maxIndex() + 1 - newLow);
+
+        double[] newCounts = new double[newLength];
+        System.arraycopy(counts, 0, newCounts, offset - newLow, counts.length);
+        counts = newCounts;
+        offset = newLow;
+    }
+
+    private double weight(long timestamp)
+    {
+        return Math.exp(alpha * (timestamp - landmarkInSeconds));
+    }
+
+    private void rescale(long newLandmarkInSeconds)
+    {
+        // rescale the weights based on a new landmark to avoid numerical overflow issues
+        double factor = Math.exp(-alpha * (newLandmarkInSeconds - landmarkInSeconds));
+        weightedCount *= factor;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] *= factor;
+        }
+        landmarkInSeconds = newLandmarkInSeconds;
+    }
+
+    private static int precisionBits(double maxError)
+    {
+        checkArgument(maxError > 0 && maxError < 1, "maxError must be in range (0, 1)");
+        int bits = (int) Math.ceil(Math.log(1 / maxError) / Math.log(2));
+        return Math.min(Math.max(bits, 1), MAX_PRECISION_BITS);
+    }
+
+    private static Ticker noOpTicker()
+    {
+        return new Ticker()
+        {
+            @Override
+            public long read()
+            {
+                return 0;
+            }
+        };
+    }
+}
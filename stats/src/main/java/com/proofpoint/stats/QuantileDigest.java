@@ -55,6 +55,7 @@ import static java.lang.String.format;
  */
 @NotThreadSafe
 public class QuantileDigest
+        implements Digest
 {
     private static final int MAX_BITS = 64;
     private static final int QUANTILE_DIGEST_SIZE = ClassLayout.parseClass(QuantileDigest.class).instanceSize();
@@ -258,19 +259,33 @@ public class QuantileDigest
      * Adds a value to this digest. The value must be {@code >= 0}
      */
     public void add(long value, long count)
+    {
+        if (alpha > 0.0) {
+            add(value, count, TimeUnit.NANOSECONDS.toSeconds(ticker.read()));
+        }
+        else {
+            add(value, count, landmarkInSeconds);
+        }
+    }
+
+    /**
+     * Adds a value to this digest, weighted as if it had been added at the
+     * given tick of the digest's ticker, in seconds. The value must be {@code >= 0}
+     */
+    @Override
+    public void add(long value, long count, long timestampInSeconds)
     {
         checkArgument(count > 0, "count must be > 0");
 
         boolean needsCompression = false;
         double weight = count;
         if (alpha > 0.0) {
-            long nowInSeconds = TimeUnit.NANOSECONDS.toSeconds(ticker.read());
-            if (nowInSeconds - landmarkInSeconds >= RESCALE_THRESHOLD_SECONDS) {
-                rescale(nowInSeconds);
+            if (timestampInSeconds - landmarkInSeconds >= RESCALE_THRESHOLD_SECONDS) {
+                rescale(timestampInSeconds);
                 needsCompression = true; // rescale affects weights globally, so force compression
             }
 
-            weight = weight(nowInSeconds) * count;
+            weight = weight(timestampInSeconds) * count;
         }
 
         max = Math.max(max, value);
@@ -481,6 +496,8 @@ public class QuantileDigest
             Bucket bucket = new Bucket(bucketCount / normalizationFactor, holder.bucketWeightedSum / bucketCount);
 
             builder.add(bucket);
+            holder.lastSum = holder.sum;
+            holder.bucketWeightedSum = 0;
 
             iterator.next();
         }
@@ -524,6 +541,12 @@ public class QuantileDigest
         return Math.min(max, chosen.get());
    }
 
+    @Override
+    public QuantileDigest copy()
+    {
+        return new QuantileDigest(this);
+    }
+
     public int estimatedInMemorySizeInBytes()
     {
         return (int) (QUANTILE_DIGEST_SIZE +
@@ -19,6 +19,8 @@ import com.google.common.base.Function;
 import com.proofpoint.reporting.Bucketed;
 import com.proofpoint.reporting.Reported;
 
+import java.util.concurrent.atomic.DoubleAdder;
+
 public class SparseCounterStat
     extends Bucketed<SparseCounterStat.Counter>
 {
@@ -34,7 +36,7 @@ public class SparseCounterStat
     private void addInternal(final double count)
     {
         applyToCurrentBucket((Function<Counter, Void>) input -> {
-            input.count += count;
+            input.count.add(count);
             return null;
         });
     }
@@ -47,15 +49,16 @@ public class SparseCounterStat
 
     protected static class Counter
     {
-        private double count = 0;
+        private final DoubleAdder count = new DoubleAdder();
 
         @Reported
         public Double getCount()
         {
-            if (count == 0.0) {
+            double sum = count.sum();
+            if (sum == 0.0) {
                 return null;
             }
-            return count;
+            return sum;
         }
     }
 }
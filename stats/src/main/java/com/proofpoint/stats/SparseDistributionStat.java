@@ -17,6 +17,8 @@ package com.proofpoint.stats;
 
 import com.google.common.base.Function;
 import com.proofpoint.reporting.Bucketed;
+import com.proofpoint.reporting.Histogram;
+import com.proofpoint.reporting.HistogramValue;
 import com.proofpoint.reporting.Reported;
 
 import javax.annotation.concurrent.GuardedBy;
@@ -51,10 +53,21 @@ public class SparseDistributionStat
         @GuardedBy("this")
         private long total = 0;
 
+        @GuardedBy("this")
+        private BucketSnapshot snapshot = null;
+
+        private synchronized BucketSnapshot snapshot()
+        {
+            if (snapshot == null) {
+                snapshot = new BucketSnapshot(digest, total, HistogramBuckets.DEFAULT_BUCKETS, 1);
+            }
+            return snapshot;
+        }
+
         @Reported
-        public synchronized double getCount()
+        public double getCount()
         {
-            double count = digest.getCount();
+            double count = snapshot().getCount();
             if (count == 0.0) {
                 return Double.NaN;
             }
@@ -62,54 +75,63 @@ public class SparseDistributionStat
         }
 
         @Reported
-        public synchronized long getTotal()
+        public long getTotal()
         {
-            if (digest.getCount() == 0.0) {
+            if (snapshot().getCount() == 0.0) {
                 return Long.MIN_VALUE;
             }
-            return total;
+            return snapshot().getTotal();
         }
     
         @Reported
-        public synchronized long getP50()
+        public long getP50()
         {
-            return digest.getQuantile(0.5);
+            return snapshot().getP50();
         }
     
         @Reported
-        public synchronized long getP75()
+        public long getP75()
         {
-            return digest.getQuantile(0.75);
+            return snapshot().getP75();
         }
     
         @Reported
-        public synchronized long getP90()
+        public long getP90()
         {
-            return digest.getQuantile(0.90);
+            return snapshot().getP90();
         }
     
         @Reported
-        public synchronized long getP95()
+        public long getP95()
         {
-            return digest.getQuantile(0.95);
+            return snapshot().getP95();
         }
     
         @Reported
-        public synchronized long getP99()
+        public long getP99()
         {
-            return digest.getQuantile(0.99);
+            return snapshot().getP99();
         }
     
         @Reported
-        public synchronized long getMin()
+        public long getMin()
         {
-            return digest.getMin();
+            return snapshot().getMin();
         }
     
         @Reported
-        public synchronized long getMax()
+        public long getMax()
         {
-            return digest.getMax();
+            return snapshot().getMax();
+        }
+
+        @Histogram
+        public HistogramValue getHistogram()
+        {
+            if (snapshot().getCount() == 0.0) {
+                return null;
+            }
+            return snapshot().getHistogram();
         }
     }
 }
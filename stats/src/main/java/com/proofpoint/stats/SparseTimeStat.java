@@ -18,6 +18,8 @@ package com.proofpoint.stats;
 import com.google.common.base.Function;
 import com.google.common.base.Ticker;
 import com.proofpoint.reporting.Bucketed;
+import com.proofpoint.reporting.Histogram;
+import com.proofpoint.reporting.HistogramValue;
 import com.proofpoint.reporting.Reported;
 import com.proofpoint.units.Duration;
 
@@ -26,12 +28,17 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class SparseTimeStat
     extends Bucketed<SparseTimeStat.Distribution>
 {
     private final Ticker ticker;
+    // exactly one of digestType and arena is set
+    private final DigestType digestType;
+    private final HistogramArena arena;
+    private final HistogramBuckets histogramBuckets;
 
     public SparseTimeStat()
     {
@@ -40,7 +47,47 @@ public class SparseTimeStat
 
     public SparseTimeStat(Ticker ticker)
     {
-        this.ticker = ticker;
+        this(ticker, DigestType.QUANTILE_DIGEST);
+    }
+
+    public SparseTimeStat(DigestType digestType)
+    {
+        this(Ticker.systemTicker(), digestType);
+    }
+
+    public SparseTimeStat(Ticker ticker, DigestType digestType)
+    {
+        this(ticker, digestType, HistogramBuckets.DEFAULT_TIME_BUCKETS);
+    }
+
+    public SparseTimeStat(Ticker ticker, DigestType digestType, HistogramBuckets histogramBuckets)
+    {
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        this.digestType = requireNonNull(digestType, "digestType is null");
+        this.arena = null;
+        this.histogramBuckets = requireNonNull(histogramBuckets, "histogramBuckets is null");
+    }
+
+    /**
+     * Creates a stat whose buckets are stored in fixed-size slots of the given
+     * arena instead of in a digest per bucket.
+     */
+    public SparseTimeStat(HistogramArena arena)
+    {
+        this(Ticker.systemTicker(), arena);
+    }
+
+    public SparseTimeStat(Ticker ticker, HistogramArena arena)
+    {
+        this(ticker, arena, HistogramBuckets.DEFAULT_TIME_BUCKETS);
+    }
+
+    public SparseTimeStat(Ticker ticker, HistogramArena arena, HistogramBuckets histogramBuckets)
+    {
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        this.digestType = null;
+        this.arena = requireNonNull(arena, "arena is null");
+        this.histogramBuckets = requireNonNull(histogramBuckets, "histogramBuckets is null");
     }
 
     public void add(long value, TimeUnit timeUnit)
@@ -61,10 +108,7 @@ public class SparseTimeStat
     private void add(final long value)
     {
         applyToCurrentBucket((Function<Distribution, Void>) input -> {
-            synchronized (input) {
-                input.digest.add(value);
-                input.total += value;
-            }
+            input.add(value);
             return null;
         });
     }
@@ -108,7 +152,18 @@ public class SparseTimeStat
     @Override
     protected final Distribution createBucket(Distribution previousBucket)
     {
-        return new Distribution();
+        if (arena == null) {
+            return new Distribution(digestType, histogramBuckets);
+        }
+        return new Distribution(arena, histogramBuckets);
+    }
+
+    @Override
+    protected final void releaseBucket(Distribution bucket)
+    {
+        if (arena != null) {
+            bucket.close();
+        }
     }
 
     protected static class Distribution
@@ -116,15 +171,86 @@ public class SparseTimeStat
         private static final double MAX_ERROR = 0.01;
 
         @GuardedBy("this")
-        private final QuantileDigest digest = new QuantileDigest(MAX_ERROR);
+        private final Digest digest;
+
+        private final HistogramArena arena;
+
+        private final HistogramBuckets histogramBuckets;
+
+        @GuardedBy("this")
+        private int slot = -1;
 
         @GuardedBy("this")
         private long total = 0;
 
+        @GuardedBy("this")
+        private BucketSnapshot snapshot = null;
+
+        @GuardedBy("this")
+        private boolean closed = false;
+
+        Distribution(DigestType digestType, HistogramBuckets histogramBuckets)
+        {
+            digest = digestType.create(MAX_ERROR, 0.0);
+            arena = null;
+            this.histogramBuckets = histogramBuckets;
+        }
+
+        Distribution(HistogramArena arena, HistogramBuckets histogramBuckets)
+        {
+            digest = null;
+            this.arena = arena;
+            this.histogramBuckets = histogramBuckets;
+        }
+
+        synchronized void add(long value)
+        {
+            if (closed) {
+                // the writer stalled for a whole bucket after it stopped being current
+                return;
+            }
+            if (arena == null) {
+                digest.add(value);
+            }
+            else {
+                if (slot == -1) {
+                    slot = arena.allocate(this);
+                }
+                arena.add(slot, value);
+            }
+            total += value;
+            // a writer that raced with the rotation may add to the previous
+            // bucket after it has been read
+            snapshot = null;
+        }
+
+        synchronized void close()
+        {
+            snapshot();
+            closed = true;
+            if (slot != -1) {
+                arena.free(slot);
+                slot = -1;
+            }
+        }
+
+        private synchronized BucketSnapshot snapshot()
+        {
+            if (snapshot == null) {
+                if (arena == null) {
+                    snapshot = new BucketSnapshot(digest, total, histogramBuckets, BucketSnapshot.NANOSECONDS_PER_SECOND);
+                }
+                else {
+                    snapshot = arena.snapshot(slot, total, histogramBuckets, BucketSnapshot.NANOSECONDS_PER_SECOND);
+                }
+            }
+            return snapshot;
+        }
+
         @Reported
-        public synchronized double getCount()
+        public double getCount()
         {
-            double count = digest.getCount();
+            double count = snapshot().getCount();
             if (count == 0.0) {
                 return Double.NaN;
             }
@@ -132,53 +258,62 @@ public class SparseTimeStat
         }
 
         @Reported
-        public synchronized double getTotal() {
-            if (digest.getCount() == 0.0) {
+        public double getTotal() {
+            if (snapshot().getCount() == 0.0) {
                 return Double.NaN;
             }
-            return convertToSeconds(total);
+            return convertToSeconds(snapshot().getTotal());
         }
     
         @Reported
-        public synchronized double getP50()
+        public double getP50()
         {
-            return convertToSeconds(digest.getQuantile(0.5));
+            return convertToSeconds(snapshot().getP50());
         }
     
         @Reported
-        public synchronized double getP75()
+        public double getP75()
         {
-            return convertToSeconds(digest.getQuantile(0.75));
+            return convertToSeconds(snapshot().getP75());
         }
     
         @Reported
-        public synchronized double getP90()
+        public double getP90()
         {
-            return convertToSeconds(digest.getQuantile(0.90));
+            return convertToSeconds(snapshot().getP90());
         }
     
         @Reported
-        public synchronized double getP95()
+        public double getP95()
         {
-            return convertToSeconds(digest.getQuantile(0.95));
+            return convertToSeconds(snapshot().getP95());
         }
     
         @Reported
-        public synchronized double getP99()
+        public double getP99()
         {
-            return convertToSeconds(digest.getQuantile(0.99));
+            return convertToSeconds(snapshot().getP99());
         }
     
         @Reported
-        public synchronized double getMin()
+        public double getMin()
         {
-            return convertToSeconds(digest.getMin());
+            return convertToSeconds(snapshot().getMin());
         }
     
         @Reported
-        public synchronized double getMax()
+        public double getMax()
         {
-            return convertToSeconds(digest.getMax());
+            return convertToSeconds(snapshot().getMax());
+        }
+
+        @Histogram
+        public HistogramValue getHistogram()
+        {
+            if (snapshot().getCount() == 0.0) {
+                return null;
+            }
+            return snapshot().getHistogram();
         }
 
         private static double convertToSeconds(long nanos)
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.google.common.base.Ticker;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Buffers recorded values in stripes selected by the recording thread, so
+ * concurrent writers to a stat do not contend on the monitors of its
+ * distributions.
+ * <p>
+ * A stripe is drained into the {@link Sink} when it fills, when the writer
+ * observes that the second the buffered values were recorded in has passed,
+ * or when {@link #flush()} is called. Buffered values carry their recording
+ * second, so decayed distributions weight them exactly as if they had been
+ * added directly.
+ * <p>
+ * Readers must call {@link #flush()} before acquiring the monitor of any
+ * distribution the sink writes to.
+ */
+@ThreadSafe
+final class StripedRecorder
+{
+    private static final int STRIPE_COUNT = stripeCount(Runtime.getRuntime().availableProcessors());
+    private static final int BUFFER_SIZE = 32;
+
+    private final Sink sink;
+    private final Ticker ticker;
+    private final AtomicReferenceArray<Stripe> stripes = new AtomicReferenceArray<>(STRIPE_COUNT);
+
+    StripedRecorder(Sink sink)
+    {
+        this(sink, Ticker.systemTicker());
+    }
+
+    StripedRecorder(Sink sink, Ticker ticker)
+    {
+        this.sink = requireNonNull(sink, "sink is null");
+        this.ticker = requireNonNull(ticker, "ticker is null");
+    }
+
+    void add(long value)
+    {
+        long nowInSeconds = TimeUnit.NANOSECONDS.toSeconds(ticker.read());
+        Stripe stripe = getStripe();
+        synchronized (stripe) {
+            if (stripe.size > 0 && stripe.timestampInSeconds != nowInSeconds) {
+                stripe.drainTo(sink);
+            }
+            stripe.timestampInSeconds = nowInSeconds;
+            stripe.values[stripe.size++] = value;
+            if (stripe.size == BUFFER_SIZE) {
+                stripe.drainTo(sink);
+            }
+        }
+    }
+
+    void flush()
+    {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            Stripe stripe = stripes.get(i);
+            if (stripe != null) {
+                synchronized (stripe) {
+                    stripe.drainTo(sink);
+                }
+            }
+        }
+    }
+
+    private Stripe getStripe()
+    {
+        int index = (int) Thread.currentThread().getId() & (STRIPE_COUNT - 1);
+        Stripe stripe = stripes.get(index);
+        if (stripe == null) {
+            stripes.compareAndSet(index, null, new Stripe());
+            stripe = stripes.get(index);
+        }
+        return stripe;
+    }
+
+    private static int stripeCount(int processors)
+    {
+        return Integer.highestOneBit(Math.min(Math.max(processors, 1), 32) * 2 - 1);
+    }
+
+    interface Sink
+    {
+        void add(long[] values, int size, long timestampInSeconds);
+    }
+
+    private static class Stripe
+    {
+        @GuardedBy("this")
+        private final long[] values = new long[BUFFER_SIZE];
+
+        @GuardedBy("this")
+        private int size = 0;
+
+        @GuardedBy("this")
+        private long timestampInSeconds;
+
+        private void drainTo(Sink sink)
+        {
+            if (size > 0) {
+                sink.add(values, size, timestampInSeconds);
+                size = 0;
+            }
+        }
+    }
+}
@@ -2,8 +2,10 @@ package com.proofpoint.stats;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Ticker;
 import org.weakref.jmx.Managed;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
@@ -17,21 +19,46 @@ public class TimeDistribution
     private static final double MAX_ERROR = 0.01;
 
     @GuardedBy("this")
-    private final QuantileDigest digest;
+    private final Digest digest;
 
     @GuardedBy("this")
     private final DecayCounter total;
 
+    @Nullable
+    private final StripedRecorder recorder;
+
     public TimeDistribution()
     {
-        digest = new QuantileDigest(MAX_ERROR);
-        total = new DecayCounter(0);
+        this(0.0, DigestType.QUANTILE_DIGEST, null);
     }
 
     public TimeDistribution(double alpha)
     {
-        digest = new QuantileDigest(MAX_ERROR, alpha);
+        this(alpha, DigestType.QUANTILE_DIGEST, null);
+    }
+
+    public TimeDistribution(DigestType digestType)
+    {
+        this(0.0, digestType, null);
+    }
+
+    public TimeDistribution(double alpha, DigestType digestType)
+    {
+        this(alpha, digestType, null);
+    }
+
+    TimeDistribution(double alpha, DigestType digestType, @Nullable StripedRecorder recorder)
+    {
+        digest = digestType.create(MAX_ERROR, alpha);
         total = new DecayCounter(alpha);
+        this.recorder = recorder;
+    }
+
+    TimeDistribution(double alpha, DigestType digestType, StripedRecorder recorder, Ticker ticker)
+    {
+        digest = digestType.create(MAX_ERROR, alpha, ticker);
+        total = new DecayCounter(alpha, ticker);
+        this.recorder = recorder;
     }
 
     public synchronized void add(long value)
@@ -40,63 +67,102 @@ public class TimeDistribution
         total.add(value);
     }
 
+    synchronized void add(long[] values, int size, long timestampInSeconds)
+    {
+        for (int i = 0; i < size; i++) {
+            digest.add(values[i], 1, timestampInSeconds);
+            total.add(values[i], timestampInSeconds);
+        }
+    }
+
     @Managed
-    public synchronized double getMaxError()
+    public double getMaxError()
     {
-        return digest.getConfidenceFactor();
+        flush();
+        synchronized (this) {
+            return digest.getConfidenceFactor();
+        }
     }
 
     @Managed
-    public synchronized double getCount()
+    public double getCount()
     {
-        return digest.getCount();
+        flush();
+        synchronized (this) {
+            return digest.getCount();
+        }
     }
 
     @Managed
-    public synchronized double getTotal() {
-        return convertToSeconds((long) total.getCount());
+    public double getTotal()
+    {
+        flush();
+        synchronized (this) {
+            return convertToSeconds((long) total.getCount());
+        }
     }
 
     @Managed
-    public synchronized double getP50()
+    public double getP50()
     {
-        return convertToSeconds(digest.getQuantile(0.5));
+        flush();
+        synchronized (this) {
+            return convertToSeconds(digest.getQuantile(0.5));
+        }
     }
 
     @Managed
-    public synchronized double getP75()
+    public double getP75()
     {
-        return convertToSeconds(digest.getQuantile(0.75));
+        flush();
+        synchronized (this) {
+            return convertToSeconds(digest.getQuantile(0.75));
+        }
     }
 
     @Managed
-    public synchronized double getP90()
+    public double getP90()
     {
-        return convertToSeconds(digest.getQuantile(0.90));
+        flush();
+        synchronized (this) {
+            return convertToSeconds(digest.getQuantile(0.90));
+        }
     }
 
     @Managed
-    public synchronized double getP95()
+    public double getP95()
     {
-        return convertToSeconds(digest.getQuantile(0.95));
+        flush();
+        synchronized (this) {
+            return convertToSeconds(digest.getQuantile(0.95));
+        }
     }
 
     @Managed
-    public synchronized double getP99()
+    public double getP99()
     {
-        return convertToSeconds(digest.getQuantile(0.99));
+        flush();
+        synchronized (this) {
+            return convertToSeconds(digest.getQuantile(0.99));
+        }
     }
 
     @Managed
-    public synchronized double getMin()
+    public double getMin()
     {
-        return convertToSeconds(digest.getMin());
+        flush();
+        synchronized (this) {
+            return convertToSeconds(digest.getMin());
+        }
     }
 
     @Managed
-    public synchronized double getMax()
+    public double getMax()
     {
-        return convertToSeconds(digest.getMax());
+        flush();
+        synchronized (this) {
+            return convertToSeconds(digest.getMax());
+        }
     }
 
     @Managed
@@ -108,6 +174,7 @@ public class TimeDistribution
         }
 
         List<Long> values;
+        flush();
         synchronized (this) {
             values = digest.getQuantiles(percentiles);
         }
@@ -120,6 +187,13 @@ public class TimeDistribution
         return result;
     }
 
+    private void flush()
+    {
+        if (recorder != null) {
+            recorder.flush();
+        }
+    }
+
     private static double convertToSeconds(long nanos)
     {
         if (nanos == Long.MAX_VALUE || nanos == Long.MIN_VALUE) {
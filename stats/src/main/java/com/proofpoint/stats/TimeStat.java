@@ -35,7 +35,8 @@ public class TimeStat
     private final TimeDistribution fiveMinutes;
     private final TimeDistribution fifteenMinutes;
     private final TimeDistribution allTime;
-    private final BucketedTimeDistribution bucket = new BucketedTimeDistribution();
+    private final BucketedTimeDistribution bucket;
+    private final StripedRecorder recorder;
     private final Ticker ticker;
 
     public TimeStat()
@@ -44,12 +45,29 @@ public class TimeStat
     }
 
     public TimeStat(Ticker ticker)
+    {
+        this(ticker, DigestType.QUANTILE_DIGEST);
+    }
+
+    public TimeStat(DigestType digestType)
+    {
+        this(Ticker.systemTicker(), digestType);
+    }
+
+    public TimeStat(Ticker ticker, DigestType digestType)
+    {
+        this(ticker, digestType, HistogramBuckets.DEFAULT_TIME_BUCKETS);
+    }
+
+    public TimeStat(Ticker ticker, DigestType digestType, HistogramBuckets histogramBuckets)
     {
         this.ticker = ticker;
-        oneMinute = new TimeDistribution(ExponentialDecay.oneMinute());
-        fiveMinutes = new TimeDistribution(ExponentialDecay.fiveMinutes());
-        fifteenMinutes = new TimeDistribution(ExponentialDecay.fifteenMinutes());
-        allTime = new TimeDistribution();
+        recorder = new StripedRecorder(this::addToDistributions, ticker);
+        bucket = new BucketedTimeDistribution(digestType, histogramBuckets);
+        oneMinute = new TimeDistribution(ExponentialDecay.oneMinute(), digestType, recorder, ticker);
+        fiveMinutes = new TimeDistribution(ExponentialDecay.fiveMinutes(), digestType, recorder, ticker);
+        fifteenMinutes = new TimeDistribution(ExponentialDecay.fifteenMinutes(), digestType, recorder, ticker);
+        allTime = new TimeDistribution(0.0, digestType, recorder, ticker);
     }
 
     public void add(long value, TimeUnit timeUnit)
@@ -69,13 +87,18 @@ public class TimeStat
 
     private void add(long value)
     {
-        oneMinute.add(value);
-        fiveMinutes.add(value);
-        fifteenMinutes.add(value);
-        allTime.add(value);
+        recorder.add(value);
         bucket.add(value);
     }
 
+    private void addToDistributions(long[] values, int size, long timestampInSeconds)
+    {
+        oneMinute.add(values, size, timestampInSeconds);
+        fiveMinutes.add(values, size, timestampInSeconds);
+        fifteenMinutes.add(values, size, timestampInSeconds);
+        allTime.add(values, size, timestampInSeconds);
+    }
+
     public <T> T time(Callable<T> callable)
             throws Exception
     {
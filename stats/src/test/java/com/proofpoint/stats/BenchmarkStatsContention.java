@@ -0,0 +1,270 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.proofpoint.reporting.Bucketed;
+import com.proofpoint.reporting.Bucketed.BucketInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Measures the recording paths of the stats classes under contention, and
+ * the cost of reading their reported values while writers are running.
+ * <p>
+ * The {@code add*} benchmarks only write. The grouped benchmarks run three
+ * writers against one reader on the same stat. {@link #main} runs the suite
+ * once per writer thread count (1, 4, 16 and 64 unless thread counts are
+ * given as arguments) with the GC profiler, and writes a JSON result file
+ * per thread count to {@code target/jmh} to compare against the results
+ * from the previous release.
+ */
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Fork(2)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class BenchmarkStatsContention
+{
+    private static final int[] DEFAULT_THREAD_COUNTS = {1, 4, 16, 64};
+
+    @State(Scope.Benchmark)
+    public static class Stats
+    {
+        private CounterStat counterStat;
+        private TimeStat timeStat;
+        private SparseTimeStat sparseTimeStat;
+        private MaxGauge maxGauge;
+        private DecayCounter decayCounter;
+        private TestingBucketIdProvider bucketIdProvider;
+        private Method getPreviousBucket;
+
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            counterStat = new CounterStat();
+            timeStat = new TimeStat();
+            sparseTimeStat = new SparseTimeStat();
+            maxGauge = new MaxGauge();
+            decayCounter = new DecayCounter(ExponentialDecay.oneMinute());
+
+            // the reporting attributes read the previous bucket directly; the
+            // accessor is not visible from this package
+            getPreviousBucket = Bucketed.class.getDeclaredMethod("getPreviousBucket");
+            getPreviousBucket.setAccessible(true);
+
+            bucketIdProvider = new TestingBucketIdProvider();
+            sparseTimeStat.setBucketIdProvider(bucketIdProvider);
+            maxGauge.setBucketIdProvider(bucketIdProvider);
+
+            // populate the current buckets, which become the previous buckets
+            // the readers report at the start of the first iteration
+            for (int i = 0; i < 1000; i++) {
+                sparseTimeStat.add(nextLatency(), NANOSECONDS);
+                maxGauge.update(i);
+            }
+        }
+
+        /**
+         * Closes the buckets the writers filled during the last iteration, so
+         * each iteration's readers build a fresh snapshot of a populated
+         * previous bucket before reading it.
+         */
+        @Setup(Level.Iteration)
+        public void rotateBuckets()
+        {
+            bucketIdProvider.id++;
+        }
+
+        Object previousBucket(Bucketed<?> bucketed)
+                throws Exception
+        {
+            return ((BucketInfo) getPreviousBucket.invoke(bucketed)).getBucket();
+        }
+    }
+
+    @Benchmark
+    public void addCounterStat(Stats stats)
+    {
+        stats.counterStat.add(1);
+    }
+
+    @Benchmark
+    public void addTimeStat(Stats stats)
+    {
+        stats.timeStat.add(nextLatency(), NANOSECONDS);
+    }
+
+    @Benchmark
+    public void addSparseTimeStat(Stats stats)
+    {
+        stats.sparseTimeStat.add(nextLatency(), NANOSECONDS);
+    }
+
+    @Benchmark
+    public void updateMaxGauge(Stats stats)
+    {
+        stats.maxGauge.update(ThreadLocalRandom.current().nextInt(1000));
+    }
+
+    @Benchmark
+    public void addDecayCounter(Stats stats)
+    {
+        stats.decayCounter.add(1);
+    }
+
+    @Benchmark
+    @Group("counterStat")
+    @GroupThreads(3)
+    public void counterStatWriter(Stats stats)
+    {
+        stats.counterStat.add(1);
+    }
+
+    @Benchmark
+    @Group("counterStat")
+    @GroupThreads(1)
+    public double counterStatReader(Stats stats)
+    {
+        return stats.counterStat.getOneMinute().getCount() + stats.counterStat.getTotalCount();
+    }
+
+    @Benchmark
+    @Group("timeStat")
+    @GroupThreads(3)
+    public void timeStatWriter(Stats stats)
+    {
+        stats.timeStat.add(nextLatency(), NANOSECONDS);
+    }
+
+    @Benchmark
+    @Group("timeStat")
+    @GroupThreads(1)
+    public double timeStatReader(Stats stats)
+    {
+        TimeDistribution oneMinute = stats.timeStat.getOneMinute();
+        return oneMinute.getCount() + oneMinute.getP50() + oneMinute.getP99() + oneMinute.getMax();
+    }
+
+    @Benchmark
+    @Group("sparseTimeStat")
+    @GroupThreads(3)
+    public void sparseTimeStatWriter(Stats stats)
+    {
+        stats.sparseTimeStat.add(nextLatency(), NANOSECONDS);
+    }
+
+    @Benchmark
+    @Group("sparseTimeStat")
+    @GroupThreads(1)
+    public double sparseTimeStatReader(Stats stats)
+            throws Exception
+    {
+        SparseTimeStat.Distribution bucket = (SparseTimeStat.Distribution) stats.previousBucket(stats.sparseTimeStat);
+        return bucket.getCount() + bucket.getP50() + bucket.getP99() + bucket.getMax();
+    }
+
+    @Benchmark
+    @Group("maxGauge")
+    @GroupThreads(3)
+    public void maxGaugeWriter(Stats stats)
+    {
+        stats.maxGauge.update(ThreadLocalRandom.current().nextInt(1000));
+    }
+
+    @Benchmark
+    @Group("maxGauge")
+    @GroupThreads(1)
+    public long maxGaugeReader(Stats stats)
+            throws Exception
+    {
+        return ((MaxGauge.Bucket) stats.previousBucket(stats.maxGauge)).getMax();
+    }
+
+    @Benchmark
+    @Group("decayCounter")
+    @GroupThreads(3)
+    public void decayCounterWriter(Stats stats)
+    {
+        stats.decayCounter.add(1);
+    }
+
+    @Benchmark
+    @Group("decayCounter")
+    @GroupThreads(1)
+    public double decayCounterReader(Stats stats)
+    {
+        return stats.decayCounter.getCount() + stats.decayCounter.getRate();
+    }
+
+    private static long nextLatency()
+    {
+        // roughly log-uniform between 1us and 1s
+        return (long) Math.pow(10, 3 + ThreadLocalRandom.current().nextDouble() * 6);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        int[] threadCounts = DEFAULT_THREAD_COUNTS;
+        if (args.length > 0) {
+            threadCounts = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                threadCounts[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        new File("target/jmh").mkdirs();
+        for (int threads : threadCounts) {
+            // grouped benchmarks round the thread count up to a whole group
+            Options options = new OptionsBuilder()
+                    .verbosity(VerboseMode.NORMAL)
+                    .include(".*" + BenchmarkStatsContention.class.getSimpleName() + ".*")
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result("target/jmh/" + BenchmarkStatsContention.class.getSimpleName() + "-" + threads + "-threads.json")
+                    .build();
+
+            new Runner(options).run();
+        }
+    }
+}
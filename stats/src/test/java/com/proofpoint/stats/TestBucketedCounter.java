@@ -7,6 +7,11 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.testng.Assert.assertEquals;
 
@@ -70,13 +75,61 @@ public class TestBucketedCounter
         assertPreviousCount(counter, 0);
     }
 
+    @Test
+    public void testConcurrentAddsDuringRotation()
+            throws Exception
+    {
+        BucketedCounter counter = new BucketedCounter();
+        counter.setBucketIdProvider(bucketIdProvider);
+        int threads = 4;
+        int valuesPerThread = 100_000;
+
+        List<Counter> buckets = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < valuesPerThread; j++) {
+                        counter.add(1);
+                    }
+                }));
+            }
+            while (!futures.stream().allMatch(Future::isDone)) {
+                ++bucketIdProvider.id;
+                buckets.add(getPreviousBucket(counter));
+                Thread.sleep(1);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        ++bucketIdProvider.id;
+        buckets.add(getPreviousBucket(counter));
+
+        // writers racing a rotation update the bucket that just became the previous bucket
+        double total = 0;
+        for (Counter bucket : buckets) {
+            total += bucket.getCount();
+        }
+        assertEquals(total, (double) threads * valuesPerThread);
+    }
+
     private void assertPreviousCount(BucketedCounter counter, double expected)
             throws Exception
+    {
+        assertEquals(getPreviousBucket(counter).getCount(), expected);
+    }
+
+    private static Counter getPreviousBucket(BucketedCounter counter)
+            throws Exception
     {
         Method method = Bucketed.class.getDeclaredMethod("getPreviousBucket");
         method.setAccessible(true);
         BucketInfo bucketInfo = (BucketInfo) method.invoke(counter);
-        Counter previousBucket = (Counter) bucketInfo.getBucket();
-        assertEquals(previousBucket.getCount(), expected);
+        return (Counter) bucketInfo.getBucket();
     }
 }
@@ -8,6 +8,8 @@ import org.testng.annotations.Test;
 import java.lang.reflect.Method;
 
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 
 public class TestBucketedDistribution
 {
@@ -69,6 +71,27 @@ public class TestBucketedDistribution
         assertPreviousDistributionEmpty(distribution);
     }
 
+    @Test
+    public void testPreviousBucketFrozenUntilRotation()
+            throws Exception
+    {
+        BucketedDistribution distribution = new BucketedDistribution();
+        distribution.setBucketIdProvider(bucketIdProvider);
+        distribution.add(1);
+        ++bucketIdProvider.id;
+        BucketInfo bucketInfo = getPreviousBucket(distribution);
+        assertSame(getPreviousBucket(distribution), bucketInfo);
+        BucketedDistribution.Distribution previousBucket = (BucketedDistribution.Distribution) bucketInfo.getBucket();
+        assertEquals(previousBucket.getP50(), 1);
+        assertEquals(previousBucket.getP99(), 1);
+        distribution.add(5);
+        assertSame(getPreviousBucket(distribution), bucketInfo);
+        assertPreviousDistribution(distribution, 1, 1, 1, 1);
+        ++bucketIdProvider.id;
+        assertNotSame(getPreviousBucket(distribution), bucketInfo);
+        assertPreviousDistribution(distribution, 1, 5, 5, 5);
+    }
+
     private void assertPreviousDistributionEmpty(BucketedDistribution distribution)
             throws Exception
     {
@@ -78,13 +101,19 @@ public class TestBucketedDistribution
     private void assertPreviousDistribution(BucketedDistribution distribution, int expectedCount, long expectedMin, long expectedMax, long expectedTotal)
             throws Exception
     {
-        Method method = Bucketed.class.getDeclaredMethod("getPreviousBucket");
-        method.setAccessible(true);
-        BucketInfo bucketInfo = (BucketInfo) method.invoke(distribution);
+        BucketInfo bucketInfo = getPreviousBucket(distribution);
         BucketedDistribution.Distribution previousBucket = (BucketedDistribution.Distribution) bucketInfo.getBucket();
         assertEquals(previousBucket.getCount(), (double) expectedCount);
         assertEquals(previousBucket.getMin(), expectedMin);
         assertEquals(previousBucket.getMax(), expectedMax);
         assertEquals(previousBucket.getTotal(), expectedTotal);
     }
+
+    private static BucketInfo getPreviousBucket(BucketedDistribution distribution)
+            throws Exception
+    {
+        Method method = Bucketed.class.getDeclaredMethod("getPreviousBucket");
+        method.setAccessible(true);
+        return (BucketInfo) method.invoke(distribution);
+    }
 }
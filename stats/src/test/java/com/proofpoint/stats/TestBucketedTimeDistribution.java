@@ -1,12 +1,15 @@
 package com.proofpoint.stats;
 
+import com.google.common.collect.ImmutableList;
 import com.proofpoint.reporting.Bucketed;
 import com.proofpoint.reporting.Bucketed.BucketInfo;
+import com.proofpoint.reporting.HistogramValue;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.lang.reflect.Method;
 
+import static com.proofpoint.stats.HistogramBuckets.explicitBuckets;
 import static org.testng.Assert.assertEquals;
 
 public class TestBucketedTimeDistribution
@@ -69,6 +72,28 @@ public class TestBucketedTimeDistribution
         assertPreviousDistributionEmpty(distribution);
     }
 
+    @Test
+    public void testHistogram()
+            throws Exception
+    {
+        BucketedTimeDistribution distribution = new BucketedTimeDistribution(DigestType.QUANTILE_DIGEST, explicitBuckets(1_000_000, 2_000_000, 4_000_000));
+        distribution.setBucketIdProvider(bucketIdProvider);
+        distribution.add(1_000_000);
+        distribution.add(2_000_000);
+        distribution.add(3_000_000);
+        distribution.add(5_000_000);
+        ++bucketIdProvider.id;
+
+        Method method = Bucketed.class.getDeclaredMethod("getPreviousBucket");
+        method.setAccessible(true);
+        BucketInfo bucketInfo = (BucketInfo) method.invoke(distribution);
+        HistogramValue histogram = ((BucketedTimeDistribution.Distribution) bucketInfo.getBucket()).getHistogram();
+        assertEquals(histogram.getUpperBounds(), ImmutableList.of(0.001, 0.002, 0.004));
+        assertEquals(histogram.getCumulativeCounts(), ImmutableList.of(1L, 2L, 3L));
+        assertEquals(histogram.getCount(), 4);
+        assertEquals(histogram.getSum(), 0.011, 1e-12);
+    }
+
     private void assertPreviousDistributionEmpty(BucketedTimeDistribution distribution)
             throws Exception
     {
@@ -3,8 +3,15 @@ package com.proofpoint.stats;
 import com.proofpoint.testing.TestingTicker;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 public class TestDecayCounter
@@ -34,4 +41,135 @@ public class TestDecayCounter
         double expected = 2 + 1 / Math.E;
         assertTrue(Math.abs(counter.getCount() - expected) < 1e-9);
     }
+
+    @Test
+    public void testAddsWithinSecondAreWeightedTogether()
+    {
+        TestingTicker ticker = new TestingTicker();
+
+        DecayCounter counter = new DecayCounter(ExponentialDecay.oneMinute(), ticker);
+        counter.add(1);
+        counter.add(2);
+        ticker.elapseTime(30, TimeUnit.SECONDS);
+        counter.add(3);
+        ticker.elapseTime(30, TimeUnit.SECONDS);
+        counter.add(4);
+        ticker.elapseTime(1, TimeUnit.MINUTES);
+
+        double expected = (4 + 3 * Math.exp(-0.5) + 3 / Math.E) / Math.E;
+        assertEquals(counter.getCount(), expected, 1e-9);
+    }
+
+    @Test
+    public void testMergeIncludesPendingValues()
+    {
+        TestingTicker ticker = new TestingTicker();
+
+        DecayCounter counter = new DecayCounter(ExponentialDecay.oneMinute(), ticker);
+        DecayCounter other = new DecayCounter(ExponentialDecay.oneMinute(), ticker);
+        counter.add(1);
+        other.add(2);
+        counter.merge(other);
+
+        assertEquals(counter.getCount(), 3.0, 1e-9);
+        assertEquals(other.getCount(), 2.0, 1e-9);
+    }
+
+    @Test
+    public void testResetDiscardsPendingValues()
+    {
+        TestingTicker ticker = new TestingTicker();
+
+        DecayCounter counter = new DecayCounter(ExponentialDecay.oneMinute(), ticker);
+        counter.add(1);
+        counter.reset();
+        counter.add(2);
+
+        assertEquals(counter.getCount(), 2.0, 1e-9);
+    }
+
+    @Test
+    public void testSmallAddsAfterLargeTotal()
+    {
+        TestingTicker ticker = new TestingTicker();
+
+        DecayCounter counter = new DecayCounter(ExponentialDecay.oneMinute(), ticker);
+        counter.add(1e17);
+        counter.reset();
+        counter.add(1);
+        ticker.elapseTime(1, TimeUnit.SECONDS);
+        counter.add(1);
+
+        assertEquals(counter.getCount(), 1 + Math.exp(-ExponentialDecay.oneMinute()), 1e-9);
+    }
+
+    @Test
+    public void testConcurrentAdds()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        DecayCounter counter = new DecayCounter(ExponentialDecay.oneMinute(), ticker);
+        int threads = 8;
+        int valuesPerThread = 100_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < valuesPerThread; j++) {
+                        counter.add(1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(counter.getCount(), (double) threads * valuesPerThread);
+    }
+
+    @Test
+    public void testConcurrentAddsAcrossSeconds()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        // no decay, so the count is exact
+        DecayCounter counter = new DecayCounter(0, ticker);
+        int threads = 8;
+        int valuesPerThread = 200_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        try {
+            AtomicBoolean adding = new AtomicBoolean(true);
+            Future<?> advancer = executor.submit(() -> {
+                while (adding.get()) {
+                    ticker.elapseTime(1, TimeUnit.SECONDS);
+                    counter.getCount();
+                }
+            });
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < valuesPerThread; j++) {
+                        counter.add(1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            adding.set(false);
+            advancer.get();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(counter.getCount(), (double) threads * valuesPerThread);
+    }
 }
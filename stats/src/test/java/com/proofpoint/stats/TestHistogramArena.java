@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.google.common.collect.ImmutableList;
+import com.proofpoint.reporting.HistogramValue;
+import org.testng.annotations.Test;
+
+import static com.proofpoint.stats.BucketSnapshot.NANOSECONDS_PER_SECOND;
+import static com.proofpoint.stats.HistogramBuckets.DEFAULT_TIME_BUCKETS;
+import static com.proofpoint.stats.HistogramBuckets.explicitBuckets;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestHistogramArena
+{
+    @Test
+    public void testBucketBoundaries()
+    {
+        HistogramArena arena = new HistogramArena(0.01, 1);
+        long previousUpper = -1;
+        for (int index = 0; previousUpper != Long.MAX_VALUE; index++) {
+            long lower = previousUpper + 1;
+            long upper = arena.upperBound(index);
+            assertTrue(lower <= upper, "bucket " + index);
+            assertEquals(arena.bucketIndex(lower), index);
+            assertEquals(arena.bucketIndex(upper), index);
+            if (upper != Long.MAX_VALUE) {
+                assertTrue(upper - lower <= lower * 0.01, "bucket " + index);
+            }
+            previousUpper = upper;
+        }
+    }
+
+    @Test
+    public void testSnapshot()
+    {
+        HistogramArena arena = new HistogramArena(0.01, 1);
+        int slot = arena.allocate(this);
+        long total = 0;
+        for (long value = 1; value <= 1000; value++) {
+            arena.add(slot, value * 1_000_000);
+            total += value * 1_000_000;
+        }
+
+        BucketSnapshot snapshot = arena.snapshot(slot, total, DEFAULT_TIME_BUCKETS, NANOSECONDS_PER_SECOND);
+        assertEquals(snapshot.getCount(), 1000.0);
+        assertEquals(snapshot.getTotal(), total);
+        assertEquals(snapshot.getMin(), 1_000_000);
+        assertEquals(snapshot.getMax(), 1_000_000_000);
+        assertEquals(snapshot.getP50(), 501_000_000, 501_000_000 * 0.01);
+        assertEquals(snapshot.getP90(), 901_000_000, 901_000_000 * 0.01);
+        assertEquals(snapshot.getP99(), 991_000_000, 991_000_000 * 0.01);
+    }
+
+    @Test
+    public void testSnapshotHistogram()
+    {
+        HistogramArena arena = new HistogramArena(0.01, 1);
+        int slot = arena.allocate(this);
+        long total = 0;
+        for (long value = 1; value <= 1000; value++) {
+            arena.add(slot, value * 1_000_000);
+            total += value * 1_000_000;
+        }
+
+        HistogramValue histogram = arena.snapshot(slot, total, explicitBuckets(10_000_000, 100_000_000, 500_000_000), NANOSECONDS_PER_SECOND).getHistogram();
+        assertEquals(histogram.getUpperBounds(), ImmutableList.of(0.01, 0.1, 0.5));
+        assertEquals(histogram.getCumulativeCounts().get(0), 10, 1);
+        assertEquals(histogram.getCumulativeCounts().get(1), 100, 1);
+        assertEquals(histogram.getCumulativeCounts().get(2), 500, 5);
+        assertEquals(histogram.getCount(), 1000);
+        assertEquals(histogram.getSum(), total / NANOSECONDS_PER_SECOND);
+    }
+
+    @Test
+    public void testValuesOutsideRange()
+    {
+        HistogramArena arena = new HistogramArena(0.01, 1);
+        int slot = arena.allocate(this);
+        arena.add(slot, 0);
+        arena.add(slot, Long.MAX_VALUE);
+
+        BucketSnapshot snapshot = arena.snapshot(slot, 0, DEFAULT_TIME_BUCKETS, NANOSECONDS_PER_SECOND);
+        assertEquals(snapshot.getCount(), 2.0);
+        assertEquals(snapshot.getMin(), 0);
+        assertEquals(snapshot.getMax(), Long.MAX_VALUE);
+        assertEquals(snapshot.getP99(), Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testEmptySnapshot()
+    {
+        HistogramArena arena = new HistogramArena(0.01, 1);
+        BucketSnapshot snapshot = arena.snapshot(-1, 0, DEFAULT_TIME_BUCKETS, NANOSECONDS_PER_SECOND);
+        assertEquals(snapshot.getCount(), 0.0);
+        assertEquals(snapshot.getMin(), Long.MAX_VALUE);
+        assertEquals(snapshot.getMax(), Long.MIN_VALUE);
+        assertEquals(snapshot.getP50(), Long.MIN_VALUE);
+    }
+
+    @Test
+    public void testSlotsAreReused()
+    {
+        HistogramArena arena = new HistogramArena(0.01, 2);
+        assertEquals(arena.getAllocatedBytes(), 0);
+
+        int first = arena.allocate(this);
+        arena.add(first, 5);
+        int second = arena.allocate(this);
+        long allocatedBytes = arena.getAllocatedBytes();
+        assertTrue(allocatedBytes > 0);
+        assertEquals(arena.getSlotsInUse(), 2);
+        assertEquals(arena.getSlotCapacity(), 2);
+
+        arena.free(first);
+        assertEquals(arena.getSlotsInUse(), 1);
+        int third = arena.allocate(this);
+        assertEquals(third, first);
+        assertEquals(arena.snapshot(third, 0, DEFAULT_TIME_BUCKETS, NANOSECONDS_PER_SECOND).getCount(), 0.0);
+        assertEquals(arena.getAllocatedBytes(), allocatedBytes);
+
+        arena.allocate(this);
+        assertEquals(arena.getSlotCapacity(), 4);
+        assertEquals(arena.getAllocatedBytes(), 2 * allocatedBytes);
+        arena.free(second);
+    }
+}
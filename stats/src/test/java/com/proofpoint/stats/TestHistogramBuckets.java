@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import static com.proofpoint.stats.HistogramBuckets.exponentialBuckets;
+import static com.proofpoint.stats.HistogramBuckets.explicitBuckets;
+import static org.testng.Assert.assertEquals;
+
+public class TestHistogramBuckets
+{
+    @Test
+    public void testExponentialBuckets()
+    {
+        assertEquals(exponentialBuckets(1_000_000, 2, 4).getUpperBounds(), ImmutableList.of(1_000_000L, 2_000_000L, 4_000_000L, 8_000_000L));
+        assertEquals(exponentialBuckets(10, 2.5, 3).getUpperBounds(), ImmutableList.of(10L, 25L, 63L));
+    }
+
+    @Test
+    public void testDefaultTimeBuckets()
+    {
+        assertEquals(HistogramBuckets.DEFAULT_TIME_BUCKETS.getUpperBounds().get(0), (Long) 1_000_000L);
+        assertEquals(HistogramBuckets.DEFAULT_TIME_BUCKETS.getUpperBounds().get(14), (Long) 16_384_000_000L);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "upperBounds must be strictly increasing")
+    public void testExplicitBucketsNotIncreasing()
+    {
+        explicitBuckets(1, 3, 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "upperBounds must be strictly increasing")
+    public void testExponentialBucketsCollide()
+    {
+        exponentialBuckets(1, 1.1, 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class, expectedExceptionsMessageRegExp = "upperBounds is empty")
+    public void testNoBuckets()
+    {
+        explicitBuckets();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.google.common.collect.ImmutableList;
+import com.proofpoint.stats.QuantileDigest.Bucket;
+import com.proofpoint.testing.TestingTicker;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestLogLinearHistogram
+{
+    private static final double MAX_ERROR = 0.01;
+
+    @Test
+    public void testBucketBoundaries()
+    {
+        LogLinearHistogram histogram = new LogLinearHistogram(MAX_ERROR);
+        long previousUpper = Long.MIN_VALUE;
+        for (int index = histogram.indexOf(Long.MIN_VALUE); index <= histogram.indexOf(Long.MAX_VALUE); index++) {
+            long lower = histogram.lowerBound(index);
+            long upper = histogram.upperBound(index);
+            assertTrue(lower <= upper, "bucket " + index);
+            if (index != histogram.indexOf(Long.MIN_VALUE)) {
+                assertEquals(lower, previousUpper + 1, "bucket " + index);
+            }
+            assertEquals(histogram.indexOf(lower), index);
+            assertEquals(histogram.indexOf(upper), index);
+            previousUpper = upper;
+        }
+        assertEquals(previousUpper, Long.MAX_VALUE);
+        assertEquals(histogram.lowerBound(histogram.indexOf(Long.MIN_VALUE)), Long.MIN_VALUE);
+    }
+
+    @Test
+    public void testRelativeError()
+    {
+        LogLinearHistogram histogram = new LogLinearHistogram(MAX_ERROR);
+        for (long value : ImmutableList.of(0L, 1L, 127L, 128L, 1000L, 123_456_789L, Long.MAX_VALUE / 3)) {
+            int index = histogram.indexOf(value);
+            long width = histogram.upperBound(index) - histogram.lowerBound(index);
+            assertTrue(width <= value * histogram.getConfidenceFactor(), "value " + value);
+        }
+    }
+
+    @Test
+    public void testEmpty()
+    {
+        LogLinearHistogram histogram = new LogLinearHistogram(MAX_ERROR);
+        assertEquals(histogram.getCount(), 0.0);
+        assertEquals(histogram.getMin(), Long.MAX_VALUE);
+        assertEquals(histogram.getMax(), Long.MIN_VALUE);
+        assertEquals(histogram.getQuantile(0.5), Long.MIN_VALUE);
+    }
+
+    @Test
+    public void testQuantiles()
+    {
+        LogLinearHistogram histogram = new LogLinearHistogram(MAX_ERROR);
+        List<Long> values = new ArrayList<>();
+        for (long i = 0; i < 10_000; i++) {
+            values.add(i * 1000);
+        }
+        Collections.shuffle(values, new Random(0));
+        for (long value : values) {
+            histogram.add(value);
+        }
+        Collections.sort(values);
+
+        assertEquals(histogram.getCount(), 10_000.0);
+        assertEquals(histogram.getMin(), 0);
+        assertEquals(histogram.getMax(), 9_999_000);
+
+        List<Double> quantiles = ImmutableList.of(0.0, 0.5, 0.75, 0.9, 0.99, 1.0);
+        List<Long> result = histogram.getQuantiles(quantiles);
+        for (int i = 0; i < quantiles.size(); i++) {
+            long expected = values.get((int) Math.min(quantiles.get(i) * values.size(), values.size() - 1));
+            assertTrue(Math.abs(result.get(i) - expected) <= expected * histogram.getConfidenceFactor() + 1000,
+                    "quantile " + quantiles.get(i) + ": expected " + expected + " but was " + result.get(i));
+        }
+    }
+
+    @Test
+    public void testNegativeValues()
+    {
+        LogLinearHistogram histogram = new LogLinearHistogram(MAX_ERROR);
+        histogram.add(-1000);
+        histogram.add(-1);
+        histogram.add(0);
+        histogram.add(1000);
+
+        assertEquals(histogram.getMin(), -1000);
+        assertEquals(histogram.getMax(), 1000);
+        assertEquals(histogram.getQuantile(0.25), -1);
+        assertEquals(histogram.getQuantile(0.5), 0);
+    }
+
+    @Test
+    public void testMerge()
+    {
+        LogLinearHistogram first = new LogLinearHistogram(MAX_ERROR);
+        LogLinearHistogram second = new LogLinearHistogram(MAX_ERROR);
+        LogLinearHistogram all = new LogLinearHistogram(MAX_ERROR);
+        for (long i = 0; i < 1000; i++) {
+            first.add(i);
+            all.add(i);
+        }
+        for (long i = 1_000_000; i < 1_001_000; i++) {
+            second.add(i);
+            all.add(i);
+        }
+
+        first.merge(second);
+
+        assertEquals(first.getCount(), all.getCount());
+        assertEquals(first.getMin(), all.getMin());
+        assertEquals(first.getMax(), all.getMax());
+        assertEquals(first.getQuantiles(ImmutableList.of(0.1, 0.5, 0.9)), all.getQuantiles(ImmutableList.of(0.1, 0.5, 0.9)));
+    }
+
+    @Test
+    public void testSerialization()
+    {
+        LogLinearHistogram histogram = new LogLinearHistogram(MAX_ERROR);
+        histogram.add(-5);
+        histogram.add(7, 3);
+        histogram.add(123_456_789);
+
+        LogLinearHistogram deserialized = new LogLinearHistogram(histogram.serialize());
+
+        assertEquals(deserialized.getNonEmptyBucketCount(), 3);
+        assertEquals(deserialized.getCount(), histogram.getCount());
+        assertEquals(deserialized.getMin(), histogram.getMin());
+        assertEquals(deserialized.getMax(), histogram.getMax());
+        assertEquals(deserialized.getQuantiles(ImmutableList.of(0.0, 0.5, 1.0)), histogram.getQuantiles(ImmutableList.of(0.0, 0.5, 1.0)));
+        assertEquals(histogram.serialize().length(), histogram.estimatedSerializedSizeInBytes());
+    }
+
+    @Test
+    public void testDecay()
+    {
+        TestingTicker ticker = new TestingTicker();
+        LogLinearHistogram histogram = new LogLinearHistogram(MAX_ERROR, ExponentialDecay.oneMinute(), ticker);
+
+        histogram.add(1);
+        ticker.elapseTime(1, TimeUnit.MINUTES);
+        histogram.add(2);
+
+        assertEquals(histogram.getCount(), 1 + 1 / Math.E, 1e-9);
+
+        // cross the rescale threshold several times
+        ticker.elapseTime(10, TimeUnit.MINUTES);
+        histogram.add(3);
+        assertEquals(histogram.getCount(), 1 + (1 + 1 / Math.E) * Math.exp(-10), 1e-9);
+    }
+
+    @Test
+    public void testHistogram()
+    {
+        LogLinearHistogram histogram = new LogLinearHistogram(MAX_ERROR);
+        for (long i = 0; i < 10; i++) {
+            histogram.add(i);
+        }
+
+        List<Bucket> buckets = histogram.getHistogram(ImmutableList.of(5L, 10L));
+        assertEquals(buckets.get(0).getCount(), 5.0);
+        assertEquals(buckets.get(0).getMean(), 2.0);
+        assertEquals(buckets.get(1).getCount(), 5.0);
+        assertEquals(buckets.get(1).getMean(), 7.0);
+    }
+
+    @Test
+    public void testStatsWithHistogramStorage()
+    {
+        TimeStat stat = new TimeStat(DigestType.LOG_LINEAR_HISTOGRAM);
+        for (int i = 1; i <= 100; i++) {
+            stat.add(i, TimeUnit.MILLISECONDS);
+        }
+
+        TimeDistribution allTime = stat.getAllTime();
+        assertEquals(allTime.getCount(), 100.0);
+        assertEquals(allTime.getMin(), 0.001, 1e-12);
+        assertEquals(allTime.getMax(), 0.1, 1e-12);
+        assertEquals(allTime.getP50(), 0.051, 0.051 * allTime.getMaxError());
+        assertEquals(allTime.getP99(), 0.100, 0.100 * allTime.getMaxError());
+    }
+}
@@ -268,6 +268,9 @@ public class TestQuantileDigest
         assertEquals(digest.getHistogram(asList(10L)), asList(new QuantileDigest.Bucket(10, 4.5)));
         assertEquals(digest.getHistogram(asList(Long.MAX_VALUE)),
                 asList(new QuantileDigest.Bucket(10, 4.5)));
+        assertEquals(digest.getHistogram(asList(20L, 30L)),
+                asList(new QuantileDigest.Bucket(10, 4.5),
+                        new QuantileDigest.Bucket(0, Double.NaN)));
     }
 
     @Test
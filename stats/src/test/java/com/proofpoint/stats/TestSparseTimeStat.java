@@ -1,7 +1,9 @@
 package com.proofpoint.stats;
 
+import com.google.common.collect.ImmutableList;
 import com.proofpoint.reporting.Bucketed;
 import com.proofpoint.reporting.Bucketed.BucketInfo;
+import com.proofpoint.reporting.HistogramValue;
 import com.proofpoint.stats.SparseTimeStat.BlockTimer;
 import com.proofpoint.testing.TestingTicker;
 import com.proofpoint.units.Duration;
@@ -11,10 +13,12 @@ import org.testng.annotations.Test;
 import java.lang.reflect.Method;
 import java.util.concurrent.TimeUnit;
 
+import static com.proofpoint.stats.HistogramBuckets.explicitBuckets;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
 
 public class TestSparseTimeStat
 {
@@ -166,6 +170,118 @@ public class TestSparseTimeStat
         assertPreviousDistributionEmpty(oldStat);
     }
 
+    @Test
+    public void testArenaStorage()
+            throws Exception
+    {
+        HistogramArena arena = new HistogramArena(0.01, 4);
+        SparseTimeStat stat = new SparseTimeStat(arena);
+        stat.setBucketIdProvider(bucketIdProvider);
+        stat.add(1, MILLISECONDS);
+        assertPreviousDistributionEmpty(stat);
+        assertEquals(arena.getSlotsInUse(), 1);
+        ++bucketIdProvider.id;
+        stat.add(new Duration(2, MILLISECONDS));
+        stat.add(3_000_000, NANOSECONDS);
+        assertPreviousDistribution(stat, 1, .001, .001, .001);
+        assertEquals(arena.getSlotsInUse(), 2);
+        ++bucketIdProvider.id;
+        assertPreviousDistribution(stat, 2, .002, .003, .005);
+        assertEquals(arena.getSlotsInUse(), 1);
+        ++bucketIdProvider.id;
+        assertPreviousDistributionEmpty(stat);
+        assertEquals(arena.getSlotsInUse(), 0);
+    }
+
+    @Test
+    public void testArenaWriteRacingRotation()
+            throws Exception
+    {
+        HistogramArena arena = new HistogramArena(0.01, 4);
+        SparseTimeStat stat = new SparseTimeStat(arena);
+        stat.setBucketIdProvider(bucketIdProvider);
+        stat.add(1, MILLISECONDS);
+        ++bucketIdProvider.id;
+        assertPreviousDistribution(stat, 1, .001, .001, .001);
+
+        // a writer that read the current bucket before the rotation adds to it late
+        getPreviousBucket(stat).add(2_000_000);
+        assertPreviousDistribution(stat, 2, .001, .002, .003);
+    }
+
+    @Test
+    public void testArenaDiscardsBuckets()
+            throws Exception
+    {
+        HistogramArena arena = new HistogramArena(0.01, 4);
+        SparseTimeStat distribution = new SparseTimeStat(arena);
+        distribution.add(100, MILLISECONDS);
+        distribution.setBucketIdProvider(bucketIdProvider);
+        distribution.add(1, MILLISECONDS);
+        assertPreviousDistributionEmpty(distribution);
+        ++bucketIdProvider.id;
+        distribution.add(2, MILLISECONDS);
+        distribution.add(3, MILLISECONDS);
+        assertPreviousDistribution(distribution, 1, .001, .001, .001);
+        ++bucketIdProvider.id;
+        ++bucketIdProvider.id;
+        distribution.add(0.1, SECONDS);
+        assertPreviousDistributionEmpty(distribution);
+        ++bucketIdProvider.id;
+        assertPreviousDistribution(distribution, 1, .1, .1, .1);
+        distribution.add(0.2, SECONDS);
+        ++bucketIdProvider.id;
+        ++bucketIdProvider.id;
+        assertPreviousDistributionEmpty(distribution);
+        assertEquals(arena.getSlotsInUse(), 0);
+    }
+
+    @Test
+    public void testHistogram()
+            throws Exception
+    {
+        SparseTimeStat stat = new SparseTimeStat(ticker, DigestType.QUANTILE_DIGEST, explicitBuckets(1_000_000, 2_000_000, 4_000_000));
+        stat.setBucketIdProvider(bucketIdProvider);
+        assertNull(getPreviousBucket(stat).getHistogram());
+        stat.add(1, MILLISECONDS);
+        stat.add(2, MILLISECONDS);
+        stat.add(3, MILLISECONDS);
+        stat.add(5, MILLISECONDS);
+        ++bucketIdProvider.id;
+
+        HistogramValue histogram = getPreviousBucket(stat).getHistogram();
+        assertEquals(histogram.getUpperBounds(), ImmutableList.of(0.001, 0.002, 0.004));
+        assertEquals(histogram.getCumulativeCounts(), ImmutableList.of(1L, 2L, 3L));
+        assertEquals(histogram.getCount(), 4);
+        assertEquals(histogram.getSum(), 0.011, 1e-12);
+    }
+
+    @Test
+    public void testArenaHistogram()
+            throws Exception
+    {
+        SparseTimeStat stat = new SparseTimeStat(ticker, new HistogramArena(0.01, 4), explicitBuckets(1_000_000, 2_000_000, 4_000_000));
+        stat.setBucketIdProvider(bucketIdProvider);
+        assertNull(getPreviousBucket(stat).getHistogram());
+        stat.add(1, MILLISECONDS);
+        stat.add(2, MILLISECONDS);
+        stat.add(3, MILLISECONDS);
+        stat.add(5, MILLISECONDS);
+        ++bucketIdProvider.id;
+
+        HistogramValue histogram = getPreviousBucket(stat).getHistogram();
+        assertEquals(histogram.getCumulativeCounts(), ImmutableList.of(1L, 2L, 3L));
+        assertEquals(histogram.getCount(), 4);
+    }
+
+    private static SparseTimeStat.Distribution getPreviousBucket(SparseTimeStat distribution)
+            throws Exception
+    {
+        Method method = Bucketed.class.getDeclaredMethod("getPreviousBucket");
+        method.setAccessible(true);
+        return (SparseTimeStat.Distribution) ((BucketInfo) method.invoke(distribution)).getBucket();
+    }
+
     private void assertPreviousDistributionEmpty(SparseTimeStat distribution)
             throws Exception
     {
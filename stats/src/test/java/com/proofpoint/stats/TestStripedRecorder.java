@@ -0,0 +1,158 @@
+/*
+ * Copyright 2026 Proofpoint, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.proofpoint.stats;
+
+import com.proofpoint.testing.TestingTicker;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestStripedRecorder
+{
+    private TestingTicker ticker;
+    private List<Long> values;
+    private List<Long> timestamps;
+    private StripedRecorder recorder;
+
+    @BeforeMethod
+    public void setup()
+    {
+        ticker = new TestingTicker();
+        values = new ArrayList<>();
+        timestamps = new ArrayList<>();
+        recorder = new StripedRecorder((buffer, size, timestampInSeconds) -> {
+            for (int i = 0; i < size; i++) {
+                values.add(buffer[i]);
+                timestamps.add(timestampInSeconds);
+            }
+        }, ticker);
+    }
+
+    @Test
+    public void testFlush()
+    {
+        recorder.add(1);
+        recorder.add(2);
+        assertTrue(values.isEmpty());
+
+        recorder.flush();
+        assertEquals(values, list(1, 2));
+
+        recorder.flush();
+        assertEquals(values, list(1, 2));
+    }
+
+    @Test
+    public void testDrainsWhenFull()
+    {
+        for (int i = 0; i < 100; i++) {
+            recorder.add(i);
+        }
+        assertTrue(values.size() >= 96, "drained full buffers");
+
+        recorder.flush();
+        assertEquals(values.size(), 100);
+    }
+
+    @Test
+    public void testKeepsRecordingTime()
+    {
+        ticker.elapseTime(5, TimeUnit.SECONDS);
+        recorder.add(1);
+        ticker.elapseTime(2, TimeUnit.SECONDS);
+        recorder.add(2);
+        assertEquals(values, list(1));
+        ticker.elapseTime(30, TimeUnit.SECONDS);
+        recorder.flush();
+
+        assertEquals(values, list(1, 2));
+        assertEquals(timestamps, list(5, 7));
+    }
+
+    @Test
+    public void testDecayedValuesMatchDirectRecording()
+    {
+        TestingTicker ticker = new TestingTicker();
+        DecayCounter direct = new DecayCounter(ExponentialDecay.oneMinute(), ticker);
+        DecayCounter buffered = new DecayCounter(ExponentialDecay.oneMinute(), ticker);
+        StripedRecorder recorder = new StripedRecorder((buffer, size, timestampInSeconds) -> {
+            for (int i = 0; i < size; i++) {
+                buffered.add(buffer[i], timestampInSeconds);
+            }
+        }, ticker);
+
+        for (int i = 0; i < 10; i++) {
+            direct.add(i);
+            recorder.add(i);
+            ticker.elapseTime(10, TimeUnit.SECONDS);
+        }
+        recorder.flush();
+
+        assertEquals(buffered.getCount(), direct.getCount(), 1e-9);
+    }
+
+    @Test
+    public void testConcurrentWriters()
+            throws Exception
+    {
+        TimeStat stat = new TimeStat(ticker);
+        int threads = 8;
+        int valuesPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int j = 0; j < valuesPerThread; j++) {
+                        stat.add(j, TimeUnit.MILLISECONDS);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(stat.getAllTime().getCount(), (double) threads * valuesPerThread);
+        assertEquals(stat.getOneMinute().getCount(), (double) threads * valuesPerThread);
+    }
+
+    private static List<Long> list(long... values)
+    {
+        List<Long> list = new ArrayList<>();
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -22,7 +22,7 @@ import static com.proofpoint.reporting.BucketIdProvider.BucketId.bucketId;
 class TestingBucketIdProvider
     implements BucketIdProvider
 {
-    public int id = 0;
+    public volatile int id = 0;
 
     @Override
     public BucketId get()